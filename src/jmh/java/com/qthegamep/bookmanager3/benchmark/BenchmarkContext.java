@@ -0,0 +1,124 @@
+package com.qthegamep.bookmanager3.benchmark;
+
+import com.qthegamep.bookmanager3.config.AppConfig;
+import com.qthegamep.bookmanager3.entity.Book;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is an utility helper class that is responsible for creating application context of benchmarks and
+ * populating the database. Context is created from {@link com.qthegamep.bookmanager3.config.AppConfig}, so
+ * benchmarks use the same pool, batching and second level cache settings as the application, but the database
+ * is the in-memory H2 database without P6Spy and the schema is created by hibernate.
+ * Book entities of the dataset have ids from 1 to the dataset size, unique names, one of
+ * {@link #NUMBER_OF_AUTHORS} authors, one of {@link #NUMBER_OF_PRINT_YEARS} print years and every second
+ * of them is read.
+ */
+@UtilityClass
+public class BenchmarkContext {
+
+    public static final int NUMBER_OF_AUTHORS = 1000;
+    public static final int NUMBER_OF_PRINT_YEARS = 120;
+    public static final int FIRST_PRINT_YEAR = 1900;
+
+    private static final String BOOK_NAME_PREFIX = "benchmark book ";
+    private static final String BOOK_AUTHOR_PREFIX = "benchmark author ";
+
+    /**
+     * This method creates application context with the empty in-memory database.
+     *
+     * @return application context.
+     */
+    public ConfigurableApplicationContext create() {
+        return create(Map.of());
+    }
+
+    /**
+     * This method creates application context with the empty in-memory database and own properties.
+     *
+     * @param properties are the properties that override properties of the application.
+     * @return application context.
+     */
+    public ConfigurableApplicationContext create(Map<String, Object> properties) {
+        val context = new AnnotationConfigApplicationContext();
+        val propertySources = context.getEnvironment().getPropertySources();
+
+        propertySources.addFirst(new MapPropertySource("benchmark", Map.of(
+                "db.driverClassName", "org.h2.Driver",
+                "db.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "hibernate.hbm2ddl.auto", "create-drop"
+        )));
+        propertySources.addFirst(new MapPropertySource("benchmarkParameters", properties));
+
+        context.register(AppConfig.class);
+        context.refresh();
+
+        return context;
+    }
+
+    /**
+     * This method inserts book entities of the dataset with one statement and moves the id sequence after them.
+     *
+     * @param context     is the application context.
+     * @param datasetSize is the number of entities.
+     */
+    public void populate(ConfigurableApplicationContext context, int datasetSize) {
+        val jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+
+        jdbcTemplate.update("INSERT INTO BOOK (ID, NAME, AUTHOR, PRINT_YEAR, IS_READ) " +
+                        "SELECT X, CONCAT(?, X), CONCAT(?, MOD(X, ?)), ? + MOD(X, ?), MOD(X, 2) = 0 " +
+                        "FROM SYSTEM_RANGE(1, ?)",
+                BOOK_NAME_PREFIX, BOOK_AUTHOR_PREFIX, NUMBER_OF_AUTHORS, FIRST_PRINT_YEAR, NUMBER_OF_PRINT_YEARS,
+                datasetSize);
+        jdbcTemplate.execute("ALTER SEQUENCE BOOK_ID_SEQUENCE RESTART WITH " + (datasetSize + 1));
+    }
+
+    /**
+     * This method creates new book entities that are not saved yet.
+     *
+     * @param size is the number of entities.
+     * @return list of new entities.
+     */
+    public List<Book> createBooks(int size) {
+        val books = new ArrayList<Book>(size);
+
+        for (int i = 0; i < size; i++) {
+            val book = new Book();
+
+            book.setName(BOOK_NAME_PREFIX + "new " + i);
+            book.setAuthor(BOOK_AUTHOR_PREFIX + "new");
+            book.setPrintYear(FIRST_PRINT_YEAR);
+            book.setRead(false);
+
+            books.add(book);
+        }
+
+        return books;
+    }
+
+    /**
+     * @param index is the index of the book entity of the dataset.
+     * @return name of the book entity.
+     */
+    public String getName(long index) {
+        return BOOK_NAME_PREFIX + index;
+    }
+
+    /**
+     * @param index is the index of the author.
+     * @return name of the author.
+     */
+    public String getAuthor(int index) {
+        return BOOK_AUTHOR_PREFIX + index;
+    }
+}
@@ -0,0 +1,176 @@
+package com.qthegamep.bookmanager3.benchmark;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.repository.BookRepository;
+import com.qthegamep.bookmanager3.service.BookService;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a benchmark of book service operations against the embedded H2 database.
+ * The database is populated with the dataset size of book entities once per trial. Batch operations are measured
+ * with the batch size of entities that are prepared before every invocation and are not included into the time.
+ * Finders are called with random parameters, see {@link BenchmarkContext} for the distribution of the dataset.
+ * Default parameters are small enough to run everything in minutes. Larger datasets are measured by overriding
+ * parameters, for example: -Dexec-plugin.jmhArgs="BookServiceBenchmark.getBy -p datasetSize=1000000,10000000
+ * -jvmArgsAppend -Xmx8g -prof gc". Note that getByRead returns a half of the dataset.
+ * Run it with the activate-jmh profile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class BookServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        @Param({"10000", "1000000"})
+        private int datasetSize;
+
+        private ConfigurableApplicationContext context;
+        private BookService bookService;
+        private BookRepository bookRepository;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = BenchmarkContext.create();
+            bookService = context.getBean(BookService.class);
+            bookRepository = context.getBean(BookRepository.class);
+
+            BenchmarkContext.populate(context, datasetSize);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        private long randomId() {
+            return ThreadLocalRandom.current().nextLong(1, datasetSize + 1L);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class NewBooks {
+
+        @Param({"1", "100", "1000"})
+        private int batchSize;
+
+        private List<Book> books;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            books = BenchmarkContext.createBooks(batchSize);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ExistingBooks {
+
+        @Param({"1", "100", "1000"})
+        private int batchSize;
+
+        private List<Book> books;
+
+        @Setup(Level.Invocation)
+        public void setUp(Database database) {
+            val firstId = ThreadLocalRandom.current().nextLong(1, Math.max(database.datasetSize - batchSize, 1) + 1L);
+            val ids = new ArrayList<Long>(batchSize);
+
+            for (long id = firstId; id < firstId + batchSize; id++) {
+                ids.add(id);
+            }
+
+            books = database.bookRepository.findAllById(ids);
+
+            for (val book : books) {
+                book.setRead(!book.isRead());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SavedBooks {
+
+        @Param({"1", "100", "1000"})
+        private int batchSize;
+
+        private List<Book> books;
+
+        @Setup(Level.Invocation)
+        public void setUp(Database database) {
+            books = database.bookService.addAll(BenchmarkContext.createBooks(batchSize));
+        }
+    }
+
+    @Benchmark
+    public Book add(Database database) {
+        return database.bookService.add(BenchmarkContext.createBooks(1).get(0));
+    }
+
+    @Benchmark
+    public List<Book> addAll(Database database, NewBooks newBooks) {
+        return database.bookService.addAll(newBooks.books);
+    }
+
+    @Benchmark
+    public Book getById(Database database) {
+        return database.bookService.getById(database.randomId());
+    }
+
+    @Benchmark
+    public List<Book> getByName(Database database) {
+        return database.bookService.getByName(BenchmarkContext.getName(database.randomId()));
+    }
+
+    @Benchmark
+    public List<Book> getByAuthor(Database database) {
+        val author = ThreadLocalRandom.current().nextInt(BenchmarkContext.NUMBER_OF_AUTHORS);
+
+        return database.bookService.getByAuthor(BenchmarkContext.getAuthor(author));
+    }
+
+    @Benchmark
+    public List<Book> getByPrintYear(Database database) {
+        val printYear = BenchmarkContext.FIRST_PRINT_YEAR
+                + ThreadLocalRandom.current().nextInt(BenchmarkContext.NUMBER_OF_PRINT_YEARS);
+
+        return database.bookService.getByPrintYear(printYear);
+    }
+
+    @Benchmark
+    public List<Book> getByRead(Database database) {
+        return database.bookService.getByRead(ThreadLocalRandom.current().nextBoolean());
+    }
+
+    @Benchmark
+    public List<Book> updateAll(Database database, ExistingBooks existingBooks) {
+        return database.bookService.updateAll(existingBooks.books);
+    }
+
+    @Benchmark
+    public void removeAll(Database database, SavedBooks savedBooks) {
+        database.bookService.removeAll(savedBooks.books);
+    }
+}
@@ -0,0 +1,92 @@
+package com.qthegamep.bookmanager3.benchmark;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.service.BookService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a throughput comparison of insert modes of the book service addAll operation, see
+ * {@link com.qthegamep.bookmanager3.repository.BookInsertMode}. The embedded H2 database is started in the
+ * compatibility mode of each supported database. The COPY mode is not measured, because it is supported only by
+ * the PostgreSQL driver. Entities of the batch size are prepared before every invocation and the table is
+ * truncated after every iteration.
+ * Run it with the activate-jmh profile, for example: -Dexec-plugin.jmhArgs="BulkInsertBenchmark -p batchSize=10000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class BulkInsertBenchmark {
+
+    @Param({"Regular", "PostgreSQL", "MySQL", "Oracle"})
+    private String compatibilityMode;
+
+    @Param({"JPA", "MULTI_ROW_VALUES", "JDBC_BATCH"})
+    private String insertMode;
+
+    @Param({"1000"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private JdbcTemplate jdbcTemplate;
+
+    @State(Scope.Thread)
+    public static class NewBooks {
+
+        private List<Book> books;
+
+        @Setup(Level.Invocation)
+        public void setUp(BulkInsertBenchmark benchmark) {
+            books = BenchmarkContext.createBooks(benchmark.batchSize);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.create(Map.of(
+                "db.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;MODE=" + compatibilityMode,
+                "db.bulkInsert.mode", insertMode,
+                "db.bulkInsert.batchSize", String.valueOf(batchSize)
+        ));
+        bookService = context.getBean(BookService.class);
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE BOOK");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Book> addAll(NewBooks newBooks) {
+        return bookService.addAll(newBooks.books);
+    }
+}
@@ -0,0 +1,59 @@
+package com.qthegamep.bookmanager3.benchmark;
+
+import com.qthegamep.bookmanager3.formatter.SQLSimpleFormatter;
+
+import org.hibernate.engine.jdbc.internal.BasicFormatterImpl;
+import org.hibernate.engine.jdbc.internal.Formatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a benchmark that compares the cost of formatting of one P6Spy statement message:
+ * formatting of every query with values by the hibernate formatter and String.format against
+ * the formatter that caches formatted prepared queries. Allocations are reported by the GC profiler
+ * in the gc.alloc.rate.norm column.
+ * Run it with the activate-jmh profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SQLSimpleFormatterBenchmark {
+
+    private static final Formatter HIBERNATE_SQL_FORMATTER = new BasicFormatterImpl();
+
+    private static final String PREPARED = "/* insert com.qthegamep.bookmanager3.entity.Book */ " +
+            "insert into BOOK (AUTHOR, IS_READ, NAME, PRINT_YEAR, ID) values (?, ?, ?, ?, ?)";
+    private static final String SQL = "/* insert com.qthegamep.bookmanager3.entity.Book */ " +
+            "insert into BOOK (AUTHOR, IS_READ, NAME, PRINT_YEAR, ID) " +
+            "values ('benchmark author', true, 'benchmark book', 2010, 42)";
+
+    private SQLSimpleFormatter sqlSimpleFormatter;
+
+    @Setup
+    public void setUp() {
+        sqlSimpleFormatter = new SQLSimpleFormatter();
+    }
+
+    @Benchmark
+    public String formatEveryQuery() {
+        return String.format("P6Spy - Hibernate: %s %s {elapsed: %dms}", "", HIBERNATE_SQL_FORMATTER.format(SQL), 1L);
+    }
+
+    @Benchmark
+    public String formatCachedPreparedQuery() {
+        return sqlSimpleFormatter.formatMessage(0, "", 1L, "statement", PREPARED, SQL, "");
+    }
+}
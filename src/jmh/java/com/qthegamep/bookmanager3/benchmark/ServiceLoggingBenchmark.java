@@ -0,0 +1,71 @@
+package com.qthegamep.bookmanager3.benchmark;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.logging.LogSummary;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a benchmark that compares the cost of the message that is built by the logger when
+ * list of book entities is logged at INFO level: the full dump of all entities against the summary
+ * with the number of entities and the range of their ids. Allocations are reported by the GC profiler
+ * in the gc.alloc.rate.norm column.
+ * Run it with the activate-jmh profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceLoggingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int size;
+
+    private List<Book> books;
+
+    @Setup
+    public void setUp() {
+        books = new ArrayList<>(size);
+
+        for (int i = 1; i <= size; i++) {
+            val book = new Book();
+
+            book.setId((long) i);
+            book.setName("benchmark book " + i);
+            book.setAuthor("benchmark author");
+            book.setPrintYear(2000 + i % 20);
+            book.setRead(i % 2 == 0);
+
+            books.add(book);
+        }
+    }
+
+    @Benchmark
+    public String fullDump() {
+        return MessageFormatter.format("Entities: {} was gotten from the database", books).getMessage();
+    }
+
+    @Benchmark
+    public String summary() {
+        return MessageFormatter.format("Entities: {} was gotten from the database in {} ms",
+                LogSummary.ofBooks(books), 0L).getMessage();
+    }
+}
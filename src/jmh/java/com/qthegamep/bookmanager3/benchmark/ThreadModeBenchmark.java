@@ -0,0 +1,107 @@
+package com.qthegamep.bookmanager3.benchmark;
+
+import com.qthegamep.bookmanager3.concurrent.ThreadFactories;
+import com.qthegamep.bookmanager3.service.BookService;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a load test that compares request execution modes. Every invocation performs the number of
+ * concurrent requests, each of them is one finder call of the book service, and waits for all of them.
+ * In the platform mode requests are performed by the fixed pool of platform threads like the pool of the servlet
+ * container, in the virtual mode every request is performed by the new virtual thread. In both modes connections
+ * are limited by {@link com.qthegamep.bookmanager3.pool.ConnectionLimitingDataSource} with the size of the pool.
+ * If the JVM does not support virtual threads then the virtual mode falls back to the platform mode.
+ * Run it with the activate-jmh profile on the JVM that supports virtual threads, for example:
+ * -Dexec-plugin.jmhArgs="ThreadModeBenchmark -p requests=100,10000".
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-benchmark.xml")
+public class ThreadModeBenchmark {
+
+    private static final int DATASET_SIZE = 10000;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"1000"})
+    private int requests;
+
+    @Param({"200"})
+    private int platformThreads;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.create(Map.of("db.pool.limitConcurrency", "true"));
+        bookService = context.getBean(BookService.class);
+        executor = createExecutor();
+
+        BenchmarkContext.populate(context, DATASET_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public void getByName() {
+        val futures = new CompletableFuture<?>[requests];
+
+        for (int i = 0; i < requests; i++) {
+            futures[i] = CompletableFuture.runAsync(() -> bookService.getByName(
+                    BenchmarkContext.getName(ThreadLocalRandom.current().nextLong(1, DATASET_SIZE + 1L))), executor);
+        }
+
+        CompletableFuture.allOf(futures).join();
+    }
+
+    private ExecutorService createExecutor() {
+        if ("virtual".equals(mode)) {
+            val virtualThreadFactory = ThreadFactories.virtual("benchmark-virtual-");
+
+            if (virtualThreadFactory.isPresent()) {
+                return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0L, TimeUnit.MILLISECONDS,
+                        new SynchronousQueue<>(), virtualThreadFactory.get());
+            }
+
+            log.warn("Virtual threads are not supported by the JVM, virtual mode falls back to platform threads");
+        }
+
+        return Executors.newFixedThreadPool(platformThreads, ThreadFactories.platform("benchmark-platform-"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.qthegamep.bookmanager3.concurrent;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is an utility class that is responsible for creating thread factories of named threads.
+ * Virtual threads are created through reflection, so the application is compiled for the old java version
+ * and uses virtual threads only when it runs on the JVM that supports them.
+ */
+@Slf4j
+@UtilityClass
+public class ThreadFactories {
+
+    /**
+     * This method creates factory of daemon platform threads.
+     *
+     * @param prefix is the prefix of names of threads. Numbers of threads are appended to it.
+     *               Should not be null.
+     * @return thread factory.
+     */
+    public ThreadFactory platform(@NonNull String prefix) {
+        val number = new AtomicLong();
+
+        return runnable -> {
+            val thread = new Thread(runnable, prefix + number.incrementAndGet());
+
+            thread.setDaemon(true);
+
+            return thread;
+        };
+    }
+
+    /**
+     * This method creates factory of virtual threads if the JVM supports them.
+     *
+     * @param prefix is the prefix of names of threads. Numbers of threads are appended to it.
+     *               Should not be null.
+     * @return thread factory or empty optional if the JVM does not support virtual threads.
+     */
+    public Optional<ThreadFactory> virtual(@NonNull String prefix) {
+        try {
+            val builderClass = Class.forName("java.lang.Thread$Builder");
+            val builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            val namedBuilder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+
+            return Optional.of((ThreadFactory) builderClass.getMethod("factory").invoke(namedBuilder));
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            log.info("Virtual threads are not supported by the JVM: {}", e.toString());
+
+            return Optional.empty();
+        } catch (InvocationTargetException e) {
+            log.warn("Unable to create factory of virtual threads", e.getCause());
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * This method creates factory of virtual threads if they are enabled and the JVM supports them,
+     * otherwise factory of daemon platform threads.
+     *
+     * @param prefix         is the prefix of names of threads.
+     *                       Should not be null.
+     * @param virtualThreads is the flag that enables virtual threads.
+     * @return thread factory.
+     */
+    public ThreadFactory of(@NonNull String prefix, boolean virtualThreads) {
+        return virtualThreads ? virtual(prefix).orElseGet(() -> platform(prefix)) : platform(prefix);
+    }
+}
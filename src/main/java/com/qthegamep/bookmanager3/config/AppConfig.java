@@ -1,30 +1,77 @@
 package com.qthegamep.bookmanager3.config;
 
+import com.qthegamep.bookmanager3.concurrent.ThreadFactories;
+import com.qthegamep.bookmanager3.exporter.BookExporter;
+import com.qthegamep.bookmanager3.importer.BookImporter;
+import com.qthegamep.bookmanager3.metrics.HibernateStatisticsMetrics;
+import com.qthegamep.bookmanager3.metrics.ServiceMetrics;
+import com.qthegamep.bookmanager3.metrics.ServiceMetricsAspect;
+import com.qthegamep.bookmanager3.metrics.ServiceMetricsRegistry;
+import com.qthegamep.bookmanager3.metrics.StatementMetrics;
+import com.qthegamep.bookmanager3.pool.ConnectionLimitingDataSource;
+import com.qthegamep.bookmanager3.pool.ConnectionPoolMetrics;
+import com.qthegamep.bookmanager3.pool.ReadWriteRoutingDataSource;
+import com.qthegamep.bookmanager3.repository.BookImportChunkRepository;
+import com.qthegamep.bookmanager3.repository.BookRepository;
+import com.qthegamep.bookmanager3.search.BookSearchIndex;
+import com.qthegamep.bookmanager3.search.BookSearchIndexBuilder;
+import com.qthegamep.bookmanager3.service.AsyncBookServiceImpl;
+import com.qthegamep.bookmanager3.service.BookService;
+import com.qthegamep.bookmanager3.shard.ShardedBookRepository;
+import com.qthegamep.bookmanager3.shard.ShardedBookService;
+import com.qthegamep.bookmanager3.shard.ShardsConfiguredCondition;
+import com.qthegamep.bookmanager3.shard.ShardsNotConfiguredCondition;
+
 import lombok.val;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.EnableMBeanExport;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.hibernate.SessionFactory;
 import org.hibernate.jpa.HibernatePersistenceProvider;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jmx.support.RegistrationPolicy;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
+import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is application configuration class that is responsible for creating and setting beans.
+ * Controllers and web configuration are not scanned, they are loaded by the dispatcher servlet context.
  */
 @Configuration
 @EnableTransactionManagement
-@ComponentScan("com.qthegamep.bookmanager3")
+@EnableAspectJAutoProxy
+@EnableMBeanExport(registration = RegistrationPolicy.REPLACE_EXISTING)
+@ComponentScan(value = "com.qthegamep.bookmanager3",
+        excludeFilters = @ComponentScan.Filter({Controller.class, EnableWebMvc.class}))
 @PropertySource("classpath:application.properties")
 @EnableJpaRepositories("com.qthegamep.bookmanager3.repository")
 public class AppConfig {
@@ -33,6 +80,18 @@ public class AppConfig {
     private static final String DB_URL = "db.url";
     private static final String DB_USERNAME = "db.username";
     private static final String DB_PASSWORD = "db.password";
+    private static final String DB_POOL_NAME = "db.pool.name";
+    private static final String DB_POOL_MINIMUM_IDLE = "db.pool.minimumIdle";
+    private static final String DB_POOL_MAXIMUM_POOL_SIZE = "db.pool.maximumPoolSize";
+    private static final String DB_POOL_CONNECTION_TIMEOUT = "db.pool.connectionTimeout";
+    private static final String DB_POOL_IDLE_TIMEOUT = "db.pool.idleTimeout";
+    private static final String DB_POOL_MAX_LIFETIME = "db.pool.maxLifetime";
+    private static final String DB_POOL_VALIDATION_TIMEOUT = "db.pool.validationTimeout";
+    private static final String DB_POOL_WARM_UP = "db.pool.warmUp";
+    private static final String DB_POOL_LIMIT_CONCURRENCY = "db.pool.limitConcurrency";
+    private static final String DB_REPLICA_URLS = "db.replica.urls";
+    private static final String DB_REPLICA_STICKINESS = "db.replica.stickiness";
+    private static final String DB_REPLICA_POOL_NAME_SUFFIX = "Replica";
     private static final String EMF_PERSISTENCE_UNIT_NAME = "emf.persistenceUnitName";
     private static final String EMF_PACKAGES_TO_SCAN = "emf.packagesToScan";
     private static final String HIBERNATE_DIALECT = "hibernate.dialect";
@@ -46,25 +105,116 @@ public class AppConfig {
     private static final String HIBERNATE_ORDER_INSERTS = "hibernate.order_inserts";
     private static final String HIBERNATE_ORDER_UPDATES = "hibernate.order_updates";
     private static final String HIBERNATE_JDBC_BATCH_VERSIONED_DATA = "hibernate.jdbc.batch_versioned_data";
+    private static final String HIBERNATE_CACHE_USE_SECOND_LEVEL_CACHE = "hibernate.cache.use_second_level_cache";
+    private static final String HIBERNATE_CACHE_REGION_FACTORY_CLASS = "hibernate.cache.region.factory_class";
+    private static final String HIBERNATE_JAVAX_CACHE_PROVIDER = "hibernate.javax.cache.provider";
+    private static final String HIBERNATE_JAVAX_CACHE_URI = "hibernate.javax.cache.uri";
+    private static final String HIBERNATE_JAVAX_CACHE_MISSING_CACHE_STRATEGY =
+            "hibernate.javax.cache.missing_cache_strategy";
+    private static final String METRICS_HIBERNATE_SNAPSHOT_INTERVAL = "metrics.hibernate.snapshotInterval";
+    private static final String METRICS_HIBERNATE_LOG_SNAPSHOT = "metrics.hibernate.logSnapshot";
+    private static final String ASYNC_EXECUTOR_POOL_SIZE = "async.executor.poolSize";
+    private static final String ASYNC_EXECUTOR_QUEUE_CAPACITY = "async.executor.queueCapacity";
+    private static final String ASYNC_EXECUTOR_KEEP_ALIVE = "async.executor.keepAlive";
+    private static final String ASYNC_EXECUTOR_VIRTUAL_THREADS = "async.executor.virtualThreads";
+    private static final String ASYNC_TIMEOUT = "async.timeout.";
+    private static final String WEB_VIRTUAL_THREADS = "web.virtualThreads";
+    private static final String ASYNC_TIMEOUT_DEFAULT = "async.timeout.default";
+    private static final String IMPORT_CHUNK_SIZE = "import.chunkSize";
+    private static final String IMPORT_WORKERS = "import.workers";
+    private static final String EXPORT_BUFFER_SIZE = "export.bufferSize";
+    private static final String EXPORT_MAX_PARTS = "export.maxParts";
+    private static final String EXPORT_GZIP = "export.gzip";
+    private static final String EXPORT_MEMORY_MAPPED = "export.memoryMapped";
+    private static final String SEARCH_REBUILD_ON_STARTUP = "search.rebuildOnStartup";
+    private static final String SEARCH_WORKERS = "search.workers";
+    private static final String SHARD_URLS = "shard.urls";
+    private static final String SHARD_VIRTUAL_NODES = "shard.virtualNodes";
+    private static final String SHARD_NAME_SUFFIX = "Shard";
+
+    private final List<LocalContainerEntityManagerFactoryBean> shardEntityManagerFactories = new ArrayList<>();
 
     @Resource
     private Environment env;
 
     /**
-     * Create and setting database source bean.
+     * Create and setting pooled database source bean.
+     * If warm up is enabled then the minimum idle number of connections is opened at startup.
+     * If concurrency limit is enabled then the pool is wrapped into
+     * {@link com.qthegamep.bookmanager3.pool.ConnectionLimitingDataSource} with the maximum pool size of permits
+     * and the connection timeout of the pool as the deadline of both waits. The limit is always enabled when
+     * requests or asynchronous service calls are performed by virtual threads, so they do not compete for
+     * connections inside the pool.
+     * If replica urls are given then every replica gets its own pool with the same settings and pools are wrapped
+     * into {@link com.qthegamep.bookmanager3.pool.ReadWriteRoutingDataSource} that sends read-only transactions
+     * to replicas. Metrics are collected only from the pool of the primary database.
      *
-     * @return {@link javax.sql.DataSource} bean.
+     * @return {@link com.zaxxer.hikari.HikariDataSource} bean,
+     * {@link com.qthegamep.bookmanager3.pool.ConnectionLimitingDataSource} bean of it or
+     * {@link com.qthegamep.bookmanager3.pool.ReadWriteRoutingDataSource} bean of them.
      */
     @Bean
     public DataSource dataSource() {
-        val dataSource = new DriverManagerDataSource();
+        val poolName = env.getRequiredProperty(DB_POOL_NAME);
+        val primaryDataSource = createDataSource(poolName, env.getRequiredProperty(DB_URL), true);
+        val replicaUrls = env.getRequiredProperty(DB_REPLICA_URLS, String[].class);
 
-        dataSource.setDriverClassName(env.getRequiredProperty(DB_DRIVER_CLASS_NAME));
-        dataSource.setUrl(env.getRequiredProperty(DB_URL));
-        dataSource.setUsername(env.getRequiredProperty(DB_USERNAME));
-        dataSource.setPassword(env.getRequiredProperty(DB_PASSWORD));
+        if (replicaUrls.length == 0) {
+            return primaryDataSource;
+        }
 
-        return dataSource;
+        val replicaDataSources = new ArrayList<DataSource>(replicaUrls.length);
+
+        for (int i = 0; i < replicaUrls.length; i++) {
+            replicaDataSources.add(createDataSource(poolName + DB_REPLICA_POOL_NAME_SUFFIX + (i + 1),
+                    replicaUrls[i].trim(), false));
+        }
+
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSources,
+                env.getRequiredProperty(DB_REPLICA_STICKINESS, Long.class));
+    }
+
+    /**
+     * Create connection pool metrics bean. It is exposed through JMX.
+     *
+     * @return {@link com.qthegamep.bookmanager3.pool.ConnectionPoolMetrics} bean.
+     */
+    @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
+    }
+
+    /**
+     * Create statement metrics bean. It is the shared instance into which P6Spy records latencies of statements
+     * and it is exposed through JMX.
+     *
+     * @return {@link com.qthegamep.bookmanager3.metrics.StatementMetrics} bean.
+     */
+    @Bean
+    public StatementMetrics statementMetrics() {
+        return StatementMetrics.getInstance();
+    }
+
+    /**
+     * Create service metrics bean. It is the default registry of service method metrics
+     * and it is exposed through JMX.
+     *
+     * @return {@link com.qthegamep.bookmanager3.metrics.ServiceMetrics} bean.
+     */
+    @Bean
+    public ServiceMetrics serviceMetrics() {
+        return new ServiceMetrics();
+    }
+
+    /**
+     * Create service metrics aspect bean. It records metrics of service methods into all registry beans.
+     *
+     * @param registries are the registries of service method metrics from the spring context.
+     * @return {@link com.qthegamep.bookmanager3.metrics.ServiceMetricsAspect} bean.
+     */
+    @Bean
+    public ServiceMetricsAspect serviceMetricsAspect(List<ServiceMetricsRegistry> registries) {
+        return new ServiceMetricsAspect(registries);
     }
 
     /**
@@ -74,16 +224,205 @@ public class AppConfig {
      */
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
-        val entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        return createEntityManagerFactory(env.getRequiredProperty(EMF_PERSISTENCE_UNIT_NAME), dataSource(),
+                getJpaProperties());
+    }
 
-        entityManagerFactory.setDataSource(dataSource());
-        entityManagerFactory.setPersistenceUnitName(env.getRequiredProperty(EMF_PERSISTENCE_UNIT_NAME));
-        entityManagerFactory.setPersistenceProviderClass(HibernatePersistenceProvider.class);
-        entityManagerFactory.setPackagesToScan(env.getRequiredProperty(EMF_PACKAGES_TO_SCAN));
+    /**
+     * Create hibernate statistics metrics bean of the entity manager factory. It takes snapshots of
+     * the statistics with the configured interval and it is exposed through JMX.
+     *
+     * @return {@link com.qthegamep.bookmanager3.metrics.HibernateStatisticsMetrics} bean.
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public HibernateStatisticsMetrics hibernateStatisticsMetrics() {
+        val sessionFactory = entityManagerFactory().getObject().unwrap(SessionFactory.class);
 
-        entityManagerFactory.setJpaProperties(getJpaProperties());
+        return new HibernateStatisticsMetrics(sessionFactory.getStatistics(),
+                env.getRequiredProperty(METRICS_HIBERNATE_SNAPSHOT_INTERVAL, Long.class),
+                env.getRequiredProperty(METRICS_HIBERNATE_LOG_SNAPSHOT, Boolean.class)
+        );
+    }
 
-        return entityManagerFactory;
+    /**
+     * Create and setting bounded executor of the asynchronous book service. Threads of the executor are
+     * virtual threads if they are enabled and the JVM supports them. Operations that do not fit into the queue
+     * are rejected.
+     *
+     * @return {@link java.util.concurrent.ThreadPoolExecutor} bean.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor asyncBookServiceExecutor() {
+        val poolSize = env.getRequiredProperty(ASYNC_EXECUTOR_POOL_SIZE, Integer.class);
+        val threadFactory = ThreadFactories.of("async-book-service-",
+                env.getRequiredProperty(ASYNC_EXECUTOR_VIRTUAL_THREADS, Boolean.class));
+        val asyncBookServiceExecutor = new ThreadPoolExecutor(poolSize, poolSize,
+                env.getRequiredProperty(ASYNC_EXECUTOR_KEEP_ALIVE, Long.class), TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(env.getRequiredProperty(ASYNC_EXECUTOR_QUEUE_CAPACITY, Integer.class)),
+                threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        asyncBookServiceExecutor.allowCoreThreadTimeOut(true);
+
+        return asyncBookServiceExecutor;
+    }
+
+    /**
+     * Create asynchronous book service bean. Timeout of the read operation is read from the property with the name
+     * of the operation, for example async.timeout.getByName, or from the default timeout property.
+     * Write operations are not timed out.
+     *
+     * @param bookService is the book service from the spring context.
+     * @return {@link com.qthegamep.bookmanager3.service.AsyncBookServiceImpl} bean.
+     */
+    @Bean(destroyMethod = "close")
+    public AsyncBookServiceImpl asyncBookService(BookService bookService) {
+        val defaultTimeout = env.getRequiredProperty(ASYNC_TIMEOUT_DEFAULT, Long.class);
+
+        return new AsyncBookServiceImpl(bookService, asyncBookServiceExecutor(),
+                operation -> env.getProperty(ASYNC_TIMEOUT + operation, Long.class, defaultTimeout));
+    }
+
+    /**
+     * Create importer of book entities from files. Chunks are inserted with JDBC batching that is configured
+     * by jpa properties, books of committed chunks are added to the search index. It is not created when shard
+     * urls are given, because chunks and their books are committed by one transaction of the main database.
+     *
+     * @param bookRepository            is the repository of book entities from the spring context.
+     * @param bookImportChunkRepository is the repository of committed chunks from the spring context.
+     * @return {@link com.qthegamep.bookmanager3.importer.BookImporter} bean.
+     */
+    @Bean
+    @Conditional(ShardsNotConfiguredCondition.class)
+    public BookImporter bookImporter(BookRepository bookRepository,
+                                     BookImportChunkRepository bookImportChunkRepository) {
+        return new BookImporter(bookRepository, bookImportChunkRepository, transactionManager(), bookSearchIndex(),
+                env.getRequiredProperty(IMPORT_CHUNK_SIZE, Integer.class),
+                env.getRequiredProperty(IMPORT_WORKERS, Integer.class)
+        );
+    }
+
+    /**
+     * Create exporter of the book table to files. Rows are fetched by the cursor with the fetch size
+     * of jpa properties. It is not created when shard urls are given, because it reads the main database.
+     *
+     * @return {@link com.qthegamep.bookmanager3.exporter.BookExporter} bean.
+     */
+    @Bean
+    @Conditional(ShardsNotConfiguredCondition.class)
+    public BookExporter bookExporter() {
+        return new BookExporter(dataSource(), transactionManager(),
+                env.getRequiredProperty(EXPORT_BUFFER_SIZE, Integer.class),
+                env.getRequiredProperty(HIBERNATE_JDBC_FETCH_SIZE, Integer.class),
+                env.getRequiredProperty(EXPORT_MAX_PARTS, Integer.class),
+                env.getRequiredProperty(EXPORT_GZIP, Boolean.class),
+                env.getRequiredProperty(EXPORT_MEMORY_MAPPED, Boolean.class)
+        );
+    }
+
+    /**
+     * Create full-text search index of names and authors of book entities. The index is filled from the book
+     * table on startup if it is enabled by the search properties, then it is changed by the book service.
+     * If shard urls are given then the index is filled from shards by the sharded book service instead.
+     *
+     * @return {@link com.qthegamep.bookmanager3.search.BookSearchIndex} bean.
+     */
+    @Bean
+    public BookSearchIndex bookSearchIndex() {
+        val bookSearchIndex = new BookSearchIndex();
+
+        if (env.getRequiredProperty(SEARCH_REBUILD_ON_STARTUP, Boolean.class) && !isSharded()) {
+            bookSearchIndexBuilder().rebuild(bookSearchIndex);
+        }
+
+        return bookSearchIndex;
+    }
+
+    /**
+     * Create builder of the search index from the book table. Rows are fetched by the cursor with the fetch size
+     * of jpa properties. It is not created when shard urls are given, because it reads the main database.
+     *
+     * @return {@link com.qthegamep.bookmanager3.search.BookSearchIndexBuilder} bean.
+     */
+    @Bean
+    @Conditional(ShardsNotConfiguredCondition.class)
+    public BookSearchIndexBuilder bookSearchIndexBuilder() {
+        return new BookSearchIndexBuilder(dataSource(), transactionManager(),
+                env.getRequiredProperty(HIBERNATE_JDBC_FETCH_SIZE, Integer.class),
+                env.getRequiredProperty(SEARCH_WORKERS, Integer.class)
+        );
+    }
+
+    /**
+     * Create repository of book entities that are split between shard databases. It is created only when shard
+     * urls are given. Every shard gets its own pool with the same settings and its own entity manager factory
+     * without the second level cache, because ids of rows of different shards are equal. Pools and entity manager
+     * factories of shards are closed with the context.
+     *
+     * @return {@link com.qthegamep.bookmanager3.shard.ShardedBookRepository} bean.
+     */
+    @Bean(destroyMethod = "close")
+    @Conditional(ShardsConfiguredCondition.class)
+    public ShardedBookRepository shardedBookRepository() {
+        val shardUrls = env.getRequiredProperty(SHARD_URLS, String[].class);
+        val virtualNodes = env.getRequiredProperty(SHARD_VIRTUAL_NODES, Integer.class);
+        val entityManagerFactories = new ArrayList<EntityManagerFactory>(shardUrls.length);
+        val jpaProperties = getJpaProperties();
+
+        jpaProperties.put(HIBERNATE_CACHE_USE_SECOND_LEVEL_CACHE, Boolean.FALSE.toString());
+
+        for (int i = 0; i < shardUrls.length; i++) {
+            val shardName = SHARD_NAME_SUFFIX + (i + 1);
+            val shardEntityManagerFactory = createEntityManagerFactory(
+                    env.getRequiredProperty(EMF_PERSISTENCE_UNIT_NAME) + shardName,
+                    createDataSource(env.getRequiredProperty(DB_POOL_NAME) + shardName, shardUrls[i].trim(), false),
+                    jpaProperties);
+
+            shardEntityManagerFactories.add(shardEntityManagerFactory);
+            shardEntityManagerFactory.afterPropertiesSet();
+            entityManagerFactories.add(shardEntityManagerFactory.getObject());
+        }
+
+        return new ShardedBookRepository(entityManagerFactories, virtualNodes);
+    }
+
+    /**
+     * Create book service over shard databases. It is created only when shard urls are given and replaces
+     * {@link com.qthegamep.bookmanager3.service.BookServiceImpl}, so the controller and the asynchronous book
+     * service work with shards. The search index is filled from shards on startup if it is enabled by the search
+     * properties.
+     *
+     * @return {@link com.qthegamep.bookmanager3.shard.ShardedBookService} bean.
+     */
+    @Bean
+    @Conditional(ShardsConfiguredCondition.class)
+    public BookService shardedBookService() {
+        val shardedBookService = new ShardedBookService(shardedBookRepository(), bookSearchIndex());
+
+        if (env.getRequiredProperty(SEARCH_REBUILD_ON_STARTUP, Boolean.class)) {
+            shardedBookService.rebuildSearchIndex();
+        }
+
+        return shardedBookService;
+    }
+
+    /**
+     * Close entity manager factories and pools of shards.
+     *
+     * @throws Exception when the pool of the shard is not closed.
+     */
+    @PreDestroy
+    public void closeShards() throws Exception {
+        for (val shardEntityManagerFactory : shardEntityManagerFactories) {
+            val shardDataSource = shardEntityManagerFactory.getDataSource();
+
+            shardEntityManagerFactory.destroy();
+
+            if (shardDataSource instanceof AutoCloseable) {
+                ((AutoCloseable) shardDataSource).close();
+            }
+        }
+
+        shardEntityManagerFactories.clear();
     }
 
     /**
@@ -100,6 +439,93 @@ public class AppConfig {
         return transactionManager;
     }
 
+    private boolean isConcurrencyLimited() {
+        return env.getRequiredProperty(DB_POOL_LIMIT_CONCURRENCY, Boolean.class)
+                || env.getRequiredProperty(WEB_VIRTUAL_THREADS, Boolean.class)
+                || env.getRequiredProperty(ASYNC_EXECUTOR_VIRTUAL_THREADS, Boolean.class);
+    }
+
+    private boolean isSharded() {
+        return StringUtils.hasText(env.getProperty(SHARD_URLS));
+    }
+
+    private LocalContainerEntityManagerFactoryBean createEntityManagerFactory(String persistenceUnitName,
+                                                                              DataSource dataSource,
+                                                                              Properties jpaProperties) {
+        val entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setPersistenceUnitName(persistenceUnitName);
+        entityManagerFactory.setPersistenceProviderClass(HibernatePersistenceProvider.class);
+        entityManagerFactory.setPackagesToScan(env.getRequiredProperty(EMF_PACKAGES_TO_SCAN));
+
+        entityManagerFactory.setJpaProperties(jpaProperties);
+
+        return entityManagerFactory;
+    }
+
+    private DataSource createDataSource(String poolName, String url, boolean trackMetrics) {
+        val dataSource = new HikariDataSource();
+
+        dataSource.setDriverClassName(env.getRequiredProperty(DB_DRIVER_CLASS_NAME));
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(env.getRequiredProperty(DB_USERNAME));
+        dataSource.setPassword(env.getRequiredProperty(DB_PASSWORD));
+
+        dataSource.setPoolName(poolName);
+        dataSource.setMinimumIdle(env.getRequiredProperty(DB_POOL_MINIMUM_IDLE, Integer.class));
+        dataSource.setMaximumPoolSize(env.getRequiredProperty(DB_POOL_MAXIMUM_POOL_SIZE, Integer.class));
+        dataSource.setConnectionTimeout(env.getRequiredProperty(DB_POOL_CONNECTION_TIMEOUT, Long.class));
+        dataSource.setIdleTimeout(env.getRequiredProperty(DB_POOL_IDLE_TIMEOUT, Long.class));
+        dataSource.setMaxLifetime(env.getRequiredProperty(DB_POOL_MAX_LIFETIME, Long.class));
+        dataSource.setValidationTimeout(env.getRequiredProperty(DB_POOL_VALIDATION_TIMEOUT, Long.class));
+
+        if (trackMetrics) {
+            dataSource.setMetricsTrackerFactory(connectionPoolMetrics());
+        }
+
+        if (env.getRequiredProperty(DB_POOL_WARM_UP, Boolean.class)) {
+            warmUp(dataSource);
+        }
+
+        if (isConcurrencyLimited()) {
+            return new ConnectionLimitingDataSource(dataSource, dataSource.getMaximumPoolSize(),
+                    dataSource.getConnectionTimeout());
+        }
+
+        return dataSource;
+    }
+
+    private void warmUp(HikariDataSource dataSource) {
+        val connections = new ArrayList<Connection>(dataSource.getMinimumIdle());
+
+        try {
+            for (int i = 0; i < dataSource.getMinimumIdle(); i++) {
+                connections.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            throw new CannotGetJdbcConnectionException("Unable to warm up connection pool", e);
+        } finally {
+            for (val connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // Connection is returned to the pool, nothing to do.
+                }
+            }
+        }
+    }
+
+    private String getCacheConfigUri() {
+        val cacheConfigLocation = env.getRequiredProperty(HIBERNATE_JAVAX_CACHE_URI);
+
+        try {
+            return new DefaultResourceLoader().getResource(cacheConfigLocation).getURI().toString();
+        } catch (IOException e) {
+            throw new BeanInitializationException("Unable to find cache configuration: " + cacheConfigLocation, e);
+        }
+    }
+
     private Properties getJpaProperties() {
         val jpaProperties = new Properties();
 
@@ -116,6 +542,17 @@ public class AppConfig {
         jpaProperties.put(HIBERNATE_JDBC_BATCH_VERSIONED_DATA,
                 env.getRequiredProperty(HIBERNATE_JDBC_BATCH_VERSIONED_DATA)
         );
+        jpaProperties.put(HIBERNATE_CACHE_USE_SECOND_LEVEL_CACHE,
+                env.getRequiredProperty(HIBERNATE_CACHE_USE_SECOND_LEVEL_CACHE)
+        );
+        jpaProperties.put(HIBERNATE_CACHE_REGION_FACTORY_CLASS,
+                env.getRequiredProperty(HIBERNATE_CACHE_REGION_FACTORY_CLASS)
+        );
+        jpaProperties.put(HIBERNATE_JAVAX_CACHE_PROVIDER, env.getRequiredProperty(HIBERNATE_JAVAX_CACHE_PROVIDER));
+        jpaProperties.put(HIBERNATE_JAVAX_CACHE_URI, getCacheConfigUri());
+        jpaProperties.put(HIBERNATE_JAVAX_CACHE_MISSING_CACHE_STRATEGY,
+                env.getRequiredProperty(HIBERNATE_JAVAX_CACHE_MISSING_CACHE_STRATEGY)
+        );
 
         return jpaProperties;
     }
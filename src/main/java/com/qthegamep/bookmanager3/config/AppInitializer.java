@@ -4,7 +4,7 @@ import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatche
 
 /**
  * This class is application initializer class that is responsible for loading application
- * configuration class.
+ * configuration class and web configuration class of the dispatcher servlet that handles all requests.
  */
 public class AppInitializer extends AbstractAnnotationConfigDispatcherServletInitializer {
 
@@ -17,11 +17,15 @@ public class AppInitializer extends AbstractAnnotationConfigDispatcherServletIni
 
     @Override
     protected Class<?>[] getServletConfigClasses() {
-        return new Class<?>[0];
+        return new Class<?>[]{
+                WebConfig.class
+        };
     }
 
     @Override
     protected String[] getServletMappings() {
-        return new String[0];
+        return new String[]{
+                "/"
+        };
     }
 }
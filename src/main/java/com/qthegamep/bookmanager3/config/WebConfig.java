@@ -0,0 +1,104 @@
+package com.qthegamep.bookmanager3.config;
+
+import com.qthegamep.bookmanager3.concurrent.ThreadFactories;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.Resource;
+
+/**
+ * This class is web configuration class of the dispatcher servlet that is responsible for creating controllers
+ * and setting spring mvc. Streaming responses and results of other requests are produced by the bounded pool
+ * of threads, so the number of database cursors that are opened by requests is bounded by the size of the pool,
+ * or by virtual threads if they are enabled by the web.virtualThreads property.
+ */
+@Slf4j
+@Configuration
+@EnableWebMvc
+@ComponentScan("com.qthegamep.bookmanager3.controller")
+@PropertySource("classpath:application.properties")
+public class WebConfig implements WebMvcConfigurer {
+
+    private static final String WEB_STREAMING_POOL_SIZE = "web.streaming.poolSize";
+    private static final String WEB_STREAMING_TIMEOUT = "web.streaming.timeout";
+    private static final String WEB_VIRTUAL_THREADS = "web.virtualThreads";
+    private static final String STREAMING_THREAD_NAME_PREFIX = "book-streaming-";
+
+    @Resource
+    private Environment env;
+
+    /**
+     * Create json object mapper bean. Generators of the mapper do not close the output stream
+     * of the response, it is closed by the servlet container.
+     *
+     * @return {@link com.fasterxml.jackson.databind.ObjectMapper} bean.
+     */
+    @Bean
+    public ObjectMapper objectMapper() {
+        val objectMapper = new ObjectMapper();
+
+        objectMapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        return objectMapper;
+    }
+
+    /**
+     * Create and setting executor of asynchronous requests, that are streaming responses and callable results of
+     * other requests. If virtual threads are enabled and the JVM supports them then every response is produced
+     * by the new virtual thread and the number of opened database cursors is bounded by the connection pool,
+     * otherwise responses are produced by the bounded pool of platform threads.
+     *
+     * @return {@link org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor} bean or
+     * {@link org.springframework.core.task.SimpleAsyncTaskExecutor} bean of virtual threads.
+     */
+    @Bean
+    public AsyncTaskExecutor streamingTaskExecutor() {
+        if (env.getRequiredProperty(WEB_VIRTUAL_THREADS, Boolean.class)) {
+            val virtualThreadFactory = ThreadFactories.virtual(STREAMING_THREAD_NAME_PREFIX);
+
+            if (virtualThreadFactory.isPresent()) {
+                log.info("Streaming responses are written by virtual threads");
+
+                return new SimpleAsyncTaskExecutor(virtualThreadFactory.get());
+            }
+
+            log.warn("Virtual threads are not supported by the JVM, streaming responses are written by " +
+                    "platform threads");
+        }
+
+        val streamingTaskExecutor = new ThreadPoolTaskExecutor();
+        val poolSize = env.getRequiredProperty(WEB_STREAMING_POOL_SIZE, Integer.class);
+
+        streamingTaskExecutor.setCorePoolSize(poolSize);
+        streamingTaskExecutor.setMaxPoolSize(poolSize);
+        streamingTaskExecutor.setThreadNamePrefix(STREAMING_THREAD_NAME_PREFIX);
+
+        return streamingTaskExecutor;
+    }
+
+    /**
+     * Set the pool of threads and the timeout of asynchronous requests.
+     *
+     * @param configurer is the configurer of asynchronous request processing.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingTaskExecutor());
+        configurer.setDefaultTimeout(env.getRequiredProperty(WEB_STREAMING_TIMEOUT, Long.class));
+    }
+}
@@ -0,0 +1,297 @@
+package com.qthegamep.bookmanager3.controller;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException;
+import com.qthegamep.bookmanager3.pagination.BookPage;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.service.BookService;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * This class is a rest controller of book entities. It implements create, read, update and delete operations
+ * by id and finders by name, author, print year and read, at most one finder parameter per request.
+ * Finders without the size parameter stream all found entities as a json array: entities are read through
+ * the database cursor and written to the response one by one, so the response is chunked and memory per request
+ * does not depend on the number of entities. Finders with the size parameter return one page of entities
+ * and the continuation token of the next page.
+ * Other handlers return {@link java.util.concurrent.Callable} results, so all requests are performed by the executor
+ * of asynchronous requests, which creates virtual threads if they are enabled, and the servlet thread is released.
+ */
+@Slf4j
+@RestController
+@RequestMapping(value = "/books", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+public class BookController {
+
+    private static final String NAME = "name";
+    private static final String AUTHOR = "author";
+    private static final String PRINT_YEAR = "printYear";
+    private static final String READ = "read";
+    private static final String SORT = "sort";
+    private static final String TOKEN = "token";
+    private static final String SIZE = "size";
+    private static final String QUERY = "query";
+    private static final String LIMIT = "limit";
+
+    private final BookService bookService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * This is constructor that inject bean dependencies driven by
+     * {@link org.springframework.beans.factory.annotation.Autowired} annotation.
+     *
+     * @param bookService  bean, that will be given from spring context.
+     *                     Should not be null.
+     * @param objectMapper bean, that will be given from spring context.
+     *                     Should not be null.
+     */
+    @Autowired
+    public BookController(@NonNull BookService bookService, @NonNull ObjectMapper objectMapper) {
+        this.bookService = bookService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * This method adds book entity to the database.
+     *
+     * @param book is the entity that will be added to the database.
+     * @return task that returns added book entity with the 201 status.
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Callable<ResponseEntity<Book>> add(@RequestBody Book book) {
+        return () -> ResponseEntity.status(HttpStatus.CREATED).body(bookService.add(book));
+    }
+
+    /**
+     * This method returns book entity by id.
+     *
+     * @param id is the id of the entity.
+     * @return task that returns book entity.
+     */
+    @GetMapping("/{id}")
+    public Callable<Book> getById(@PathVariable("id") Long id) {
+        return () -> bookService.getById(id);
+    }
+
+    /**
+     * This method updates book entity with the id. Entity should exist in the database.
+     *
+     * @param id   is the id of the entity.
+     * @param book is the new state of the entity.
+     * @return task that returns updated book entity.
+     */
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Callable<Book> update(@PathVariable("id") Long id, @RequestBody Book book) {
+        return () -> {
+            bookService.getById(id);
+
+            book.setId(id);
+
+            return bookService.update(book);
+        };
+    }
+
+    /**
+     * This method deletes book entity with the id from the database.
+     *
+     * @param id is the id of the entity.
+     * @return task that returns response with the 204 status.
+     */
+    @DeleteMapping("/{id}")
+    public Callable<ResponseEntity<Void>> remove(@PathVariable("id") Long id) {
+        return () -> {
+            bookService.remove(bookService.getById(id));
+
+            return ResponseEntity.<Void>noContent().build();
+        };
+    }
+
+    /**
+     * This method streams all book entities that are found by the finder parameter, or all book entities
+     * if there is no finder parameter, as a json array.
+     *
+     * @param name      is the name of entities or null.
+     * @param author    is the author of entities or null.
+     * @param printYear is the print year of entities or null.
+     * @param read      is the read of entities or null.
+     * @return body that writes entities to the response.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> stream(
+            @RequestParam(value = NAME, required = false) String name,
+            @RequestParam(value = AUTHOR, required = false) String author,
+            @RequestParam(value = PRINT_YEAR, required = false) Integer printYear,
+            @RequestParam(value = READ, required = false) Boolean read) {
+        checkFinderParameters(name, author, printYear, read);
+
+        log.info("Preparing to stream book entities by name: {}, author: {}, print year: {}, read: {}",
+                name, author, printYear, read);
+
+        StreamingResponseBody body = outputStream -> writeBooks(outputStream, action -> {
+            if (Objects.nonNull(name)) {
+                bookService.processByName(name, action);
+            } else if (Objects.nonNull(author)) {
+                bookService.processByAuthor(author, action);
+            } else if (Objects.nonNull(printYear)) {
+                bookService.processByPrintYear(printYear, action);
+            } else if (Objects.nonNull(read)) {
+                bookService.processByRead(read, action);
+            } else {
+                bookService.processAll(action);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(body);
+    }
+
+    /**
+     * This method returns page of book entities that are found by the finder parameter, or page of all book
+     * entities if there is no finder parameter.
+     *
+     * @param name      is the name of entities or null.
+     * @param author    is the author of entities or null.
+     * @param printYear is the print year of entities or null.
+     * @param read      is the read of entities or null.
+     * @param sort      is the column by which the page is sorted.
+     * @param token     is the continuation token of the previous page or null for the first page.
+     * @param size      is the max number of entities on the page.
+     * @return task that returns page of book entities.
+     */
+    @GetMapping(params = SIZE)
+    public Callable<BookPage> getPage(@RequestParam(value = NAME, required = false) String name,
+                                      @RequestParam(value = AUTHOR, required = false) String author,
+                                      @RequestParam(value = PRINT_YEAR, required = false) Integer printYear,
+                                      @RequestParam(value = READ, required = false) Boolean read,
+                                      @RequestParam(value = SORT, defaultValue = "ID") BookSortColumn sort,
+                                      @RequestParam(value = TOKEN, required = false) String token,
+                                      @RequestParam(value = SIZE) int size) {
+        checkFinderParameters(name, author, printYear, read);
+
+        return () -> {
+            if (Objects.nonNull(name)) {
+                return bookService.getByName(name, sort, token, size);
+            } else if (Objects.nonNull(author)) {
+                return bookService.getByAuthor(author, sort, token, size);
+            } else if (Objects.nonNull(printYear)) {
+                return bookService.getByPrintYear(printYear, sort, token, size);
+            } else if (Objects.nonNull(read)) {
+                return bookService.getByRead(read, sort, token, size);
+            } else {
+                return bookService.getAll(sort, token, size);
+            }
+        };
+    }
+
+    /**
+     * This method returns book entities whose name and author contain all words of the query,
+     * from the most relevant.
+     *
+     * @param query is the text of the query.
+     * @param limit is the max number of entities.
+     * @return task that returns list of book entities.
+     */
+    @GetMapping("/search")
+    public Callable<List<Book>> search(@RequestParam(value = QUERY) String query,
+                                       @RequestParam(value = LIMIT, defaultValue = "20") int limit) {
+        return () -> bookService.search(query, limit);
+    }
+
+    /**
+     * @param e is the exception thrown when entity is not found.
+     * @return response with the 404 status and the message of the exception.
+     */
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleEntityNotFound(EntityNotFoundException e) {
+        return toErrorResponse(HttpStatus.NOT_FOUND, e);
+    }
+
+    /**
+     * @param e is the exception thrown when added entity already exists.
+     * @return response with the 409 status and the message of the exception.
+     */
+    @ExceptionHandler(EntityAlreadyExistsException.class)
+    public ResponseEntity<Map<String, String>> handleEntityAlreadyExists(EntityAlreadyExistsException e) {
+        return toErrorResponse(HttpStatus.CONFLICT, e);
+    }
+
+    /**
+     * @param e is the exception thrown when parameters or entity are incorrect.
+     * @return response with the 400 status and the message of the exception.
+     */
+    @ExceptionHandler({IllegalArgumentException.class, DataIntegrityViolationException.class})
+    public ResponseEntity<Map<String, String>> handleBadRequest(RuntimeException e) {
+        return toErrorResponse(HttpStatus.BAD_REQUEST, e);
+    }
+
+    private void writeBooks(OutputStream outputStream, Consumer<Consumer<Book>> process) throws IOException {
+        try (val generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+
+            try {
+                process.accept(book -> writeBook(generator, book));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            generator.writeEndArray();
+        }
+    }
+
+    private static void writeBook(JsonGenerator generator, Book book) {
+        try {
+            generator.writeObject(book);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void checkFinderParameters(Object... parameters) {
+        if (Stream.of(parameters).filter(Objects::nonNull).count() > 1) {
+            throw new IllegalArgumentException("Only one of parameters: " + NAME + ", " + AUTHOR + ", " +
+                    PRINT_YEAR + ", " + READ + " can be given");
+        }
+    }
+
+    private static ResponseEntity<Map<String, String>> toErrorResponse(HttpStatus status, Exception e) {
+        log.info("Request failed with status: {} and error: {}", status, e.getMessage());
+
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(Collections.singletonMap("message", String.valueOf(e.getMessage())));
+    }
+}
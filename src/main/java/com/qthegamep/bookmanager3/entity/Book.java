@@ -2,8 +2,12 @@ package com.qthegamep.bookmanager3.entity;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicInsert;
 import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -12,19 +16,41 @@ import javax.persistence.*;
  * There is an no args constructor, getters and setters for all fields, override equals, hashCode and toString methods
  * generated by lombok.
  * Id that is generated by database is excluded from hashCode and equals methods. See links.
+ * Id is generated by the BOOK_ID_SEQUENCE sequence (or a table that emulates it when database does not support
+ * sequences) with the pooled-lo optimizer, so ids are given from an in-memory block and inserts can be batched.
+ * Entity is stored in the read-write second level cache region, so loading by id does not go to the database
+ * while the entity is cached. Size and time to live of the region are configured in ehcache.xml of the profile.
+ * Columns that are used by finder methods are indexed, the indexes are created by the schema tooling.
  *
  * @see <a href="https://vladmihalcea.com/the-best-way-to-implement-equals-hashcode-and-tostring-with-jpa-and-hibernate/">
  * The best way to implement equals, hashCode and toString with JPA and Hibernate</a>
  */
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @DynamicInsert
 @DynamicUpdate
-@Table(name = "BOOK")
+@Table(name = "BOOK", indexes = {
+        @Index(name = "BOOK_NAME_INDEX", columnList = "NAME"),
+        @Index(name = "BOOK_AUTHOR_INDEX", columnList = "AUTHOR"),
+        @Index(name = "BOOK_PRINT_YEAR_INDEX", columnList = "PRINT_YEAR"),
+        @Index(name = "BOOK_IS_READ_PRINT_YEAR_INDEX", columnList = "IS_READ, PRINT_YEAR")
+})
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "BOOK_ID_GENERATOR")
+    @GenericGenerator(
+            name = "BOOK_ID_GENERATOR",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "BOOK_ID_SEQUENCE"),
+                    @Parameter(name = "initial_value", value = "1"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            }
+    )
     @Column(name = "ID", nullable = false)
     @EqualsAndHashCode.Exclude
     private Long id;
@@ -0,0 +1,63 @@
+package com.qthegamep.bookmanager3.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+/**
+ * This class is an entity of the committed chunk of the book import.
+ * There is an no args constructor, all args constructor, getters and setters for all fields, override equals,
+ * hashCode and toString methods generated by lombok.
+ * Chunk is saved in the same transaction as book entities of the chunk, so the chunk exists only if its book
+ * entities are committed, and the import that is started again skips it. The first line and the number of lines
+ * of the chunk are saved, so the import that is started again with other chunking is rejected.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(BookImportChunk.Key.class)
+@Table(name = "BOOK_IMPORT_CHUNK")
+public class BookImportChunk {
+
+    @Id
+    @Column(name = "IMPORT_ID", nullable = false)
+    private String importId;
+
+    @Id
+    @Column(name = "CHUNK_NUMBER", nullable = false)
+    private long chunkNumber;
+
+    @Column(name = "FIRST_LINE_NUMBER", nullable = false)
+    private long firstLineNumber;
+
+    @Column(name = "LINE_COUNT", nullable = false)
+    private int lineCount;
+
+    @Column(name = "IMPORTED_ROWS", nullable = false)
+    private int importedRows;
+
+    @Column(name = "REJECTED_ROWS", nullable = false)
+    private int rejectedRows;
+
+    /**
+     * This class is a composite id of the chunk.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String importId;
+        private long chunkNumber;
+    }
+}
@@ -1,10 +1,21 @@
 package com.qthegamep.bookmanager3.exception;
 
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
 /**
  * This exception should be thrown when trying to add an entity to the database when it already exists.
+ * It can contain ids of all entities that already exist.
  */
+@Getter
 public class EntityAlreadyExistsException extends RuntimeException {
 
+    private final Set<Long> ids;
+
     /**
      * This is the constructor that calls the super constructor and passes the error message to is.
      *
@@ -12,5 +23,20 @@ public class EntityAlreadyExistsException extends RuntimeException {
      */
     public EntityAlreadyExistsException(String message) {
         super(message);
+
+        this.ids = Collections.emptySet();
+    }
+
+    /**
+     * This is the constructor that calls the super constructor and passes the error message to is.
+     * It also saves ids of all entities that already exist.
+     *
+     * @param message to be displayed or logged.
+     * @param ids     of entities that already exist.
+     */
+    public EntityAlreadyExistsException(String message, Collection<Long> ids) {
+        super(message);
+
+        this.ids = Collections.unmodifiableSet(new TreeSet<>(ids));
     }
 }
@@ -0,0 +1,141 @@
+package com.qthegamep.bookmanager3.exporter;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.io.IOException;
+
+/**
+ * This enum is a format of rows of the book export file. Every row has five fields: id, name, author, print year
+ * and read. CSV file starts with the header row, fields that contain commas, double quotes or line breaks
+ * are quoted with double quotes and double quotes inside of them are doubled. NDJSON file has one json object
+ * per line without the header. Rows are encoded directly into the {@link ExportBuffer}.
+ */
+public enum BookExportFormat {
+
+    CSV("csv"),
+    NDJSON("ndjson");
+
+    private static final String CSV_HEADER = "id,name,author,printYear,read\n";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    @Getter
+    private final String extension;
+
+    BookExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * This method puts the header row that is put once at the start of the file.
+     *
+     * @param output is the buffer of the file.
+     *               Should not be null.
+     * @throws IOException when the full buffer is not written.
+     */
+    public void putHeader(@NonNull ExportBuffer output) throws IOException {
+        if (this == CSV) {
+            output.putAscii(CSV_HEADER);
+        }
+    }
+
+    /**
+     * This method puts the row with the line break.
+     *
+     * @param output    is the buffer of the file.
+     *                  Should not be null.
+     * @param id        is the id of the book.
+     * @param name      is the name of the book.
+     *                  Should not be null.
+     * @param author    is the author of the book.
+     *                  Should not be null.
+     * @param printYear is the print year of the book.
+     * @param read      is the read of the book.
+     * @throws IOException when the full buffer is not written.
+     */
+    public void putRow(@NonNull ExportBuffer output,
+                       long id,
+                       @NonNull String name,
+                       @NonNull String author,
+                       int printYear,
+                       boolean read) throws IOException {
+        if (this == CSV) {
+            output.putLong(id);
+            output.putByte(',');
+            putCsvText(output, name);
+            output.putByte(',');
+            putCsvText(output, author);
+            output.putByte(',');
+            output.putLong(printYear);
+            output.putByte(',');
+            output.putAscii(read ? "true" : "false");
+        } else {
+            output.putAscii("{\"id\":");
+            output.putLong(id);
+            output.putAscii(",\"name\":");
+            putJsonText(output, name);
+            output.putAscii(",\"author\":");
+            putJsonText(output, author);
+            output.putAscii(",\"printYear\":");
+            output.putLong(printYear);
+            output.putAscii(read ? ",\"read\":true}" : ",\"read\":false}");
+        }
+
+        output.putByte('\n');
+    }
+
+    private static void putCsvText(ExportBuffer output, String text) throws IOException {
+        var quoted = false;
+
+        for (int i = 0; i < text.length() && !quoted; i++) {
+            final char c = text.charAt(i);
+
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (quoted) {
+            output.putByte('"');
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+
+            if (c == '"') {
+                output.putByte('"');
+            }
+
+            output.putChar(c);
+        }
+
+        if (quoted) {
+            output.putByte('"');
+        }
+    }
+
+    private static void putJsonText(ExportBuffer output, String text) throws IOException {
+        output.putByte('"');
+
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                output.putByte('\\');
+                output.putByte(c);
+            } else if (c == '\n') {
+                output.putAscii("\\n");
+            } else if (c == '\r') {
+                output.putAscii("\\r");
+            } else if (c == '\t') {
+                output.putAscii("\\t");
+            } else if (c < 0x20) {
+                output.putAscii("\\u00");
+                output.putByte(HEX_DIGITS[c >> 4]);
+                output.putByte(HEX_DIGITS[c & 0xF]);
+            } else {
+                output.putChar(c);
+            }
+        }
+
+        output.putByte('"');
+    }
+}
@@ -0,0 +1,55 @@
+package com.qthegamep.bookmanager3.exporter;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is a report of the book export. Written bytes are bytes of files, so they are compressed bytes
+ * when the export is compressed by gzip.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class BookExportReport {
+
+    private final List<Path> files;
+    private final long exportedRows;
+    private final long writtenBytes;
+    private final long elapsedMillis;
+
+    /**
+     * This is the constructor that creates report.
+     *
+     * @param files         is the list of written files, one file per id range.
+     *                      Should not be null.
+     * @param exportedRows  is the number of exported rows.
+     * @param writtenBytes  is the number of bytes that are written to all files.
+     * @param elapsedMillis is the time of the export in milliseconds.
+     */
+    public BookExportReport(@NonNull List<Path> files, long exportedRows, long writtenBytes, long elapsedMillis) {
+        this.files = Collections.unmodifiableList(files);
+        this.exportedRows = exportedRows;
+        this.writtenBytes = writtenBytes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return number of exported rows per second.
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : exportedRows * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * @return number of written bytes per second.
+     */
+    public double getBytesPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : writtenBytes * 1000.0 / elapsedMillis;
+    }
+}
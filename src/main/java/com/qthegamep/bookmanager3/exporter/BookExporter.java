@@ -0,0 +1,289 @@
+package com.qthegamep.bookmanager3.exporter;
+
+import com.qthegamep.bookmanager3.concurrent.ThreadFactories;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is an exporter of the book table to CSV and NDJSON files, see {@link BookExportFormat}.
+ * Rows are read by the forward-only read-only JDBC cursor with the fetch size, so entities are not created and
+ * memory does not depend on the size of the table. Columns are encoded directly into the pooled direct buffer
+ * of the {@link ExportBuffer} and written to the file channel, see {@link ByteBufferPool}. The export can be split
+ * into several files by equal id ranges that are exported in parallel, each of them by its own thread
+ * in its own read-only transaction. The file of the part that is not written completely is deleted, so the failed
+ * export does not leave the part that was grown by memory-mapped regions beyond the written bytes.
+ */
+@Slf4j
+public class BookExporter {
+
+    private static final String SELECT_ID_RANGE = "SELECT MIN(ID), MAX(ID) FROM BOOK";
+    private static final String SELECT_BOOKS_BY_ID_RANGE = "SELECT ID, NAME, AUTHOR, PRINT_YEAR, IS_READ FROM BOOK " +
+            "WHERE ID >= ? AND ID < ? ORDER BY ID";
+    private static final String GZIP_EXTENSION = ".gz";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ByteBufferPool bufferPool;
+    private final int maxParts;
+    private final boolean gzip;
+    private final boolean memoryMapped;
+
+    /**
+     * This is constructor that creates exporter.
+     *
+     * @param dataSource         is the data source of the book table.
+     *                           Should not be null.
+     * @param transactionManager is the transaction manager of read-only transactions of parts.
+     *                           Should not be null.
+     * @param bufferSize         is the size of the buffer of each part in bytes.
+     * @param fetchSize          is the number of rows that are fetched by the cursor at once.
+     * @param maxParts           is the max number of parts of the export, buffers of them are pooled.
+     * @param gzip               is true if files should be compressed by gzip.
+     * @param memoryMapped       is true if files should be written through memory-mapped regions.
+     */
+    public BookExporter(@NonNull DataSource dataSource,
+                        @NonNull PlatformTransactionManager transactionManager,
+                        int bufferSize,
+                        int fetchSize,
+                        int maxParts,
+                        boolean gzip,
+                        boolean memoryMapped) {
+        if (fetchSize < 1 || maxParts < 1) {
+            throw new IllegalArgumentException("Fetch size: " + fetchSize + " and max parts: " + maxParts +
+                    " should be positive");
+        }
+
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.bufferPool = new ByteBufferPool(bufferSize, maxParts);
+        this.maxParts = maxParts;
+        this.gzip = gzip;
+        this.memoryMapped = memoryMapped;
+    }
+
+    /**
+     * This method exports all rows of the book table to one file.
+     *
+     * @param file   is the path of the file, the ".gz" extension is added in the gzip mode.
+     *               Should not be null.
+     * @param format is the format of the file.
+     *               Should not be null.
+     * @return report of the export.
+     * @throws IOException when the file is not written.
+     */
+    public BookExportReport export(@NonNull Path file, @NonNull BookExportFormat format) throws IOException {
+        return export(file, format, 1);
+    }
+
+    /**
+     * This method exports all rows of the book table to the number of files, each of them has rows of one
+     * id range. The number of the part is added to the name of the file before its extension,
+     * e.g. "books-1.csv", "books-2.csv" and so on, and the ".gz" extension is added in the gzip mode.
+     * Files of empty ranges have only the header.
+     *
+     * @param file   is the path of the file.
+     *               Should not be null.
+     * @param format is the format of files.
+     *               Should not be null.
+     * @param parts  is the number of files that are written in parallel.
+     * @return report of the export.
+     * @throws IOException when any of files is not written.
+     */
+    public BookExportReport export(@NonNull Path file,
+                                   @NonNull BookExportFormat format,
+                                   int parts) throws IOException {
+        if (parts < 1 || parts > maxParts) {
+            throw new IllegalArgumentException("Parts: " + parts + " should be between 1 and " + maxParts);
+        }
+
+        val idRange = jdbcTemplate.query(SELECT_ID_RANGE, (ResultSetExtractor<long[]>) resultSet -> {
+            resultSet.next();
+
+            val minId = resultSet.getLong(1);
+
+            return resultSet.wasNull() ? null : new long[]{minId, resultSet.getLong(2)};
+        });
+
+        log.info("Preparing to export book table to: {} parts of file: {}, id range: {}", parts, file,
+                idRange == null ? "empty" : idRange[0] + ".." + idRange[1]);
+
+        val exportedRows = new LongAdder();
+        val writtenBytes = new LongAdder();
+        val files = new ArrayList<Path>(parts);
+        val futures = new ArrayList<CompletableFuture<Void>>(parts);
+        val startTime = System.nanoTime();
+        val executor = Executors.newFixedThreadPool(parts, ThreadFactories.platform("book-export-"));
+
+        try {
+            for (int i = 0; i < parts; i++) {
+                final Path partFile = partFile(file, i, parts);
+                final long[] partRange = partRange(idRange, i, parts);
+
+                files.add(partFile);
+                futures.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        exportPart(partFile, format, partRange, exportedRows, writtenBytes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        } finally {
+            executor.shutdown();
+
+            awaitTermination(executor);
+        }
+
+        val report = new BookExportReport(files, exportedRows.sum(), writtenBytes.sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        log.info("Book table was exported to: {} parts of file: {}, exported rows: {}, written bytes: {}, " +
+                        "rows per second: {}", parts, file, report.getExportedRows(), report.getWrittenBytes(),
+                Math.round(report.getRowsPerSecond()));
+
+        return report;
+    }
+
+    private void exportPart(Path file, BookExportFormat format, long[] range, LongAdder exportedRows,
+                            LongAdder writtenBytes) throws IOException {
+        val buffer = bufferPool.acquire();
+        val options = memoryMapped
+                ? new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE};
+        var written = false;
+
+        try (val channel = FileChannel.open(file, options)) {
+            val output = new ExportBuffer(channel, buffer, gzip, memoryMapped);
+
+            format.putHeader(output);
+
+            if (range != null) {
+                final RowCallbackHandler rowHandler = resultSet -> {
+                    try {
+                        format.putRow(output, resultSet.getLong(1), resultSet.getString(2),
+                                resultSet.getString(3), resultSet.getInt(4), resultSet.getBoolean(5));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+
+                    exportedRows.increment();
+                };
+
+                try {
+                    transactionTemplate.execute(status -> {
+                        jdbcTemplate.query(SELECT_BOOKS_BY_ID_RANGE, rowHandler, range[0], range[1]);
+
+                        return null;
+                    });
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+
+            output.close();
+
+            writtenBytes.add(output.getPosition());
+
+            log.debug("Part: {} of the export was written, written bytes: {}", file, output.getPosition());
+
+            written = true;
+        } finally {
+            bufferPool.release(buffer);
+
+            if (!written) {
+                deletePart(file);
+            }
+        }
+    }
+
+    private void deletePart(Path file) {
+        try {
+            Files.deleteIfExists(file);
+
+            log.info("Part: {} of the failed export was deleted", file);
+        } catch (IOException e) {
+            log.warn("Unable to delete part: {} of the failed export", file, e);
+        }
+    }
+
+    private Path partFile(Path file, int part, int parts) {
+        var name = file.getFileName().toString();
+
+        if (parts > 1) {
+            val extensionIndex = name.lastIndexOf('.');
+
+            name = extensionIndex > 0
+                    ? name.substring(0, extensionIndex) + "-" + (part + 1) + name.substring(extensionIndex)
+                    : name + "-" + (part + 1);
+        }
+
+        if (gzip && !name.endsWith(GZIP_EXTENSION)) {
+            name += GZIP_EXTENSION;
+        }
+
+        return file.resolveSibling(name);
+    }
+
+    private static long[] partRange(long[] idRange, int part, int parts) {
+        if (idRange == null) {
+            return null;
+        }
+
+        val width = (idRange[1] - idRange[0] + parts) / parts;
+        val from = idRange[0] + part * width;
+        val to = part == parts - 1 ? idRange[1] + 1 : Math.min(from + width, idRange[1] + 1);
+
+        return from <= idRange[1] ? new long[]{from, to} : null;
+    }
+
+    private static void awaitTermination(ExecutorService executor) throws InterruptedIOException {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Waiting for parts of the export to be written");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Export was interrupted");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.qthegamep.bookmanager3.exporter;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * This class is a pool of direct byte buffers of the same capacity. Direct buffers are expensive to allocate
+ * and are released only by the garbage collector, so they are reused by exports. The buffer is allocated when
+ * the pool is empty, and at most the max pooled number of released buffers is kept.
+ */
+public class ByteBufferPool {
+
+    @Getter
+    private final int bufferCapacity;
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    /**
+     * This is constructor that creates empty pool.
+     *
+     * @param bufferCapacity is the capacity of buffers in bytes.
+     * @param maxPooled      is the max number of buffers that are kept by the pool.
+     */
+    public ByteBufferPool(int bufferCapacity, int maxPooled) {
+        if (bufferCapacity < 1 || maxPooled < 1) {
+            throw new IllegalArgumentException("Buffer capacity: " + bufferCapacity + " and max pooled: " +
+                    maxPooled + " should be positive");
+        }
+
+        this.bufferCapacity = bufferCapacity;
+        this.buffers = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    /**
+     * @return cleared buffer from the pool or new direct buffer when the pool is empty.
+     */
+    public ByteBuffer acquire() {
+        val buffer = buffers.poll();
+
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferCapacity);
+    }
+
+    /**
+     * This method clears the buffer and returns it to the pool. The buffer is dropped when the pool is full.
+     *
+     * @param buffer is the buffer that was acquired from this pool.
+     *               Should not be null.
+     */
+    public void release(@NonNull ByteBuffer buffer) {
+        if (buffer.capacity() != bufferCapacity) {
+            throw new IllegalArgumentException("Buffer capacity: " + buffer.capacity() + " is not equal to " +
+                    bufferCapacity);
+        }
+
+        buffer.clear();
+
+        buffers.offer(buffer);
+    }
+
+    /**
+     * @return number of buffers that are kept by the pool.
+     */
+    public int size() {
+        return buffers.size();
+    }
+}
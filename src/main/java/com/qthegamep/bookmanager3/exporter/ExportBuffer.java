@@ -0,0 +1,287 @@
+package com.qthegamep.bookmanager3.exporter;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.val;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class encodes text and numbers as UTF-8 bytes directly into the byte buffer and writes the full buffer
+ * to the file channel, so exported rows are not turned into strings or byte arrays. Bytes are written by
+ * {@link FileChannel#write(ByteBuffer)}, or copied into memory-mapped regions of the file when the memory-mapped
+ * mode is enabled. In the gzip mode bytes are compressed before they are written. The channel is not closed
+ * by this class.
+ */
+public final class ExportBuffer implements Closeable {
+
+    private static final long MAPPED_REGION_SIZE = 64L * 1024 * 1024;
+    private static final int MAX_LONG_LENGTH = 20;
+    private static final int MAX_CHAR_LENGTH = 4;
+    private static final char NO_SURROGATE = 0;
+    private static final byte REPLACEMENT = '?';
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final boolean memoryMapped;
+    private final byte[] digits = new byte[MAX_LONG_LENGTH];
+    private final byte[] gzipBytes;
+    private final GZIPOutputStream gzip;
+    private MappedByteBuffer region;
+    private char highSurrogate = NO_SURROGATE;
+    private boolean closed;
+
+    /**
+     * Number of bytes that are written to the file.
+     */
+    @Getter
+    private long position;
+
+    /**
+     * This is constructor that creates buffer that writes to the channel from its current position.
+     *
+     * @param channel      is the channel of the file that is opened for writing, and also for reading
+     *                     in the memory-mapped mode.
+     *                     Should not be null.
+     * @param buffer       is the buffer of bytes, it is cleared.
+     *                     Should not be null.
+     * @param gzip         is true if bytes should be compressed by gzip.
+     * @param memoryMapped is true if bytes should be written to memory-mapped regions of the file.
+     * @throws IOException when the gzip header is not written.
+     */
+    public ExportBuffer(@NonNull FileChannel channel,
+                        @NonNull ByteBuffer buffer,
+                        boolean gzip,
+                        boolean memoryMapped) throws IOException {
+        if (buffer.capacity() < MAX_LONG_LENGTH) {
+            throw new IllegalArgumentException("Buffer capacity: " + buffer.capacity() + " should be at least " +
+                    MAX_LONG_LENGTH);
+        }
+
+        this.channel = channel;
+        this.buffer = buffer.clear();
+        this.memoryMapped = memoryMapped;
+        this.position = channel.position();
+        this.gzipBytes = gzip ? new byte[buffer.capacity()] : null;
+        this.gzip = gzip ? new GZIPOutputStream(new ChannelOutputStream(), buffer.capacity()) : null;
+    }
+
+    /**
+     * @param b is the byte.
+     * @throws IOException when the full buffer is not written.
+     */
+    public void putByte(int b) throws IOException {
+        ensureRemaining(1);
+
+        buffer.put((byte) b);
+    }
+
+    /**
+     * This method puts characters of the text that contains only ASCII characters, one byte per character.
+     *
+     * @param text is the ASCII text.
+     *             Should not be null.
+     * @throws IOException when the full buffer is not written.
+     */
+    public void putAscii(@NonNull String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            putByte(text.charAt(i));
+        }
+    }
+
+    /**
+     * This method puts UTF-8 bytes of the character. The high surrogate is kept until the next character,
+     * unpaired surrogates are replaced by '?'.
+     *
+     * @param c is the character.
+     * @throws IOException when the full buffer is not written.
+     */
+    public void putChar(char c) throws IOException {
+        if (Character.isHighSurrogate(c)) {
+            putPendingSurrogate();
+
+            highSurrogate = c;
+
+            return;
+        }
+
+        if (Character.isLowSurrogate(c) && highSurrogate != NO_SURROGATE) {
+            val codePoint = Character.toCodePoint(highSurrogate, c);
+
+            highSurrogate = NO_SURROGATE;
+
+            ensureRemaining(MAX_CHAR_LENGTH);
+
+            buffer.put((byte) (0xF0 | (codePoint >> 18)));
+            buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+
+            return;
+        }
+
+        putPendingSurrogate();
+
+        if (Character.isLowSurrogate(c)) {
+            putByte(REPLACEMENT);
+        } else if (c < 0x80) {
+            putByte(c);
+        } else if (c < 0x800) {
+            ensureRemaining(2);
+
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else {
+            ensureRemaining(3);
+
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    /**
+     * This method puts decimal digits of the number without creating of the string.
+     *
+     * @param number is the number.
+     * @throws IOException when the full buffer is not written.
+     */
+    public void putLong(long number) throws IOException {
+        if (number == Long.MIN_VALUE) {
+            putAscii(Long.toString(number));
+
+            return;
+        }
+
+        var value = Math.abs(number);
+        var start = MAX_LONG_LENGTH;
+
+        do {
+            digits[--start] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+
+        if (number < 0) {
+            digits[--start] = '-';
+        }
+
+        ensureRemaining(MAX_LONG_LENGTH - start);
+
+        buffer.put(digits, start, MAX_LONG_LENGTH - start);
+    }
+
+    /**
+     * This method writes bytes of the buffer. In the gzip mode bytes that are kept by the compressor
+     * are not written until the buffer is closed.
+     *
+     * @throws IOException when bytes are not written.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+
+        if (gzip != null) {
+            while (buffer.hasRemaining()) {
+                val length = Math.min(buffer.remaining(), gzipBytes.length);
+
+                buffer.get(gzipBytes, 0, length);
+
+                gzip.write(gzipBytes, 0, length);
+            }
+        } else {
+            write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * This method writes the rest of bytes and the gzip trailer. In the memory-mapped mode the file is truncated
+     * to the written bytes, mapped regions are released by the garbage collector.
+     *
+     * @throws IOException when bytes are not written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        putPendingSurrogate();
+
+        closed = true;
+
+        flush();
+
+        if (gzip != null) {
+            gzip.finish();
+        }
+
+        if (memoryMapped) {
+            region = null;
+
+            channel.truncate(position);
+        }
+    }
+
+    private void putPendingSurrogate() throws IOException {
+        if (highSurrogate != NO_SURROGATE) {
+            highSurrogate = NO_SURROGATE;
+
+            putByte(REPLACEMENT);
+        }
+    }
+
+    private void ensureRemaining(int length) throws IOException {
+        if (closed) {
+            throw new IOException("Export buffer is closed");
+        }
+
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    private void write(ByteBuffer source) throws IOException {
+        if (!memoryMapped) {
+            while (source.hasRemaining()) {
+                position += channel.write(source, position);
+            }
+
+            return;
+        }
+
+        while (source.hasRemaining()) {
+            if (region == null || !region.hasRemaining()) {
+                region = channel.map(FileChannel.MapMode.READ_WRITE, position, MAPPED_REGION_SIZE);
+            }
+
+            val length = Math.min(source.remaining(), region.remaining());
+            val limit = source.limit();
+
+            source.limit(source.position() + length);
+            region.put(source);
+            source.limit(limit);
+
+            position += length;
+        }
+    }
+
+    private final class ChannelOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            ExportBuffer.this.write(ByteBuffer.wrap(bytes, offset, length));
+        }
+    }
+}
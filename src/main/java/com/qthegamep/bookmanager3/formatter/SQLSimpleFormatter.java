@@ -1,46 +1,290 @@
 package com.qthegamep.bookmanager3.formatter;
 
-import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
 import com.p6spy.engine.spy.appender.MessageFormattingStrategy;
 import org.hibernate.engine.jdbc.internal.BasicFormatterImpl;
 import org.hibernate.engine.jdbc.internal.Formatter;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * This class is a formatter class responsible for formatting hibernate logging sql queries using P6Spy proxy.
+ * Prepared sql query is formatted only once and the formatted query is cached by the prepared query text.
+ * Then values of parameters are taken from the query with values and put into the cached formatted query
+ * instead of "?" placeholders. If values can not be matched with the prepared query then the query with values
+ * is formatted without cache. Cache is bounded: when it is full the least recently used prepared query is evicted,
+ * so queries that are still executed stay cached when the set of queries changes. The cache is guarded by the lock,
+ * queries are formatted outside of it.
+ * Message is built in the builder that is reused by the thread.
  */
-@Slf4j
 public class SQLSimpleFormatter implements MessageFormattingStrategy {
 
+    static final int MAX_CACHE_SIZE = 1024;
+
+    private static final int MAX_BUILDER_CAPACITY = 64 * 1024;
+    private static final int INITIAL_NUMBER_OF_PARAMETERS = 16;
+
     private static final Formatter HIBERNATE_SQL_FORMATTER = new BasicFormatterImpl();
+    private static final ThreadLocal<StringBuilder> MESSAGE_BUILDER = ThreadLocal.withInitial(StringBuilder::new);
+
+    private final Object cacheLock = new Object();
+    private final Map<String, String> formattedQueries = new LinkedHashMap<String, String>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_CACHE_SIZE;
+        }
+    };
 
     /**
      * This method is response for formatting hibernate sql query.
      *
      * @param elapsed  is lead time.
      * @param category is category of sql operation.
+     * @param prepared is query with "?" placeholders instead of values of parameters.
      * @param sql      is query that has not been formatted yet.
      * @return a formatted request.
      */
     @Override
     public String formatMessage(int connectionId, String now, long elapsed,
                                 String category, String prepared, String sql, String url) {
-        log.info("Preparing to formatting sql query: {}", sql);
-
         if (sql.isEmpty()) {
-            log.info("Preparing to formatting sql query was done successfully! Query is empty");
             return "";
         }
 
-        val batch = "batch".equals(category) ? " add to batch " : "";
+        val message = getMessageBuilder()
+                .append("P6Spy - Hibernate: ")
+                .append("batch".equals(category) ? " add to batch " : "")
+                .append(' ');
+
+        if (!appendCachedQuery(message, prepared, sql)) {
+            message.append(HIBERNATE_SQL_FORMATTER.format(sql));
+        }
+
+        return message.append(" {elapsed: ")
+                .append(elapsed)
+                .append("ms}")
+                .toString();
+    }
+
+    /**
+     * @return number of cached formatted queries.
+     */
+    int getCacheSize() {
+        synchronized (cacheLock) {
+            return formattedQueries.size();
+        }
+    }
+
+    /**
+     * @param prepared is query with "?" placeholders instead of values of parameters.
+     * @return true if the formatted query is cached, the order of eviction is not changed.
+     */
+    boolean isCached(String prepared) {
+        synchronized (cacheLock) {
+            return formattedQueries.containsKey(prepared);
+        }
+    }
+
+    private boolean appendCachedQuery(StringBuilder message, String prepared, String sql) {
+        if (Objects.isNull(prepared) || prepared.isEmpty()) {
+            return false;
+        }
+
+        val parameters = findParameters(prepared, sql);
+
+        if (Objects.isNull(parameters)) {
+            return false;
+        }
+
+        val formattedQuery = getFormattedQuery(prepared);
+
+        if (Objects.isNull(formattedQuery)) {
+            return false;
+        }
+
+        val length = message.length();
+
+        if (!appendWithParameters(message, formattedQuery, sql, parameters)) {
+            message.setLength(length);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private String getFormattedQuery(String prepared) {
+        synchronized (cacheLock) {
+            val formattedQuery = formattedQueries.get(prepared);
+
+            if (Objects.nonNull(formattedQuery)) {
+                return formattedQuery;
+            }
+        }
+
+        val formattedQuery = HIBERNATE_SQL_FORMATTER.format(prepared);
+
+        synchronized (cacheLock) {
+            formattedQueries.put(prepared, formattedQuery);
+        }
+
+        return formattedQuery;
+    }
+
+    /**
+     * Walks the prepared query and the query with values together. They must be equal except "?" placeholders
+     * that are replaced by values. Quoted literals and comments of the prepared query are copied as is.
+     *
+     * @return array with the start and the end of every value in the query with values, where the first element
+     * is the number of elements used, or null if the queries do not match.
+     */
+    private static int[] findParameters(String prepared, String sql) {
+        var parameters = new int[1 + 2 * INITIAL_NUMBER_OF_PARAMETERS];
+        var size = 1;
+        var i = 0;
+        var j = 0;
+
+        while (i < prepared.length()) {
+            val c = prepared.charAt(i);
+
+            if (c == '\'' || prepared.startsWith("/*", i)) {
+                val end = c == '\'' ? skipLiteral(prepared, i) : skipComment(prepared, i);
+
+                if (!sql.regionMatches(j, prepared, i, end - i)) {
+                    return null;
+                }
+
+                j += end - i;
+                i = end;
+            } else if (c == '?') {
+                if (j >= sql.length()) {
+                    return null;
+                }
+
+                val end = sql.charAt(j) == '\'' ? skipLiteral(sql, j) : skipUnquotedValue(sql, j);
+
+                if (end == j) {
+                    return null;
+                }
+
+                if (size + 2 > parameters.length) {
+                    parameters = Arrays.copyOf(parameters, parameters.length * 2);
+                }
+
+                parameters[size++] = j;
+                parameters[size++] = end;
+
+                j = end;
+                i++;
+            } else {
+                if (j >= sql.length() || sql.charAt(j) != c) {
+                    return null;
+                }
+
+                i++;
+                j++;
+            }
+        }
+
+        if (j != sql.length()) {
+            return null;
+        }
+
+        parameters[0] = size;
+
+        return parameters;
+    }
+
+    private static boolean appendWithParameters(StringBuilder message, String formattedQuery, String sql,
+                                                int[] parameters) {
+        var parameter = 1;
+        var i = 0;
+
+        while (i < formattedQuery.length()) {
+            val c = formattedQuery.charAt(i);
+
+            if (c == '\'' || formattedQuery.startsWith("/*", i)) {
+                val end = c == '\'' ? skipLiteral(formattedQuery, i) : skipComment(formattedQuery, i);
+
+                message.append(formattedQuery, i, end);
+
+                i = end;
+            } else if (c == '?') {
+                if (parameter >= parameters[0]) {
+                    return false;
+                }
+
+                message.append(sql, parameters[parameter], parameters[parameter + 1]);
+
+                parameter += 2;
+                i++;
+            } else {
+                message.append(c);
+
+                i++;
+            }
+        }
+
+        return parameter == parameters[0];
+    }
+
+    private static int skipLiteral(String query, int start) {
+        var i = start + 1;
+
+        while (i < query.length()) {
+            if (query.charAt(i) == '\'') {
+                if (i + 1 < query.length() && query.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+
+                return i + 1;
+            }
+
+            i++;
+        }
+
+        return query.length();
+    }
+
+    private static int skipComment(String query, int start) {
+        val end = query.indexOf("*/", start + 2);
+
+        return end < 0 ? query.length() : end + 2;
+    }
+
+    private static int skipUnquotedValue(String query, int start) {
+        var i = start;
+
+        while (i < query.length()) {
+            val c = query.charAt(i);
+
+            if (!Character.isLetterOrDigit(c) && c != '.' && c != '-' && c != '+' && c != '_') {
+                break;
+            }
+
+            i++;
+        }
+
+        return i;
+    }
+
+    private static StringBuilder getMessageBuilder() {
+        var builder = MESSAGE_BUILDER.get();
+
+        if (builder.capacity() > MAX_BUILDER_CAPACITY) {
+            builder = new StringBuilder();
+
+            MESSAGE_BUILDER.set(builder);
+        }
 
-        log.info("Preparing to formatting sql query: {} was done successfully! Batch: {}", sql, batch);
+        builder.setLength(0);
 
-        return String.format("P6Spy - Hibernate: %s %s {elapsed: %dms}",
-                batch,
-                HIBERNATE_SQL_FORMATTER.format(sql),
-                elapsed
-        );
+        return builder;
     }
 }
@@ -0,0 +1,152 @@
+package com.qthegamep.bookmanager3.importer;
+
+import com.qthegamep.bookmanager3.entity.Book;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This enum is a format of rows of the book import file. Every row has four fields: name, author, print year
+ * and read. The first row is skipped if its first field is "name", so files with and without the header row
+ * are supported. Fields of CSV rows can be quoted with double quotes, a double quote inside of the quoted field
+ * is escaped by another double quote. Fields of TSV rows can not contain tabs and are not quoted.
+ * Quoted fields can not contain line breaks, because files are read line by line.
+ */
+public enum BookImportFormat {
+
+    CSV(','),
+    TSV('\t');
+
+    private static final int NUMBER_OF_FIELDS = 4;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_PRINT_YEAR = 9999;
+    private static final String HEADER_FIRST_FIELD = "name";
+
+    private final char delimiter;
+
+    BookImportFormat(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * @param line is the first line of the file.
+     *             Should not be null.
+     * @return true if the line is the header row.
+     */
+    public boolean isHeader(@NonNull String line) {
+        val fields = split(line);
+
+        return HEADER_FIRST_FIELD.equalsIgnoreCase(fields.get(0).trim());
+    }
+
+    /**
+     * This method parses and validates the row. Name and author are trimmed.
+     *
+     * @param line is the row of the file.
+     *             Should not be null.
+     * @return new book entity that is not saved yet.
+     * @throws IllegalArgumentException when the row is incorrect. Message of the exception is the reason.
+     */
+    public Book parse(@NonNull String line) throws IllegalArgumentException {
+        val fields = split(line);
+
+        if (fields.size() != NUMBER_OF_FIELDS) {
+            throw new IllegalArgumentException("Expected " + NUMBER_OF_FIELDS + " fields but was " + fields.size());
+        }
+
+        val book = new Book();
+
+        book.setName(parseText("name", fields.get(0)));
+        book.setAuthor(parseText("author", fields.get(1)));
+        book.setPrintYear(parsePrintYear(fields.get(2)));
+        book.setRead(parseRead(fields.get(3)));
+
+        return book;
+    }
+
+    private List<String> split(String line) {
+        val fields = new ArrayList<String>(NUMBER_OF_FIELDS);
+        val field = new StringBuilder();
+        var quoted = false;
+        var i = 0;
+
+        while (i < line.length()) {
+            val c = line.charAt(i++);
+
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && this == CSV && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Quoted field is not closed");
+        }
+
+        fields.add(field.toString());
+
+        return fields;
+    }
+
+    private static String parseText(String fieldName, String field) {
+        val text = field.trim();
+
+        if (text.isEmpty()) {
+            throw new IllegalArgumentException("Field: " + fieldName + " is empty");
+        }
+
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Field: " + fieldName + " is longer than " + MAX_TEXT_LENGTH +
+                    " characters");
+        }
+
+        return text;
+    }
+
+    private static int parsePrintYear(String field) {
+        final int printYear;
+
+        try {
+            printYear = Integer.parseInt(field.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Field: printYear is not a number: " + field);
+        }
+
+        if (printYear < 0 || printYear > MAX_PRINT_YEAR) {
+            throw new IllegalArgumentException("Field: printYear should be between 0 and " + MAX_PRINT_YEAR +
+                    ": " + printYear);
+        }
+
+        return printYear;
+    }
+
+    private static boolean parseRead(String field) {
+        val read = field.trim();
+
+        if ("true".equalsIgnoreCase(read)) {
+            return true;
+        }
+
+        if ("false".equalsIgnoreCase(read)) {
+            return false;
+        }
+
+        throw new IllegalArgumentException("Field: read should be true or false: " + field);
+    }
+}
@@ -0,0 +1,74 @@
+package com.qthegamep.bookmanager3.importer;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is a report of the book import. Rows of chunks that were committed by the previous run of the import
+ * are counted as skipped rows. Only first rejections are kept in the report, all of them are counted in the
+ * number of rejected rows. Import is completed when all chunks are committed, otherwise it should be started again
+ * with the same import id, and only chunks that are not committed yet will be imported.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class BookImportReport {
+
+    private final String importId;
+    private final long importedRows;
+    private final long rejectedRows;
+    private final long skippedRows;
+    private final long committedChunks;
+    private final long skippedChunks;
+    private final long failedChunks;
+    private final long elapsedMillis;
+    private final List<String> rejections;
+
+    /**
+     * This is the constructor that creates report.
+     *
+     * @param importId        is the id of the import.
+     *                        Should not be null.
+     * @param importedRows    is the number of rows that were imported by this run.
+     * @param rejectedRows    is the number of rows that were rejected by this run.
+     * @param skippedRows     is the number of rows of chunks that were committed by the previous run.
+     * @param committedChunks is the number of chunks that were committed by this run.
+     * @param skippedChunks   is the number of chunks that were committed by the previous run.
+     * @param failedChunks    is the number of chunks that were not committed.
+     * @param elapsedMillis   is the time of this run in milliseconds.
+     * @param rejections      is the list of first rejections, each of them is the line number and the reason.
+     *                        Should not be null.
+     */
+    public BookImportReport(@NonNull String importId, long importedRows, long rejectedRows, long skippedRows,
+                            long committedChunks, long skippedChunks, long failedChunks, long elapsedMillis,
+                            @NonNull List<String> rejections) {
+        this.importId = importId;
+        this.importedRows = importedRows;
+        this.rejectedRows = rejectedRows;
+        this.skippedRows = skippedRows;
+        this.committedChunks = committedChunks;
+        this.skippedChunks = skippedChunks;
+        this.failedChunks = failedChunks;
+        this.elapsedMillis = elapsedMillis;
+        this.rejections = Collections.unmodifiableList(rejections);
+    }
+
+    /**
+     * @return number of imported and rejected rows per second of this run.
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : (importedRows + rejectedRows) * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * @return true if all chunks of the file are committed.
+     */
+    public boolean isCompleted() {
+        return failedChunks == 0;
+    }
+}
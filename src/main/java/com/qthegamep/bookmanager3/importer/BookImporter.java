@@ -0,0 +1,376 @@
+package com.qthegamep.bookmanager3.importer;
+
+import com.qthegamep.bookmanager3.concurrent.ThreadFactories;
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.entity.BookImportChunk;
+import com.qthegamep.bookmanager3.repository.BookImportChunkRepository;
+import com.qthegamep.bookmanager3.repository.BookRepository;
+import com.qthegamep.bookmanager3.search.BookSearchIndex;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * This class is an importer of book entities from CSV and TSV files, see {@link BookImportFormat}.
+ * The file is read line by line, so memory does not depend on the size of the file. Lines are grouped into chunks
+ * of the chunk size, and chunks are parsed, validated and inserted by the number of worker threads, each chunk
+ * in its own transaction with JDBC batching of inserts. At most two chunks per worker are read ahead.
+ * Incorrect rows are rejected and the rest of the chunk is inserted. Committed chunk is saved as
+ * {@link com.qthegamep.bookmanager3.entity.BookImportChunk} in the transaction of the chunk, so when the import
+ * is started again with the same import id after a crash or failed chunks, committed chunks are skipped and
+ * every row is inserted once. Committed chunks keep their first line and number of lines, so the import that is
+ * started again with other chunk size or header is rejected before any chunk is inserted. Books of the committed
+ * chunk are added to the full-text search index after the commit of the chunk transaction, so books of failed
+ * chunks are not found by the search.
+ */
+@Slf4j
+public class BookImporter {
+
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final int CHUNKS_READ_AHEAD_PER_WORKER = 2;
+
+    private final BookRepository bookRepository;
+    private final BookImportChunkRepository bookImportChunkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BookSearchIndex searchIndex;
+    private final int chunkSize;
+    private final int workers;
+
+    /**
+     * This is constructor that creates importer that has its own empty search index.
+     *
+     * @param bookRepository            is the repository of book entities.
+     *                                  Should not be null.
+     * @param bookImportChunkRepository is the repository of committed chunks.
+     *                                  Should not be null.
+     * @param transactionManager        is the transaction manager of chunk transactions.
+     *                                  Should not be null.
+     * @param chunkSize                 is the number of lines of the chunk.
+     * @param workers                   is the number of threads that import chunks.
+     */
+    public BookImporter(@NonNull BookRepository bookRepository,
+                        @NonNull BookImportChunkRepository bookImportChunkRepository,
+                        @NonNull PlatformTransactionManager transactionManager,
+                        int chunkSize,
+                        int workers) {
+        this(bookRepository, bookImportChunkRepository, transactionManager, new BookSearchIndex(), chunkSize, workers);
+    }
+
+    /**
+     * This is constructor that creates importer.
+     *
+     * @param bookRepository            is the repository of book entities.
+     *                                  Should not be null.
+     * @param bookImportChunkRepository is the repository of committed chunks.
+     *                                  Should not be null.
+     * @param transactionManager        is the transaction manager of chunk transactions.
+     *                                  Should not be null.
+     * @param searchIndex               is the search index to which books of committed chunks are added.
+     *                                  Should not be null.
+     * @param chunkSize                 is the number of lines of the chunk.
+     * @param workers                   is the number of threads that import chunks.
+     */
+    public BookImporter(@NonNull BookRepository bookRepository,
+                        @NonNull BookImportChunkRepository bookImportChunkRepository,
+                        @NonNull PlatformTransactionManager transactionManager,
+                        @NonNull BookSearchIndex searchIndex,
+                        int chunkSize,
+                        int workers) {
+        if (chunkSize < 1 || workers < 1) {
+            throw new IllegalArgumentException("Chunk size: " + chunkSize + " and workers: " + workers +
+                    " should be positive");
+        }
+
+        this.bookRepository = bookRepository;
+        this.bookImportChunkRepository = bookImportChunkRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.searchIndex = searchIndex;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+    }
+
+    /**
+     * This method imports the file with the import id that is made of the name, the size and the last modified
+     * time of the file, so the same file is resumed and the changed file is imported again.
+     *
+     * @param file   is the path of the file.
+     *               Should not be null.
+     * @param format is the format of the file.
+     *               Should not be null.
+     * @return report of the import.
+     * @throws IOException when the file is not read.
+     */
+    public BookImportReport importFile(@NonNull Path file, @NonNull BookImportFormat format) throws IOException {
+        val importId = file.getFileName() + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+
+        return importFile(file, format, importId);
+    }
+
+    /**
+     * This method imports the file. Chunks of the import id that are already committed are skipped.
+     * If committed chunks of the import id were read with other chunk size or header then would be thrown
+     * {@link java.lang.IllegalArgumentException} before any chunk is inserted.
+     *
+     * @param file     is the path of the file.
+     *                 Should not be null.
+     * @param format   is the format of the file.
+     *                 Should not be null.
+     * @param importId is the id of the import.
+     *                 Should not be null.
+     * @return report of the import.
+     * @throws IOException              when the file is not read. Chunks that are read before are committed.
+     * @throws IllegalArgumentException when committed chunks of the import id have other chunking.
+     */
+    public BookImportReport importFile(@NonNull Path file,
+                                       @NonNull BookImportFormat format,
+                                       @NonNull String importId) throws IOException, IllegalArgumentException {
+        val committedChunks = bookImportChunkRepository.findByImportId(importId).stream()
+                .collect(Collectors.toMap(BookImportChunk::getChunkNumber, Function.identity()));
+
+        log.info("Preparing to import file: {} with import id: {}, already committed chunks: {}",
+                file, importId, committedChunks.size());
+
+        val progress = new Progress();
+        val startTime = System.nanoTime();
+        val executor = Executors.newFixedThreadPool(workers, ThreadFactories.platform("book-import-"));
+        val readAhead = new Semaphore(workers * CHUNKS_READ_AHEAD_PER_WORKER);
+        val futures = new ArrayList<CompletableFuture<Void>>();
+
+        try (val reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            var lines = new ArrayList<String>(chunkSize);
+            var firstLineNumber = 1L;
+            var chunkNumber = 0L;
+            var lineNumber = 0L;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (lineNumber == 1) {
+                    val header = format.isHeader(line);
+
+                    checkChunking(importId, committedChunks.values(), header ? 2 : 1);
+
+                    if (header) {
+                        firstLineNumber++;
+                        continue;
+                    }
+                }
+
+                lines.add(line);
+
+                if (lines.size() == chunkSize) {
+                    submitChunk(importId, format, new Chunk(chunkNumber++, firstLineNumber, lines),
+                            committedChunks, progress, executor, readAhead, futures);
+
+                    lines = new ArrayList<>(chunkSize);
+                    firstLineNumber = lineNumber + 1;
+                }
+            }
+
+            if (!lines.isEmpty()) {
+                submitChunk(importId, format, new Chunk(chunkNumber, firstLineNumber, lines),
+                        committedChunks, progress, executor, readAhead, futures);
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdown();
+
+            awaitTermination(executor);
+        }
+
+        val report = progress.toReport(importId, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        log.info("File: {} was imported with import id: {}, imported rows: {}, rejected rows: {}, skipped rows: {}, " +
+                        "failed chunks: {}, rows per second: {}", file, importId, report.getImportedRows(),
+                report.getRejectedRows(), report.getSkippedRows(), report.getFailedChunks(),
+                Math.round(report.getRowsPerSecond()));
+
+        return report;
+    }
+
+    private void checkChunking(String importId, Collection<BookImportChunk> committedChunks,
+                               long firstRowLineNumber) throws IllegalArgumentException {
+        for (val committedChunk : committedChunks) {
+            val expectedFirstLineNumber = firstRowLineNumber + committedChunk.getChunkNumber() * chunkSize;
+
+            if (committedChunk.getFirstLineNumber() != expectedFirstLineNumber
+                    || committedChunk.getLineCount() > chunkSize) {
+                throw new IllegalArgumentException("Import: " + importId + " was started with other chunking, " +
+                        "committed chunk: " + committedChunk.getChunkNumber() + " starts at line: " +
+                        committedChunk.getFirstLineNumber() + " and has lines: " + committedChunk.getLineCount() +
+                        ", but with chunk size: " + chunkSize + " it should start at line: " +
+                        expectedFirstLineNumber);
+            }
+        }
+    }
+
+    private void submitChunk(String importId, BookImportFormat format, Chunk chunk,
+                             Map<Long, BookImportChunk> committedChunks, Progress progress, ExecutorService executor,
+                             Semaphore readAhead, List<CompletableFuture<Void>> futures)
+            throws InterruptedIOException {
+        if (committedChunks.containsKey(chunk.number)) {
+            progress.skippedChunks.increment();
+            progress.skippedRows.add(chunk.lines.size());
+
+            return;
+        }
+
+        try {
+            readAhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Import: " + importId + " was interrupted");
+        }
+
+        futures.add(CompletableFuture.runAsync(() -> {
+            try {
+                importChunk(importId, format, chunk, progress);
+            } finally {
+                readAhead.release();
+            }
+        }, executor));
+    }
+
+    private void importChunk(String importId, BookImportFormat format, Chunk chunk, Progress progress) {
+        val books = new ArrayList<Book>(chunk.lines.size());
+        var lineNumber = chunk.firstLineNumber;
+
+        for (val line : chunk.lines) {
+            if (!line.trim().isEmpty()) {
+                try {
+                    books.add(format.parse(line));
+                } catch (IllegalArgumentException e) {
+                    progress.reject(lineNumber, e.getMessage());
+                }
+            }
+
+            lineNumber++;
+        }
+
+        val rejectedRows = (int) chunk.lines.stream()
+                .filter(line -> !line.trim().isEmpty())
+                .count() - books.size();
+
+        try {
+            transactionTemplate.execute(status -> {
+                val savedBooks = bookRepository.saveAll(books);
+
+                afterCommit(() -> searchIndex.indexAll(savedBooks));
+
+                bookImportChunkRepository.save(
+                        new BookImportChunk(importId, chunk.number, chunk.firstLineNumber, chunk.lines.size(),
+                                books.size(), rejectedRows));
+
+                return null;
+            });
+
+            progress.importedRows.add(books.size());
+            progress.rejectedRows.add(rejectedRows);
+            progress.committedChunks.increment();
+
+            log.debug("Chunk: {} of import: {} was committed, imported rows: {}, rejected rows: {}",
+                    chunk.number, importId, books.size(), rejectedRows);
+        } catch (RuntimeException e) {
+            progress.failedChunks.increment();
+
+            log.error("Chunk: {} of import: {} was not committed", chunk.number, importId, e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void awaitTermination(ExecutorService executor) throws InterruptedIOException {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Waiting for chunks of the import to be committed");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Import was interrupted");
+        }
+    }
+
+    private static final class Chunk {
+
+        private final long number;
+        private final long firstLineNumber;
+        private final List<String> lines;
+
+        private Chunk(long number, long firstLineNumber, List<String> lines) {
+            this.number = number;
+            this.firstLineNumber = firstLineNumber;
+            this.lines = lines;
+        }
+    }
+
+    private static final class Progress {
+
+        private final LongAdder importedRows = new LongAdder();
+        private final LongAdder rejectedRows = new LongAdder();
+        private final LongAdder skippedRows = new LongAdder();
+        private final LongAdder committedChunks = new LongAdder();
+        private final LongAdder skippedChunks = new LongAdder();
+        private final LongAdder failedChunks = new LongAdder();
+        private final NavigableMap<Long, String> firstRejections = new ConcurrentSkipListMap<>();
+
+        private void reject(long lineNumber, String reason) {
+            firstRejections.put(lineNumber, "Line " + lineNumber + ": " + reason);
+
+            while (firstRejections.size() > MAX_REPORTED_REJECTIONS) {
+                firstRejections.pollLastEntry();
+            }
+        }
+
+        private BookImportReport toReport(String importId, long elapsedMillis) {
+            return new BookImportReport(importId, importedRows.sum(), rejectedRows.sum(), skippedRows.sum(),
+                    committedChunks.sum(), skippedChunks.sum(), failedChunks.sum(), elapsedMillis,
+                    new ArrayList<>(firstRejections.values()));
+        }
+    }
+}
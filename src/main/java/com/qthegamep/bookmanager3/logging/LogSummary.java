@@ -0,0 +1,84 @@
+package com.qthegamep.bookmanager3.logging;
+
+import com.qthegamep.bookmanager3.entity.Book;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * This class is a short log representation of the collection of book entities or ids.
+ * It contains only the number of elements and ids of the first and the last element of the list, so the cost
+ * of logging does not depend on the size of the collection. The summary is built lazily in {@link #toString()},
+ * that is called by the logger only if the message is logged, and it reads at most two elements.
+ * Ids are not read from collections without random access, elements without id are counted only.
+ *
+ * @param <T> is the type of elements of the collection.
+ */
+public class LogSummary<T> {
+
+    private final Collection<? extends T> elements;
+    private final Function<? super T, Long> idExtractor;
+
+    private LogSummary(Collection<? extends T> elements, Function<? super T, Long> idExtractor) {
+        this.elements = elements;
+        this.idExtractor = idExtractor;
+    }
+
+    /**
+     * This method creates summary of book entities.
+     *
+     * @param books is the collection of entities.
+     *              Should not be null.
+     * @return summary of book entities.
+     */
+    public static LogSummary<Book> ofBooks(@NonNull Collection<? extends Book> books) {
+        return new LogSummary<>(books, Book::getId);
+    }
+
+    /**
+     * This method creates summary of ids.
+     *
+     * @param ids is the collection of ids.
+     *            Should not be null.
+     * @return summary of ids.
+     */
+    public static LogSummary<Long> ofIds(@NonNull Collection<Long> ids) {
+        return new LogSummary<>(ids, id -> id);
+    }
+
+    /**
+     * @return summary in the format: "count: N, first id: X, last id: Y", ids are omitted if they are unknown.
+     */
+    @Override
+    public String toString() {
+        val summary = new StringBuilder("count: ").append(elements.size());
+
+        if (elements.isEmpty() || !(elements instanceof List) || !(elements instanceof RandomAccess)) {
+            return summary.toString();
+        }
+
+        val list = (List<? extends T>) elements;
+        val firstId = getId(list.get(0));
+        val lastId = getId(list.get(list.size() - 1));
+
+        if (Objects.nonNull(firstId)) {
+            summary.append(", first id: ").append(firstId);
+        }
+
+        if (Objects.nonNull(lastId)) {
+            summary.append(", last id: ").append(lastId);
+        }
+
+        return summary.toString();
+    }
+
+    private Long getId(T element) {
+        return Objects.isNull(element) ? null : idExtractor.apply(element);
+    }
+}
@@ -0,0 +1,427 @@
+package com.qthegamep.bookmanager3.metrics;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import org.hibernate.stat.Statistics;
+
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class is a hibernate statistics metrics class that is responsible for taking periodic snapshots of
+ * the hibernate statistics and computing deltas of counters and queries for the last interval between snapshots.
+ * Counters include entity, collection, flush, connection, transaction and cache counts, query statistics include
+ * number of executions, rows and average execution time in the interval and the max execution time since start.
+ * All values are exposed through JMX and every snapshot can be logged as one compact line.
+ * Snapshots are taken by the daemon thread of this class or on demand through JMX.
+ */
+@Slf4j
+@ManagedResource(objectName = "com.qthegamep.bookmanager3:type=HibernateStatisticsMetrics",
+        description = "Hibernate statistics and their deltas for the last interval")
+public class HibernateStatisticsMetrics implements AutoCloseable {
+
+    private static final Map<String, ToLongFunction<Statistics>> COUNTERS = createCounters();
+    private static final String[] COUNTER_NAMES = COUNTERS.keySet().toArray(new String[0]);
+
+    private static final String[] COUNTER_ITEM_NAMES = {"counter", "total", "delta"};
+    private static final String[] COUNTER_ITEM_DESCRIPTIONS = {
+            "Name of the counter",
+            "Value of the counter since start",
+            "Change of the counter in the last interval"
+    };
+    private static final OpenType<?>[] COUNTER_ITEM_TYPES = {SimpleType.STRING, SimpleType.LONG, SimpleType.LONG};
+
+    private static final String[] QUERY_ITEM_NAMES = {"query", "count", "rows", "avgTime", "maxTime"};
+    private static final String[] QUERY_ITEM_DESCRIPTIONS = {
+            "Query string",
+            "Number of executions in the last interval",
+            "Number of returned rows in the last interval",
+            "Average execution time in the last interval, ms",
+            "Max execution time since start, ms"
+    };
+    private static final OpenType<?>[] QUERY_ITEM_TYPES = {
+            SimpleType.STRING, SimpleType.LONG, SimpleType.LONG, SimpleType.DOUBLE, SimpleType.LONG
+    };
+
+    private final Statistics statistics;
+    private final long intervalMillis;
+    private final boolean logSnapshot;
+
+    private ScheduledExecutorService scheduler;
+    private Snapshot previousSnapshot;
+
+    private volatile Interval lastInterval = new Interval(0L, new long[COUNTER_NAMES.length],
+            new long[COUNTER_NAMES.length], Collections.emptyMap());
+
+    /**
+     * This is the constructor that creates metrics of the given hibernate statistics.
+     *
+     * @param statistics     is the statistics of the session factory.
+     *                       Should not be null.
+     * @param intervalMillis is the interval between snapshots in milliseconds.
+     *                       If it is not positive then snapshots are taken only on demand.
+     * @param logSnapshot    is the flag that enables logging of every snapshot.
+     */
+    public HibernateStatisticsMetrics(@NonNull Statistics statistics, long intervalMillis, boolean logSnapshot) {
+        this.statistics = statistics;
+        this.intervalMillis = intervalMillis;
+        this.logSnapshot = logSnapshot;
+        this.previousSnapshot = Snapshot.of(statistics, System.currentTimeMillis());
+    }
+
+    /**
+     * This method starts the thread that takes snapshots with the interval.
+     * It does nothing if the interval is not positive or snapshots are already started.
+     */
+    public synchronized void start() {
+        if (intervalMillis <= 0 || Objects.nonNull(scheduler)) {
+            return;
+        }
+
+        log.info("Preparing to take snapshots of hibernate statistics every {} ms", intervalMillis);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            val thread = new Thread(runnable, "hibernate-statistics-metrics");
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        scheduler.scheduleAtFixedRate(this::snapshotSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * This method stops the thread that takes snapshots.
+     */
+    @Override
+    public synchronized void close() {
+        if (Objects.nonNull(scheduler)) {
+            log.info("Preparing to stop snapshots of hibernate statistics");
+
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * This method takes snapshot of the statistics and computes deltas since the previous snapshot.
+     */
+    @ManagedOperation(description = "Take snapshot of hibernate statistics and compute deltas for the interval")
+    public synchronized void snapshot() {
+        val snapshot = Snapshot.of(statistics, System.currentTimeMillis());
+        val interval = Interval.between(previousSnapshot, snapshot);
+
+        previousSnapshot = snapshot;
+        lastInterval = interval;
+
+        if (logSnapshot) {
+            log.info("Hibernate statistics: {}", interval);
+        }
+    }
+
+    /**
+     * @return length of the last interval in milliseconds.
+     */
+    @ManagedAttribute(description = "Length of the last interval, ms")
+    public long getLastIntervalMillis() {
+        return lastInterval.millis;
+    }
+
+    /**
+     * @return second level cache hit ratio in the last interval or 0 if there were no cache lookups.
+     */
+    @ManagedAttribute(description = "Second level cache hit ratio in the last interval")
+    public double getSecondLevelCacheHitRatio() {
+        return lastInterval.getRatio("secondLevelCacheHit", "secondLevelCacheMiss");
+    }
+
+    /**
+     * @return query cache hit ratio in the last interval or 0 if there were no cache lookups.
+     */
+    @ManagedAttribute(description = "Query cache hit ratio in the last interval")
+    public double getQueryCacheHitRatio() {
+        return lastInterval.getRatio("queryCacheHit", "queryCacheMiss");
+    }
+
+    /**
+     * @return table with totals and deltas of the last interval by counter.
+     */
+    @ManagedAttribute(description = "Totals and deltas of the last interval by counter")
+    public TabularData getCounters() {
+        try {
+            val rowType = new CompositeType("HibernateCounter", "Hibernate statistics counter",
+                    COUNTER_ITEM_NAMES, COUNTER_ITEM_DESCRIPTIONS, COUNTER_ITEM_TYPES);
+            val table = new TabularDataSupport(new TabularType("HibernateCounters",
+                    "Hibernate statistics counters", rowType, new String[]{"counter"}));
+            val interval = lastInterval;
+
+            for (int i = 0; i < COUNTER_NAMES.length; i++) {
+                table.put(new CompositeDataSupport(rowType, COUNTER_ITEM_NAMES, new Object[]{
+                        COUNTER_NAMES[i],
+                        interval.totals[i],
+                        interval.deltas[i]
+                }));
+            }
+
+            return table;
+        } catch (OpenDataException e) {
+            throw new IllegalStateException("Unable to create table of hibernate counters", e);
+        }
+    }
+
+    /**
+     * @return table with executions, rows and execution times of queries that were executed in the last interval.
+     */
+    @ManagedAttribute(description = "Executions, rows and execution times (ms) of queries in the last interval")
+    public TabularData getQueries() {
+        try {
+            val rowType = new CompositeType("HibernateQuery", "Hibernate query statistics",
+                    QUERY_ITEM_NAMES, QUERY_ITEM_DESCRIPTIONS, QUERY_ITEM_TYPES);
+            val table = new TabularDataSupport(new TabularType("HibernateQueries",
+                    "Hibernate query statistics", rowType, new String[]{"query"}));
+
+            for (val query : lastInterval.queries.values()) {
+                table.put(new CompositeDataSupport(rowType, QUERY_ITEM_NAMES, new Object[]{
+                        query.query,
+                        query.count,
+                        query.rows,
+                        query.getAvgTime(),
+                        query.maxTime
+                }));
+            }
+
+            return table;
+        } catch (OpenDataException e) {
+            throw new IllegalStateException("Unable to create table of hibernate queries", e);
+        }
+    }
+
+    /**
+     * This method returns change of the counter in the last interval.
+     *
+     * @param counter is the name of the counter.
+     * @return change of the counter or 0 if there is no such counter.
+     */
+    @ManagedOperation(description = "Change of the counter in the last interval")
+    public long getCounterDelta(String counter) {
+        val index = indexOf(counter);
+
+        return index < 0 ? 0L : lastInterval.deltas[index];
+    }
+
+    private void snapshotSafely() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.warn("Unable to take snapshot of hibernate statistics", e);
+        }
+    }
+
+    private static int indexOf(String counter) {
+        for (int i = 0; i < COUNTER_NAMES.length; i++) {
+            if (COUNTER_NAMES[i].equals(counter)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static Map<String, ToLongFunction<Statistics>> createCounters() {
+        val counters = new LinkedHashMap<String, ToLongFunction<Statistics>>();
+
+        counters.put("queryExecution", Statistics::getQueryExecutionCount);
+        counters.put("entityLoad", Statistics::getEntityLoadCount);
+        counters.put("entityFetch", Statistics::getEntityFetchCount);
+        counters.put("entityInsert", Statistics::getEntityInsertCount);
+        counters.put("entityUpdate", Statistics::getEntityUpdateCount);
+        counters.put("entityDelete", Statistics::getEntityDeleteCount);
+        counters.put("collectionLoad", Statistics::getCollectionLoadCount);
+        counters.put("collectionFetch", Statistics::getCollectionFetchCount);
+        counters.put("flush", Statistics::getFlushCount);
+        counters.put("connect", Statistics::getConnectCount);
+        counters.put("sessionOpen", Statistics::getSessionOpenCount);
+        counters.put("transaction", Statistics::getTransactionCount);
+        counters.put("prepareStatement", Statistics::getPrepareStatementCount);
+        counters.put("optimisticFailure", Statistics::getOptimisticFailureCount);
+        counters.put("secondLevelCacheHit", Statistics::getSecondLevelCacheHitCount);
+        counters.put("secondLevelCacheMiss", Statistics::getSecondLevelCacheMissCount);
+        counters.put("secondLevelCachePut", Statistics::getSecondLevelCachePutCount);
+        counters.put("queryCacheHit", Statistics::getQueryCacheHitCount);
+        counters.put("queryCacheMiss", Statistics::getQueryCacheMissCount);
+        counters.put("queryCachePut", Statistics::getQueryCachePutCount);
+
+        return Collections.unmodifiableMap(counters);
+    }
+
+    private static final class Snapshot {
+
+        private final long time;
+        private final long[] counters;
+        private final Map<String, QueryValues> queries;
+
+        private Snapshot(long time, long[] counters, Map<String, QueryValues> queries) {
+            this.time = time;
+            this.counters = counters;
+            this.queries = queries;
+        }
+
+        private static Snapshot of(Statistics statistics, long time) {
+            val counters = new long[COUNTER_NAMES.length];
+
+            var i = 0;
+
+            for (val counter : COUNTERS.values()) {
+                counters[i++] = counter.applyAsLong(statistics);
+            }
+
+            val queryStrings = statistics.getQueries();
+            val queries = new HashMap<String, QueryValues>();
+
+            for (val query : Objects.isNull(queryStrings) ? new String[0] : queryStrings) {
+                val queryStatistics = statistics.getQueryStatistics(query);
+
+                queries.put(query, new QueryValues(query,
+                        queryStatistics.getExecutionCount(),
+                        queryStatistics.getExecutionRowCount(),
+                        queryStatistics.getExecutionTotalTime(),
+                        queryStatistics.getExecutionMaxTime()));
+            }
+
+            return new Snapshot(time, counters, queries);
+        }
+    }
+
+    private static final class Interval {
+
+        private final long millis;
+        private final long[] totals;
+        private final long[] deltas;
+        private final Map<String, QueryValues> queries;
+
+        private Interval(long millis, long[] totals, long[] deltas, Map<String, QueryValues> queries) {
+            this.millis = millis;
+            this.totals = totals;
+            this.deltas = deltas;
+            this.queries = queries;
+        }
+
+        private static Interval between(Snapshot previous, Snapshot current) {
+            val deltas = new long[COUNTER_NAMES.length];
+
+            for (int i = 0; i < COUNTER_NAMES.length; i++) {
+                deltas[i] = Math.max(current.counters[i] - previous.counters[i], 0L);
+            }
+
+            val queries = new HashMap<String, QueryValues>();
+
+            for (val query : current.queries.values()) {
+                val previousQuery = previous.queries.get(query.query);
+                val delta = Objects.isNull(previousQuery) ? query : query.minus(previousQuery);
+
+                if (delta.count > 0) {
+                    queries.put(query.query, delta);
+                }
+            }
+
+            return new Interval(current.time - previous.time, current.counters, deltas, queries);
+        }
+
+        private long getDelta(String counter) {
+            return deltas[indexOf(counter)];
+        }
+
+        private double getRatio(String hitCounter, String missCounter) {
+            val hits = getDelta(hitCounter);
+            val lookups = hits + getDelta(missCounter);
+
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        private static String format(double value) {
+            return String.format("%.2f", value);
+        }
+
+        private QueryValues getSlowestQuery() {
+            QueryValues slowestQuery = null;
+
+            for (val query : queries.values()) {
+                if (Objects.isNull(slowestQuery) || query.getAvgTime() > slowestQuery.getAvgTime()) {
+                    slowestQuery = query;
+                }
+            }
+
+            return slowestQuery;
+        }
+
+        @Override
+        public String toString() {
+            val slowestQuery = getSlowestQuery();
+
+            return "interval: " + millis + " ms" +
+                    ", queries: " + getDelta("queryExecution") +
+                    ", entities loaded/fetched/inserted/updated/deleted: " + getDelta("entityLoad") +
+                    "/" + getDelta("entityFetch") +
+                    "/" + getDelta("entityInsert") +
+                    "/" + getDelta("entityUpdate") +
+                    "/" + getDelta("entityDelete") +
+                    ", flushes: " + getDelta("flush") +
+                    ", connections: " + getDelta("connect") +
+                    ", L2 hit ratio: " + format(getRatio("secondLevelCacheHit", "secondLevelCacheMiss")) +
+                    ", query cache hit ratio: " + format(getRatio("queryCacheHit", "queryCacheMiss")) +
+                    (Objects.isNull(slowestQuery) ? "" : ", slowest query: " + slowestQuery.query +
+                            " {avg: " + format(slowestQuery.getAvgTime()) + "ms" +
+                            ", count: " + slowestQuery.count + "}");
+        }
+    }
+
+    private static final class QueryValues {
+
+        private final String query;
+        private final long count;
+        private final long rows;
+        private final long totalTime;
+        private final long maxTime;
+
+        private QueryValues(String query, long count, long rows, long totalTime, long maxTime) {
+            this.query = query;
+            this.count = count;
+            this.rows = rows;
+            this.totalTime = totalTime;
+            this.maxTime = maxTime;
+        }
+
+        private QueryValues minus(QueryValues previous) {
+            return new QueryValues(query,
+                    Math.max(count - previous.count, 0L),
+                    Math.max(rows - previous.rows, 0L),
+                    Math.max(totalTime - previous.totalTime, 0L),
+                    maxTime);
+        }
+
+        private double getAvgTime() {
+            return count == 0 ? 0.0 : (double) totalTime / count;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.qthegamep.bookmanager3.metrics;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a service metrics class that is responsible for collecting metrics of service methods:
+ * number of calls, number of errors by exception type, latency histogram and, for bulk methods, histogram of
+ * the number of entities per call. It is the default {@link ServiceMetricsRegistry} and all values are exposed
+ * through JMX. Latencies are recorded in microseconds into lock-free histograms and counters are striped, so
+ * recording does not block callers.
+ */
+@Slf4j
+@ManagedResource(objectName = "com.qthegamep.bookmanager3:type=ServiceMetrics",
+        description = "Calls, errors, latency and items per call of service methods")
+public class ServiceMetrics implements ServiceMetricsRegistry {
+
+    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+
+    private static final String[] METHOD_ITEM_NAMES = {
+            "method", "count", "errors", "p50", "p99", "p999", "max", "itemsMean", "itemsMax"
+    };
+    private static final String[] METHOD_ITEM_DESCRIPTIONS = {
+            "Name of the service method",
+            "Number of calls",
+            "Number of calls that have thrown an exception",
+            "50th percentile of latency, us",
+            "99th percentile of latency, us",
+            "99.9th percentile of latency, us",
+            "Max latency, us",
+            "Mean number of entities per call of the bulk method",
+            "Max number of entities per call of the bulk method"
+    };
+    private static final OpenType<?>[] METHOD_ITEM_TYPES = {
+            SimpleType.STRING, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG,
+            SimpleType.LONG, SimpleType.LONG, SimpleType.DOUBLE, SimpleType.LONG
+    };
+
+    private static final String[] ERROR_ITEM_NAMES = {"method", "exception", "count"};
+    private static final String[] ERROR_ITEM_DESCRIPTIONS = {
+            "Name of the service method",
+            "Class of the thrown exception",
+            "Number of thrown exceptions"
+    };
+    private static final OpenType<?>[] ERROR_ITEM_TYPES = {SimpleType.STRING, SimpleType.STRING, SimpleType.LONG};
+
+    private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordSuccess(@NonNull String method, long elapsedNanos, int numberOfItems) {
+        val methodMetrics = getMethodMetrics(method);
+
+        methodMetrics.latency.recordValue(toMicros(elapsedNanos));
+
+        if (numberOfItems >= 0) {
+            methodMetrics.items.recordValue(numberOfItems);
+        }
+    }
+
+    @Override
+    public void recordFailure(@NonNull String method, long elapsedNanos, @NonNull Throwable error) {
+        val methodMetrics = getMethodMetrics(method);
+
+        methodMetrics.latency.recordValue(toMicros(elapsedNanos));
+        methodMetrics.errors.computeIfAbsent(error.getClass().getName(), key -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return number of calls of all service methods.
+     */
+    @ManagedAttribute(description = "Number of calls of service methods")
+    public long getCount() {
+        var count = 0L;
+
+        for (val methodMetrics : methods.values()) {
+            count += methodMetrics.latency.getTotalCount();
+        }
+
+        return count;
+    }
+
+    /**
+     * @return number of calls of all service methods that have thrown an exception.
+     */
+    @ManagedAttribute(description = "Number of calls of service methods that have thrown an exception")
+    public long getErrorCount() {
+        var errorCount = 0L;
+
+        for (val methodMetrics : methods.values()) {
+            errorCount += methodMetrics.getErrorCount();
+        }
+
+        return errorCount;
+    }
+
+    /**
+     * @return table with the number of calls, errors, percentiles of latency in microseconds and
+     * number of entities per call by service method.
+     */
+    @ManagedAttribute(description = "Calls, errors, percentiles of latency (us) and items per call by method")
+    public TabularData getMethods() {
+        try {
+            val rowType = new CompositeType("ServiceMethod", "Metrics of one service method",
+                    METHOD_ITEM_NAMES, METHOD_ITEM_DESCRIPTIONS, METHOD_ITEM_TYPES);
+            val table = new TabularDataSupport(new TabularType("ServiceMethods",
+                    "Metrics of service methods", rowType, new String[]{"method"}));
+
+            for (val method : methods.entrySet()) {
+                val latency = method.getValue().latency.copy();
+                val items = method.getValue().items.copy();
+
+                table.put(new CompositeDataSupport(rowType, METHOD_ITEM_NAMES, new Object[]{
+                        method.getKey(),
+                        latency.getTotalCount(),
+                        method.getValue().getErrorCount(),
+                        latency.getValueAtPercentile(50.0),
+                        latency.getValueAtPercentile(99.0),
+                        latency.getValueAtPercentile(99.9),
+                        latency.getMaxValue(),
+                        items.getTotalCount() == 0 ? 0.0 : items.getMean(),
+                        items.getMaxValue()
+                }));
+            }
+
+            return table;
+        } catch (OpenDataException e) {
+            throw new IllegalStateException("Unable to create table of service methods", e);
+        }
+    }
+
+    /**
+     * @return table with the number of thrown exceptions by service method and exception class.
+     */
+    @ManagedAttribute(description = "Number of thrown exceptions by method and exception class")
+    public TabularData getErrors() {
+        try {
+            val rowType = new CompositeType("ServiceError", "Exceptions of one class thrown by one service method",
+                    ERROR_ITEM_NAMES, ERROR_ITEM_DESCRIPTIONS, ERROR_ITEM_TYPES);
+            val table = new TabularDataSupport(new TabularType("ServiceErrors",
+                    "Exceptions thrown by service methods", rowType, new String[]{"method", "exception"}));
+
+            for (val method : methods.entrySet()) {
+                for (val error : method.getValue().errors.entrySet()) {
+                    table.put(new CompositeDataSupport(rowType, ERROR_ITEM_NAMES, new Object[]{
+                            method.getKey(),
+                            error.getKey(),
+                            error.getValue().sum()
+                    }));
+                }
+            }
+
+            return table;
+        } catch (OpenDataException e) {
+            throw new IllegalStateException("Unable to create table of service errors", e);
+        }
+    }
+
+    /**
+     * This method returns number of calls of the service method.
+     *
+     * @param method is the name of the service method with types of parameters.
+     * @return number of calls.
+     */
+    @ManagedOperation(description = "Number of calls of the service method")
+    public long getCallCount(String method) {
+        val methodMetrics = methods.get(method);
+
+        return Objects.isNull(methodMetrics) ? 0L : methodMetrics.latency.getTotalCount();
+    }
+
+    /**
+     * This method returns number of exceptions of the class thrown by the service method.
+     *
+     * @param method    is the name of the service method with types of parameters.
+     * @param exception is the name of the exception class.
+     * @return number of thrown exceptions.
+     */
+    @ManagedOperation(description = "Number of exceptions of the class thrown by the service method")
+    public long getExceptionCount(String method, String exception) {
+        val methodMetrics = methods.get(method);
+
+        if (Objects.isNull(methodMetrics)) {
+            return 0L;
+        }
+
+        val errors = methodMetrics.errors.get(exception);
+
+        return Objects.isNull(errors) ? 0L : errors.sum();
+    }
+
+    /**
+     * This method returns percentile of latency of the service method.
+     *
+     * @param method     is the name of the service method with types of parameters.
+     * @param percentile is the percentile from 0 to 100.
+     * @return percentile of latency in microseconds or 0 if method was not called.
+     */
+    @ManagedOperation(description = "Percentile of latency of the service method, us")
+    public long getLatencyPercentile(String method, double percentile) {
+        val methodMetrics = methods.get(method);
+
+        return Objects.isNull(methodMetrics) ? 0L : methodMetrics.latency.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * This method returns mean number of entities per call of the bulk service method.
+     *
+     * @param method is the name of the service method with types of parameters.
+     * @return mean number of entities or 0 if method is not a bulk method or was not called.
+     */
+    @ManagedOperation(description = "Mean number of entities per call of the bulk service method")
+    public double getItemsMean(String method) {
+        val methodMetrics = methods.get(method);
+
+        return Objects.isNull(methodMetrics) || methodMetrics.items.getTotalCount() == 0
+                ? 0.0
+                : methodMetrics.items.getMean();
+    }
+
+    /**
+     * This method removes metrics of all service methods.
+     */
+    @ManagedOperation(description = "Reset metrics of all service methods")
+    public void reset() {
+        log.info("Preparing to reset service metrics");
+
+        methods.clear();
+    }
+
+    private MethodMetrics getMethodMetrics(String method) {
+        val methodMetrics = methods.get(method);
+
+        if (Objects.nonNull(methodMetrics)) {
+            return methodMetrics;
+        }
+
+        return methods.computeIfAbsent(method, key -> new MethodMetrics());
+    }
+
+    private static long toMicros(long elapsedNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(Math.max(elapsedNanos, 0L));
+    }
+
+    private static final class MethodMetrics {
+
+        private final Histogram latency = new ConcurrentHistogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+        private final Histogram items = new ConcurrentHistogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        private long getErrorCount() {
+            var errorCount = 0L;
+
+            for (val error : errors.values()) {
+                errorCount += error.sum();
+            }
+
+            return errorCount;
+        }
+    }
+}
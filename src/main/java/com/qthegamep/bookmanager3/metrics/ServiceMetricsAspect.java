@@ -0,0 +1,120 @@
+package com.qthegamep.bookmanager3.metrics;
+
+import lombok.NonNull;
+import lombok.val;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is an aspect that records metrics of every call of
+ * {@link com.qthegamep.bookmanager3.service.BookService} methods into all {@link ServiceMetricsRegistry} beans.
+ * It has the highest precedence, so the latency includes the transaction commit and errors include exceptions
+ * thrown on commit. Methods are named by the service interface, the method name and types of parameters,
+ * so overloaded methods have own metrics.
+ * Bulk methods are methods with a collection parameter or a collection result: the size of the first collection
+ * parameter, or of the result if there is no such parameter, is recorded as the number of items per call.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    private static final int NOT_BULK_METHOD = -1;
+
+    private final ServiceMetricsRegistry[] registries;
+    private final Map<Method, String> methodNames = new ConcurrentHashMap<>();
+
+    /**
+     * This is the constructor that creates aspect with the given registries.
+     *
+     * @param registries are the registries into which metrics will be recorded.
+     *                   Should not be null.
+     */
+    public ServiceMetricsAspect(@NonNull List<? extends ServiceMetricsRegistry> registries) {
+        this.registries = registries.toArray(new ServiceMetricsRegistry[0]);
+    }
+
+    /**
+     * This method calls the service method and records its latency, the number of items or the thrown exception.
+     *
+     * @param joinPoint is the call of the service method.
+     * @return result of the service method.
+     * @throws Throwable exception thrown by the service method.
+     */
+    @Around("execution(* com.qthegamep.bookmanager3.service.BookService+.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        val start = System.nanoTime();
+
+        final Object result;
+
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            val elapsedNanos = System.nanoTime() - start;
+            val method = getMethodName(joinPoint);
+
+            for (val registry : registries) {
+                registry.recordFailure(method, elapsedNanos, e);
+            }
+
+            throw e;
+        }
+
+        val elapsedNanos = System.nanoTime() - start;
+        val method = getMethodName(joinPoint);
+        val numberOfItems = getNumberOfItems(joinPoint.getArgs(), result);
+
+        for (val registry : registries) {
+            registry.recordSuccess(method, elapsedNanos, numberOfItems);
+        }
+
+        return result;
+    }
+
+    private String getMethodName(ProceedingJoinPoint joinPoint) {
+        val method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        val methodName = methodNames.get(method);
+
+        if (Objects.nonNull(methodName)) {
+            return methodName;
+        }
+
+        return methodNames.computeIfAbsent(method, ServiceMetricsAspect::toMethodName);
+    }
+
+    private static String toMethodName(Method method) {
+        val parameters = new StringJoiner(", ", "(", ")");
+
+        for (val parameterType : method.getParameterTypes()) {
+            parameters.add(parameterType.getSimpleName());
+        }
+
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName() + parameters;
+    }
+
+    private static int getNumberOfItems(Object[] args, Object result) {
+        for (val arg : args) {
+            if (arg instanceof Collection) {
+                return ((Collection<?>) arg).size();
+            }
+        }
+
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+
+        return NOT_BULK_METHOD;
+    }
+}
@@ -0,0 +1,29 @@
+package com.qthegamep.bookmanager3.metrics;
+
+/**
+ * This interface is a registry of service method metrics. Calls of service methods are recorded by
+ * {@link ServiceMetricsAspect} into every registry bean, so metrics can be published to any monitoring system
+ * by adding own implementation of this interface to the application context. Implementations are called on
+ * every service call and should be thread safe and should not block.
+ */
+public interface ServiceMetricsRegistry {
+
+    /**
+     * This method records successful call of the service method.
+     *
+     * @param method        is the name of the service method with types of parameters.
+     * @param elapsedNanos  is the latency of the call in nanoseconds.
+     * @param numberOfItems is the number of entities passed to or returned from the bulk method
+     *                      or -1 if method is not a bulk method.
+     */
+    void recordSuccess(String method, long elapsedNanos, int numberOfItems);
+
+    /**
+     * This method records call of the service method that has thrown an exception.
+     *
+     * @param method       is the name of the service method with types of parameters.
+     * @param elapsedNanos is the latency of the call in nanoseconds.
+     * @param error        is the thrown exception.
+     */
+    void recordFailure(String method, long elapsedNanos, Throwable error);
+}
@@ -0,0 +1,303 @@
+package com.qthegamep.bookmanager3.metrics;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * This class is a statement metrics class that is responsible for collecting latency histograms of jdbc
+ * statements. Latencies are recorded by {@link StatementMetricsListener} that is called by P6Spy, so there is
+ * one shared instance of this class. Every histogram is kept by category (statement, batch, commit, rollback)
+ * and by the shape of the sql query, where literals are replaced with "?", lists of parameters are collapsed
+ * to one "?" and comments are removed. Number of shapes is bounded: when it is reached latencies of new shapes
+ * are recorded under the {@link #OTHER_SHAPE} shape. Latencies are recorded in microseconds into lock-free
+ * histograms and are exposed through JMX.
+ */
+@Slf4j
+@ManagedResource(objectName = "com.qthegamep.bookmanager3:type=StatementMetrics",
+        description = "Latency histograms of jdbc statements by category and sql shape")
+public class StatementMetrics {
+
+    public static final String STATEMENT = "statement";
+    public static final String BATCH = "batch";
+    public static final String COMMIT = "commit";
+    public static final String ROLLBACK = "rollback";
+
+    static final String OTHER_SHAPE = "<other>";
+    static final int MAX_NUMBER_OF_SHAPES = 512;
+
+    private static final StatementMetrics INSTANCE = new StatementMetrics();
+
+    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+    private static final Pattern LIST_OF_PARAMETERS = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private static final String[] ITEM_NAMES = {"category", "sql", "count", "p50", "p99", "p999", "max"};
+    private static final String[] ITEM_DESCRIPTIONS = {
+            "Category of the statement",
+            "Shape of the sql query",
+            "Number of statements",
+            "50th percentile of latency, us",
+            "99th percentile of latency, us",
+            "99.9th percentile of latency, us",
+            "Max latency, us"
+    };
+    private static final OpenType<?>[] ITEM_TYPES = {
+            SimpleType.STRING, SimpleType.STRING, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG,
+            SimpleType.LONG, SimpleType.LONG
+    };
+
+    private final Map<String, Map<String, Histogram>> histograms = new ConcurrentHashMap<>();
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * @return shared instance that is used by P6Spy.
+     */
+    public static StatementMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This method records latency of the statement.
+     *
+     * @param category     is the category of the statement.
+     *                     Should not be null.
+     * @param sql          is the sql query of the statement or null if category has no query.
+     * @param elapsedNanos is the latency of the statement in nanoseconds.
+     */
+    public void record(@NonNull String category, String sql, long elapsedNanos) {
+        val shape = Objects.isNull(sql) || sql.isEmpty() ? category : getShape(sql);
+
+        getHistogram(category, shape).recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(elapsedNanos, 0L)));
+    }
+
+    /**
+     * @return number of recorded statements of all categories.
+     */
+    @ManagedAttribute(description = "Number of recorded statements")
+    public long getCount() {
+        var count = 0L;
+
+        for (val categoryHistograms : histograms.values()) {
+            for (val histogram : categoryHistograms.values()) {
+                count += histogram.getTotalCount();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * @return number of sql shapes that have own histogram.
+     */
+    @ManagedAttribute(description = "Number of sql shapes")
+    public int getNumberOfShapes() {
+        var numberOfShapes = 0;
+
+        for (val categoryHistograms : histograms.values()) {
+            numberOfShapes += categoryHistograms.size();
+        }
+
+        return numberOfShapes;
+    }
+
+    /**
+     * @return table with the count and percentiles of latency in microseconds by category and sql shape.
+     */
+    @ManagedAttribute(description = "Count and percentiles of latency by category and sql shape, us")
+    public TabularData getLatencies() {
+        try {
+            val rowType = new CompositeType("StatementLatency", "Latency of statements of one sql shape",
+                    ITEM_NAMES, ITEM_DESCRIPTIONS, ITEM_TYPES);
+            val latencies = new TabularDataSupport(new TabularType("StatementLatencies",
+                    "Latencies of statements by category and sql shape", rowType, new String[]{"category", "sql"}));
+
+            for (val categoryHistograms : histograms.entrySet()) {
+                for (val shapeHistogram : categoryHistograms.getValue().entrySet()) {
+                    val histogram = shapeHistogram.getValue().copy();
+
+                    latencies.put(new CompositeDataSupport(rowType, ITEM_NAMES, new Object[]{
+                            categoryHistograms.getKey(),
+                            shapeHistogram.getKey(),
+                            histogram.getTotalCount(),
+                            histogram.getValueAtPercentile(50.0),
+                            histogram.getValueAtPercentile(99.0),
+                            histogram.getValueAtPercentile(99.9),
+                            histogram.getMaxValue()
+                    }));
+                }
+            }
+
+            return latencies;
+        } catch (OpenDataException e) {
+            throw new IllegalStateException("Unable to create table of statement latencies", e);
+        }
+    }
+
+    /**
+     * This method returns percentile of latency of statements of the category and sql shape.
+     *
+     * @param category   is the category of statements.
+     * @param shape      is the sql shape of statements.
+     * @param percentile is the percentile from 0 to 100.
+     * @return percentile of latency in microseconds or 0 if there is no such statements.
+     */
+    @ManagedOperation(description = "Percentile of latency of statements by category and sql shape, us")
+    public long getLatencyPercentile(String category, String shape, double percentile) {
+        val histogram = findHistogram(category, shape);
+
+        return Objects.isNull(histogram) ? 0L : histogram.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * This method returns number of statements of the category and sql shape.
+     *
+     * @param category is the category of statements.
+     * @param shape    is the sql shape of statements.
+     * @return number of statements.
+     */
+    @ManagedOperation(description = "Number of statements by category and sql shape")
+    public long getStatementCount(String category, String shape) {
+        val histogram = findHistogram(category, shape);
+
+        return Objects.isNull(histogram) ? 0L : histogram.getTotalCount();
+    }
+
+    /**
+     * This method removes all histograms.
+     */
+    @ManagedOperation(description = "Reset all statement latency histograms")
+    public void reset() {
+        log.info("Preparing to reset statement metrics");
+
+        histograms.clear();
+        shapes.clear();
+    }
+
+    /**
+     * This method converts sql query to its shape: comments are removed, string and number literals are
+     * replaced with "?", lists of "?" are collapsed to one "?" and whitespaces are collapsed to one space.
+     *
+     * @param sql is the sql query.
+     *            Should not be null.
+     * @return shape of the sql query.
+     */
+    public static String normalize(@NonNull String sql) {
+        val shape = new StringBuilder(sql.length());
+        var i = 0;
+
+        while (i < sql.length()) {
+            val c = sql.charAt(i);
+
+            if (sql.startsWith("/*", i)) {
+                val end = sql.indexOf("*/", i + 2);
+
+                i = end < 0 ? sql.length() : end + 2;
+            } else if (c == '\'') {
+                i = skipLiteral(sql, i);
+
+                shape.append('?');
+            } else if (Character.isDigit(c) && !isIdentifierEnd(shape)) {
+                while (i < sql.length() && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+
+                shape.append('?');
+            } else if (Character.isWhitespace(c)) {
+                if (shape.length() > 0 && shape.charAt(shape.length() - 1) != ' ') {
+                    shape.append(' ');
+                }
+
+                i++;
+            } else {
+                shape.append(c);
+
+                i++;
+            }
+        }
+
+        return LIST_OF_PARAMETERS.matcher(shape).replaceAll("?").trim();
+    }
+
+    private String getShape(String sql) {
+        val shape = shapes.get(sql);
+
+        if (Objects.nonNull(shape)) {
+            return shape;
+        }
+
+        if (shapes.size() >= MAX_NUMBER_OF_SHAPES) {
+            return normalize(sql);
+        }
+
+        return shapes.computeIfAbsent(sql, StatementMetrics::normalize);
+    }
+
+    private Histogram getHistogram(String category, String shape) {
+        val categoryHistograms = histograms.computeIfAbsent(category, key -> new ConcurrentHashMap<>());
+        val histogram = categoryHistograms.get(shape);
+
+        if (Objects.nonNull(histogram)) {
+            return histogram;
+        }
+
+        val histogramShape = getNumberOfShapes() >= MAX_NUMBER_OF_SHAPES ? OTHER_SHAPE : shape;
+
+        return categoryHistograms.computeIfAbsent(histogramShape,
+                key -> new ConcurrentHistogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS));
+    }
+
+    private Histogram findHistogram(String category, String shape) {
+        val categoryHistograms = histograms.get(category);
+
+        return Objects.isNull(categoryHistograms) ? null : categoryHistograms.get(shape);
+    }
+
+    private static boolean isIdentifierEnd(StringBuilder shape) {
+        if (shape.length() == 0) {
+            return false;
+        }
+
+        val last = shape.charAt(shape.length() - 1);
+
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    private static int skipLiteral(String sql, int start) {
+        var i = start + 1;
+
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+
+                return i + 1;
+            }
+
+            i++;
+        }
+
+        return sql.length();
+    }
+}
@@ -0,0 +1,91 @@
+package com.qthegamep.bookmanager3.metrics;
+
+import lombok.NonNull;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+
+import java.sql.SQLException;
+
+/**
+ * This class is a P6Spy event listener that records latency of every executed statement, batch, commit and
+ * rollback into {@link StatementMetrics}. P6Spy creates it with the service loader, so it is registered in
+ * META-INF/services/com.p6spy.engine.event.JdbcEventListener and it does not depend on P6Spy logging options.
+ */
+public class StatementMetricsListener extends JdbcEventListener {
+
+    private final StatementMetrics statementMetrics;
+
+    /**
+     * This is the constructor that is used by the service loader. Latencies are recorded into the shared
+     * instance of {@link StatementMetrics}.
+     */
+    public StatementMetricsListener() {
+        this(StatementMetrics.getInstance());
+    }
+
+    /**
+     * This is the constructor that creates listener with the given metrics.
+     *
+     * @param statementMetrics is the metrics into which latencies will be recorded.
+     *                         Should not be null.
+     */
+    public StatementMetricsListener(@NonNull StatementMetrics statementMetrics) {
+        this.statementMetrics = statementMetrics;
+    }
+
+    @Override
+    public void onAfterExecute(PreparedStatementInformation statementInformation, long timeElapsedNanos,
+                               SQLException e) {
+        statementMetrics.record(StatementMetrics.STATEMENT, statementInformation.getSql(), timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecute(StatementInformation statementInformation, long timeElapsedNanos, String sql,
+                               SQLException e) {
+        statementMetrics.record(StatementMetrics.STATEMENT, sql, timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos,
+                                     int rowCount, SQLException e) {
+        statementMetrics.record(StatementMetrics.STATEMENT, statementInformation.getSql(), timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql,
+                                     int rowCount, SQLException e) {
+        statementMetrics.record(StatementMetrics.STATEMENT, sql, timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteQuery(PreparedStatementInformation statementInformation, long timeElapsedNanos,
+                                    SQLException e) {
+        statementMetrics.record(StatementMetrics.STATEMENT, statementInformation.getSql(), timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteQuery(StatementInformation statementInformation, long timeElapsedNanos, String sql,
+                                    SQLException e) {
+        statementMetrics.record(StatementMetrics.STATEMENT, sql, timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos,
+                                    int[] updateCounts, SQLException e) {
+        statementMetrics.record(StatementMetrics.BATCH, statementInformation.getSql(), timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterCommit(ConnectionInformation connectionInformation, long timeElapsedNanos, SQLException e) {
+        statementMetrics.record(StatementMetrics.COMMIT, null, timeElapsedNanos);
+    }
+
+    @Override
+    public void onAfterRollback(ConnectionInformation connectionInformation, long timeElapsedNanos,
+                                SQLException e) {
+        statementMetrics.record(StatementMetrics.ROLLBACK, null, timeElapsedNanos);
+    }
+}
@@ -0,0 +1,102 @@
+package com.qthegamep.bookmanager3.pagination;
+
+import com.qthegamep.bookmanager3.entity.Book;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.val;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * This class is a keyset of the last book entity of the page. The next page starts right after it.
+ * It can be converted to the opaque continuation token and back. Token contains sort column, id and value
+ * of the sort column, so the next page does not depend on the number of skipped entities.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class BookKeyset {
+
+    private static final String SEPARATOR = ":";
+    private static final int NUMBER_OF_TOKEN_PARTS = 3;
+
+    private final BookSortColumn sortColumn;
+    private final Object value;
+    private final long id;
+
+    /**
+     * This is the constructor that creates keyset from the values.
+     *
+     * @param sortColumn is the column by which the page is sorted.
+     *                   Should not be null.
+     * @param value      is the value of the sort column of the last entity.
+     *                   Should not be null.
+     * @param id         is the id of the last entity.
+     */
+    public BookKeyset(@NonNull BookSortColumn sortColumn, @NonNull Object value, long id) {
+        this.sortColumn = sortColumn;
+        this.value = value;
+        this.id = id;
+    }
+
+    /**
+     * This method creates keyset of the book entity.
+     *
+     * @param sortColumn is the column by which the page is sorted.
+     *                   Should not be null.
+     * @param book       is the last entity of the page.
+     *                   Should not be null.
+     * @return keyset of the book entity.
+     */
+    public static BookKeyset of(@NonNull BookSortColumn sortColumn, @NonNull Book book) {
+        return new BookKeyset(sortColumn, sortColumn.getValue(book), book.getId());
+    }
+
+    /**
+     * This method converts continuation token back to the keyset.
+     * If token is incorrect or it was created for other sort column then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param token      is the continuation token. Null token means the first page.
+     * @param sortColumn is the column by which the page is sorted.
+     *                   Should not be null.
+     * @return keyset or null if token is null.
+     * @throws IllegalArgumentException when token is incorrect.
+     */
+    public static BookKeyset fromToken(String token, @NonNull BookSortColumn sortColumn)
+            throws IllegalArgumentException {
+        if (Objects.isNull(token)) {
+            return null;
+        }
+
+        try {
+            val decodedToken = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            val parts = decodedToken.split(SEPARATOR, NUMBER_OF_TOKEN_PARTS);
+
+            if (parts.length != NUMBER_OF_TOKEN_PARTS || !sortColumn.name().equals(parts[0])) {
+                throw new IllegalArgumentException("Token was created for other sort column");
+            }
+
+            return new BookKeyset(sortColumn, sortColumn.parseValue(parts[2]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Incorrect continuation token: " + token + " for sort column: "
+                    + sortColumn, e);
+        }
+    }
+
+    /**
+     * This method converts keyset to the opaque continuation token.
+     *
+     * @return continuation token.
+     */
+    public String toToken() {
+        val decodedToken = sortColumn.name() + SEPARATOR + id + SEPARATOR + value;
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(decodedToken.getBytes(StandardCharsets.UTF_8));
+    }
+}
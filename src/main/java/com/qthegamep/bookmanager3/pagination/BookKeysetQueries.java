@@ -0,0 +1,112 @@
+package com.qthegamep.bookmanager3.pagination;
+
+import com.qthegamep.bookmanager3.entity.Book;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Objects;
+
+/**
+ * This class creates queries of pages of book entities that are read right after the keyset. Entities are filtered
+ * by the optional property, sorted by the sort column and the id, and the next page is started by the condition
+ * on the keyset, so every page costs the same. It is shared by the repository of the database and shards.
+ */
+@Slf4j
+@UtilityClass
+public class BookKeysetQueries {
+
+    /**
+     * This method checks that the keyset was created for the sort column.
+     *
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param sortColumn is the column by which the page is sorted.
+     *                   Should not be null.
+     * @throws IllegalArgumentException when the keyset was created for other sort column.
+     */
+    public void checkSortColumn(BookKeyset after, @NonNull BookSortColumn sortColumn)
+            throws IllegalArgumentException {
+        if (Objects.nonNull(after) && after.getSortColumn() != sortColumn) {
+            throw new IllegalArgumentException("Keyset: " + after + " was created for other sort column than: "
+                    + sortColumn);
+        }
+    }
+
+    /**
+     * This method creates JPQL text of the query of the page.
+     *
+     * @param parameterName is the name of the property by which entities are filtered or null for all entities.
+     * @param sortColumn    is the column by which the page is sorted.
+     *                      Should not be null.
+     * @param afterKeyset   is true if the page is read after the keyset.
+     * @return JPQL text of the query with named parameters of the property, lastValue and lastId.
+     */
+    public String toQueryString(String parameterName, @NonNull BookSortColumn sortColumn, boolean afterKeyset) {
+        val conditions = new ArrayList<String>();
+
+        if (Objects.nonNull(parameterName)) {
+            conditions.add("b." + parameterName + " = :" + parameterName);
+        }
+
+        val column = "b." + sortColumn.getProperty();
+
+        if (afterKeyset) {
+            conditions.add(sortColumn == BookSortColumn.ID
+                    ? "b.id > :lastId"
+                    : "(" + column + " > :lastValue OR (" + column + " = :lastValue AND b.id > :lastId))");
+        }
+
+        return "SELECT b FROM Book b"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + (sortColumn == BookSortColumn.ID ? " ORDER BY b.id" : " ORDER BY " + column + ", b.id");
+    }
+
+    /**
+     * This method creates query of the page with the given parameters.
+     * If keyset was created for other sort column then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param entityManager  is the entity manager of the database.
+     *                       Should not be null.
+     * @param parameterName  is the name of the property by which entities are filtered or null for all entities.
+     * @param parameterValue is the value of the property.
+     * @param sortColumn     is the column by which the page is sorted.
+     *                       Should not be null.
+     * @param after          is the keyset of the last entity of the previous page or null for the first page.
+     *                       Id of the keyset should be the id of the entity in this database.
+     * @param limit          is the max number of entities.
+     * @return query of the page.
+     * @throws IllegalArgumentException when keyset was created for other sort column.
+     */
+    public TypedQuery<Book> create(@NonNull EntityManager entityManager, String parameterName, Object parameterValue,
+                                   @NonNull BookSortColumn sortColumn, BookKeyset after, int limit)
+            throws IllegalArgumentException {
+        checkSortColumn(after, sortColumn);
+
+        val queryString = toQueryString(parameterName, sortColumn, Objects.nonNull(after));
+
+        log.info("Preparing to get page of book entities with query: {} and limit: {}", queryString, limit);
+
+        val query = entityManager.createQuery(queryString, Book.class)
+                .setMaxResults(limit);
+
+        if (Objects.nonNull(parameterName)) {
+            query.setParameter(parameterName, parameterValue);
+        }
+
+        if (Objects.nonNull(after)) {
+            query.setParameter("lastId", after.getId());
+
+            if (sortColumn != BookSortColumn.ID) {
+                query.setParameter("lastValue", after.getValue());
+            }
+        }
+
+        return query;
+    }
+}
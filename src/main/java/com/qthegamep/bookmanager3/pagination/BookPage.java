@@ -0,0 +1,44 @@
+package com.qthegamep.bookmanager3.pagination;
+
+import com.qthegamep.bookmanager3.entity.Book;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class is a page of book entities. It contains entities of the page and continuation token
+ * of the next page. Token is null when this page is the last one.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class BookPage {
+
+    private final List<Book> content;
+    private final String nextToken;
+
+    /**
+     * This is the constructor that creates page.
+     *
+     * @param content   is the list of entities of the page.
+     *                  Should not be null.
+     * @param nextToken is the continuation token of the next page or null if this page is the last one.
+     */
+    public BookPage(@NonNull List<Book> content, String nextToken) {
+        this.content = Collections.unmodifiableList(content);
+        this.nextToken = nextToken;
+    }
+
+    /**
+     * @return true if there is the next page.
+     */
+    public boolean hasNext() {
+        return Objects.nonNull(nextToken);
+    }
+}
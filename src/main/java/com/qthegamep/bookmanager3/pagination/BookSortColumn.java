@@ -0,0 +1,51 @@
+package com.qthegamep.bookmanager3.pagination;
+
+import com.qthegamep.bookmanager3.entity.Book;
+
+import lombok.Getter;
+
+import java.util.function.Function;
+
+/**
+ * This enum contains columns by which pages of book entities can be sorted.
+ * Every page is sorted by the column and then by id, so the order is unique and stable.
+ */
+public enum BookSortColumn {
+
+    ID("id", Book::getId, Long::valueOf),
+    NAME("name", Book::getName, value -> value),
+    AUTHOR("author", Book::getAuthor, value -> value),
+    PRINT_YEAR("printYear", Book::getPrintYear, Integer::valueOf);
+
+    @Getter
+    private final String property;
+
+    private final Function<Book, Object> extractor;
+    private final Function<String, Object> parser;
+
+    BookSortColumn(String property, Function<Book, Object> extractor, Function<String, Object> parser) {
+        this.property = property;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    /**
+     * This method returns value of the column from the book entity.
+     *
+     * @param book is the entity from which the value will be returned.
+     * @return value of the column.
+     */
+    public Object getValue(Book book) {
+        return extractor.apply(book);
+    }
+
+    /**
+     * This method converts string representation of the column value back to the value.
+     *
+     * @param value is the string representation of the column value.
+     * @return value of the column.
+     */
+    public Object parseValue(String value) {
+        return parser.apply(value);
+    }
+}
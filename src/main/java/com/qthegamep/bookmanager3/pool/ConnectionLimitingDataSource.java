@@ -0,0 +1,206 @@
+package com.qthegamep.bookmanager3.pool;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a data source that limits the number of connections that are used at the same time.
+ * Every connection takes the permit of the fair semaphore that is returned when the connection is closed.
+ * The number of permits is the size of the connection pool, so when there are more threads than connections,
+ * for example when requests are performed by virtual threads, they wait for the permit in the order of arrival
+ * instead of competing for connections inside the pool. If the permit is not acquired in the timeout then
+ * {@link java.sql.SQLTransientConnectionException} is thrown. The timeout is one deadline of the whole call:
+ * the connection of the started {@link com.zaxxer.hikari.HikariDataSource} is waited only for the rest of it,
+ * so the call does not wait for the permit and then for the full connection timeout of the pool.
+ * Other data sources and the pool that is not started yet are waited for their own timeout.
+ * The number of waiting threads is exposed through JMX.
+ */
+@Slf4j
+@ManagedResource(objectName = "com.qthegamep.bookmanager3:type=ConnectionLimitingDataSource",
+        description = "Permits of connections that are used at the same time")
+public class ConnectionLimitingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final int maxConnections;
+    private final long acquireTimeoutMillis;
+    private final LongAdder permitTimeouts = new LongAdder();
+
+    /**
+     * This is constructor that creates limiting data source of the target data source.
+     *
+     * @param targetDataSource     is the data source that creates connections.
+     *                             Should not be null.
+     * @param maxConnections       is the max number of connections that are used at the same time.
+     * @param acquireTimeoutMillis is the max time of waiting for the permit and the connection in milliseconds.
+     */
+    public ConnectionLimitingDataSource(@NonNull DataSource targetDataSource,
+                                        int maxConnections,
+                                        long acquireTimeoutMillis) {
+        super(targetDataSource);
+
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("Max connections should be positive: " + maxConnections);
+        }
+
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxConnections = maxConnections;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+
+        acquirePermit();
+
+        try {
+            return withPermit(getTargetConnection(deadline));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquirePermit();
+
+        try {
+            return withPermit(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+
+            throw e;
+        }
+    }
+
+    /**
+     * @return max number of connections that are used at the same time.
+     */
+    @ManagedAttribute(description = "Max number of connections that are used at the same time")
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @return number of permits that are not taken by connections.
+     */
+    @ManagedAttribute(description = "Number of permits that are not taken by connections")
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * @return estimated number of threads that are waiting for the permit.
+     */
+    @ManagedAttribute(description = "Estimated number of threads that are waiting for the permit")
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * @return number of times the permit was not acquired in the timeout.
+     */
+    @ManagedAttribute(description = "Number of times the permit was not acquired in the timeout")
+    public long getPermitTimeouts() {
+        return permitTimeouts.sum();
+    }
+
+    /**
+     * This method closes the target data source if it is closeable, so the pool is closed with the context.
+     *
+     * @throws Exception when the target data source is not closed.
+     */
+    @Override
+    public void close() throws Exception {
+        val targetDataSource = getTargetDataSource();
+
+        if (targetDataSource instanceof AutoCloseable) {
+            ((AutoCloseable) targetDataSource).close();
+        }
+    }
+
+    private void acquirePermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                permitTimeouts.increment();
+
+                log.warn("Unable to acquire connection permit in {} ms, waiting threads: {}",
+                        acquireTimeoutMillis, permits.getQueueLength());
+
+                throw new SQLTransientConnectionException(
+                        "Unable to acquire connection permit in " + acquireTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new SQLTransientConnectionException("Interrupted while waiting for connection permit", e);
+        }
+    }
+
+    private Connection getTargetConnection(long deadline) throws SQLException {
+        val targetDataSource = obtainTargetDataSource();
+
+        if (targetDataSource instanceof HikariDataSource) {
+            val pool = ((HikariDataSource) targetDataSource).getHikariPoolMXBean();
+
+            if (pool instanceof HikariPool) {
+                val remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+
+                return ((HikariPool) pool).getConnection(Math.max(0L, remainingMillis));
+            }
+        }
+
+        return targetDataSource.getConnection();
+    }
+
+    private Connection withPermit(Connection connection) {
+        val released = new AtomicBoolean();
+        val classLoader = getClass().getClassLoader();
+
+        return (Connection) Proxy.newProxyInstance(classLoader, new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            if (released.compareAndSet(false, true)) {
+                                try {
+                                    connection.close();
+                                } finally {
+                                    permits.release();
+                                }
+                            }
+
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+}
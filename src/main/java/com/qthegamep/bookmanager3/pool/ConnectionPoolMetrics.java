@@ -0,0 +1,161 @@
+package com.qthegamep.bookmanager3.pool;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a connection pool metrics class that is responsible for collecting pool counters
+ * and the connection acquisition time histogram of the HikariCP pool. All values are exposed through JMX.
+ * Acquisition times are recorded in microseconds.
+ */
+@Slf4j
+@ManagedResource(objectName = "com.qthegamep.bookmanager3:type=ConnectionPoolMetrics",
+        description = "Connection pool counters and connection acquisition time histogram")
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+
+    private final Histogram acquisitionTimeHistogram = new ConcurrentHistogram(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS);
+    private final LongAdder connectionTimeouts = new LongAdder();
+
+    private volatile PoolStats poolStats;
+
+    /**
+     * This method is called by the pool once it is started. It remembers pool statistics and returns
+     * tracker that records connection acquisition time and timeouts.
+     *
+     * @param poolName  is the name of the started pool.
+     * @param poolStats is the statistics of the started pool.
+     * @return metrics tracker of the pool.
+     */
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        log.info("Preparing to track metrics of the connection pool: {}", poolName);
+
+        this.poolStats = poolStats;
+
+        return new IMetricsTracker() {
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitionTimeHistogram.recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos));
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                connectionTimeouts.increment();
+            }
+        };
+    }
+
+    /**
+     * @return number of connections that are in use right now.
+     */
+    @ManagedAttribute(description = "Number of connections that are in use")
+    public int getActiveConnections() {
+        return Objects.isNull(poolStats) ? 0 : poolStats.getActiveConnections();
+    }
+
+    /**
+     * @return number of connections that are idle in the pool right now.
+     */
+    @ManagedAttribute(description = "Number of idle connections")
+    public int getIdleConnections() {
+        return Objects.isNull(poolStats) ? 0 : poolStats.getIdleConnections();
+    }
+
+    /**
+     * @return number of threads that are waiting for a connection right now.
+     */
+    @ManagedAttribute(description = "Number of threads that are waiting for a connection")
+    public int getWaitingThreads() {
+        return Objects.isNull(poolStats) ? 0 : poolStats.getPendingThreads();
+    }
+
+    /**
+     * @return number of all connections that are opened by the pool right now.
+     */
+    @ManagedAttribute(description = "Number of all opened connections")
+    public int getTotalConnections() {
+        return Objects.isNull(poolStats) ? 0 : poolStats.getTotalConnections();
+    }
+
+    /**
+     * @return number of connection requests that were not satisfied in the acquisition timeout.
+     */
+    @ManagedAttribute(description = "Number of connection acquisition timeouts")
+    public long getConnectionTimeouts() {
+        return connectionTimeouts.sum();
+    }
+
+    /**
+     * @return number of acquired connections.
+     */
+    @ManagedAttribute(description = "Number of acquired connections")
+    public long getAcquisitionCount() {
+        return acquisitionTimeHistogram.getTotalCount();
+    }
+
+    /**
+     * @return mean connection acquisition time in microseconds.
+     */
+    @ManagedAttribute(description = "Mean connection acquisition time, us")
+    public double getAcquisitionTimeMean() {
+        return acquisitionTimeHistogram.getMean();
+    }
+
+    /**
+     * @return median connection acquisition time in microseconds.
+     */
+    @ManagedAttribute(description = "50th percentile of connection acquisition time, us")
+    public long getAcquisitionTimeP50() {
+        return acquisitionTimeHistogram.getValueAtPercentile(50.0);
+    }
+
+    /**
+     * @return 95th percentile of connection acquisition time in microseconds.
+     */
+    @ManagedAttribute(description = "95th percentile of connection acquisition time, us")
+    public long getAcquisitionTimeP95() {
+        return acquisitionTimeHistogram.getValueAtPercentile(95.0);
+    }
+
+    /**
+     * @return 99th percentile of connection acquisition time in microseconds.
+     */
+    @ManagedAttribute(description = "99th percentile of connection acquisition time, us")
+    public long getAcquisitionTimeP99() {
+        return acquisitionTimeHistogram.getValueAtPercentile(99.0);
+    }
+
+    /**
+     * @return max connection acquisition time in microseconds.
+     */
+    @ManagedAttribute(description = "Max connection acquisition time, us")
+    public long getAcquisitionTimeMax() {
+        return acquisitionTimeHistogram.getMaxValue();
+    }
+
+    /**
+     * This method resets the acquisition time histogram and the timeouts counter.
+     */
+    @ManagedOperation(description = "Reset connection acquisition time histogram and timeouts counter")
+    public void reset() {
+        log.info("Preparing to reset connection pool metrics");
+
+        acquisitionTimeHistogram.reset();
+        connectionTimeouts.reset();
+    }
+}
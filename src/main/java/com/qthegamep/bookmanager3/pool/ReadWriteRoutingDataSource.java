@@ -0,0 +1,244 @@
+package com.qthegamep.bookmanager3.pool;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a data source that sends connections of read-only transactions to replica data sources and all
+ * other connections to the primary data source. Replicas are chosen by round robin, if the replica does not give
+ * the connection then the next one is tried and the primary is used at last.
+ * The physical connection is obtained lazily by {@link LazyConnectionDataSourceProxy} when the first statement
+ * is executed, because the transaction manager asks for the connection before the transaction is marked
+ * as read-only.
+ * If stickiness is enabled then after the commit of the write transaction read-only transactions of the same
+ * thread are sent to the primary during the stickiness time, so the thread reads its own writes while replicas
+ * catch up. Routing counters are exposed through JMX.
+ */
+@Slf4j
+@ManagedResource(objectName = "com.qthegamep.bookmanager3:type=ReadWriteRoutingDataSource",
+        description = "Routing of connections to the primary and replica data sources")
+public class ReadWriteRoutingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final DataSource primaryDataSource;
+    private final List<DataSource> replicaDataSources;
+    private final long stickinessNanos;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ThreadLocal<Long> lastWriteTime = new ThreadLocal<>();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder stickyReads = new LongAdder();
+    private final LongAdder replicaFailures = new LongAdder();
+
+    /**
+     * This is constructor that creates routing data source.
+     *
+     * @param primaryDataSource  is the data source of writes and reads that are not read-only.
+     *                           Should not be null.
+     * @param replicaDataSources is the list of data sources of read-only transactions.
+     *                           Should not be null.
+     * @param stickinessMillis   is the time after the commit of the write transaction during which read-only
+     *                           transactions of the same thread are sent to the primary, 0 disables stickiness.
+     */
+    public ReadWriteRoutingDataSource(@NonNull DataSource primaryDataSource,
+                                      @NonNull List<DataSource> replicaDataSources,
+                                      long stickinessMillis) {
+        if (stickinessMillis < 0) {
+            throw new IllegalArgumentException("Stickiness should not be negative: " + stickinessMillis);
+        }
+
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSources = new ArrayList<>(replicaDataSources);
+        this.stickinessNanos = TimeUnit.MILLISECONDS.toNanos(stickinessMillis);
+
+        if (this.replicaDataSources.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Replica data sources should not contain null");
+        }
+
+        setTargetDataSource(new LazyConnectionDataSourceProxy(new RoutingDataSource()));
+    }
+
+    /**
+     * This method closes the primary and replica data sources that are closeable.
+     *
+     * @throws Exception when one of data sources is not closed.
+     */
+    @Override
+    public void close() throws Exception {
+        for (val replicaDataSource : replicaDataSources) {
+            closeIfPossible(replicaDataSource);
+        }
+
+        closeIfPossible(primaryDataSource);
+    }
+
+    /**
+     * @return number of replica data sources.
+     */
+    @ManagedAttribute(description = "Number of replica data sources")
+    public int getReplicas() {
+        return replicaDataSources.size();
+    }
+
+    /**
+     * @return stickiness time in milliseconds.
+     */
+    @ManagedAttribute(description = "Time of reading from the primary after the write, ms")
+    public long getStickinessMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(stickinessNanos);
+    }
+
+    /**
+     * @return number of connections that were obtained from the primary data source.
+     */
+    @ManagedAttribute(description = "Number of connections obtained from the primary")
+    public long getPrimaryConnections() {
+        return primaryConnections.sum();
+    }
+
+    /**
+     * @return number of connections that were obtained from replica data sources.
+     */
+    @ManagedAttribute(description = "Number of connections obtained from replicas")
+    public long getReplicaConnections() {
+        return replicaConnections.sum();
+    }
+
+    /**
+     * @return number of read-only connections that were sent to the primary because of stickiness.
+     */
+    @ManagedAttribute(description = "Number of read-only connections sent to the primary after the write")
+    public long getStickyReads() {
+        return stickyReads.sum();
+    }
+
+    /**
+     * @return number of times when the replica did not give the connection.
+     */
+    @ManagedAttribute(description = "Number of failed attempts to get the connection from the replica")
+    public long getReplicaFailures() {
+        return replicaFailures.sum();
+    }
+
+    private Connection route(String username, String password) throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !replicaDataSources.isEmpty()) {
+            if (!isSticky()) {
+                return getReplicaConnection(username, password);
+            }
+
+            stickyReads.increment();
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            rememberWrite();
+        }
+
+        primaryConnections.increment();
+
+        return getConnection(primaryDataSource, username, password);
+    }
+
+    private Connection getReplicaConnection(String username, String password) throws SQLException {
+        val first = Math.floorMod(nextReplica.getAndIncrement(), replicaDataSources.size());
+
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            val replicaDataSource = replicaDataSources.get((first + i) % replicaDataSources.size());
+
+            try {
+                val connection = getConnection(replicaDataSource, username, password);
+
+                replicaConnections.increment();
+
+                return connection;
+            } catch (SQLException e) {
+                replicaFailures.increment();
+
+                log.warn("Unable to get connection from the replica: {}, trying the next data source",
+                        (first + i) % replicaDataSources.size(), e);
+            }
+        }
+
+        primaryConnections.increment();
+
+        return getConnection(primaryDataSource, username, password);
+    }
+
+    private boolean isSticky() {
+        val writeTime = lastWriteTime.get();
+
+        if (Objects.isNull(writeTime)) {
+            return false;
+        }
+
+        if (System.nanoTime() - writeTime < stickinessNanos) {
+            return true;
+        }
+
+        lastWriteTime.remove();
+
+        return false;
+    }
+
+    private void rememberWrite() {
+        if (stickinessNanos == 0) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lastWriteTime.set(System.nanoTime());
+
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    lastWriteTime.set(System.nanoTime());
+                }
+            }
+        });
+    }
+
+    private static Connection getConnection(DataSource dataSource, String username, String password)
+            throws SQLException {
+        return Objects.isNull(username) ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    private static void closeIfPossible(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+
+    private class RoutingDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return route(null, null);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return route(username, password);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.qthegamep.bookmanager3.repository;
+
+import com.qthegamep.bookmanager3.entity.BookImportChunk;
+
+import org.springframework.stereotype.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * This interface is a repository of committed chunks of book imports. It has all the standard JPA Repository
+ * operations realized by spring and some custom methods.
+ */
+@Repository
+public interface BookImportChunkRepository extends JpaRepository<BookImportChunk, BookImportChunk.Key> {
+
+    /**
+     * This repository method should return numbers of committed chunks of the import.
+     *
+     * @param importId is the id of the import.
+     * @return list of numbers of chunks.
+     */
+    @Query("select c.chunkNumber from BookImportChunk c where c.importId = :importId")
+    List<Long> findChunkNumbersByImportId(@Param("importId") String importId);
+
+    /**
+     * This repository method should return committed chunks of the import.
+     *
+     * @param importId is the id of the import.
+     * @return list of chunks.
+     */
+    List<BookImportChunk> findByImportId(String importId);
+}
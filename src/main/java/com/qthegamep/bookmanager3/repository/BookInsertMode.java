@@ -0,0 +1,182 @@
+package com.qthegamep.bookmanager3.repository;
+
+import com.qthegamep.bookmanager3.entity.Book;
+
+import lombok.val;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+
+/**
+ * This enum is a mode of inserting of the list of new book entities. Ids of entities are generated by hibernate
+ * before the native insert, so they are returned to the caller in every mode.
+ * <ul>
+ * <li>JPA - entities are persisted by the entity manager, one INSERT per entity in JDBC batches of hibernate.</li>
+ * <li>MULTI_ROW_VALUES - one INSERT ... VALUES (...), (...) statement per batch of rows,
+ * so H2, MySQL and PostgreSQL parse one statement per batch without their bulk APIs.</li>
+ * <li>JDBC_BATCH - one INSERT per row in the plain JDBC batch of the batch size, the MySQL driver rewrites it to
+ * multi-row statements with the rewriteBatchedStatements=true url parameter and the Oracle driver sends the whole
+ * batch in one round trip. Explicit array binding of the Oracle driver is not used.</li>
+ * <li>COPY - rows are sent by the PostgreSQL COPY ... FROM STDIN command in the CSV format,
+ * one command per batch, it is supported only by the PostgreSQL driver.</li>
+ * </ul>
+ */
+public enum BookInsertMode {
+
+    JPA,
+    MULTI_ROW_VALUES,
+    JDBC_BATCH,
+    COPY;
+
+    private static final String INSERT = "INSERT INTO BOOK (ID, NAME, AUTHOR, PRINT_YEAR, IS_READ) VALUES ";
+    private static final String ROW_PARAMETERS = "(?, ?, ?, ?, ?)";
+    private static final String COPY_FROM_STDIN = "COPY BOOK (ID, NAME, AUTHOR, PRINT_YEAR, IS_READ) " +
+            "FROM STDIN WITH (FORMAT csv)";
+    private static final String POSTGRESQL_CONNECTION_CLASS = "org.postgresql.PGConnection";
+    private static final int PARAMETERS_PER_ROW = 5;
+    private static final int MAX_PARAMETERS_PER_STATEMENT = 30000;
+
+    /**
+     * This method inserts entities with ids through the connection of the current transaction.
+     *
+     * @param connection is the connection of the current transaction.
+     * @param books      is the list of entities with ids.
+     * @param batchSize  is the number of rows per statement, batch or command.
+     * @throws SQLException when rows are not inserted.
+     */
+    void insert(Connection connection, List<Book> books, int batchSize) throws SQLException {
+        switch (this) {
+            case MULTI_ROW_VALUES:
+                insertMultiRowValues(connection, books,
+                        Math.min(batchSize, MAX_PARAMETERS_PER_STATEMENT / PARAMETERS_PER_ROW));
+                break;
+            case JDBC_BATCH:
+                insertJdbcBatch(connection, books, batchSize);
+                break;
+            case COPY:
+                copy(connection, books, batchSize);
+                break;
+            default:
+                throw new IllegalArgumentException("Mode: " + this + " is not a native insert mode");
+        }
+    }
+
+    private static void insertMultiRowValues(Connection connection, List<Book> books, int rowsPerStatement)
+            throws SQLException {
+        PreparedStatement fullStatement = null;
+
+        try {
+            for (int from = 0; from < books.size(); from += rowsPerStatement) {
+                val rows = Math.min(rowsPerStatement, books.size() - from);
+
+                if (rows < rowsPerStatement) {
+                    try (val statement = connection.prepareStatement(multiRowInsert(rows))) {
+                        bindRows(statement, books, from, rows);
+
+                        statement.executeUpdate();
+                    }
+                } else {
+                    if (fullStatement == null) {
+                        fullStatement = connection.prepareStatement(multiRowInsert(rowsPerStatement));
+                    }
+
+                    bindRows(fullStatement, books, from, rows);
+
+                    fullStatement.executeUpdate();
+                }
+            }
+        } finally {
+            if (fullStatement != null) {
+                fullStatement.close();
+            }
+        }
+    }
+
+    private static void insertJdbcBatch(Connection connection, List<Book> books, int batchSize) throws SQLException {
+        try (val statement = connection.prepareStatement(INSERT + ROW_PARAMETERS)) {
+            for (int i = 0; i < books.size(); i++) {
+                bindRows(statement, books, i, 1);
+
+                statement.addBatch();
+
+                if ((i + 1) % batchSize == 0 || i == books.size() - 1) {
+                    statement.executeBatch();
+                }
+            }
+        }
+    }
+
+    private static void copy(Connection connection, List<Book> books, int batchSize) throws SQLException {
+        final Class<?> postgresqlConnectionClass;
+
+        try {
+            postgresqlConnectionClass = Class.forName(POSTGRESQL_CONNECTION_CLASS);
+        } catch (ClassNotFoundException e) {
+            throw new SQLFeatureNotSupportedException("Mode: " + COPY + " is supported only by the PostgreSQL driver",
+                    e);
+        }
+
+        try {
+            val copyManager = postgresqlConnectionClass.getMethod("getCopyAPI")
+                    .invoke(connection.unwrap(postgresqlConnectionClass));
+            val copyIn = copyManager.getClass().getMethod("copyIn", String.class, Reader.class);
+            val rows = new StringBuilder();
+
+            for (int from = 0; from < books.size(); from += batchSize) {
+                rows.setLength(0);
+
+                for (val book : books.subList(from, Math.min(from + batchSize, books.size()))) {
+                    rows.append(book.getId()).append(',');
+                    appendCsvText(rows, book.getName()).append(',');
+                    appendCsvText(rows, book.getAuthor()).append(',');
+                    rows.append(book.getPrintYear()).append(',').append(book.isRead()).append('\n');
+                }
+
+                copyIn.invoke(copyManager, COPY_FROM_STDIN, new StringReader(rows.toString()));
+            }
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+
+            throw new SQLException("Rows were not copied", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new SQLFeatureNotSupportedException("Copy API of the PostgreSQL driver is not available", e);
+        }
+    }
+
+    private static String multiRowInsert(int rows) {
+        val sql = new StringBuilder(INSERT.length() + rows * (ROW_PARAMETERS.length() + 2)).append(INSERT);
+
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append(ROW_PARAMETERS);
+        }
+
+        return sql.toString();
+    }
+
+    private static void bindRows(PreparedStatement statement, List<Book> books, int from, int rows)
+            throws SQLException {
+        var index = 1;
+
+        for (int i = from; i < from + rows; i++) {
+            val book = books.get(i);
+
+            statement.setLong(index++, book.getId());
+            statement.setString(index++, book.getName());
+            statement.setString(index++, book.getAuthor());
+            statement.setInt(index++, book.getPrintYear());
+            statement.setBoolean(index++, book.isRead());
+        }
+    }
+
+    private static StringBuilder appendCsvText(StringBuilder rows, String text) {
+        return rows.append('"').append(text.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -5,15 +5,25 @@ import com.qthegamep.bookmanager3.entity.Book;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * This interface is a repository. It has all the standard JPA Repository operations realized by spring
- * and some custom methods.
+ * and some custom methods. Stream methods are realized in {@link BookRepositoryCustomImpl}.
+ * Finder methods are read-only transactions, because methods that are derived from the name and declared
+ * by this interface do not get the transaction of the standard operations, so they could not be sent to replicas.
+ * Update methods change rows with one UPDATE statement without loading entities. Persistence context is flushed
+ * before and cleared after the statement, and Hibernate evicts the book region of the second level cache.
  */
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookRepositoryCustom {
 
     /**
      * This repository method should return list of book entities from the database by name.
@@ -21,6 +31,7 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @param name is the parameter by which the list of entities will be returned.
      * @return list of book entities.
      */
+    @Transactional(readOnly = true)
     List<Book> findBooksByName(String name);
 
     /**
@@ -29,6 +40,7 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @param author is the parameter by which the list of entities will be returned.
      * @return list of book entities.
      */
+    @Transactional(readOnly = true)
     List<Book> findBooksByAuthor(String author);
 
     /**
@@ -37,6 +49,7 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @param printYear is the parameter by which the list of entities will be returned.
      * @return list of book entities.
      */
+    @Transactional(readOnly = true)
     List<Book> findBooksByPrintYear(int printYear);
 
     /**
@@ -45,5 +58,52 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      * @param read is the parameter by which the list of entities will be returned.
      * @return list of book entities.
      */
+    @Transactional(readOnly = true)
     List<Book> findBooksByRead(boolean read);
+
+    /**
+     * This repository method should return set of ids that already exist in the database.
+     * Only ids from the given collection are checked with one query.
+     *
+     * @param ids is the parameter by which the set of existing ids will be returned.
+     * @return set of existing ids.
+     */
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * This repository method should update read of all book entities by author with one statement.
+     *
+     * @param author is the parameter by which entities will be updated.
+     * @param read   is the new value of read.
+     * @return number of updated entities.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.read = :read WHERE b.author = :author")
+    int updateReadByAuthor(@Param("author") String author, @Param("read") boolean read);
+
+    /**
+     * This repository method should update read of book entities by ids with one statement.
+     *
+     * @param ids  is the parameter by which entities will be updated.
+     * @param read is the new value of read.
+     * @return number of updated entities.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.read = :read WHERE b.id IN :ids")
+    int updateReadByIds(@Param("ids") Collection<Long> ids, @Param("read") boolean read);
+
+    /**
+     * This repository method should update print year of book entities by ids with one statement.
+     *
+     * @param ids       is the parameter by which entities will be updated.
+     * @param printYear is the new value of print year.
+     * @return number of updated entities.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.printYear = :printYear WHERE b.id IN :ids")
+    int updatePrintYearByIds(@Param("ids") Collection<Long> ids, @Param("printYear") int printYear);
 }
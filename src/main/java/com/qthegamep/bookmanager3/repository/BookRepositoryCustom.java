@@ -0,0 +1,189 @@
+package com.qthegamep.bookmanager3.repository;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.pagination.BookKeyset;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.statistics.BookAuthorCounts;
+import com.qthegamep.bookmanager3.statistics.BookReadCounts;
+import com.qthegamep.bookmanager3.statistics.BookYearHistogram;
+
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * This interface is a custom part of the book repository. It contains methods that can not be realized by spring.
+ * Stream methods are backed by a forward-only database cursor, so they must be called inside a transaction and
+ * returned stream must be closed after use. Every entity is detached from the persistence context after it is read,
+ * so memory usage does not depend on the number of rows.
+ * Page methods use keyset pagination: the page starts right after the given keyset and is sorted by the sort column
+ * and then by id, so every page costs the same as the first one.
+ * Batch delete method removes entities with set-based statements instead of deleting them one by one.
+ * Native insert method inserts new entities with the fastest statements of the database, see {@link BookInsertMode}.
+ * Count methods run GROUP BY queries in the database and return only keys and counts of groups, entities are
+ * not read.
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * This repository method should return stream of all book entities from the database.
+     *
+     * @return stream of book entities.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    Stream<Book> streamAll();
+
+    /**
+     * This repository method should return stream of book entities from the database by name.
+     *
+     * @param name is the parameter by which the stream of entities will be returned.
+     * @return stream of book entities.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    Stream<Book> streamBooksByName(String name);
+
+    /**
+     * This repository method should return stream of book entities from the database by author.
+     *
+     * @param author is the parameter by which the stream of entities will be returned.
+     * @return stream of book entities.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    Stream<Book> streamBooksByAuthor(String author);
+
+    /**
+     * This repository method should return stream of book entities from the database by print year.
+     *
+     * @param printYear is the parameter by which the stream of entities will be returned.
+     * @return stream of book entities.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    Stream<Book> streamBooksByPrintYear(int printYear);
+
+    /**
+     * This repository method should return stream of book entities from the database by read.
+     *
+     * @param read is the parameter by which the stream of entities will be returned.
+     * @return stream of book entities.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    Stream<Book> streamBooksByRead(boolean read);
+
+    /**
+     * This repository method should return list of book entities from the database that follow the keyset.
+     *
+     * @param sortColumn is the column by which the list of entities is sorted.
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param limit      is the max number of entities that will be returned.
+     * @return list of book entities.
+     */
+    @Transactional(readOnly = true)
+    List<Book> findAllAfter(BookSortColumn sortColumn, BookKeyset after, int limit);
+
+    /**
+     * This repository method should return list of book entities from the database by name that follow the keyset.
+     *
+     * @param name       is the parameter by which the list of entities will be returned.
+     * @param sortColumn is the column by which the list of entities is sorted.
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param limit      is the max number of entities that will be returned.
+     * @return list of book entities.
+     */
+    @Transactional(readOnly = true)
+    List<Book> findBooksByNameAfter(String name, BookSortColumn sortColumn, BookKeyset after, int limit);
+
+    /**
+     * This repository method should return list of book entities from the database by author that follow the keyset.
+     *
+     * @param author     is the parameter by which the list of entities will be returned.
+     * @param sortColumn is the column by which the list of entities is sorted.
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param limit      is the max number of entities that will be returned.
+     * @return list of book entities.
+     */
+    @Transactional(readOnly = true)
+    List<Book> findBooksByAuthorAfter(String author, BookSortColumn sortColumn, BookKeyset after, int limit);
+
+    /**
+     * This repository method should return list of book entities from the database by print year
+     * that follow the keyset.
+     *
+     * @param printYear  is the parameter by which the list of entities will be returned.
+     * @param sortColumn is the column by which the list of entities is sorted.
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param limit      is the max number of entities that will be returned.
+     * @return list of book entities.
+     */
+    @Transactional(readOnly = true)
+    List<Book> findBooksByPrintYearAfter(int printYear, BookSortColumn sortColumn, BookKeyset after, int limit);
+
+    /**
+     * This repository method should return list of book entities from the database by read that follow the keyset.
+     *
+     * @param read       is the parameter by which the list of entities will be returned.
+     * @param sortColumn is the column by which the list of entities is sorted.
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param limit      is the max number of entities that will be returned.
+     * @return list of book entities.
+     */
+    @Transactional(readOnly = true)
+    List<Book> findBooksByReadAfter(boolean read, BookSortColumn sortColumn, BookKeyset after, int limit);
+
+    /**
+     * This repository method should delete list of book entities from the database with
+     * DELETE ... WHERE ID IN (...) statements, one statement per chunk of ids.
+     * Entities are checked like they would be checked by the entity manager before deleting.
+     * If book entity is incorrect then would be thrown
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     *
+     * @param books is the list of entities that will be deleted from the database.
+     * @return number of deleted entities.
+     */
+    @Transactional
+    int deleteBooksInBatch(Collection<? extends Book> books);
+
+    /**
+     * This repository method should insert list of new book entities to the database with native statements
+     * of the insert mode. Ids are generated by the id generator of the entity, the same way as they are generated
+     * by the entity manager. Entities without id are returned with generated id, entities with id are returned
+     * as new entities with generated id, like they would be merged by the entity manager. Returned entities are
+     * not managed by the persistence context.
+     * If book entity is incorrect then would be thrown
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     *
+     * @param books     is the list of entities that will be inserted to the database.
+     * @param mode      is the native insert mode, {@link BookInsertMode#JPA} is not supported by this method.
+     * @param batchSize is the number of rows per statement, batch or command.
+     * @return list of inserted book entities with generated ids.
+     */
+    @Transactional
+    List<Book> insertAll(List<Book> books, BookInsertMode mode, int batchSize);
+
+    /**
+     * This repository method should return numbers of book entities of every author in the order of authors.
+     *
+     * @return counts of authors.
+     */
+    @Transactional(readOnly = true)
+    BookAuthorCounts countBooksGroupedByAuthor();
+
+    /**
+     * This repository method should return numbers of book entities in buckets of print years in the order of years.
+     *
+     * @param bucketSize is the number of years of every bucket, 1 for the number of entities of every year.
+     * @return histogram of print years.
+     */
+    @Transactional(readOnly = true)
+    BookYearHistogram countBooksGroupedByPrintYear(int bucketSize);
+
+    /**
+     * This repository method should return numbers of read and unread book entities.
+     *
+     * @return counts of read and unread entities.
+     */
+    @Transactional(readOnly = true)
+    BookReadCounts countBooksGroupedByRead();
+}
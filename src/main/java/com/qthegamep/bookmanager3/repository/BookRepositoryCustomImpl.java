@@ -0,0 +1,355 @@
+package com.qthegamep.bookmanager3.repository;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.pagination.BookKeyset;
+import com.qthegamep.bookmanager3.pagination.BookKeysetQueries;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.statistics.BookAuthorCounts;
+import com.qthegamep.bookmanager3.statistics.BookReadCounts;
+import com.qthegamep.bookmanager3.statistics.BookYearHistogram;
+
+import lombok.NonNull;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.hibernate.CacheMode;
+import org.hibernate.HibernateException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.engine.internal.Nullability;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class is an implementation of the custom part of the book repository.
+ * Streams are read through a forward-only scrollable cursor with the fetch size that is configured by
+ * hibernate.jdbc.fetch_size property.
+ * Pages are read with the keyset condition (sortColumn, id) &gt; (value, id) that is expanded to the OR form,
+ * because row value comparison is not supported by JPQL.
+ * Batch delete flushes the persistence context, deletes entities by chunks of ids and detaches deleted entities
+ * that are still managed. Bulk delete also evicts the book region of the second level cache.
+ * Native insert checks entities like the entity manager, generates their ids by the id generator of the entity,
+ * flushes the persistence context and inserts rows through the JDBC connection of the session.
+ * Counts are read through the same cursor as streams but rows are only keys and counts of groups, they are
+ * collected to primitive arrays. The bucket of print years is computed by the database with the bucket size as
+ * a literal, because parameters in GROUP BY expressions are not matched with the select list by some databases.
+ */
+@Slf4j
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private static final String HIBERNATE_JDBC_FETCH_SIZE = "hibernate.jdbc.fetch_size";
+    private static final int DEFAULT_FETCH_SIZE = 50;
+    private static final int ID_CHUNK_SIZE = 500;
+    private static final int INITIAL_GROUPS = 64;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Book> streamAll() {
+        return stream("SELECT b FROM Book b", null, null);
+    }
+
+    @Override
+    public Stream<Book> streamBooksByName(String name) {
+        return stream("SELECT b FROM Book b WHERE b.name = :name", "name", name);
+    }
+
+    @Override
+    public Stream<Book> streamBooksByAuthor(String author) {
+        return stream("SELECT b FROM Book b WHERE b.author = :author", "author", author);
+    }
+
+    @Override
+    public Stream<Book> streamBooksByPrintYear(int printYear) {
+        return stream("SELECT b FROM Book b WHERE b.printYear = :printYear", "printYear", printYear);
+    }
+
+    @Override
+    public Stream<Book> streamBooksByRead(boolean read) {
+        return stream("SELECT b FROM Book b WHERE b.read = :read", "read", read);
+    }
+
+    @Override
+    public List<Book> findAllAfter(BookSortColumn sortColumn, BookKeyset after, int limit) {
+        return findAfter(null, null, sortColumn, after, limit);
+    }
+
+    @Override
+    public List<Book> findBooksByNameAfter(String name, BookSortColumn sortColumn, BookKeyset after, int limit) {
+        return findAfter("name", name, sortColumn, after, limit);
+    }
+
+    @Override
+    public List<Book> findBooksByAuthorAfter(String author, BookSortColumn sortColumn, BookKeyset after, int limit) {
+        return findAfter("author", author, sortColumn, after, limit);
+    }
+
+    @Override
+    public List<Book> findBooksByPrintYearAfter(int printYear, BookSortColumn sortColumn, BookKeyset after,
+                                                int limit) {
+        return findAfter("printYear", printYear, sortColumn, after, limit);
+    }
+
+    @Override
+    public List<Book> findBooksByReadAfter(boolean read, BookSortColumn sortColumn, BookKeyset after, int limit) {
+        return findAfter("read", read, sortColumn, after, limit);
+    }
+
+    @Override
+    public int deleteBooksInBatch(Collection<? extends Book> books) {
+        Assert.notNull(books, "Entities must not be null!");
+
+        val session = entityManager.unwrap(SessionImplementor.class);
+        val persister = session.getEntityPersister(Book.class.getName(), null);
+        val nullability = new Nullability(session);
+
+        val ids = new ArrayList<Long>(books.size());
+
+        for (val book : books) {
+            Assert.notNull(book, "The entity must not be null!");
+
+            try {
+                nullability.checkNullability(persister.getPropertyValues(book), persister, false);
+            } catch (HibernateException e) {
+                throw session.getExceptionConverter().convert(e);
+            }
+
+            if (Objects.nonNull(book.getId())) {
+                ids.add(book.getId());
+            }
+        }
+
+        entityManager.flush();
+
+        var deleted = 0;
+
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            deleted += entityManager.createQuery("DELETE FROM Book b WHERE b.id IN :ids")
+                    .setParameter("ids", ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size())))
+                    .executeUpdate();
+        }
+
+        for (val id : ids) {
+            val managedBook = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+
+            if (Objects.nonNull(managedBook)) {
+                session.detach(managedBook);
+            }
+        }
+
+        log.info("Entities: {} was deleted by chunks of {} ids", deleted, ID_CHUNK_SIZE);
+
+        return deleted;
+    }
+
+    @Override
+    public List<Book> insertAll(List<Book> books, @NonNull BookInsertMode mode, int batchSize) {
+        Assert.notNull(books, "Entities must not be null!");
+
+        if (mode == BookInsertMode.JPA || batchSize < 1) {
+            throw new IllegalArgumentException("Mode: " + mode + " should be native insert mode and batch size: " +
+                    batchSize + " should be positive");
+        }
+
+        val session = entityManager.unwrap(SessionImplementor.class);
+        val persister = session.getEntityPersister(Book.class.getName(), null);
+        val nullability = new Nullability(session);
+        val insertedBooks = new ArrayList<Book>(books.size());
+
+        for (val book : books) {
+            Assert.notNull(book, "The entity must not be null!");
+
+            try {
+                nullability.checkNullability(persister.getPropertyValues(book), persister, false);
+            } catch (HibernateException e) {
+                throw session.getExceptionConverter().convert(e);
+            }
+
+            val insertedBook = Objects.isNull(book.getId()) ? book : copyWithoutId(book);
+
+            insertedBook.setId((Long) persister.getIdentifierGenerator().generate(session, insertedBook));
+
+            insertedBooks.add(insertedBook);
+        }
+
+        entityManager.flush();
+
+        session.doWork(connection -> mode.insert(connection, insertedBooks, batchSize));
+
+        log.info("Entities: {} was inserted in mode: {} by batches of {} rows", insertedBooks.size(), mode,
+                batchSize);
+
+        return insertedBooks;
+    }
+
+    @Override
+    public BookAuthorCounts countBooksGroupedByAuthor() {
+        var authors = new String[INITIAL_GROUPS];
+        var counts = new long[INITIAL_GROUPS];
+        var size = 0;
+
+        try (val results = scrollGroups("SELECT b.author, COUNT(b) FROM Book b GROUP BY b.author ORDER BY b.author")) {
+            while (results.next()) {
+                if (size == authors.length) {
+                    authors = Arrays.copyOf(authors, size * 2);
+                    counts = Arrays.copyOf(counts, size * 2);
+                }
+
+                authors[size] = (String) results.get(0);
+                counts[size] = ((Number) results.get(1)).longValue();
+                size++;
+            }
+        }
+
+        return new BookAuthorCounts(Arrays.copyOf(authors, size), Arrays.copyOf(counts, size));
+    }
+
+    @Override
+    public BookYearHistogram countBooksGroupedByPrintYear(int bucketSize) {
+        if (bucketSize < 1) {
+            throw new IllegalArgumentException("Bucket size: " + bucketSize + " should be positive");
+        }
+
+        val bucket = bucketSize == 1
+                ? "b.printYear"
+                : "FLOOR(b.printYear / " + bucketSize + ".0) * " + bucketSize;
+        var bucketStarts = new int[INITIAL_GROUPS];
+        var counts = new long[INITIAL_GROUPS];
+        var size = 0;
+
+        try (val results = scrollGroups("SELECT " + bucket + ", COUNT(b) FROM Book b GROUP BY " + bucket +
+                " ORDER BY " + bucket)) {
+            while (results.next()) {
+                if (size == bucketStarts.length) {
+                    bucketStarts = Arrays.copyOf(bucketStarts, size * 2);
+                    counts = Arrays.copyOf(counts, size * 2);
+                }
+
+                bucketStarts[size] = ((Number) results.get(0)).intValue();
+                counts[size] = ((Number) results.get(1)).longValue();
+                size++;
+            }
+        }
+
+        return new BookYearHistogram(bucketSize, Arrays.copyOf(bucketStarts, size), Arrays.copyOf(counts, size));
+    }
+
+    @Override
+    public BookReadCounts countBooksGroupedByRead() {
+        var read = 0L;
+        var unread = 0L;
+
+        try (val results = scrollGroups("SELECT b.read, COUNT(b) FROM Book b GROUP BY b.read")) {
+            while (results.next()) {
+                val count = ((Number) results.get(1)).longValue();
+
+                if ((Boolean) results.get(0)) {
+                    read = count;
+                } else {
+                    unread = count;
+                }
+            }
+        }
+
+        return new BookReadCounts(read, unread);
+    }
+
+    private ScrollableResults scrollGroups(String queryString) {
+        log.info("Preparing to count book entities with query: {}", queryString);
+
+        return entityManager.unwrap(Session.class)
+                .createQuery(queryString, Object[].class)
+                .setFetchSize(getFetchSize())
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    private Stream<Book> stream(String queryString, String parameterName, Object parameterValue) {
+        val session = entityManager.unwrap(Session.class);
+        val fetchSize = getFetchSize();
+
+        log.info("Preparing to stream book entities with query: {} and fetch size: {}", queryString, fetchSize);
+
+        val query = session.createQuery(queryString, Book.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE);
+
+        if (Objects.nonNull(parameterName)) {
+            query.setParameter(parameterName, parameterValue);
+        }
+
+        val results = query.scroll(ScrollMode.FORWARD_ONLY);
+
+        return StreamSupport.stream(new DetachingSpliterator(session, results), false)
+                .onClose(results::close);
+    }
+
+    private List<Book> findAfter(String parameterName, Object parameterValue, @NonNull BookSortColumn sortColumn,
+                                 BookKeyset after, int limit) {
+        return BookKeysetQueries.create(entityManager, parameterName, parameterValue, sortColumn, after, limit)
+                .getResultList();
+    }
+
+    private static Book copyWithoutId(Book book) {
+        val copy = new Book();
+
+        copy.setName(book.getName());
+        copy.setAuthor(book.getAuthor());
+        copy.setPrintYear(book.getPrintYear());
+        copy.setRead(book.isRead());
+
+        return copy;
+    }
+
+    private int getFetchSize() {
+        val fetchSize = entityManager.getEntityManagerFactory().getProperties().get(HIBERNATE_JDBC_FETCH_SIZE);
+
+        return Objects.isNull(fetchSize) ? DEFAULT_FETCH_SIZE : Integer.parseInt(fetchSize.toString());
+    }
+
+    private static class DetachingSpliterator extends Spliterators.AbstractSpliterator<Book> {
+
+        private final Session session;
+        private final ScrollableResults results;
+
+        DetachingSpliterator(Session session, ScrollableResults results) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+
+            this.session = session;
+            this.results = results;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Book> action) {
+            if (!results.next()) {
+                return false;
+            }
+
+            val book = (Book) results.get(0);
+
+            session.detach(book);
+
+            action.accept(book);
+
+            return true;
+        }
+    }
+}
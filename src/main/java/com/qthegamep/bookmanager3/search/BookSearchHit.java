@@ -0,0 +1,29 @@
+package com.qthegamep.bookmanager3.search;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * This class is a hit of the full-text search, see {@link BookSearchIndex}. Hits with the higher score are
+ * more relevant to the query.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class BookSearchHit {
+
+    private final long id;
+    private final double score;
+
+    /**
+     * This is the constructor that creates hit.
+     *
+     * @param id    is the id of the found book entity.
+     * @param score is the relevance of the entity to the query.
+     */
+    public BookSearchHit(long id, double score) {
+        this.id = id;
+        this.score = score;
+    }
+}
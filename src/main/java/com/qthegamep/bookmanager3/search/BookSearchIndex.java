@@ -0,0 +1,407 @@
+package com.qthegamep.bookmanager3.search;
+
+import com.qthegamep.bookmanager3.entity.Book;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class is an in-memory inverted index of names and authors of book entities. Texts are split into terms
+ * by characters that are not letters or digits, and terms are lower-cased, so the search is case-insensitive.
+ * Every term has the posting map of ids of entities and weights of the term in them; the term of the name weighs
+ * more than the term of the author.
+ * The search finds entities that have all terms of the query, every term of the query matches equal terms and
+ * with the lower weight the limited number of terms that start with it, so the last word may be incomplete.
+ * Hits are ranked by the sum of weights multiplied by the inverse document frequency of terms and the best hits
+ * are selected by the bounded heap, so the cost of the search depends on the lengths of posting lists of terms
+ * of the query and not on the number of indexed entities.
+ * The index is guarded by the read-write lock, searches do not block each other. The index can be rebuilt
+ * from parts that are filled in parallel, changes that are made during the rebuild are replayed after it.
+ */
+public class BookSearchIndex {
+
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float AUTHOR_WEIGHT = 1.0f;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final Comparator<BookSearchHit> RANK = Comparator.comparingDouble(BookSearchHit::getScore)
+            .reversed()
+            .thenComparingLong(BookSearchHit::getId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private Map<Long, String[]> documentTerms = new HashMap<>();
+    private List<Runnable> rebuildJournal;
+
+    /**
+     * This method splits the text into lower-cased terms.
+     *
+     * @param text is the text that will be split.
+     * @return list of terms in the order of the text, or empty list if the text is null.
+     */
+    public static List<String> tokenize(String text) {
+        val terms = new ArrayList<String>();
+
+        if (text == null) {
+            return terms;
+        }
+
+        var start = -1;
+
+        for (int i = 0; i <= text.length(); i++) {
+            if (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+
+                start = -1;
+            }
+        }
+
+        return terms;
+    }
+
+    /**
+     * This method adds the entity to the index or replaces the indexed terms of the entity.
+     *
+     * @param book is the entity with the id.
+     *             Should not be null.
+     */
+    public void index(@NonNull Book book) {
+        val document = new Document(book);
+
+        write(() -> indexDocument(document));
+    }
+
+    /**
+     * This method adds entities to the index or replaces the indexed terms of entities.
+     *
+     * @param books is the collection of entities with ids.
+     *              Should not be null.
+     */
+    public void indexAll(@NonNull Collection<? extends Book> books) {
+        val documents = new ArrayList<Document>(books.size());
+
+        for (val book : books) {
+            documents.add(new Document(book));
+        }
+
+        write(() -> documents.forEach(this::indexDocument));
+    }
+
+    /**
+     * This method removes the entity from the index.
+     *
+     * @param id is the id of the entity.
+     *           Should not be null.
+     */
+    public void remove(@NonNull Long id) {
+        write(() -> removeDocument(id));
+    }
+
+    /**
+     * This method removes entities from the index.
+     *
+     * @param ids is the collection of ids of entities.
+     *            Should not be null.
+     */
+    public void removeAll(@NonNull Collection<Long> ids) {
+        val idsCopy = new ArrayList<Long>(ids);
+
+        write(() -> idsCopy.forEach(this::removeDocument));
+    }
+
+    /**
+     * This method removes all entities from the index.
+     */
+    public void clear() {
+        write(() -> {
+            postings.clear();
+            documentTerms.clear();
+        });
+    }
+
+    /**
+     * This method finds entities that have all terms of the query in the name or in the author.
+     *
+     * @param query is the text of the query.
+     *              Should not be null.
+     * @param limit is the max number of hits.
+     * @return list of hits from the most relevant, or empty list if the query has no terms.
+     */
+    public List<BookSearchHit> search(@NonNull String query, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit: " + limit + " should be positive");
+        }
+
+        val queryTerms = new LinkedHashSet<String>(tokenize(query));
+
+        if (queryTerms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+
+        try {
+            val termScores = new ArrayList<Map<Long, Double>>(queryTerms.size());
+
+            for (val queryTerm : queryTerms) {
+                val scores = scoreTerm(queryTerm);
+
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+
+                termScores.add(scores);
+            }
+
+            termScores.sort(Comparator.comparingInt(Map::size));
+
+            return selectBest(termScores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of indexed entities.
+     */
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of distinct terms.
+     */
+    public int getTerms() {
+        lock.readLock().lock();
+
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method starts the rebuild. Changes of the index are applied and recorded until the rebuild
+     * is completed or aborted.
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+
+        try {
+            if (rebuildJournal != null) {
+                throw new IllegalStateException("Index is already being rebuilt");
+            }
+
+            rebuildJournal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method replaces the content of the index by the content of parts and replays changes that were
+     * made after the start of the rebuild. Parts should not contain the same entities.
+     *
+     * @param parts are indexes that were filled from the table.
+     *              Should not be null.
+     */
+    public void completeRebuild(@NonNull Collection<BookSearchIndex> parts) {
+        val newPostings = new TreeMap<String, Map<Long, Float>>();
+        val newDocumentTerms = new HashMap<Long, String[]>();
+
+        for (val part : parts) {
+            for (val entry : part.postings.entrySet()) {
+                newPostings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).putAll(entry.getValue());
+            }
+
+            newDocumentTerms.putAll(part.documentTerms);
+        }
+
+        lock.writeLock().lock();
+
+        try {
+            if (rebuildJournal == null) {
+                throw new IllegalStateException("Index is not being rebuilt");
+            }
+
+            postings = newPostings;
+            documentTerms = newDocumentTerms;
+
+            for (val change : rebuildJournal) {
+                change.run();
+            }
+
+            rebuildJournal = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method stops recording of changes when the rebuild is failed. The content of the index is kept.
+     */
+    public void abortRebuild() {
+        lock.writeLock().lock();
+
+        try {
+            rebuildJournal = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+
+        try {
+            change.run();
+
+            if (rebuildJournal != null) {
+                rebuildJournal.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexDocument(Document document) {
+        removeDocument(document.id);
+
+        val weights = new HashMap<String, Float>();
+
+        for (val term : tokenize(document.name)) {
+            weights.merge(term, NAME_WEIGHT, Float::sum);
+        }
+
+        for (val term : tokenize(document.author)) {
+            weights.merge(term, AUTHOR_WEIGHT, Float::sum);
+        }
+
+        for (val weight : weights.entrySet()) {
+            postings.computeIfAbsent(weight.getKey(), term -> new HashMap<>()).put(document.id, weight.getValue());
+        }
+
+        documentTerms.put(document.id, weights.keySet().toArray(new String[0]));
+    }
+
+    private void removeDocument(Long id) {
+        val terms = documentTerms.remove(id);
+
+        if (terms == null) {
+            return;
+        }
+
+        for (val term : terms) {
+            val posting = postings.get(term);
+
+            posting.remove(id);
+
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private Map<Long, Double> scoreTerm(String queryTerm) {
+        val scores = new HashMap<Long, Double>();
+        val exactPosting = postings.get(queryTerm);
+
+        if (exactPosting != null) {
+            addScores(scores, exactPosting, 1.0);
+        }
+
+        var prefixTerms = 0;
+
+        for (val entry : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+            if (++prefixTerms > MAX_PREFIX_TERMS) {
+                break;
+            }
+
+            addScores(scores, entry.getValue(), PREFIX_WEIGHT);
+        }
+
+        return scores;
+    }
+
+    private void addScores(Map<Long, Double> scores, Map<Long, Float> posting, double weight) {
+        val inverseDocumentFrequency = Math.log(1.0 + (double) documentTerms.size() / posting.size());
+
+        for (val entry : posting.entrySet()) {
+            scores.merge(entry.getKey(), weight * entry.getValue() * inverseDocumentFrequency, Math::max);
+        }
+    }
+
+    private static List<BookSearchHit> selectBest(List<Map<Long, Double>> termScores, int limit) {
+        val best = new PriorityQueue<BookSearchHit>(limit + 1, RANK.reversed());
+
+        candidates:
+        for (val candidate : termScores.get(0).entrySet()) {
+            var score = candidate.getValue();
+
+            for (int i = 1; i < termScores.size(); i++) {
+                val termScore = termScores.get(i).get(candidate.getKey());
+
+                if (termScore == null) {
+                    continue candidates;
+                }
+
+                score += termScore;
+            }
+
+            best.add(new BookSearchHit(candidate.getKey(), score));
+
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        val hits = new ArrayList<BookSearchHit>(best);
+
+        hits.sort(RANK);
+
+        return hits;
+    }
+
+    private static class Document {
+
+        private final Long id;
+        private final String name;
+        private final String author;
+
+        private Document(Book book) {
+            if (book == null || book.getId() == null) {
+                throw new IllegalArgumentException("Entity: " + book + " should have id to be indexed");
+            }
+
+            this.id = book.getId();
+            this.name = book.getName();
+            this.author = book.getAuthor();
+        }
+    }
+}
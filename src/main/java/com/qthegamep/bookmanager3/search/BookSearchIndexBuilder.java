@@ -0,0 +1,161 @@
+package com.qthegamep.bookmanager3.search;
+
+import com.qthegamep.bookmanager3.concurrent.ThreadFactories;
+import com.qthegamep.bookmanager3.entity.Book;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a builder of {@link BookSearchIndex} from the book table. The table is split into equal id ranges
+ * that are read in parallel, each of them by its own thread in its own read-only transaction through the
+ * forward-only cursor with the fetch size, so entities are not created. Every range fills its own part of the index
+ * and parts are merged into the index at once, searches see the old content of the index until then.
+ */
+@Slf4j
+public class BookSearchIndexBuilder {
+
+    private static final String SELECT_ID_RANGE = "SELECT MIN(ID), MAX(ID) FROM BOOK";
+    private static final String SELECT_BOOKS_BY_ID_RANGE = "SELECT ID, NAME, AUTHOR FROM BOOK WHERE ID >= ? AND ID < ?";
+    private static final int ROWS_PER_INDEXING = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int workers;
+
+    /**
+     * This is constructor that creates builder.
+     *
+     * @param dataSource         is the data source of the book table.
+     *                           Should not be null.
+     * @param transactionManager is the transaction manager of read-only transactions of ranges.
+     *                           Should not be null.
+     * @param fetchSize          is the number of rows that are fetched by the cursor at once.
+     * @param workers            is the number of threads that read ranges of the table.
+     */
+    public BookSearchIndexBuilder(@NonNull DataSource dataSource,
+                                  @NonNull PlatformTransactionManager transactionManager,
+                                  int fetchSize,
+                                  int workers) {
+        if (fetchSize < 1 || workers < 1) {
+            throw new IllegalArgumentException("Fetch size: " + fetchSize + " and workers: " + workers +
+                    " should be positive");
+        }
+
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.workers = workers;
+    }
+
+    /**
+     * This method replaces the content of the index by all rows of the book table. Changes of the index that
+     * are made during the rebuild are kept.
+     *
+     * @param index is the index that will be rebuilt.
+     *              Should not be null.
+     * @return number of indexed rows.
+     */
+    public int rebuild(@NonNull BookSearchIndex index) {
+        val start = System.nanoTime();
+
+        index.beginRebuild();
+
+        try {
+            val idRange = jdbcTemplate.query(SELECT_ID_RANGE, (ResultSetExtractor<long[]>) resultSet -> {
+                resultSet.next();
+
+                val minId = resultSet.getLong(1);
+
+                return resultSet.wasNull() ? null : new long[]{minId, resultSet.getLong(2) + 1};
+            });
+
+            val parts = idRange == null ? List.<BookSearchIndex>of() : buildParts(idRange);
+
+            index.completeRebuild(parts);
+
+            val indexedRows = parts.stream().mapToInt(BookSearchIndex::size).sum();
+
+            log.info("Search index was rebuilt from rows: {} by workers: {} in {} ms, indexed entities: {}, " +
+                            "terms: {}", indexedRows, workers,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), index.size(), index.getTerms());
+
+            return indexedRows;
+        } catch (RuntimeException e) {
+            index.abortRebuild();
+
+            throw e;
+        }
+    }
+
+    private List<BookSearchIndex> buildParts(long[] idRange) {
+        val width = Math.max(1, (idRange[1] - idRange[0] + workers - 1) / workers);
+        val parts = new ArrayList<BookSearchIndex>(workers);
+        val futures = new ArrayList<CompletableFuture<Void>>(workers);
+        val executor = Executors.newFixedThreadPool(workers, ThreadFactories.platform("book-search-index-"));
+
+        try {
+            for (long from = idRange[0]; from < idRange[1]; from += width) {
+                final long partFrom = from;
+                final long partTo = Math.min(from + width, idRange[1]);
+                final BookSearchIndex part = new BookSearchIndex();
+
+                parts.add(part);
+                futures.add(CompletableFuture.runAsync(() -> fillPart(part, partFrom, partTo), executor));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return parts;
+    }
+
+    private void fillPart(BookSearchIndex part, long from, long to) {
+        val books = new ArrayList<Book>(ROWS_PER_INDEXING);
+        final RowCallbackHandler rowHandler = resultSet -> {
+            val book = new Book();
+
+            book.setId(resultSet.getLong(1));
+            book.setName(resultSet.getString(2));
+            book.setAuthor(resultSet.getString(3));
+
+            books.add(book);
+
+            if (books.size() == ROWS_PER_INDEXING) {
+                part.indexAll(books);
+
+                books.clear();
+            }
+        };
+
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.query(SELECT_BOOKS_BY_ID_RANGE, rowHandler, from, to);
+
+            return null;
+        });
+
+        part.indexAll(books);
+
+        log.debug("Range: {}..{} of the search index was built, indexed rows: {}", from, to, part.size());
+    }
+}
@@ -0,0 +1,242 @@
+package com.qthegamep.bookmanager3.service;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException;
+import com.qthegamep.bookmanager3.logging.LogSummary;
+import com.qthegamep.bookmanager3.pagination.BookKeyset;
+import com.qthegamep.bookmanager3.pagination.BookPage;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * This class is a base of book service implementations over different storages of book entities.
+ * It checks page sizes, search limits and existence of added entities, builds pages of continuation tokens
+ * and logs results of calls in the same format, the storage is named in the log messages.
+ * Messages are logged by the logger of the service package, so their level is changed with the level of services.
+ */
+@Slf4j
+public abstract class AbstractBookService implements BookService {
+
+    /**
+     * Maximum number of entities on the page and in the search result.
+     */
+    protected static final int MAX_PAGE_SIZE = 1000;
+
+    private final String storage;
+
+    /**
+     * This is constructor that creates base of the service.
+     *
+     * @param storage is the name of the storage of entities in log messages, for example "the database".
+     *                Should not be null.
+     */
+    protected AbstractBookService(@NonNull String storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * This method checks whether the entity with the id exists in the storage.
+     *
+     * @param id is the id of the entity.
+     * @return true if the entity exists.
+     */
+    protected abstract boolean existsById(Long id);
+
+    /**
+     * This method returns ids that already exist in the storage.
+     *
+     * @param ids is the list of ids of entities.
+     * @return set of existing ids.
+     */
+    protected abstract Set<Long> findExistingIds(List<Long> ids);
+
+    /**
+     * This method checks the page size.
+     *
+     * @param size is the max number of entities on the page.
+     * @throws IllegalArgumentException when page size is incorrect.
+     */
+    protected void checkPageSize(int size) throws IllegalArgumentException {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            log.info("Page size: {} is incorrect! It should be between 1 and {}", size, MAX_PAGE_SIZE);
+
+            throw new IllegalArgumentException("Page size: " + size + " is incorrect. " +
+                    "It should be between 1 and " + MAX_PAGE_SIZE
+            );
+        }
+    }
+
+    /**
+     * This method checks the limit of the search.
+     *
+     * @param limit is the max number of entities.
+     * @throws IllegalArgumentException when limit is incorrect.
+     */
+    protected void checkSearchLimit(int limit) throws IllegalArgumentException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            log.info("Search limit: {} is incorrect! It should be between 1 and {}", limit, MAX_PAGE_SIZE);
+
+            throw new IllegalArgumentException("Search limit: " + limit + " is incorrect. " +
+                    "It should be between 1 and " + MAX_PAGE_SIZE
+            );
+        }
+    }
+
+    /**
+     * This method logs gotten entities.
+     *
+     * @param start is the start time of the call in nanoseconds.
+     * @param books is the list of gotten entities.
+     * @return the same list of entities.
+     */
+    protected List<Book> gotten(long start, List<Book> books) {
+        log.info("Entities: {} was gotten from {} in {} ms", LogSummary.ofBooks(books), storage,
+                elapsedMillis(start));
+
+        if (log.isDebugEnabled()) {
+            log.debug("Gotten entities: {}", books);
+        }
+
+        return books;
+    }
+
+    /**
+     * This method creates page from entities that were read with one extra entity. If the extra entity was read
+     * then the continuation token is created from the last entity of the page.
+     *
+     * @param books      is the list of at most size + 1 entities.
+     * @param sortColumn is the column by which entities are sorted.
+     * @param size       is the max number of entities on the page.
+     * @param start      is the start time of the call in nanoseconds.
+     * @return page of book entities.
+     */
+    protected BookPage toPage(List<Book> books, BookSortColumn sortColumn, int size, long start) {
+        String nextToken = null;
+        var content = books;
+
+        if (books.size() > size) {
+            content = new ArrayList<>(books.subList(0, size));
+            nextToken = BookKeyset.of(sortColumn, content.get(size - 1)).toToken();
+        }
+
+        val page = new BookPage(content, nextToken);
+
+        log.info("Page of entities: {} with next token: {} was gotten from {} in {} ms",
+                LogSummary.ofBooks(content), nextToken, storage, elapsedMillis(start));
+
+        if (log.isDebugEnabled()) {
+            log.debug("Gotten page: {}", page);
+        }
+
+        return page;
+    }
+
+    /**
+     * This method orders entities that were found by ids of the search index from the most relevant and logs them.
+     * Ids of entities that were removed from the storage are skipped.
+     *
+     * @param start is the start time of the call in nanoseconds.
+     * @param ids   is the list of ids from the most relevant.
+     * @param books is the list of entities that were found by ids in any order.
+     * @return list of book entities from the most relevant.
+     */
+    protected List<Book> found(long start, List<Long> ids, List<Book> books) {
+        val booksById = books.stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        val foundBooks = ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        log.info("Entities: {} was found by the search index in {} ms", LogSummary.ofBooks(foundBooks),
+                elapsedMillis(start));
+
+        if (log.isDebugEnabled()) {
+            log.debug("Found entities: {}", foundBooks);
+        }
+
+        return foundBooks;
+    }
+
+    /**
+     * This method logs the number of processed entities.
+     *
+     * @param start     is the start time of the call in nanoseconds.
+     * @param processed is the number of processed entities.
+     * @return the same number of processed entities.
+     */
+    protected long processed(long start, long processed) {
+        log.info("Entities: {} was processed in {} ms", processed, elapsedMillis(start));
+
+        return processed;
+    }
+
+    /**
+     * This method checks that the entity with the id of the given entity does not exist in the storage.
+     *
+     * @param book is the entity that will be added.
+     * @throws EntityAlreadyExistsException when the entity already exists.
+     */
+    protected void checkIfBookExists(@NonNull Book book) throws EntityAlreadyExistsException {
+        val id = book.getId();
+        val exists = Objects.nonNull(id) && existsById(id);
+
+        log.info("Is entity: {} exists: {}", book, exists);
+
+        if (exists) {
+            log.info("Entity: {} is exists! You should update this entity or add new one", book);
+
+            throw new EntityAlreadyExistsException("Entity: " + book + " already exists. " +
+                    "You should update this entity or add new one"
+            );
+        }
+    }
+
+    /**
+     * This method checks that entities with ids of the given entities do not exist in the storage.
+     *
+     * @param books is the list of entities that will be added.
+     * @throws EntityAlreadyExistsException with all existing ids when one of entities already exists.
+     */
+    protected void checkIfBooksExist(List<Book> books) throws EntityAlreadyExistsException {
+        val ids = new ArrayList<Long>(books.size());
+
+        for (val book : books) {
+            val id = Objects.requireNonNull(book, "book is marked @NonNull but is null").getId();
+
+            if (Objects.nonNull(id)) {
+                ids.add(id);
+            }
+        }
+
+        val existingIds = new TreeSet<Long>(findExistingIds(ids));
+
+        if (!existingIds.isEmpty()) {
+            log.info("Entities with ids: {} are exist! You should update these entities or add new ones", existingIds);
+
+            throw new EntityAlreadyExistsException("Entities with ids: " + existingIds + " already exist. " +
+                    "You should update these entities or add new ones", existingIds
+            );
+        }
+    }
+
+    /**
+     * @param start is the start time in nanoseconds.
+     * @return number of milliseconds since the start time.
+     */
+    protected static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
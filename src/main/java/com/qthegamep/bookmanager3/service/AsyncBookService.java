@@ -0,0 +1,266 @@
+package com.qthegamep.bookmanager3.service;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.pagination.BookPage;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * This interface is an asynchronous service. It contains the same operations as {@link BookService}, but every
+ * operation is performed by the executor of the service and the caller gets a future of its result.
+ * Exceptions of {@link BookService} complete the future exceptionally. If the executor is full then the future
+ * is completed with {@link java.util.concurrent.RejectedExecutionException}, and if the read operation is not finished
+ * in its timeout then the future is completed with {@link java.util.concurrent.TimeoutException}.
+ * Operations that add, update or remove entities are not timed out. If the caller stops waiting for such
+ * operation, for example by {@link java.util.concurrent.CompletableFuture#get(long, java.util.concurrent.TimeUnit)}
+ * with a timeout or by cancelling the future, it does not mean that the write was not applied: the write that was
+ * started by the executor is finished and committed anyway.
+ */
+public interface AsyncBookService {
+
+    /**
+     * This service method should add book entity to the database, see {@link BookService#add(Book)}.
+     *
+     * @param book is the entity that will be added to the database.
+     * @return future of the added book entity.
+     */
+    CompletableFuture<Book> add(Book book);
+
+    /**
+     * This service method should add list of book entities to the database, see {@link BookService#addAll(List)}.
+     *
+     * @param books is the list of entities that will be added to the database.
+     * @return future of the list of added book entities.
+     */
+    CompletableFuture<List<Book>> addAll(List<Book> books);
+
+    /**
+     * This service method should return book entity by id, see {@link BookService#getById(Long)}.
+     *
+     * @param id is the id of the entity.
+     * @return future of the book entity.
+     */
+    CompletableFuture<Book> getById(Long id);
+
+    /**
+     * This service method should return list of book entities by name, see {@link BookService#getByName(String)}.
+     *
+     * @param name is the parameter by which the entities will be returned.
+     * @return future of the list of book entities.
+     */
+    CompletableFuture<List<Book>> getByName(String name);
+
+    /**
+     * This service method should return page of book entities by name,
+     * see {@link BookService#getByName(String, BookSortColumn, String, int)}.
+     *
+     * @param name       is the parameter by which the entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return future of the page of book entities.
+     */
+    CompletableFuture<BookPage> getByName(String name, BookSortColumn sortColumn, String token, int size);
+
+    /**
+     * This service method should return list of book entities by author,
+     * see {@link BookService#getByAuthor(String)}.
+     *
+     * @param author is the parameter by which the entities will be returned.
+     * @return future of the list of book entities.
+     */
+    CompletableFuture<List<Book>> getByAuthor(String author);
+
+    /**
+     * This service method should return page of book entities by author,
+     * see {@link BookService#getByAuthor(String, BookSortColumn, String, int)}.
+     *
+     * @param author     is the parameter by which the entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return future of the page of book entities.
+     */
+    CompletableFuture<BookPage> getByAuthor(String author, BookSortColumn sortColumn, String token, int size);
+
+    /**
+     * This service method should return list of book entities by print year,
+     * see {@link BookService#getByPrintYear(int)}.
+     *
+     * @param printYear is the parameter by which the entities will be returned.
+     * @return future of the list of book entities.
+     */
+    CompletableFuture<List<Book>> getByPrintYear(int printYear);
+
+    /**
+     * This service method should return page of book entities by print year,
+     * see {@link BookService#getByPrintYear(int, BookSortColumn, String, int)}.
+     *
+     * @param printYear  is the parameter by which the entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return future of the page of book entities.
+     */
+    CompletableFuture<BookPage> getByPrintYear(int printYear, BookSortColumn sortColumn, String token, int size);
+
+    /**
+     * This service method should return list of book entities by read, see {@link BookService#getByRead(boolean)}.
+     *
+     * @param read is the parameter by which the entities will be returned.
+     * @return future of the list of book entities.
+     */
+    CompletableFuture<List<Book>> getByRead(boolean read);
+
+    /**
+     * This service method should return page of book entities by read,
+     * see {@link BookService#getByRead(boolean, BookSortColumn, String, int)}.
+     *
+     * @param read       is the parameter by which the entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return future of the page of book entities.
+     */
+    CompletableFuture<BookPage> getByRead(boolean read, BookSortColumn sortColumn, String token, int size);
+
+    /**
+     * This service method should return list of all book entities, see {@link BookService#getAll()}.
+     *
+     * @return future of the list of book entities.
+     */
+    CompletableFuture<List<Book>> getAll();
+
+    /**
+     * This service method should return page of all book entities,
+     * see {@link BookService#getAll(BookSortColumn, String, int)}.
+     *
+     * @param sortColumn is the column by which the page is sorted.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return future of the page of book entities.
+     */
+    CompletableFuture<BookPage> getAll(BookSortColumn sortColumn, String token, int size);
+
+    /**
+     * This service method should pass book entities by name to the action one by one,
+     * see {@link BookService#processByName(String, Consumer)}. The action is performed by the executor thread.
+     *
+     * @param name   is the parameter by which the entities will be processed.
+     * @param action is the action that will be performed for each entity.
+     * @return future of the number of processed entities.
+     */
+    CompletableFuture<Long> processByName(String name, Consumer<? super Book> action);
+
+    /**
+     * This service method should pass book entities by author to the action one by one,
+     * see {@link BookService#processByAuthor(String, Consumer)}. The action is performed by the executor thread.
+     *
+     * @param author is the parameter by which the entities will be processed.
+     * @param action is the action that will be performed for each entity.
+     * @return future of the number of processed entities.
+     */
+    CompletableFuture<Long> processByAuthor(String author, Consumer<? super Book> action);
+
+    /**
+     * This service method should pass book entities by print year to the action one by one,
+     * see {@link BookService#processByPrintYear(int, Consumer)}. The action is performed by the executor thread.
+     *
+     * @param printYear is the parameter by which the entities will be processed.
+     * @param action    is the action that will be performed for each entity.
+     * @return future of the number of processed entities.
+     */
+    CompletableFuture<Long> processByPrintYear(int printYear, Consumer<? super Book> action);
+
+    /**
+     * This service method should pass book entities by read to the action one by one,
+     * see {@link BookService#processByRead(boolean, Consumer)}. The action is performed by the executor thread.
+     *
+     * @param read   is the parameter by which the entities will be processed.
+     * @param action is the action that will be performed for each entity.
+     * @return future of the number of processed entities.
+     */
+    CompletableFuture<Long> processByRead(boolean read, Consumer<? super Book> action);
+
+    /**
+     * This service method should pass all book entities to the action one by one,
+     * see {@link BookService#processAll(Consumer)}. The action is performed by the executor thread.
+     *
+     * @param action is the action that will be performed for each entity.
+     * @return future of the number of processed entities.
+     */
+    CompletableFuture<Long> processAll(Consumer<? super Book> action);
+
+    /**
+     * This service method should update book entity in the database, see {@link BookService#update(Book)}.
+     *
+     * @param book is the entity that will be updated in the database.
+     * @return future of the updated book entity.
+     */
+    CompletableFuture<Book> update(Book book);
+
+    /**
+     * This service method should update list of book entities in the database,
+     * see {@link BookService#updateAll(List)}.
+     *
+     * @param books is the list of entities that will be updated in the database.
+     * @return future of the list of updated book entities.
+     */
+    CompletableFuture<List<Book>> updateAll(List<Book> books);
+
+    /**
+     * This service method should mark all book entities by author as read,
+     * see {@link BookService#markReadByAuthor(String)}.
+     *
+     * @param author is the parameter by which entities will be marked as read.
+     * @return future of the number of updated entities.
+     */
+    CompletableFuture<Integer> markReadByAuthor(String author);
+
+    /**
+     * This service method should set read of book entities by ids,
+     * see {@link BookService#setReadByIds(List, boolean)}.
+     *
+     * @param ids  is the list of ids of entities that will be updated.
+     * @param read is the new value of read.
+     * @return future of the number of updated entities.
+     */
+    CompletableFuture<Integer> setReadByIds(List<Long> ids, boolean read);
+
+    /**
+     * This service method should set print year of book entities by ids,
+     * see {@link BookService#updatePrintYearByIds(List, int)}.
+     *
+     * @param ids       is the list of ids of entities that will be updated.
+     * @param printYear is the new value of print year.
+     * @return future of the number of updated entities.
+     */
+    CompletableFuture<Integer> updatePrintYearByIds(List<Long> ids, int printYear);
+
+    /**
+     * This service method should delete book entity from the database, see {@link BookService#remove(Book)}.
+     *
+     * @param book is the entity that will be deleted from the database.
+     * @return future that is completed when the entity is deleted.
+     */
+    CompletableFuture<Void> remove(Book book);
+
+    /**
+     * This service method should delete list of book entities from the database,
+     * see {@link BookService#removeAll(List)}.
+     *
+     * @param books is the list of entities that will be deleted from the database.
+     * @return future that is completed when the entities are deleted.
+     */
+    CompletableFuture<Void> removeAll(List<? extends Book> books);
+
+    /**
+     * This service method should delete all book entities from the database, see {@link BookService#removeAll()}.
+     *
+     * @return future that is completed when the entities are deleted.
+     */
+    CompletableFuture<Void> removeAll();
+}
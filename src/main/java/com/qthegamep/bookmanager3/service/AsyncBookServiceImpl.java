@@ -0,0 +1,300 @@
+package com.qthegamep.bookmanager3.service;
+
+import com.qthegamep.bookmanager3.concurrent.ThreadFactories;
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.pagination.BookPage;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * This class is asynchronous book service implementation. Operations are delegated to {@link BookService}
+ * by the bounded executor, so the number of threads that wait for the database does not depend on the number
+ * of callers. MDC logging context of the caller is set in the executor thread during the operation.
+ * Timeouts are applied only to read operations: when the read is not finished in its timeout or the future
+ * is cancelled by the caller, the executor thread of the read is interrupted. Write operations are not timed out
+ * and not interrupted, because the transaction of the write could be committed after the future was completed
+ * and the caller could not know whether the write was applied. The write that is cancelled before it is started
+ * by the executor is not performed. The executor is not owned by this service, it should be shut down by its creator.
+ */
+@Slf4j
+public class AsyncBookServiceImpl implements AsyncBookService, AutoCloseable {
+
+    private final BookService bookService;
+    private final ExecutorService executor;
+    private final ToLongFunction<String> timeouts;
+    private final Map<String, Long> timeoutsByOperation = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timeoutScheduler;
+
+    /**
+     * This is constructor that creates asynchronous service of the book service.
+     *
+     * @param bookService is the service that performs operations.
+     *                    Should not be null.
+     * @param executor    is the executor of operations.
+     *                    Should not be null.
+     * @param timeouts    is the function that returns timeout of the read operation in milliseconds by its name,
+     *                    the name of the operation is the name of the method. It is called once per operation.
+     *                    Should not be null.
+     */
+    public AsyncBookServiceImpl(@NonNull BookService bookService,
+                                @NonNull ExecutorService executor,
+                                @NonNull ToLongFunction<String> timeouts) {
+        this.bookService = bookService;
+        this.executor = executor;
+        this.timeouts = timeouts;
+        this.timeoutScheduler = new ScheduledThreadPoolExecutor(1,
+                ThreadFactories.platform("async-book-service-timeout-"));
+
+        timeoutScheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public CompletableFuture<Book> add(Book book) {
+        return write("add", () -> bookService.add(book));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> addAll(List<Book> books) {
+        return write("addAll", () -> bookService.addAll(books));
+    }
+
+    @Override
+    public CompletableFuture<Book> getById(Long id) {
+        return read("getById", () -> bookService.getById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> getByName(String name) {
+        return read("getByName", () -> bookService.getByName(name));
+    }
+
+    @Override
+    public CompletableFuture<BookPage> getByName(String name, BookSortColumn sortColumn, String token, int size) {
+        return read("getByName", () -> bookService.getByName(name, sortColumn, token, size));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> getByAuthor(String author) {
+        return read("getByAuthor", () -> bookService.getByAuthor(author));
+    }
+
+    @Override
+    public CompletableFuture<BookPage> getByAuthor(String author, BookSortColumn sortColumn, String token, int size) {
+        return read("getByAuthor", () -> bookService.getByAuthor(author, sortColumn, token, size));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> getByPrintYear(int printYear) {
+        return read("getByPrintYear", () -> bookService.getByPrintYear(printYear));
+    }
+
+    @Override
+    public CompletableFuture<BookPage> getByPrintYear(int printYear, BookSortColumn sortColumn, String token,
+                                                      int size) {
+        return read("getByPrintYear", () -> bookService.getByPrintYear(printYear, sortColumn, token, size));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> getByRead(boolean read) {
+        return read("getByRead", () -> bookService.getByRead(read));
+    }
+
+    @Override
+    public CompletableFuture<BookPage> getByRead(boolean read, BookSortColumn sortColumn, String token, int size) {
+        return read("getByRead", () -> bookService.getByRead(read, sortColumn, token, size));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> getAll() {
+        return read("getAll", bookService::getAll);
+    }
+
+    @Override
+    public CompletableFuture<BookPage> getAll(BookSortColumn sortColumn, String token, int size) {
+        return read("getAll", () -> bookService.getAll(sortColumn, token, size));
+    }
+
+    @Override
+    public CompletableFuture<Long> processByName(String name, Consumer<? super Book> action) {
+        return read("processByName", () -> bookService.processByName(name, action));
+    }
+
+    @Override
+    public CompletableFuture<Long> processByAuthor(String author, Consumer<? super Book> action) {
+        return read("processByAuthor", () -> bookService.processByAuthor(author, action));
+    }
+
+    @Override
+    public CompletableFuture<Long> processByPrintYear(int printYear, Consumer<? super Book> action) {
+        return read("processByPrintYear", () -> bookService.processByPrintYear(printYear, action));
+    }
+
+    @Override
+    public CompletableFuture<Long> processByRead(boolean read, Consumer<? super Book> action) {
+        return read("processByRead", () -> bookService.processByRead(read, action));
+    }
+
+    @Override
+    public CompletableFuture<Long> processAll(Consumer<? super Book> action) {
+        return read("processAll", () -> bookService.processAll(action));
+    }
+
+    @Override
+    public CompletableFuture<Book> update(Book book) {
+        return write("update", () -> bookService.update(book));
+    }
+
+    @Override
+    public CompletableFuture<List<Book>> updateAll(List<Book> books) {
+        return write("updateAll", () -> bookService.updateAll(books));
+    }
+
+    @Override
+    public CompletableFuture<Integer> markReadByAuthor(String author) {
+        return write("markReadByAuthor", () -> bookService.markReadByAuthor(author));
+    }
+
+    @Override
+    public CompletableFuture<Integer> setReadByIds(List<Long> ids, boolean read) {
+        return write("setReadByIds", () -> bookService.setReadByIds(ids, read));
+    }
+
+    @Override
+    public CompletableFuture<Integer> updatePrintYearByIds(List<Long> ids, int printYear) {
+        return write("updatePrintYearByIds", () -> bookService.updatePrintYearByIds(ids, printYear));
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(Book book) {
+        return writeVoid("remove", () -> bookService.remove(book));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(List<? extends Book> books) {
+        return writeVoid("removeAll", () -> bookService.removeAll(books));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll() {
+        return writeVoid("removeAll", bookService::removeAll);
+    }
+
+    /**
+     * This method stops the scheduler of timeouts. Futures of operations that are not finished yet
+     * are not completed by their timeouts after that.
+     */
+    @Override
+    public void close() {
+        timeoutScheduler.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> read(String operation, Supplier<T> supplier) {
+        return submit(operation, supplier, true);
+    }
+
+    private <T> CompletableFuture<T> write(String operation, Supplier<T> supplier) {
+        return submit(operation, supplier, false);
+    }
+
+    private CompletableFuture<Void> writeVoid(String operation, Runnable runnable) {
+        return write(operation, () -> {
+            runnable.run();
+
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(String operation, Supplier<T> supplier, boolean timed) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final Map<String, String> context = MDC.getCopyOfContextMap();
+        final Future<?> task;
+
+        try {
+            task = executor.submit((Runnable) () -> complete(future, context, supplier));
+        } catch (RejectedExecutionException e) {
+            log.warn("Operation: {} was rejected by the executor", operation);
+
+            future.completeExceptionally(e);
+
+            return future;
+        }
+
+        if (!timed) {
+            return future;
+        }
+
+        val timeout = getTimeout(operation);
+        val timeoutTask = timeoutScheduler.schedule(() -> {
+            if (future.completeExceptionally(new TimeoutException(
+                    "Operation: " + operation + " timed out after " + timeout + " ms"))) {
+                log.warn("Operation: {} timed out after {} ms", operation, timeout);
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+
+        future.whenComplete((result, error) -> {
+            timeoutTask.cancel(false);
+
+            if (error instanceof TimeoutException || error instanceof CancellationException) {
+                task.cancel(true);
+            }
+        });
+
+        return future;
+    }
+
+    private long getTimeout(String operation) {
+        val timeout = timeoutsByOperation.get(operation);
+
+        return Objects.nonNull(timeout)
+                ? timeout
+                : timeoutsByOperation.computeIfAbsent(operation, timeouts::applyAsLong);
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, Map<String, String> context,
+                                     Supplier<T> supplier) {
+        if (future.isDone()) {
+            return;
+        }
+
+        val previousContext = MDC.getCopyOfContextMap();
+
+        setContext(context);
+
+        try {
+            future.complete(supplier.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            setContext(previousContext);
+        }
+    }
+
+    private static void setContext(Map<String, String> context) {
+        if (Objects.isNull(context)) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
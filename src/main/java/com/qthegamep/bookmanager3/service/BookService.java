@@ -2,11 +2,17 @@ package com.qthegamep.bookmanager3.service;
 
 import com.qthegamep.bookmanager3.entity.Book;
 import com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException;
+import com.qthegamep.bookmanager3.pagination.BookPage;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.statistics.BookAuthorCounts;
+import com.qthegamep.bookmanager3.statistics.BookReadCounts;
+import com.qthegamep.bookmanager3.statistics.BookYearHistogram;
 
 import org.springframework.dao.DataIntegrityViolationException;
 
 import javax.persistence.EntityNotFoundException;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * This interface is a service. It contains all the services that this application can do with the database.
@@ -29,8 +35,8 @@ public interface BookService {
 
     /**
      * This service method should add list of book entities to the database.
-     * If book entity is already exists in the database then would be thrown
-     * {@link com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException}.
+     * If book entities are already exist in the database then would be thrown
+     * {@link com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException} with ids of all existing entities.
      * If book entity is incorrect then would be thrown
      * {@link org.springframework.dao.DataIntegrityViolationException}.
      *
@@ -60,6 +66,22 @@ public interface BookService {
      */
     List<Book> getByName(String name);
 
+    /**
+     * This service method should return page of book entities from the database by name.
+     * Page is sorted by the sort column and then by id. Continuation token of the returned page should be passed
+     * to get the next page. If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param name       is the parameter by which the page of entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    BookPage getByName(String name, BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException;
+
     /**
      * This service method should return list of book entities from the database by author.
      *
@@ -68,6 +90,22 @@ public interface BookService {
      */
     List<Book> getByAuthor(String author);
 
+    /**
+     * This service method should return page of book entities from the database by author.
+     * Page is sorted by the sort column and then by id. Continuation token of the returned page should be passed
+     * to get the next page. If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param author     is the parameter by which the page of entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    BookPage getByAuthor(String author, BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException;
+
     /**
      * This service method should return list of book entities from the database by print year.
      *
@@ -76,6 +114,22 @@ public interface BookService {
      */
     List<Book> getByPrintYear(int printYear);
 
+    /**
+     * This service method should return page of book entities from the database by print year.
+     * Page is sorted by the sort column and then by id. Continuation token of the returned page should be passed
+     * to get the next page. If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param printYear  is the parameter by which the page of entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    BookPage getByPrintYear(int printYear, BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException;
+
     /**
      * This service method should return list of book entities from the database by read.
      *
@@ -84,6 +138,22 @@ public interface BookService {
      */
     List<Book> getByRead(boolean read);
 
+    /**
+     * This service method should return page of book entities from the database by read.
+     * Page is sorted by the sort column and then by id. Continuation token of the returned page should be passed
+     * to get the next page. If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param read       is the parameter by which the page of entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    BookPage getByRead(boolean read, BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException;
+
     /**
      * This service method should return list of all book entities from the database.
      *
@@ -91,6 +161,112 @@ public interface BookService {
      */
     List<Book> getAll();
 
+    /**
+     * This service method should return page of book entities from the database.
+     * Page is sorted by the sort column and then by id. Continuation token of the returned page should be passed
+     * to get the next page. If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param sortColumn is the column by which the page is sorted.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    BookPage getAll(BookSortColumn sortColumn, String token, int size) throws IllegalArgumentException;
+
+    /**
+     * This service method should return book entities whose name and author contain all words of the query,
+     * from the most relevant. Words are compared case-insensitively and the last word may be incomplete.
+     * If limit is incorrect then would be thrown {@link java.lang.IllegalArgumentException}.
+     *
+     * @param query is the text of the query.
+     * @param limit is the max number of entities.
+     * @return list of book entities.
+     * @throws IllegalArgumentException when limit is incorrect.
+     */
+    List<Book> search(String query, int limit) throws IllegalArgumentException;
+
+    /**
+     * This service method should return numbers of book entities of every author from the database.
+     *
+     * @return counts of authors.
+     */
+    BookAuthorCounts countByAuthor();
+
+    /**
+     * This service method should return numbers of book entities of every print year from the database.
+     *
+     * @return histogram of print years with buckets of one year.
+     */
+    BookYearHistogram countByPrintYear();
+
+    /**
+     * This service method should return numbers of book entities in buckets of print years from the database.
+     * If bucket size is incorrect then would be thrown {@link java.lang.IllegalArgumentException}.
+     *
+     * @param bucketSize is the number of years of every bucket.
+     * @return histogram of print years.
+     * @throws IllegalArgumentException when bucket size is incorrect.
+     */
+    BookYearHistogram countByPrintYear(int bucketSize) throws IllegalArgumentException;
+
+    /**
+     * This service method should return numbers of read and unread book entities from the database.
+     *
+     * @return counts of read and unread entities.
+     */
+    BookReadCounts countByRead();
+
+    /**
+     * This service method should pass book entities from the database by name to the action one by one.
+     * Entities are not collected into the list, so memory usage does not depend on the number of entities.
+     *
+     * @param name   is the parameter by which the entities will be processed.
+     * @param action is the action that will be performed for each entity.
+     * @return number of processed entities.
+     */
+    long processByName(String name, Consumer<? super Book> action);
+
+    /**
+     * This service method should pass book entities from the database by author to the action one by one.
+     * Entities are not collected into the list, so memory usage does not depend on the number of entities.
+     *
+     * @param author is the parameter by which the entities will be processed.
+     * @param action is the action that will be performed for each entity.
+     * @return number of processed entities.
+     */
+    long processByAuthor(String author, Consumer<? super Book> action);
+
+    /**
+     * This service method should pass book entities from the database by print year to the action one by one.
+     * Entities are not collected into the list, so memory usage does not depend on the number of entities.
+     *
+     * @param printYear is the parameter by which the entities will be processed.
+     * @param action    is the action that will be performed for each entity.
+     * @return number of processed entities.
+     */
+    long processByPrintYear(int printYear, Consumer<? super Book> action);
+
+    /**
+     * This service method should pass book entities from the database by read to the action one by one.
+     * Entities are not collected into the list, so memory usage does not depend on the number of entities.
+     *
+     * @param read   is the parameter by which the entities will be processed.
+     * @param action is the action that will be performed for each entity.
+     * @return number of processed entities.
+     */
+    long processByRead(boolean read, Consumer<? super Book> action);
+
+    /**
+     * This service method should pass all book entities from the database to the action one by one.
+     * Entities are not collected into the list, so memory usage does not depend on the number of entities.
+     *
+     * @param action is the action that will be performed for each entity.
+     * @return number of processed entities.
+     */
+    long processAll(Consumer<? super Book> action);
+
     /**
      * This service method should update book entity in the database.
      * If book entity is incorrect then would be thrown
@@ -113,6 +289,32 @@ public interface BookService {
      */
     List<Book> updateAll(List<Book> books) throws DataIntegrityViolationException;
 
+    /**
+     * This service method should mark all book entities by author as read without loading them.
+     *
+     * @param author is the parameter by which entities will be marked as read.
+     * @return number of updated entities.
+     */
+    int markReadByAuthor(String author);
+
+    /**
+     * This service method should set read of book entities by ids without loading them.
+     *
+     * @param ids  is the list of ids of entities that will be updated.
+     * @param read is the new value of read.
+     * @return number of updated entities.
+     */
+    int setReadByIds(List<Long> ids, boolean read);
+
+    /**
+     * This service method should set print year of book entities by ids without loading them.
+     *
+     * @param ids       is the list of ids of entities that will be updated.
+     * @param printYear is the new value of print year.
+     * @return number of updated entities.
+     */
+    int updatePrintYearByIds(List<Long> ids, int printYear);
+
     /**
      * This service method should delete book entity from the database.
      * If book entity is incorrect then would be thrown
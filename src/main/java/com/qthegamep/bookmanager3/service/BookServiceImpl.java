@@ -2,45 +2,110 @@ package com.qthegamep.bookmanager3.service;
 
 import com.qthegamep.bookmanager3.entity.Book;
 import com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException;
+import com.qthegamep.bookmanager3.logging.LogSummary;
+import com.qthegamep.bookmanager3.pagination.BookKeyset;
+import com.qthegamep.bookmanager3.pagination.BookPage;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.repository.BookInsertMode;
 import com.qthegamep.bookmanager3.repository.BookRepository;
+import com.qthegamep.bookmanager3.search.BookSearchHit;
+import com.qthegamep.bookmanager3.search.BookSearchIndex;
+import com.qthegamep.bookmanager3.shard.ShardsNotConfiguredCondition;
+import com.qthegamep.bookmanager3.statistics.BookAuthorCounts;
+import com.qthegamep.bookmanager3.statistics.BookReadCounts;
+import com.qthegamep.bookmanager3.statistics.BookYearHistogram;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import org.springframework.dao.DataIntegrityViolationException;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This class is book service implementation.
+ * Lists of entities are logged at INFO level only as the number of entities, ids of the first and the last
+ * entity and the time of the database call, so the cost of logging does not depend on the number of entities.
+ * Entities themselves are logged at DEBUG level, that can be enabled at runtime through JMX.
+ * Lists of new entities are added by the entity manager or by native statements of the insert mode
+ * that is selected by the db.bulkInsert.mode property of the database profile.
+ * Names and authors of added, updated and removed entities are applied to the full-text search index after
+ * the commit of the transaction, the search reads ids from the index and entities from the database.
+ * The service is not created when urls of shard databases are given, the sharded book service is used instead.
  */
 @Slf4j
 @Service
-public class BookServiceImpl implements BookService {
+@Conditional(ShardsNotConfiguredCondition.class)
+public class BookServiceImpl extends AbstractBookService {
+
+    private static final int ID_CHUNK_SIZE = 500;
 
     private final BookRepository bookRepository;
+    private final BookInsertMode insertMode;
+    private final int insertBatchSize;
+    private final BookSearchIndex searchIndex;
+
+    /**
+     * This is constructor that creates service that adds lists of entities by the entity manager
+     * and has its own empty search index.
+     *
+     * @param bookRepository is the repository of book entities.
+     *                       Should not be null.
+     */
+    public BookServiceImpl(@NonNull BookRepository bookRepository) {
+        this(bookRepository, BookInsertMode.JPA, 1, new BookSearchIndex());
+    }
 
     /**
      * This is constructor that inject bean dependency driven by
      * {@link org.springframework.beans.factory.annotation.Autowired} annotation.
      *
-     * @param bookRepository bean, that will be given from spring context.
-     *                       Should not be null.
+     * @param bookRepository  bean, that will be given from spring context.
+     *                        Should not be null.
+     * @param insertMode      is the mode of adding of lists of entities.
+     *                        Should not be null.
+     * @param insertBatchSize is the number of rows per statement of native insert modes.
+     * @param searchIndex     bean, that will be given from spring context.
+     *                        Should not be null.
      */
     @Autowired
-    public BookServiceImpl(@NonNull BookRepository bookRepository) {
+    public BookServiceImpl(@NonNull BookRepository bookRepository,
+                           @NonNull @Value("${db.bulkInsert.mode:JPA}") BookInsertMode insertMode,
+                           @Value("${db.bulkInsert.batchSize:1000}") int insertBatchSize,
+                           @NonNull BookSearchIndex searchIndex) {
+        super("the database");
+
+        if (insertBatchSize < 1) {
+            throw new IllegalArgumentException("Insert batch size: " + insertBatchSize + " should be positive");
+        }
+
         this.bookRepository = bookRepository;
+        this.insertMode = insertMode;
+        this.insertBatchSize = insertBatchSize;
+        this.searchIndex = searchIndex;
     }
 
     /**
      * This service method implements adding book entity to the database.
      * If Book entity is already exists in the database then would be thrown
      * {@link com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException}.
+     * Existence of entity is checked by loading it by id, so the second level cache is used.
      * If book entity is incorrect then would be thrown
      * {@link org.springframework.dao.DataIntegrityViolationException}.
      *
@@ -58,6 +123,8 @@ public class BookServiceImpl implements BookService {
 
         val savedBook = bookRepository.save(book);
 
+        afterCommit(() -> searchIndex.index(savedBook));
+
         log.info("Entity: {} was added to the database", savedBook);
 
         return savedBook;
@@ -66,7 +133,9 @@ public class BookServiceImpl implements BookService {
     /**
      * This service method implements adding list of book entities to the database.
      * If one of book entities is already exists in the database then would be thrown
-     * {@link com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException}.
+     * {@link com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException} with ids of all existing entities.
+     * Existence of entities is checked with one query per chunk of ids.
+     * Entities are added by the entity manager or by native statements of the insert mode of the service.
      * If book entity is incorrect then would be thrown
      * {@link org.springframework.dao.DataIntegrityViolationException}.
      *
@@ -79,13 +148,24 @@ public class BookServiceImpl implements BookService {
     @Override
     public List<Book> addAll(@NonNull List<Book> books)
             throws EntityAlreadyExistsException, DataIntegrityViolationException {
-        log.info("Preparing to add all entities: {}", books);
+        log.info("Preparing to add all entities: {}", LogSummary.ofBooks(books));
 
-        books.forEach(this::checkIfBookExists);
+        if (log.isDebugEnabled()) {
+            log.debug("Entities to add: {}", books);
+        }
+
+        val start = System.nanoTime();
+
+        checkIfBooksExist(books);
+
+        val savedBooks = insertMode == BookInsertMode.JPA
+                ? bookRepository.saveAll(books)
+                : bookRepository.insertAll(books, insertMode, insertBatchSize);
 
-        val savedBooks = bookRepository.saveAll(books);
+        afterCommit(() -> searchIndex.indexAll(savedBooks));
 
-        log.info("Entities: {} was added to the database", savedBooks);
+        log.info("Entities: {} was added to the database in mode: {} in {} ms", LogSummary.ofBooks(savedBooks),
+                insertMode, elapsedMillis(start));
 
         return savedBooks;
     }
@@ -130,11 +210,37 @@ public class BookServiceImpl implements BookService {
     public List<Book> getByName(@NonNull String name) {
         log.info("Preparing to get book entities by name: {}", name);
 
-        val books = bookRepository.findBooksByName(name);
+        return gotten(System.nanoTime(), bookRepository.findBooksByName(name));
+    }
 
-        log.info("Entities: {} was gotten from the database", books);
+    /**
+     * This service method implements returning page of book entities from the database by name.
+     * Next entities are read right after the keyset from the continuation token, so every page costs the same.
+     * If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param name       is the parameter by which the page of entities will be returned.
+     *                  Should not be null.
+     * @param sortColumn is the column by which the page is sorted.
+     *                  Should not be null.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    @Override
+    public BookPage getByName(@NonNull String name, @NonNull BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException {
+        log.info("Preparing to get page of book entities by name: {} sorted by: {} after token: {} with size: {}",
+                name, sortColumn, token, size);
+
+        checkPageSize(size);
 
-        return books;
+        val start = System.nanoTime();
+        val after = BookKeyset.fromToken(token, sortColumn);
+        val books = bookRepository.findBooksByNameAfter(name, sortColumn, after, size + 1);
+
+        return toPage(books, sortColumn, size, start);
     }
 
     /**
@@ -148,11 +254,37 @@ public class BookServiceImpl implements BookService {
     public List<Book> getByAuthor(@NonNull String author) {
         log.info("Preparing to get book entities by author: {}", author);
 
-        val books = bookRepository.findBooksByAuthor(author);
+        return gotten(System.nanoTime(), bookRepository.findBooksByAuthor(author));
+    }
 
-        log.info("Entities: {} was gotten from the database", books);
+    /**
+     * This service method implements returning page of book entities from the database by author.
+     * Next entities are read right after the keyset from the continuation token, so every page costs the same.
+     * If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param author     is the parameter by which the page of entities will be returned.
+     *                  Should not be null.
+     * @param sortColumn is the column by which the page is sorted.
+     *                  Should not be null.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    @Override
+    public BookPage getByAuthor(@NonNull String author, @NonNull BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException {
+        log.info("Preparing to get page of book entities by author: {} sorted by: {} after token: {} with size: {}",
+                author, sortColumn, token, size);
+
+        checkPageSize(size);
 
-        return books;
+        val start = System.nanoTime();
+        val after = BookKeyset.fromToken(token, sortColumn);
+        val books = bookRepository.findBooksByAuthorAfter(author, sortColumn, after, size + 1);
+
+        return toPage(books, sortColumn, size, start);
     }
 
     /**
@@ -165,11 +297,36 @@ public class BookServiceImpl implements BookService {
     public List<Book> getByPrintYear(int printYear) {
         log.info("Preparing to get book entities by print year: {}", printYear);
 
-        val books = bookRepository.findBooksByPrintYear(printYear);
+        return gotten(System.nanoTime(), bookRepository.findBooksByPrintYear(printYear));
+    }
 
-        log.info("Entities: {} was gotten from the database", books);
+    /**
+     * This service method implements returning page of book entities from the database by print year.
+     * Next entities are read right after the keyset from the continuation token, so every page costs the same.
+     * If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param printYear  is the parameter by which the page of entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     *                  Should not be null.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    @Override
+    public BookPage getByPrintYear(int printYear, @NonNull BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException {
+        log.info("Preparing to get page of book entities by print year: {} sorted by: {} after token: {} with size: {}",
+                printYear, sortColumn, token, size);
 
-        return books;
+        checkPageSize(size);
+
+        val start = System.nanoTime();
+        val after = BookKeyset.fromToken(token, sortColumn);
+        val books = bookRepository.findBooksByPrintYearAfter(printYear, sortColumn, after, size + 1);
+
+        return toPage(books, sortColumn, size, start);
     }
 
     /**
@@ -182,11 +339,36 @@ public class BookServiceImpl implements BookService {
     public List<Book> getByRead(boolean read) {
         log.info("Preparing to get book entities by read: {}", read);
 
-        val books = bookRepository.findBooksByRead(read);
+        return gotten(System.nanoTime(), bookRepository.findBooksByRead(read));
+    }
+
+    /**
+     * This service method implements returning page of book entities from the database by read.
+     * Next entities are read right after the keyset from the continuation token, so every page costs the same.
+     * If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param read       is the parameter by which the page of entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     *                  Should not be null.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    @Override
+    public BookPage getByRead(boolean read, @NonNull BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException {
+        log.info("Preparing to get page of book entities by read: {} sorted by: {} after token: {} with size: {}",
+                read, sortColumn, token, size);
+
+        checkPageSize(size);
 
-        log.info("Entities: {} was gotten from the database", books);
+        val start = System.nanoTime();
+        val after = BookKeyset.fromToken(token, sortColumn);
+        val books = bookRepository.findBooksByReadAfter(read, sortColumn, after, size + 1);
 
-        return books;
+        return toPage(books, sortColumn, size, start);
     }
 
     /**
@@ -198,11 +380,234 @@ public class BookServiceImpl implements BookService {
     public List<Book> getAll() {
         log.info("Preparing to get all book entities");
 
-        val books = bookRepository.findAll();
+        return gotten(System.nanoTime(), bookRepository.findAll());
+    }
+
+    /**
+     * This service method implements returning page of book entities from the database.
+     * Next entities are read right after the keyset from the continuation token, so every page costs the same.
+     * If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param sortColumn is the column by which the page is sorted.
+     *                  Should not be null.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    @Override
+    public BookPage getAll(@NonNull BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException {
+        log.info("Preparing to get page of all book entities sorted by: {} after token: {} with size: {}",
+                sortColumn, token, size);
+
+        checkPageSize(size);
+
+        val start = System.nanoTime();
+        val after = BookKeyset.fromToken(token, sortColumn);
+        val books = bookRepository.findAllAfter(sortColumn, after, size + 1);
+
+        return toPage(books, sortColumn, size, start);
+    }
+
+    /**
+     * This service method implements full-text search of book entities by name and author.
+     * Ids of the most relevant entities are found by the in-memory search index and entities are read from
+     * the database with one query, so the time of the search does not depend on the number of entities.
+     * If limit is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param query is the text of the query.
+     *              Should not be null.
+     * @param limit is the max number of entities.
+     * @return list of book entities from the most relevant.
+     * @throws IllegalArgumentException when limit is incorrect.
+     */
+    @Override
+    public List<Book> search(@NonNull String query, int limit) throws IllegalArgumentException {
+        log.info("Preparing to search book entities by query: {} with limit: {}", query, limit);
+
+        checkSearchLimit(limit);
+
+        val start = System.nanoTime();
+        val ids = searchIndex.search(query, limit).stream()
+                .map(BookSearchHit::getId)
+                .collect(Collectors.toList());
+
+        return found(start, ids, bookRepository.findAllById(ids));
+    }
+
+    /**
+     * This service method implements returning numbers of book entities of every author.
+     * Entities are grouped by the database, only authors and counts are read.
+     *
+     * @return counts of authors.
+     */
+    @Override
+    public BookAuthorCounts countByAuthor() {
+        log.info("Preparing to count book entities by author");
+
+        val start = System.nanoTime();
+        val authorCounts = bookRepository.countBooksGroupedByAuthor();
+
+        log.info("Entities: {} of authors: {} was counted in the database in {} ms", authorCounts.getTotal(),
+                authorCounts.size(), elapsedMillis(start));
+
+        return authorCounts;
+    }
+
+    /**
+     * This service method implements returning numbers of book entities of every print year.
+     *
+     * @return histogram of print years with buckets of one year.
+     */
+    @Override
+    public BookYearHistogram countByPrintYear() {
+        return countByPrintYear(1);
+    }
+
+    /**
+     * This service method implements returning numbers of book entities in buckets of print years.
+     * Entities are grouped by buckets in the database, only start years of buckets and counts are read.
+     * If bucket size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param bucketSize is the number of years of every bucket.
+     * @return histogram of print years.
+     * @throws IllegalArgumentException when bucket size is incorrect.
+     */
+    @Override
+    public BookYearHistogram countByPrintYear(int bucketSize) throws IllegalArgumentException {
+        log.info("Preparing to count book entities by print year in buckets of {} years", bucketSize);
+
+        if (bucketSize < 1) {
+            log.info("Bucket size: {} is incorrect! It should be positive", bucketSize);
+
+            throw new IllegalArgumentException("Bucket size: " + bucketSize + " is incorrect. It should be positive");
+        }
+
+        val start = System.nanoTime();
+        val histogram = bookRepository.countBooksGroupedByPrintYear(bucketSize);
+
+        log.info("Entities: {} of buckets: {} was counted in the database in {} ms", histogram.getTotal(),
+                histogram.size(), elapsedMillis(start));
+
+        return histogram;
+    }
+
+    /**
+     * This service method implements returning numbers of read and unread book entities.
+     * Entities are grouped by the database, only counts are read.
+     *
+     * @return counts of read and unread entities.
+     */
+    @Override
+    public BookReadCounts countByRead() {
+        log.info("Preparing to count book entities by read");
+
+        val start = System.nanoTime();
+        val readCounts = bookRepository.countBooksGroupedByRead();
+
+        log.info("Entities: {} was counted in the database in {} ms", readCounts, elapsedMillis(start));
+
+        return readCounts;
+    }
+
+    /**
+     * This service method implements passing book entities from the database by name to the action one by one.
+     * Entities are read through the database cursor in one read only transaction.
+     *
+     * @param name   is the parameter by which the entities will be processed.
+     *               Should not be null.
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long processByName(@NonNull String name, @NonNull Consumer<? super Book> action) {
+        log.info("Preparing to process book entities by name: {}", name);
+
+        try (Stream<Book> books = bookRepository.streamBooksByName(name)) {
+            return process(books, action);
+        }
+    }
 
-        log.info("Entities: {} was gotten from the database", books);
+    /**
+     * This service method implements passing book entities from the database by author to the action one by one.
+     * Entities are read through the database cursor in one read only transaction.
+     *
+     * @param author is the parameter by which the entities will be processed.
+     *               Should not be null.
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long processByAuthor(@NonNull String author, @NonNull Consumer<? super Book> action) {
+        log.info("Preparing to process book entities by author: {}", author);
 
-        return books;
+        try (Stream<Book> books = bookRepository.streamBooksByAuthor(author)) {
+            return process(books, action);
+        }
+    }
+
+    /**
+     * This service method implements passing book entities from the database by print year to the action one by one.
+     * Entities are read through the database cursor in one read only transaction.
+     *
+     * @param printYear is the parameter by which the entities will be processed.
+     * @param action    is the action that will be performed for each entity.
+     *                  Should not be null.
+     * @return number of processed entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long processByPrintYear(int printYear, @NonNull Consumer<? super Book> action) {
+        log.info("Preparing to process book entities by print year: {}", printYear);
+
+        try (Stream<Book> books = bookRepository.streamBooksByPrintYear(printYear)) {
+            return process(books, action);
+        }
+    }
+
+    /**
+     * This service method implements passing book entities from the database by read to the action one by one.
+     * Entities are read through the database cursor in one read only transaction.
+     *
+     * @param read   is the parameter by which the entities will be processed.
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long processByRead(boolean read, @NonNull Consumer<? super Book> action) {
+        log.info("Preparing to process book entities by read: {}", read);
+
+        try (Stream<Book> books = bookRepository.streamBooksByRead(read)) {
+            return process(books, action);
+        }
+    }
+
+    /**
+     * This service method implements passing all book entities from the database to the action one by one.
+     * Entities are read through the database cursor in one read only transaction.
+     *
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long processAll(@NonNull Consumer<? super Book> action) {
+        log.info("Preparing to process all book entities");
+
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            return process(books, action);
+        }
     }
 
     /**
@@ -221,6 +626,8 @@ public class BookServiceImpl implements BookService {
 
         val updatedBook = bookRepository.save(book);
 
+        afterCommit(() -> searchIndex.index(updatedBook));
+
         log.info("Entity: {} was updated in the database", updatedBook);
 
         return updatedBook;
@@ -238,15 +645,95 @@ public class BookServiceImpl implements BookService {
      */
     @Override
     public List<Book> updateAll(@NonNull List<Book> books) throws DataIntegrityViolationException {
-        log.info("Preparing to update all entities: {}", books);
+        log.info("Preparing to update all entities: {}", LogSummary.ofBooks(books));
+
+        if (log.isDebugEnabled()) {
+            log.debug("Entities to update: {}", books);
+        }
 
+        val start = System.nanoTime();
         val updatedBooks = bookRepository.saveAll(books);
 
-        log.info("Entities: {} was updated in the database", updatedBooks);
+        afterCommit(() -> searchIndex.indexAll(updatedBooks));
+
+        log.info("Entities: {} was updated in the database in {} ms", LogSummary.ofBooks(updatedBooks),
+                elapsedMillis(start));
 
         return updatedBooks;
     }
 
+    /**
+     * This service method implements marking all book entities by author as read with one statement.
+     *
+     * @param author is the parameter by which entities will be marked as read.
+     *               Should not be null.
+     * @return number of updated entities.
+     */
+    @Override
+    public int markReadByAuthor(@NonNull String author) {
+        log.info("Preparing to mark book entities by author: {} as read", author);
+
+        val updated = bookRepository.updateReadByAuthor(author, true);
+
+        log.info("Entities: {} was marked as read in the database", updated);
+
+        return updated;
+    }
+
+    /**
+     * This service method implements setting read of book entities by ids.
+     * Entities are updated with one statement per chunk of ids in one transaction.
+     *
+     * @param ids  is the list of ids of entities that will be updated.
+     *             Should not be null.
+     * @param read is the new value of read.
+     * @return number of updated entities.
+     */
+    @Override
+    @Transactional
+    public int setReadByIds(@NonNull List<Long> ids, boolean read) {
+        log.info("Preparing to set read: {} of book entities by ids: {}", read, LogSummary.ofIds(ids));
+
+        val start = System.nanoTime();
+
+        var updated = 0;
+
+        for (val idsChunk : chunks(ids)) {
+            updated += bookRepository.updateReadByIds(idsChunk, read);
+        }
+
+        log.info("Entities: {} was updated in the database in {} ms", updated, elapsedMillis(start));
+
+        return updated;
+    }
+
+    /**
+     * This service method implements setting print year of book entities by ids.
+     * Entities are updated with one statement per chunk of ids in one transaction.
+     *
+     * @param ids       is the list of ids of entities that will be updated.
+     *                  Should not be null.
+     * @param printYear is the new value of print year.
+     * @return number of updated entities.
+     */
+    @Override
+    @Transactional
+    public int updatePrintYearByIds(@NonNull List<Long> ids, int printYear) {
+        log.info("Preparing to set print year: {} of book entities by ids: {}", printYear, LogSummary.ofIds(ids));
+
+        val start = System.nanoTime();
+
+        var updated = 0;
+
+        for (val idsChunk : chunks(ids)) {
+            updated += bookRepository.updatePrintYearByIds(idsChunk, printYear);
+        }
+
+        log.info("Entities: {} was updated in the database in {} ms", updated, elapsedMillis(start));
+
+        return updated;
+    }
+
     /**
      * This service method implements deleting book entity from the database.
      * If book entity is incorrect then would be thrown
@@ -262,11 +749,18 @@ public class BookServiceImpl implements BookService {
 
         bookRepository.delete(book);
 
+        if (Objects.nonNull(book.getId())) {
+            val id = book.getId();
+
+            afterCommit(() -> searchIndex.remove(id));
+        }
+
         log.info("Entity: {} was removed from the database", book);
     }
 
     /**
      * This service method implements deleting list of book entities from the database.
+     * Entities are deleted by chunks of ids with one statement per chunk.
      * If book entity is incorrect then would be thrown
      * {@link org.springframework.dao.DataIntegrityViolationException}.
      *
@@ -276,42 +770,90 @@ public class BookServiceImpl implements BookService {
      */
     @Override
     public void removeAll(@NonNull List<? extends Book> books) throws DataIntegrityViolationException {
-        log.info("Preparing to remove all entities: {}", books);
+        log.info("Preparing to remove all entities: {}", LogSummary.ofBooks(books));
 
-        bookRepository.deleteAll(books);
+        if (log.isDebugEnabled()) {
+            log.debug("Entities to remove: {}", books);
+        }
 
-        log.info("Entities: {} was removed from the database", books);
+        val start = System.nanoTime();
+        val removed = bookRepository.deleteBooksInBatch(books);
+        val ids = books.stream().map(Book::getId).filter(Objects::nonNull).collect(Collectors.toList());
+
+        afterCommit(() -> searchIndex.removeAll(ids));
+
+        log.info("Entities: {} was removed from the database in {} ms", removed, elapsedMillis(start));
     }
 
     /**
-     * This service method implements deleting all entities from the database.
+     * This service method implements deleting all entities from the database with one statement.
      */
     @Override
     public void removeAll() {
         log.info("Preparing to remove all book entities");
 
-        bookRepository.deleteAll();
+        bookRepository.deleteAllInBatch();
+
+        afterCommit(searchIndex::clear);
 
         log.info("All book entities was removed from the database");
     }
 
-    private void checkIfBookExists(@NonNull Book book) throws EntityAlreadyExistsException {
-        var exists = false;
+    private long process(Stream<Book> books, Consumer<? super Book> action) {
+        val start = System.nanoTime();
+
+        var processed = 0L;
+
+        val iterator = books.iterator();
+
+        while (iterator.hasNext()) {
+            action.accept(iterator.next());
+
+            processed++;
+        }
+
+        return processed(start, processed);
+    }
+
+    @Override
+    protected boolean existsById(Long id) {
+        return bookRepository.findById(id).isPresent();
+    }
 
-        val id = book.getId();
+    @Override
+    protected Set<Long> findExistingIds(List<Long> ids) {
+        val existingIds = new HashSet<Long>();
 
-        if (Objects.nonNull(id)) {
-            exists = bookRepository.existsById(id);
+        for (val idsChunk : chunks(ids)) {
+            existingIds.addAll(bookRepository.findExistingIds(idsChunk));
         }
 
-        log.info("Is entity: {} exists: {}", book, exists);
+        return existingIds;
+    }
 
-        if (exists) {
-            log.info("Entity: {} is exists! You should update this entity or add new one", book);
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
 
-            throw new EntityAlreadyExistsException("Entity: " + book + " already exists. " +
-                    "You should update this entity or add new one"
-            );
+            return;
         }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static <T> List<List<T>> chunks(List<T> elements) {
+        val chunks = new ArrayList<List<T>>();
+
+        for (int from = 0; from < elements.size(); from += ID_CHUNK_SIZE) {
+            chunks.add(elements.subList(from, Math.min(from + ID_CHUNK_SIZE, elements.size())));
+        }
+
+        return chunks;
     }
 }
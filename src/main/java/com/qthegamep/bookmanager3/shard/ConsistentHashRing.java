@@ -0,0 +1,83 @@
+package com.qthegamep.bookmanager3.shard;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * This class is a consistent hash ring of nodes. Every node is placed on the ring by the number of virtual nodes,
+ * the key belongs to the first virtual node that follows the hash of the key on the ring. When the node is added,
+ * only keys between its virtual nodes and their predecessors are moved to it, so other keys keep their nodes.
+ * Keys and virtual nodes are hashed by the 64 bit FNV-1a hash of UTF-8 bytes with the finalizer of MurmurHash3,
+ * so the hash is stable between runs and JVMs. The ring is immutable and thread safe.
+ *
+ * @param <T> is the type of nodes.
+ */
+public class ConsistentHashRing<T> {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+    private final int nodes;
+
+    /**
+     * This is constructor that creates ring.
+     *
+     * @param nodes        is the list of nodes, the name of virtual node is the index of the node and the number
+     *                     of the virtual node, so the ring does not depend on toString of nodes.
+     *                     Should not be null or empty.
+     * @param virtualNodes is the number of virtual nodes of every node.
+     */
+    public ConsistentHashRing(@NonNull List<T> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("Nodes: " + nodes.size() + " and virtual nodes: " + virtualNodes +
+                    " should be positive");
+        }
+
+        this.nodes = nodes.size();
+
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int j = 0; j < virtualNodes; j++) {
+                ring.putIfAbsent(hash(i + "#" + j), nodes.get(i));
+            }
+        }
+    }
+
+    /**
+     * This method returns the node of the key.
+     *
+     * @param key is the key of the node.
+     *            Should not be null.
+     * @return node of the key.
+     */
+    public T get(@NonNull String key) {
+        val entry = ring.ceilingEntry(hash(key));
+
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    /**
+     * @return number of nodes.
+     */
+    public int size() {
+        return nodes;
+    }
+
+    static long hash(String key) {
+        var hash = FNV_OFFSET_BASIS;
+
+        for (val b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+
+        return hash ^ (hash >>> 33);
+    }
+}
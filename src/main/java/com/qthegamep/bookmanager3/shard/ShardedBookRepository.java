@@ -0,0 +1,897 @@
+package com.qthegamep.bookmanager3.shard;
+
+import com.qthegamep.bookmanager3.concurrent.ThreadFactories;
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.pagination.BookKeyset;
+import com.qthegamep.bookmanager3.pagination.BookKeysetQueries;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.statistics.BookAuthorCounts;
+import com.qthegamep.bookmanager3.statistics.BookReadCounts;
+import com.qthegamep.bookmanager3.statistics.BookYearHistogram;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * This class is a repository of book entities that are split between shard databases. Every shard has its own
+ * entity manager factory and transactions. The shard of the new entity is chosen by the author on
+ * {@link ConsistentHashRing}, so new books of one author are usually stored in one shard. The id of the entity
+ * encodes the shard in the low {@link #SHARD_BITS} bits and the id of the row in the shard in the high bits,
+ * so the lookup, update and delete by id go to one database without a lookup table.
+ * The entity keeps its shard and its id when the author is changed, so books of one author can be stored in
+ * several shards and finders, counts and updates by author are sent to all shards like other finders.
+ * Finders, counts and updates that are not by id are sent to all shards in parallel and the results are gathered
+ * in the order of shards, operations with lists of ids are sent only to shards of these ids. Pages are read
+ * from every shard by {@link BookKeysetQueries} after the keyset that is converted to ids of rows of the shard
+ * and merged by the sort column and the id, names and authors of different shards are compared
+ * by {@link String#compareTo(String)}. Streams read shards one by one through the forward-only cursor.
+ * Lists of entities are saved, updated and deleted by one transaction per shard, so it is not atomic between shards.
+ * Returned entities are detached.
+ */
+@Slf4j
+public class ShardedBookRepository implements AutoCloseable {
+
+    /**
+     * Number of low bits of the id that encode the shard.
+     */
+    public static final int SHARD_BITS = 8;
+
+    /**
+     * Maximum number of shards that can be encoded in the id.
+     */
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+
+    private static final String SELECT_BY_NAME = "SELECT b FROM Book b WHERE b.name = :value";
+    private static final String SELECT_BY_AUTHOR = "SELECT b FROM Book b WHERE b.author = :value";
+    private static final String SELECT_BY_PRINT_YEAR = "SELECT b FROM Book b WHERE b.printYear = :value";
+    private static final String SELECT_BY_READ = "SELECT b FROM Book b WHERE b.read = :value";
+    private static final String SELECT_ALL = "SELECT b FROM Book b";
+    private static final String SELECT_BY_IDS = "SELECT b FROM Book b WHERE b.id IN :ids";
+    private static final String SELECT_EXISTING_IDS = "SELECT b.id FROM Book b WHERE b.id IN :ids";
+    private static final String SELECT_COUNT = "SELECT COUNT(b) FROM Book b";
+    private static final String COUNT_BY_AUTHOR = "SELECT b.author, COUNT(b) FROM Book b GROUP BY b.author";
+    private static final String COUNT_BY_READ = "SELECT b.read, COUNT(b) FROM Book b GROUP BY b.read";
+    private static final String UPDATE_READ_BY_AUTHOR = "UPDATE Book b SET b.read = :read WHERE b.author = :author";
+    private static final String UPDATE_READ_BY_IDS = "UPDATE Book b SET b.read = :value WHERE b.id IN :ids";
+    private static final String UPDATE_PRINT_YEAR_BY_IDS = "UPDATE Book b SET b.printYear = :value WHERE b.id IN :ids";
+    private static final String DELETE_BY_IDS = "DELETE FROM Book b WHERE b.id IN :ids";
+    private static final String DELETE_ALL = "DELETE FROM Book b";
+    private static final int ID_CHUNK_SIZE = 500;
+    private static final int FETCH_SIZE = 50;
+
+    private final List<EntityManager> entityManagers;
+    private final List<TransactionTemplate> transactionTemplates;
+    private final List<TransactionTemplate> readOnlyTransactionTemplates;
+    private final ConsistentHashRing<Integer> ring;
+    private final ExecutorService executor;
+
+    /**
+     * This is constructor that creates sharded repository.
+     *
+     * @param entityManagerFactories is the list of entity manager factories of shards. The index of the factory
+     *                               is the shard that is encoded in ids, so the order should not be changed
+     *                               and new shards should be appended to the end.
+     *                               Should not be null or empty.
+     * @param virtualNodes           is the number of virtual nodes of every shard on the hash ring.
+     */
+    public ShardedBookRepository(@NonNull List<EntityManagerFactory> entityManagerFactories, int virtualNodes) {
+        if (entityManagerFactories.isEmpty() || entityManagerFactories.size() > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shards: " + entityManagerFactories.size() +
+                    " should be between 1 and " + MAX_SHARDS);
+        }
+
+        val shards = entityManagerFactories.size();
+
+        this.entityManagers = new ArrayList<>(shards);
+        this.transactionTemplates = new ArrayList<>(shards);
+        this.readOnlyTransactionTemplates = new ArrayList<>(shards);
+
+        for (val entityManagerFactory : entityManagerFactories) {
+            val transactionManager = new JpaTransactionManager(Objects.requireNonNull(entityManagerFactory,
+                    "Entity manager factory of the shard should not be null"));
+            val readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+
+            readOnlyTransactionTemplate.setReadOnly(true);
+
+            entityManagers.add(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+            transactionTemplates.add(new TransactionTemplate(transactionManager));
+            readOnlyTransactionTemplates.add(readOnlyTransactionTemplate);
+        }
+
+        this.ring = new ConsistentHashRing<>(IntStream.range(0, shards).boxed().collect(Collectors.toList()),
+                virtualNodes);
+        this.executor = Executors.newFixedThreadPool(shards, ThreadFactories.platform("book-shard-"));
+
+        log.info("Sharded book repository was created with shards: {}, virtual nodes: {}", shards, virtualNodes);
+    }
+
+    /**
+     * This method encodes the shard into the id.
+     *
+     * @param localId is the id of the row in the shard.
+     * @param shard   is the index of the shard.
+     * @return id of the entity.
+     */
+    public static long encodeId(long localId, int shard) {
+        if (localId < 0 || localId >>> (Long.SIZE - 1 - SHARD_BITS) != 0) {
+            throw new IllegalArgumentException("Id: " + localId + " can not be encoded with the shard");
+        }
+
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard: " + shard + " should be between 0 and " + (MAX_SHARDS - 1));
+        }
+
+        return localId << SHARD_BITS | shard;
+    }
+
+    /**
+     * This method decodes the shard from the id.
+     *
+     * @param id is the id of the entity.
+     * @return index of the shard.
+     */
+    public static int getShard(long id) {
+        return (int) (id & (MAX_SHARDS - 1));
+    }
+
+    /**
+     * This method decodes the id of the row in the shard from the id.
+     *
+     * @param id is the id of the entity.
+     * @return id of the row in the shard.
+     */
+    public static long getLocalId(long id) {
+        return id >>> SHARD_BITS;
+    }
+
+    /**
+     * This method returns the shard of new entities of the author.
+     *
+     * @param author is the shard key.
+     *               Should not be null.
+     * @return index of the shard.
+     */
+    public int getShard(@NonNull String author) {
+        return ring.get(author);
+    }
+
+    /**
+     * @return number of shards.
+     */
+    public int getShards() {
+        return ring.size();
+    }
+
+    /**
+     * This repository method saves the entity. New entity is persisted in the shard of the author, the entity
+     * with the id is merged in the shard of the id. The given entity is not changed.
+     *
+     * @param book is the entity that will be saved.
+     *             Should not be null.
+     * @return saved copy of the entity with the id of the shard.
+     */
+    public Book save(@NonNull Book book) {
+        val shard = shardOf(book);
+
+        return withShard(transactionTemplates.get(shard).execute(status -> saveInShard(book, shard)), shard);
+    }
+
+    /**
+     * This repository method saves the list of entities. Entities are grouped by shards and every group is saved
+     * in parallel by its own transaction.
+     *
+     * @param books is the list of entities that will be saved.
+     *              Should not be null.
+     * @return list of saved copies of entities in the order of the given list.
+     */
+    public List<Book> saveAll(@NonNull List<Book> books) {
+        val shards = new int[books.size()];
+
+        for (int i = 0; i < books.size(); i++) {
+            shards[i] = shardOf(Objects.requireNonNull(books.get(i), "Book should not be null"));
+        }
+
+        val savedBooks = new Book[books.size()];
+
+        scatter(Arrays.stream(shards).distinct().toArray(), shard ->
+                transactionTemplates.get(shard).execute(status -> {
+                    for (int i = 0; i < books.size(); i++) {
+                        if (shards[i] == shard) {
+                            savedBooks[i] = saveInShard(books.get(i), shard);
+                        }
+                    }
+
+                    return shard;
+                }));
+
+        for (int i = 0; i < savedBooks.length; i++) {
+            withShard(savedBooks[i], shards[i]);
+        }
+
+        return Arrays.asList(savedBooks);
+    }
+
+    /**
+     * This repository method finds the entity by id in the shard of the id.
+     *
+     * @param id is the id of the entity.
+     * @return found entity or empty optional.
+     */
+    public Optional<Book> findById(long id) {
+        val shard = getShard(id);
+
+        if (shard >= getShards()) {
+            return Optional.empty();
+        }
+
+        val book = readOnlyTransactionTemplates.get(shard).execute(status ->
+                entityManagers.get(shard).find(Book.class, getLocalId(id)));
+
+        return Optional.ofNullable(book).map(found -> withShard(found, shard));
+    }
+
+    /**
+     * This repository method deletes the entity by id in the shard of the id.
+     *
+     * @param id is the id of the entity.
+     * @return true if the entity was deleted.
+     */
+    public boolean deleteById(long id) {
+        val shard = getShard(id);
+
+        if (shard >= getShards()) {
+            return false;
+        }
+
+        final Boolean deleted = transactionTemplates.get(shard).execute(status -> {
+            val entityManager = entityManagers.get(shard);
+            val book = entityManager.find(Book.class, getLocalId(id));
+
+            if (book == null) {
+                return false;
+            }
+
+            entityManager.remove(book);
+
+            return true;
+        });
+
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    /**
+     * This repository method finds entities by name in all shards.
+     *
+     * @param name is the parameter by which the list of entities will be returned.
+     * @return list of book entities.
+     */
+    public List<Book> findBooksByName(String name) {
+        return gather(SELECT_BY_NAME, "value", name);
+    }
+
+    /**
+     * This repository method finds entities by author in all shards.
+     *
+     * @param author is the parameter by which the list of entities will be returned.
+     *               Should not be null.
+     * @return list of book entities.
+     */
+    public List<Book> findBooksByAuthor(@NonNull String author) {
+        return gather(SELECT_BY_AUTHOR, "value", author);
+    }
+
+    /**
+     * This repository method finds entities by print year in all shards.
+     *
+     * @param printYear is the parameter by which the list of entities will be returned.
+     * @return list of book entities.
+     */
+    public List<Book> findBooksByPrintYear(int printYear) {
+        return gather(SELECT_BY_PRINT_YEAR, "value", printYear);
+    }
+
+    /**
+     * This repository method finds entities by read in all shards.
+     *
+     * @param read is the parameter by which the list of entities will be returned.
+     * @return list of book entities.
+     */
+    public List<Book> findBooksByRead(boolean read) {
+        return gather(SELECT_BY_READ, "value", read);
+    }
+
+    /**
+     * This repository method counts entities in all shards.
+     *
+     * @return number of entities.
+     */
+    public long count() {
+        return scatter(allShards(), shard -> readOnlyTransactionTemplates.get(shard).execute(status ->
+                entityManagers.get(shard).createQuery(SELECT_COUNT, Long.class).getSingleResult())
+        ).stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * This repository method finds all entities in all shards.
+     *
+     * @return list of book entities.
+     */
+    public List<Book> findAll() {
+        return gather(SELECT_ALL, null, null);
+    }
+
+    /**
+     * This repository method finds entities by ids in shards of ids.
+     *
+     * @param ids is the collection of ids of entities.
+     *            Should not be null.
+     * @return list of found entities in the order of shards.
+     */
+    public List<Book> findAllById(@NonNull Collection<Long> ids) {
+        return executeByIds(ids, true, (entityManager, shard, localIds) ->
+                entityManager.createQuery(SELECT_BY_IDS, Book.class)
+                        .setParameter("ids", localIds)
+                        .getResultList().stream()
+                        .peek(entityManager::detach)
+                        .map(book -> withShard(book, shard))
+                        .collect(Collectors.toList())
+        ).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * This repository method returns ids that already exist in shards of ids.
+     *
+     * @param ids is the collection of ids of entities.
+     *            Should not be null.
+     * @return set of existing ids.
+     */
+    public Set<Long> findExistingIds(@NonNull Collection<Long> ids) {
+        val existingIds = new HashSet<Long>();
+
+        executeByIds(ids, true, (entityManager, shard, localIds) ->
+                entityManager.createQuery(SELECT_EXISTING_IDS, Long.class)
+                        .setParameter("ids", localIds)
+                        .getResultList().stream()
+                        .map(localId -> encodeId(localId, shard))
+                        .collect(Collectors.toList())
+        ).forEach(existingIds::addAll);
+
+        return existingIds;
+    }
+
+    /**
+     * This repository method returns entities of all shards that follow the keyset.
+     *
+     * @param sortColumn is the column by which the list of entities is sorted.
+     *                   Should not be null.
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param limit      is the max number of entities that will be returned.
+     * @return list of book entities.
+     */
+    public List<Book> findAllAfter(@NonNull BookSortColumn sortColumn, BookKeyset after, int limit) {
+        return gatherAfter(allShards(), null, null, sortColumn, after, limit);
+    }
+
+    /**
+     * This repository method returns entities by name of all shards that follow the keyset.
+     *
+     * @param name       is the parameter by which the list of entities will be returned.
+     * @param sortColumn is the column by which the list of entities is sorted.
+     *                   Should not be null.
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param limit      is the max number of entities that will be returned.
+     * @return list of book entities.
+     */
+    public List<Book> findBooksByNameAfter(String name, @NonNull BookSortColumn sortColumn, BookKeyset after,
+                                           int limit) {
+        return gatherAfter(allShards(), "name", name, sortColumn, after, limit);
+    }
+
+    /**
+     * This repository method returns entities by author of all shards that follow the keyset.
+     *
+     * @param author     is the parameter by which the list of entities will be returned.
+     *                   Should not be null.
+     * @param sortColumn is the column by which the list of entities is sorted.
+     *                   Should not be null.
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param limit      is the max number of entities that will be returned.
+     * @return list of book entities.
+     */
+    public List<Book> findBooksByAuthorAfter(@NonNull String author, @NonNull BookSortColumn sortColumn,
+                                             BookKeyset after, int limit) {
+        return gatherAfter(allShards(), "author", author, sortColumn, after, limit);
+    }
+
+    /**
+     * This repository method returns entities by print year of all shards that follow the keyset.
+     *
+     * @param printYear  is the parameter by which the list of entities will be returned.
+     * @param sortColumn is the column by which the list of entities is sorted.
+     *                   Should not be null.
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param limit      is the max number of entities that will be returned.
+     * @return list of book entities.
+     */
+    public List<Book> findBooksByPrintYearAfter(int printYear, @NonNull BookSortColumn sortColumn, BookKeyset after,
+                                                int limit) {
+        return gatherAfter(allShards(), "printYear", printYear, sortColumn, after, limit);
+    }
+
+    /**
+     * This repository method returns entities by read of all shards that follow the keyset.
+     *
+     * @param read       is the parameter by which the list of entities will be returned.
+     * @param sortColumn is the column by which the list of entities is sorted.
+     *                   Should not be null.
+     * @param after      is the keyset of the last entity of the previous page or null for the first page.
+     * @param limit      is the max number of entities that will be returned.
+     * @return list of book entities.
+     */
+    public List<Book> findBooksByReadAfter(boolean read, @NonNull BookSortColumn sortColumn, BookKeyset after,
+                                           int limit) {
+        return gatherAfter(allShards(), "read", read, sortColumn, after, limit);
+    }
+
+    /**
+     * This repository method passes all entities of all shards to the action one by one.
+     *
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    public long processAll(@NonNull Consumer<? super Book> action) {
+        return processShards(allShards(), SELECT_ALL, null, null, action);
+    }
+
+    /**
+     * This repository method passes entities by name of all shards to the action one by one.
+     *
+     * @param name   is the parameter by which the entities will be processed.
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    public long processBooksByName(String name, @NonNull Consumer<? super Book> action) {
+        return processShards(allShards(), SELECT_BY_NAME, "value", name, action);
+    }
+
+    /**
+     * This repository method passes entities by author of all shards to the action one by one.
+     *
+     * @param author is the parameter by which the entities will be processed.
+     *               Should not be null.
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    public long processBooksByAuthor(@NonNull String author, @NonNull Consumer<? super Book> action) {
+        return processShards(allShards(), SELECT_BY_AUTHOR, "value", author, action);
+    }
+
+    /**
+     * This repository method passes entities by print year of all shards to the action one by one.
+     *
+     * @param printYear is the parameter by which the entities will be processed.
+     * @param action    is the action that will be performed for each entity.
+     *                  Should not be null.
+     * @return number of processed entities.
+     */
+    public long processBooksByPrintYear(int printYear, @NonNull Consumer<? super Book> action) {
+        return processShards(allShards(), SELECT_BY_PRINT_YEAR, "value", printYear, action);
+    }
+
+    /**
+     * This repository method passes entities by read of all shards to the action one by one.
+     *
+     * @param read   is the parameter by which the entities will be processed.
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    public long processBooksByRead(boolean read, @NonNull Consumer<? super Book> action) {
+        return processShards(allShards(), SELECT_BY_READ, "value", read, action);
+    }
+
+    /**
+     * This repository method updates read of entities by author in all shards, one statement per shard.
+     *
+     * @param author is the parameter by which entities will be updated.
+     *               Should not be null.
+     * @param read   is the new value of read.
+     * @return number of updated entities.
+     */
+    public int updateReadByAuthor(@NonNull String author, boolean read) {
+        return scatter(allShards(), shard -> transactionTemplates.get(shard).execute(status ->
+                entityManagers.get(shard).createQuery(UPDATE_READ_BY_AUTHOR)
+                        .setParameter("author", author)
+                        .setParameter("read", read)
+                        .executeUpdate())
+        ).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * This repository method updates read of entities by ids in shards of ids, one statement per chunk of ids.
+     *
+     * @param ids  is the collection of ids of entities.
+     *             Should not be null.
+     * @param read is the new value of read.
+     * @return number of updated entities.
+     */
+    public int updateReadByIds(@NonNull Collection<Long> ids, boolean read) {
+        return updateByIds(ids, UPDATE_READ_BY_IDS, read);
+    }
+
+    /**
+     * This repository method updates print year of entities by ids in shards of ids, one statement per chunk
+     * of ids.
+     *
+     * @param ids       is the collection of ids of entities.
+     *                  Should not be null.
+     * @param printYear is the new value of print year.
+     * @return number of updated entities.
+     */
+    public int updatePrintYearByIds(@NonNull Collection<Long> ids, int printYear) {
+        return updateByIds(ids, UPDATE_PRINT_YEAR_BY_IDS, printYear);
+    }
+
+    /**
+     * This repository method deletes entities by ids in shards of ids, one statement per chunk of ids.
+     *
+     * @param ids is the collection of ids of entities.
+     *            Should not be null.
+     * @return number of deleted entities.
+     */
+    public int deleteAllById(@NonNull Collection<Long> ids) {
+        return executeByIds(ids, false, (entityManager, shard, localIds) ->
+                entityManager.createQuery(DELETE_BY_IDS)
+                        .setParameter("ids", localIds)
+                        .executeUpdate()
+        ).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * This repository method deletes all entities of all shards, one statement per shard.
+     *
+     * @return number of deleted entities.
+     */
+    public int deleteAll() {
+        return scatter(allShards(), shard -> transactionTemplates.get(shard).execute(status ->
+                entityManagers.get(shard).createQuery(DELETE_ALL).executeUpdate())
+        ).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * This repository method counts entities of every author in all shards with GROUP BY queries and merges counts
+     * of shards.
+     *
+     * @return counts of authors in the order of authors.
+     */
+    public BookAuthorCounts countBooksGroupedByAuthor() {
+        val countsByAuthor = new TreeMap<String, Long>();
+
+        for (val group : groupsOfShards(COUNT_BY_AUTHOR)) {
+            countsByAuthor.merge((String) group[0], ((Number) group[1]).longValue(), Long::sum);
+        }
+
+        return new BookAuthorCounts(countsByAuthor.keySet().toArray(new String[0]),
+                countsByAuthor.values().stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * This repository method counts entities in buckets of print years in all shards with GROUP BY queries and
+     * merges counts of shards.
+     *
+     * @param bucketSize is the number of years of every bucket, 1 for the number of entities of every year.
+     * @return histogram of print years in the order of years.
+     */
+    public BookYearHistogram countBooksGroupedByPrintYear(int bucketSize) {
+        if (bucketSize < 1) {
+            throw new IllegalArgumentException("Bucket size: " + bucketSize + " should be positive");
+        }
+
+        val bucket = bucketSize == 1
+                ? "b.printYear"
+                : "FLOOR(b.printYear / " + bucketSize + ".0) * " + bucketSize;
+        val countsByBucket = new TreeMap<Integer, Long>();
+
+        for (val group : groupsOfShards("SELECT " + bucket + ", COUNT(b) FROM Book b GROUP BY " + bucket)) {
+            countsByBucket.merge(((Number) group[0]).intValue(), ((Number) group[1]).longValue(), Long::sum);
+        }
+
+        return new BookYearHistogram(bucketSize,
+                countsByBucket.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                countsByBucket.values().stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * This repository method counts read and unread entities in all shards with GROUP BY queries.
+     *
+     * @return counts of read and unread entities.
+     */
+    public BookReadCounts countBooksGroupedByRead() {
+        var read = 0L;
+        var unread = 0L;
+
+        for (val group : groupsOfShards(COUNT_BY_READ)) {
+            if ((Boolean) group[0]) {
+                read += ((Number) group[1]).longValue();
+            } else {
+                unread += ((Number) group[1]).longValue();
+            }
+        }
+
+        return new BookReadCounts(read, unread);
+    }
+
+    /**
+     * This method stops threads of parallel queries. Entity manager factories are not closed, they are owned
+     * by the creator of the repository.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private int shardOf(Book book) {
+        if (book.getId() != null) {
+            val shard = getShard(book.getId());
+
+            if (shard >= getShards()) {
+                throw new IllegalArgumentException("Id: " + book.getId() + " belongs to unknown shard: " + shard);
+            }
+
+            return shard;
+        }
+
+        if (book.getAuthor() == null) {
+            throw new IllegalArgumentException("Author is the shard key of the new book and should not be null");
+        }
+
+        return getShard(book.getAuthor());
+    }
+
+    private Book saveInShard(Book book, int shard) {
+        val entityManager = entityManagers.get(shard);
+        val entity = copy(book);
+
+        if (book.getId() == null) {
+            entityManager.persist(entity);
+
+            return entity;
+        }
+
+        entity.setId(getLocalId(book.getId()));
+
+        return entityManager.merge(entity);
+    }
+
+    private List<Book> findInShard(int shard, String queryString, String parameterName, Object parameterValue) {
+        final List<Book> books = readOnlyTransactionTemplates.get(shard).execute(status -> {
+            val query = entityManagers.get(shard).createQuery(queryString, Book.class);
+
+            if (Objects.nonNull(parameterName)) {
+                query.setParameter(parameterName, parameterValue);
+            }
+
+            return query.getResultList();
+        });
+
+        return Objects.requireNonNull(books).stream()
+                .map(book -> withShard(book, shard))
+                .collect(Collectors.toList());
+    }
+
+    private List<Book> gather(String queryString, String parameterName, Object parameterValue) {
+        return scatter(allShards(), shard -> findInShard(shard, queryString, parameterName, parameterValue))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    private List<Book> gatherAfter(int[] shards, String parameterName, Object parameterValue,
+                                   BookSortColumn sortColumn, BookKeyset after, int limit) {
+        BookKeysetQueries.checkSortColumn(after, sortColumn);
+
+        return scatter(shards, shard -> findAfterInShard(shard, parameterName, parameterValue, sortColumn, after,
+                limit)).stream()
+                .flatMap(List::stream)
+                .sorted(keysetOrder(sortColumn))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private List<Book> findAfterInShard(int shard, String parameterName, Object parameterValue,
+                                        BookSortColumn sortColumn, BookKeyset after, int limit) {
+        val afterInShard = Objects.isNull(after)
+                ? null
+                : new BookKeyset(sortColumn, after.getValue(), Math.floorDiv(after.getId() - shard, MAX_SHARDS));
+        final List<Book> books = readOnlyTransactionTemplates.get(shard).execute(status -> BookKeysetQueries
+                .create(entityManagers.get(shard), parameterName, parameterValue, sortColumn, afterInShard, limit)
+                .getResultList());
+
+        return Objects.requireNonNull(books).stream()
+                .map(book -> withShard(book, shard))
+                .collect(Collectors.toList());
+    }
+
+    private long processShards(int[] shards, String queryString, String parameterName, Object parameterValue,
+                               Consumer<? super Book> action) {
+        var processed = 0L;
+
+        for (val shard : shards) {
+            final Long processedInShard = readOnlyTransactionTemplates.get(shard).execute(status -> {
+                val session = entityManagers.get(shard).unwrap(Session.class);
+                val query = session.createQuery(queryString, Book.class)
+                        .setFetchSize(FETCH_SIZE)
+                        .setReadOnly(true)
+                        .setCacheMode(CacheMode.IGNORE);
+
+                if (Objects.nonNull(parameterName)) {
+                    query.setParameter(parameterName, parameterValue);
+                }
+
+                var processedBooks = 0L;
+
+                try (val results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (results.next()) {
+                        val book = (Book) results.get(0);
+
+                        session.detach(book);
+
+                        action.accept(withShard(book, shard));
+
+                        processedBooks++;
+                    }
+                }
+
+                return processedBooks;
+            });
+
+            processed += Objects.requireNonNull(processedInShard);
+        }
+
+        return processed;
+    }
+
+    private <R> List<R> executeByIds(Collection<Long> ids, boolean readOnly, ShardIdsOperation<R> operation) {
+        val localIdsByShard = new TreeMap<Integer, List<Long>>();
+
+        for (val id : ids) {
+            val shard = getShard(Objects.requireNonNull(id, "Id should not be null"));
+
+            if (shard < getShards()) {
+                localIdsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(getLocalId(id));
+            }
+        }
+
+        val shards = localIdsByShard.keySet().stream().mapToInt(Integer::intValue).toArray();
+
+        if (shards.length == 0) {
+            return new ArrayList<>();
+        }
+
+        return scatter(shards, shard -> {
+            val transactionTemplate = readOnly
+                    ? readOnlyTransactionTemplates.get(shard)
+                    : transactionTemplates.get(shard);
+
+            return transactionTemplate.execute(status -> {
+                val localIds = localIdsByShard.get(shard);
+                val entityManager = entityManagers.get(shard);
+                val results = new ArrayList<R>();
+
+                for (int from = 0; from < localIds.size(); from += ID_CHUNK_SIZE) {
+                    results.add(operation.execute(entityManager, shard,
+                            localIds.subList(from, Math.min(from + ID_CHUNK_SIZE, localIds.size()))));
+                }
+
+                return results;
+            });
+        }).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    private int updateByIds(Collection<Long> ids, String queryString, Object value) {
+        return executeByIds(ids, false, (entityManager, shard, localIds) ->
+                entityManager.createQuery(queryString)
+                        .setParameter("value", value)
+                        .setParameter("ids", localIds)
+                        .executeUpdate()
+        ).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    private List<Object[]> groupsOfShards(String queryString) {
+        return scatter(allShards(), shard -> readOnlyTransactionTemplates.get(shard).execute(status ->
+                entityManagers.get(shard).createQuery(queryString, Object[].class).getResultList())
+        ).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    private int[] allShards() {
+        return IntStream.range(0, getShards()).toArray();
+    }
+
+    private <R> List<R> scatter(int[] shards, IntFunction<R> shardOperation) {
+        if (shards.length == 1) {
+            return List.of(shardOperation.apply(shards[0]));
+        }
+
+        val futures = new ArrayList<CompletableFuture<R>>(shards.length);
+
+        for (val shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> shardOperation.apply(shard), executor));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    private static Book withShard(Book book, int shard) {
+        book.setId(encodeId(book.getId(), shard));
+
+        return book;
+    }
+
+    private static Book copy(Book book) {
+        val copy = new Book();
+
+        copy.setId(book.getId());
+        copy.setName(book.getName());
+        copy.setAuthor(book.getAuthor());
+        copy.setPrintYear(book.getPrintYear());
+        copy.setRead(book.isRead());
+
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Book> keysetOrder(BookSortColumn sortColumn) {
+        return Comparator.comparing((Book book) -> (Comparable<Object>) sortColumn.getValue(book))
+                .thenComparing(Book::getId);
+    }
+
+    @FunctionalInterface
+    private interface ShardIdsOperation<R> {
+
+        R execute(EntityManager entityManager, int shard, List<Long> localIds);
+    }
+}
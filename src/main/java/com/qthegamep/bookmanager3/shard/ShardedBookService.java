@@ -0,0 +1,752 @@
+package com.qthegamep.bookmanager3.shard;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException;
+import com.qthegamep.bookmanager3.logging.LogSummary;
+import com.qthegamep.bookmanager3.pagination.BookKeyset;
+import com.qthegamep.bookmanager3.pagination.BookPage;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.search.BookSearchHit;
+import com.qthegamep.bookmanager3.search.BookSearchIndex;
+import com.qthegamep.bookmanager3.service.AbstractBookService;
+import com.qthegamep.bookmanager3.statistics.BookAuthorCounts;
+import com.qthegamep.bookmanager3.statistics.BookReadCounts;
+import com.qthegamep.bookmanager3.statistics.BookYearHistogram;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * This class is book service implementation over shard databases of {@link ShardedBookRepository}. It is used
+ * instead of {@link com.qthegamep.bookmanager3.service.BookServiceImpl} when urls of shard databases are given.
+ * Every call of the repository commits its own transaction in every shard it touches, so lists of entities are
+ * not changed atomically between shards and changes of the search index are applied right after the call.
+ * Lists of new entities are always added by the entity manager of the shard, native insert modes of the database
+ * profile are not used. The search index is filled from all shards by {@link #rebuildSearchIndex()}.
+ */
+@Slf4j
+public class ShardedBookService extends AbstractBookService {
+
+    private final ShardedBookRepository shardedBookRepository;
+    private final BookSearchIndex searchIndex;
+
+    /**
+     * This is constructor that creates service over shards.
+     *
+     * @param shardedBookRepository is the repository of book entities of shard databases.
+     *                              Should not be null.
+     * @param searchIndex           is the full-text search index of book entities of all shards.
+     *                              Should not be null.
+     */
+    public ShardedBookService(@NonNull ShardedBookRepository shardedBookRepository,
+                              @NonNull BookSearchIndex searchIndex) {
+        super("shards");
+
+        this.shardedBookRepository = shardedBookRepository;
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * This method replaces the content of the search index by entities of all shards. Shards are read one by one
+     * through the forward-only cursor, changes of the index that are made during the rebuild are kept.
+     *
+     * @return number of indexed entities.
+     */
+    public long rebuildSearchIndex() {
+        val start = System.nanoTime();
+
+        searchIndex.beginRebuild();
+
+        try {
+            val part = new BookSearchIndex();
+            val indexed = shardedBookRepository.processAll(part::index);
+
+            searchIndex.completeRebuild(List.of(part));
+
+            log.info("Search index was rebuilt from entities: {} of shards: {} in {} ms, indexed entities: {}, " +
+                            "terms: {}", indexed, shardedBookRepository.getShards(), elapsedMillis(start),
+                    searchIndex.size(), searchIndex.getTerms());
+
+            return indexed;
+        } catch (RuntimeException e) {
+            searchIndex.abortRebuild();
+
+            throw e;
+        }
+    }
+
+    /**
+     * This service method implements adding book entity to the shard of its author.
+     * If Book entity is already exists in the shard of its id then would be thrown
+     * {@link com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException}.
+     * If book entity is incorrect then would be thrown
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     *
+     * @param book is the entity that will be added to the database.
+     *             Should not be null.
+     * @return book entity.
+     * @throws EntityAlreadyExistsException    when trying to add book entity and this entity already exists.
+     * @throws DataIntegrityViolationException when trying to add book entity and this entity is incorrect.
+     */
+    @Override
+    public Book add(@NonNull Book book) throws EntityAlreadyExistsException, DataIntegrityViolationException {
+        log.info("Preparing to add entity: {}", book);
+
+        checkIfBookExists(book);
+
+        val savedBook = shardedBookRepository.save(book);
+
+        searchIndex.index(savedBook);
+
+        log.info("Entity: {} was added to the shard: {}", savedBook, ShardedBookRepository.getShard(savedBook.getId()));
+
+        return savedBook;
+    }
+
+    /**
+     * This service method implements adding list of book entities to shards of their authors.
+     * If one of book entities is already exists in the database then would be thrown
+     * {@link com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException} with ids of all existing entities.
+     * Existence of entities is checked with one query per chunk of ids of every shard.
+     * If book entity is incorrect then would be thrown
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     *
+     * @param books is the list of entities that will be added to the database.
+     *              Should not be null.
+     * @return list of book entities.
+     * @throws EntityAlreadyExistsException    when trying to add book entity and this entity already exists.
+     * @throws DataIntegrityViolationException when trying to add book entity and this entity is incorrect.
+     */
+    @Override
+    public List<Book> addAll(@NonNull List<Book> books)
+            throws EntityAlreadyExistsException, DataIntegrityViolationException {
+        log.info("Preparing to add all entities: {}", LogSummary.ofBooks(books));
+
+        if (log.isDebugEnabled()) {
+            log.debug("Entities to add: {}", books);
+        }
+
+        val start = System.nanoTime();
+
+        checkIfBooksExist(books);
+
+        val savedBooks = shardedBookRepository.saveAll(books);
+
+        searchIndex.indexAll(savedBooks);
+
+        log.info("Entities: {} was added to shards in {} ms", LogSummary.ofBooks(savedBooks), elapsedMillis(start));
+
+        return savedBooks;
+    }
+
+    /**
+     * This service method implements returning book entity from the shard of the id.
+     * If book entity is not exists in the database then would be thrown
+     * {@link javax.persistence.EntityNotFoundException}.
+     *
+     * @param id is the parameter by which the entity will be returned.
+     *           Should not be null.
+     * @return book entity.
+     * @throws EntityNotFoundException when trying to get entity by id and this entity does not exists.
+     */
+    @Override
+    public Book getById(@NonNull Long id) throws EntityNotFoundException {
+        log.info("Preparing to get book entity by id: {}", id);
+
+        val optionalBook = shardedBookRepository.findById(id);
+
+        if (optionalBook.isPresent()) {
+            val book = optionalBook.get();
+
+            log.info("Entity: {} was gotten from the shard: {}", book, ShardedBookRepository.getShard(id));
+
+            return book;
+        } else {
+            log.info("Unable to find com.qthegamep.bookmanager3.entity.Book with id {}", id);
+
+            throw new EntityNotFoundException("Unable to find com.qthegamep.bookmanager3.entity.Book with id " + id);
+        }
+    }
+
+    /**
+     * This service method implements returning list of book entities from all shards by name.
+     *
+     * @param name is the parameter by which the list of entities will be returned.
+     *             Should not be null.
+     * @return list of book entities.
+     */
+    @Override
+    public List<Book> getByName(@NonNull String name) {
+        log.info("Preparing to get book entities by name: {}", name);
+
+        return gotten(System.nanoTime(), shardedBookRepository.findBooksByName(name));
+    }
+
+    /**
+     * This service method implements returning page of book entities from all shards by name.
+     * If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param name       is the parameter by which the page of entities will be returned.
+     *                   Should not be null.
+     * @param sortColumn is the column by which the page is sorted.
+     *                   Should not be null.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    @Override
+    public BookPage getByName(@NonNull String name, @NonNull BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException {
+        log.info("Preparing to get page of book entities by name: {} sorted by: {} after token: {} with size: {}",
+                name, sortColumn, token, size);
+
+        checkPageSize(size);
+
+        val start = System.nanoTime();
+        val after = BookKeyset.fromToken(token, sortColumn);
+
+        return toPage(shardedBookRepository.findBooksByNameAfter(name, sortColumn, after, size + 1), sortColumn,
+                size, start);
+    }
+
+    /**
+     * This service method implements returning list of book entities from all shards by author.
+     *
+     * @param author is the parameter by which the list of entities will be returned.
+     *               Should not be null.
+     * @return list of book entities.
+     */
+    @Override
+    public List<Book> getByAuthor(@NonNull String author) {
+        log.info("Preparing to get book entities by author: {}", author);
+
+        return gotten(System.nanoTime(), shardedBookRepository.findBooksByAuthor(author));
+    }
+
+    /**
+     * This service method implements returning page of book entities from all shards by author.
+     * If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param author     is the parameter by which the page of entities will be returned.
+     *                   Should not be null.
+     * @param sortColumn is the column by which the page is sorted.
+     *                   Should not be null.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    @Override
+    public BookPage getByAuthor(@NonNull String author, @NonNull BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException {
+        log.info("Preparing to get page of book entities by author: {} sorted by: {} after token: {} with size: {}",
+                author, sortColumn, token, size);
+
+        checkPageSize(size);
+
+        val start = System.nanoTime();
+        val after = BookKeyset.fromToken(token, sortColumn);
+
+        return toPage(shardedBookRepository.findBooksByAuthorAfter(author, sortColumn, after, size + 1),
+                sortColumn, size, start);
+    }
+
+    /**
+     * This service method implements returning list of book entities from all shards by print year.
+     *
+     * @param printYear is the parameter by which the list of entities will be returned.
+     * @return list of book entities.
+     */
+    @Override
+    public List<Book> getByPrintYear(int printYear) {
+        log.info("Preparing to get book entities by print year: {}", printYear);
+
+        return gotten(System.nanoTime(), shardedBookRepository.findBooksByPrintYear(printYear));
+    }
+
+    /**
+     * This service method implements returning page of book entities from all shards by print year.
+     * If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param printYear  is the parameter by which the page of entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     *                   Should not be null.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    @Override
+    public BookPage getByPrintYear(int printYear, @NonNull BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException {
+        log.info("Preparing to get page of book entities by print year: {} sorted by: {} after token: {} with size: {}",
+                printYear, sortColumn, token, size);
+
+        checkPageSize(size);
+
+        val start = System.nanoTime();
+        val after = BookKeyset.fromToken(token, sortColumn);
+
+        return toPage(shardedBookRepository.findBooksByPrintYearAfter(printYear, sortColumn, after, size + 1),
+                sortColumn, size, start);
+    }
+
+    /**
+     * This service method implements returning list of book entities from all shards by read.
+     *
+     * @param read is the parameter by which the list of entities will be returned.
+     * @return list of book entities.
+     */
+    @Override
+    public List<Book> getByRead(boolean read) {
+        log.info("Preparing to get book entities by read: {}", read);
+
+        return gotten(System.nanoTime(), shardedBookRepository.findBooksByRead(read));
+    }
+
+    /**
+     * This service method implements returning page of book entities from all shards by read.
+     * If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param read       is the parameter by which the page of entities will be returned.
+     * @param sortColumn is the column by which the page is sorted.
+     *                   Should not be null.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    @Override
+    public BookPage getByRead(boolean read, @NonNull BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException {
+        log.info("Preparing to get page of book entities by read: {} sorted by: {} after token: {} with size: {}",
+                read, sortColumn, token, size);
+
+        checkPageSize(size);
+
+        val start = System.nanoTime();
+        val after = BookKeyset.fromToken(token, sortColumn);
+
+        return toPage(shardedBookRepository.findBooksByReadAfter(read, sortColumn, after, size + 1), sortColumn,
+                size, start);
+    }
+
+    /**
+     * This service method implements returning list of all book entities from all shards.
+     *
+     * @return list of book entities.
+     */
+    @Override
+    public List<Book> getAll() {
+        log.info("Preparing to get all book entities");
+
+        return gotten(System.nanoTime(), shardedBookRepository.findAll());
+    }
+
+    /**
+     * This service method implements returning page of book entities from all shards.
+     * If token or page size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param sortColumn is the column by which the page is sorted.
+     *                   Should not be null.
+     * @param token      is the continuation token of the previous page or null for the first page.
+     * @param size       is the max number of entities on the page.
+     * @return page of book entities.
+     * @throws IllegalArgumentException when token or page size is incorrect.
+     */
+    @Override
+    public BookPage getAll(@NonNull BookSortColumn sortColumn, String token, int size)
+            throws IllegalArgumentException {
+        log.info("Preparing to get page of all book entities sorted by: {} after token: {} with size: {}",
+                sortColumn, token, size);
+
+        checkPageSize(size);
+
+        val start = System.nanoTime();
+        val after = BookKeyset.fromToken(token, sortColumn);
+
+        return toPage(shardedBookRepository.findAllAfter(sortColumn, after, size + 1), sortColumn, size, start);
+    }
+
+    /**
+     * This service method implements full-text search of book entities by name and author.
+     * Ids of the most relevant entities are found by the in-memory search index and entities are read from
+     * shards of ids.
+     * If limit is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param query is the text of the query.
+     *              Should not be null.
+     * @param limit is the max number of entities.
+     * @return list of book entities from the most relevant.
+     * @throws IllegalArgumentException when limit is incorrect.
+     */
+    @Override
+    public List<Book> search(@NonNull String query, int limit) throws IllegalArgumentException {
+        log.info("Preparing to search book entities by query: {} with limit: {}", query, limit);
+
+        checkSearchLimit(limit);
+
+        val start = System.nanoTime();
+        val ids = searchIndex.search(query, limit).stream()
+                .map(BookSearchHit::getId)
+                .collect(Collectors.toList());
+
+        return found(start, ids, shardedBookRepository.findAllById(ids));
+    }
+
+    /**
+     * This service method implements returning numbers of book entities of every author.
+     * Entities are grouped by every shard and counts of shards are merged.
+     *
+     * @return counts of authors.
+     */
+    @Override
+    public BookAuthorCounts countByAuthor() {
+        log.info("Preparing to count book entities by author");
+
+        val start = System.nanoTime();
+        val authorCounts = shardedBookRepository.countBooksGroupedByAuthor();
+
+        log.info("Entities: {} of authors: {} was counted in shards in {} ms", authorCounts.getTotal(),
+                authorCounts.size(), elapsedMillis(start));
+
+        return authorCounts;
+    }
+
+    /**
+     * This service method implements returning numbers of book entities of every print year.
+     *
+     * @return histogram of print years with buckets of one year.
+     */
+    @Override
+    public BookYearHistogram countByPrintYear() {
+        return countByPrintYear(1);
+    }
+
+    /**
+     * This service method implements returning numbers of book entities in buckets of print years.
+     * Entities are grouped by buckets in every shard and counts of shards are merged.
+     * If bucket size is incorrect then would be thrown
+     * {@link java.lang.IllegalArgumentException}.
+     *
+     * @param bucketSize is the number of years of every bucket.
+     * @return histogram of print years.
+     * @throws IllegalArgumentException when bucket size is incorrect.
+     */
+    @Override
+    public BookYearHistogram countByPrintYear(int bucketSize) throws IllegalArgumentException {
+        log.info("Preparing to count book entities by print year in buckets of {} years", bucketSize);
+
+        if (bucketSize < 1) {
+            log.info("Bucket size: {} is incorrect! It should be positive", bucketSize);
+
+            throw new IllegalArgumentException("Bucket size: " + bucketSize + " is incorrect. It should be positive");
+        }
+
+        val start = System.nanoTime();
+        val histogram = shardedBookRepository.countBooksGroupedByPrintYear(bucketSize);
+
+        log.info("Entities: {} of buckets: {} was counted in shards in {} ms", histogram.getTotal(),
+                histogram.size(), elapsedMillis(start));
+
+        return histogram;
+    }
+
+    /**
+     * This service method implements returning numbers of read and unread book entities.
+     * Entities are grouped by every shard and counts of shards are summed.
+     *
+     * @return counts of read and unread entities.
+     */
+    @Override
+    public BookReadCounts countByRead() {
+        log.info("Preparing to count book entities by read");
+
+        val start = System.nanoTime();
+        val readCounts = shardedBookRepository.countBooksGroupedByRead();
+
+        log.info("Entities: {} was counted in shards in {} ms", readCounts, elapsedMillis(start));
+
+        return readCounts;
+    }
+
+    /**
+     * This service method implements passing book entities of all shards by name to the action one by one.
+     * Shards are read one by one through the database cursor in one read only transaction per shard.
+     *
+     * @param name   is the parameter by which the entities will be processed.
+     *               Should not be null.
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    @Override
+    public long processByName(@NonNull String name, @NonNull Consumer<? super Book> action) {
+        log.info("Preparing to process book entities by name: {}", name);
+
+        return processed(System.nanoTime(), shardedBookRepository.processBooksByName(name, action));
+    }
+
+    /**
+     * This service method implements passing book entities of all shards by author to the action one by one.
+     * Shards are read one by one through the database cursor in one read only transaction per shard.
+     *
+     * @param author is the parameter by which the entities will be processed.
+     *               Should not be null.
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    @Override
+    public long processByAuthor(@NonNull String author, @NonNull Consumer<? super Book> action) {
+        log.info("Preparing to process book entities by author: {}", author);
+
+        return processed(System.nanoTime(), shardedBookRepository.processBooksByAuthor(author, action));
+    }
+
+    /**
+     * This service method implements passing book entities of all shards by print year to the action one by one.
+     * Shards are read one by one through the database cursor in one read only transaction per shard.
+     *
+     * @param printYear is the parameter by which the entities will be processed.
+     * @param action    is the action that will be performed for each entity.
+     *                  Should not be null.
+     * @return number of processed entities.
+     */
+    @Override
+    public long processByPrintYear(int printYear, @NonNull Consumer<? super Book> action) {
+        log.info("Preparing to process book entities by print year: {}", printYear);
+
+        return processed(System.nanoTime(), shardedBookRepository.processBooksByPrintYear(printYear, action));
+    }
+
+    /**
+     * This service method implements passing book entities of all shards by read to the action one by one.
+     * Shards are read one by one through the database cursor in one read only transaction per shard.
+     *
+     * @param read   is the parameter by which the entities will be processed.
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    @Override
+    public long processByRead(boolean read, @NonNull Consumer<? super Book> action) {
+        log.info("Preparing to process book entities by read: {}", read);
+
+        return processed(System.nanoTime(), shardedBookRepository.processBooksByRead(read, action));
+    }
+
+    /**
+     * This service method implements passing all book entities of all shards to the action one by one.
+     * Shards are read one by one through the database cursor in one read only transaction per shard.
+     *
+     * @param action is the action that will be performed for each entity.
+     *               Should not be null.
+     * @return number of processed entities.
+     */
+    @Override
+    public long processAll(@NonNull Consumer<? super Book> action) {
+        log.info("Preparing to process all book entities");
+
+        return processed(System.nanoTime(), shardedBookRepository.processAll(action));
+    }
+
+    /**
+     * This service method implements updating book entity in the shard of its id.
+     * If book entity is incorrect then would be thrown
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     *
+     * @param book is the entity that will be updated in the database.
+     *             Should not be null.
+     * @return book entity.
+     * @throws DataIntegrityViolationException when trying to update book entity and this entity is incorrect.
+     */
+    @Override
+    public Book update(@NonNull Book book) throws DataIntegrityViolationException {
+        log.info("Preparing to update entity: {}", book);
+
+        val updatedBook = shardedBookRepository.save(book);
+
+        searchIndex.index(updatedBook);
+
+        log.info("Entity: {} was updated in the shard: {}", updatedBook,
+                ShardedBookRepository.getShard(updatedBook.getId()));
+
+        return updatedBook;
+    }
+
+    /**
+     * This service method implements updating list of book entities in shards of their ids.
+     * If book entity is incorrect then would be thrown
+     * {@link org.springframework.dao.DataIntegrityViolationException}.
+     *
+     * @param books is the list of entities that will be updated in the database.
+     *              Should not be null.
+     * @return list of book entities.
+     * @throws DataIntegrityViolationException when trying to update book entity and this entity is incorrect.
+     */
+    @Override
+    public List<Book> updateAll(@NonNull List<Book> books) throws DataIntegrityViolationException {
+        log.info("Preparing to update all entities: {}", LogSummary.ofBooks(books));
+
+        if (log.isDebugEnabled()) {
+            log.debug("Entities to update: {}", books);
+        }
+
+        val start = System.nanoTime();
+        val updatedBooks = shardedBookRepository.saveAll(books);
+
+        searchIndex.indexAll(updatedBooks);
+
+        log.info("Entities: {} was updated in shards in {} ms", LogSummary.ofBooks(updatedBooks),
+                elapsedMillis(start));
+
+        return updatedBooks;
+    }
+
+    /**
+     * This service method implements marking all book entities by author as read with one statement per shard.
+     *
+     * @param author is the parameter by which entities will be marked as read.
+     *               Should not be null.
+     * @return number of updated entities.
+     */
+    @Override
+    public int markReadByAuthor(@NonNull String author) {
+        log.info("Preparing to mark book entities by author: {} as read", author);
+
+        val updated = shardedBookRepository.updateReadByAuthor(author, true);
+
+        log.info("Entities: {} was marked as read in shards", updated);
+
+        return updated;
+    }
+
+    /**
+     * This service method implements setting read of book entities by ids.
+     * Entities are updated with one statement per chunk of ids in one transaction per shard.
+     *
+     * @param ids  is the list of ids of entities that will be updated.
+     *             Should not be null.
+     * @param read is the new value of read.
+     * @return number of updated entities.
+     */
+    @Override
+    public int setReadByIds(@NonNull List<Long> ids, boolean read) {
+        log.info("Preparing to set read: {} of book entities by ids: {}", read, LogSummary.ofIds(ids));
+
+        val start = System.nanoTime();
+        val updated = shardedBookRepository.updateReadByIds(ids, read);
+
+        log.info("Entities: {} was updated in shards in {} ms", updated, elapsedMillis(start));
+
+        return updated;
+    }
+
+    /**
+     * This service method implements setting print year of book entities by ids.
+     * Entities are updated with one statement per chunk of ids in one transaction per shard.
+     *
+     * @param ids       is the list of ids of entities that will be updated.
+     *                  Should not be null.
+     * @param printYear is the new value of print year.
+     * @return number of updated entities.
+     */
+    @Override
+    public int updatePrintYearByIds(@NonNull List<Long> ids, int printYear) {
+        log.info("Preparing to set print year: {} of book entities by ids: {}", printYear, LogSummary.ofIds(ids));
+
+        val start = System.nanoTime();
+        val updated = shardedBookRepository.updatePrintYearByIds(ids, printYear);
+
+        log.info("Entities: {} was updated in shards in {} ms", updated, elapsedMillis(start));
+
+        return updated;
+    }
+
+    /**
+     * This service method implements deleting book entity from the shard of its id.
+     * Entity without id is not deleted.
+     *
+     * @param book is the entity that will be deleted from the database.
+     *             Should not be null.
+     * @throws DataIntegrityViolationException when trying to remove book entity and this entity is incorrect.
+     */
+    @Override
+    public void remove(@NonNull Book book) throws DataIntegrityViolationException {
+        log.info("Preparing to remove entity: {}", book);
+
+        if (Objects.nonNull(book.getId())) {
+            shardedBookRepository.deleteById(book.getId());
+            searchIndex.remove(book.getId());
+        }
+
+        log.info("Entity: {} was removed from the database", book);
+    }
+
+    /**
+     * This service method implements deleting list of book entities from shards of their ids.
+     * Entities are deleted with one statement per chunk of ids in one transaction per shard.
+     *
+     * @param books is the list of entities that will be deleted from the database.
+     *              Should not be null.
+     * @throws DataIntegrityViolationException when trying to remove book entity and this entity is incorrect.
+     */
+    @Override
+    public void removeAll(@NonNull List<? extends Book> books) throws DataIntegrityViolationException {
+        log.info("Preparing to remove all entities: {}", LogSummary.ofBooks(books));
+
+        if (log.isDebugEnabled()) {
+            log.debug("Entities to remove: {}", books);
+        }
+
+        val start = System.nanoTime();
+        val ids = books.stream().map(Book::getId).filter(Objects::nonNull).collect(Collectors.toList());
+        val removed = shardedBookRepository.deleteAllById(ids);
+
+        searchIndex.removeAll(ids);
+
+        log.info("Entities: {} was removed from shards in {} ms", removed, elapsedMillis(start));
+    }
+
+    /**
+     * This service method implements deleting all entities from all shards with one statement per shard.
+     */
+    @Override
+    public void removeAll() {
+        log.info("Preparing to remove all book entities");
+
+        val removed = shardedBookRepository.deleteAll();
+
+        searchIndex.clear();
+
+        log.info("All book entities: {} was removed from shards", removed);
+    }
+
+    @Override
+    protected boolean existsById(Long id) {
+        return shardedBookRepository.findById(id).isPresent();
+    }
+
+    @Override
+    protected Set<Long> findExistingIds(List<Long> ids) {
+        return shardedBookRepository.findExistingIds(ids);
+    }
+}
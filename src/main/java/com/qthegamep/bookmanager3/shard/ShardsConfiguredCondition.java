@@ -0,0 +1,23 @@
+package com.qthegamep.bookmanager3.shard;
+
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.util.StringUtils;
+
+/**
+ * This class is a condition of beans that are created only when urls of shard databases are given
+ * by the shard.urls property.
+ */
+public class ShardsConfiguredCondition implements Condition {
+
+    /**
+     * Name of the property with comma separated urls of shard databases.
+     */
+    public static final String SHARD_URLS = "shard.urls";
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        return StringUtils.hasText(context.getEnvironment().getProperty(SHARD_URLS));
+    }
+}
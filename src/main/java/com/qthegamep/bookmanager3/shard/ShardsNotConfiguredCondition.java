@@ -0,0 +1,16 @@
+package com.qthegamep.bookmanager3.shard;
+
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * This class is a condition of beans that are created only when urls of shard databases are not given,
+ * so the main database is used.
+ */
+public class ShardsNotConfiguredCondition extends ShardsConfiguredCondition {
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        return !super.matches(context, metadata);
+    }
+}
@@ -0,0 +1,72 @@
+package com.qthegamep.bookmanager3.statistics;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.val;
+
+/**
+ * This class is a result of the aggregate query that counts book entities of every author. Authors and counts
+ * are kept in parallel arrays in the order of authors, so the result does not hold an object per author.
+ */
+@ToString
+@EqualsAndHashCode
+public class BookAuthorCounts {
+
+    private final String[] authors;
+    private final long[] counts;
+
+    /**
+     * This is the constructor that creates counts. Arrays are not copied.
+     *
+     * @param authors is the array of authors.
+     *                Should not be null.
+     * @param counts  is the array of numbers of entities of authors with the same indexes.
+     *                Should not be null.
+     */
+    public BookAuthorCounts(@NonNull String[] authors, @NonNull long[] counts) {
+        if (authors.length != counts.length) {
+            throw new IllegalArgumentException("Authors: " + authors.length + " and counts: " + counts.length +
+                    " should have the same length");
+        }
+
+        this.authors = authors;
+        this.counts = counts;
+    }
+
+    /**
+     * @return number of authors.
+     */
+    public int size() {
+        return authors.length;
+    }
+
+    /**
+     * @param index is the index of the author.
+     * @return author with the index.
+     */
+    public String getAuthor(int index) {
+        return authors[index];
+    }
+
+    /**
+     * @param index is the index of the author.
+     * @return number of entities of the author with the index.
+     */
+    public long getCount(int index) {
+        return counts[index];
+    }
+
+    /**
+     * @return number of entities of all authors.
+     */
+    public long getTotal() {
+        var total = 0L;
+
+        for (val count : counts) {
+            total += count;
+        }
+
+        return total;
+    }
+}
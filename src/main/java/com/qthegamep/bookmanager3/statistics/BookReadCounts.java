@@ -0,0 +1,42 @@
+package com.qthegamep.bookmanager3.statistics;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * This class is a result of the aggregate query that counts read and unread book entities.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class BookReadCounts {
+
+    private final long read;
+    private final long unread;
+
+    /**
+     * This is the constructor that creates counts.
+     *
+     * @param read   is the number of read entities.
+     * @param unread is the number of unread entities.
+     */
+    public BookReadCounts(long read, long unread) {
+        this.read = read;
+        this.unread = unread;
+    }
+
+    /**
+     * @return number of all entities.
+     */
+    public long getTotal() {
+        return read + unread;
+    }
+
+    /**
+     * @return share of read entities from 0 to 1, or 0 if there are no entities.
+     */
+    public double getReadRatio() {
+        return getTotal() == 0 ? 0.0 : (double) read / getTotal();
+    }
+}
@@ -0,0 +1,92 @@
+package com.qthegamep.bookmanager3.statistics;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.val;
+
+/**
+ * This class is a result of the aggregate query that counts book entities by print year in buckets of the same
+ * number of years. The bucket with the start year holds years from the start year inclusive to the start year plus
+ * the bucket size exclusive, the bucket of one year is the year itself. Only buckets with entities are kept.
+ * Start years and counts are kept in parallel arrays in the order of years.
+ */
+@ToString
+@EqualsAndHashCode
+public class BookYearHistogram {
+
+    private final int bucketSize;
+    private final int[] bucketStarts;
+    private final long[] counts;
+
+    /**
+     * This is the constructor that creates histogram. Arrays are not copied.
+     *
+     * @param bucketSize   is the number of years of every bucket.
+     * @param bucketStarts is the array of start years of buckets.
+     *                     Should not be null.
+     * @param counts       is the array of numbers of entities of buckets with the same indexes.
+     *                     Should not be null.
+     */
+    public BookYearHistogram(int bucketSize, @NonNull int[] bucketStarts, @NonNull long[] counts) {
+        if (bucketSize < 1 || bucketStarts.length != counts.length) {
+            throw new IllegalArgumentException("Bucket size: " + bucketSize + " should be positive and buckets: " +
+                    bucketStarts.length + " and counts: " + counts.length + " should have the same length");
+        }
+
+        this.bucketSize = bucketSize;
+        this.bucketStarts = bucketStarts;
+        this.counts = counts;
+    }
+
+    /**
+     * @return number of years of every bucket.
+     */
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    /**
+     * @return number of buckets.
+     */
+    public int size() {
+        return bucketStarts.length;
+    }
+
+    /**
+     * @param index is the index of the bucket.
+     * @return first year of the bucket with the index.
+     */
+    public int getBucketStart(int index) {
+        return bucketStarts[index];
+    }
+
+    /**
+     * @param index is the index of the bucket.
+     * @return year after the last year of the bucket with the index.
+     */
+    public int getBucketEnd(int index) {
+        return bucketStarts[index] + bucketSize;
+    }
+
+    /**
+     * @param index is the index of the bucket.
+     * @return number of entities of the bucket with the index.
+     */
+    public long getCount(int index) {
+        return counts[index];
+    }
+
+    /**
+     * @return number of entities of all buckets.
+     */
+    public long getTotal() {
+        var total = 0L;
+
+        for (val count : counts) {
+            total += count;
+        }
+
+        return total;
+    }
+}
@@ -1,9 +1,21 @@
 CREATE DATABASE IF NOT EXISTS bookmanager3;
 
+DROP TABLE IF EXISTS `bookmanager3`.`book_import_chunk`;
+
 DROP TABLE IF EXISTS `bookmanager3`.`book`;
 
+DROP TABLE IF EXISTS `bookmanager3`.`book_id_sequence`;
+
+CREATE TABLE `bookmanager3`.`book_id_sequence` (
+  `next_val` BIGINT NOT NULL
+)
+  ENGINE = InnoDB;
+
+INSERT INTO `bookmanager3`.`book_id_sequence` (`next_val`)
+VALUES (1);
+
 CREATE TABLE `bookmanager3`.`book` (
-  `ID`         INT(10)      NOT NULL AUTO_INCREMENT,
+  `ID`         INT(10)      NOT NULL,
   `NAME`       VARCHAR(255) NOT NULL,
   `AUTHOR`     VARCHAR(255) NOT NULL,
   `PRINT_YEAR` INT(4)       NOT NULL,
@@ -11,6 +23,26 @@ CREATE TABLE `bookmanager3`.`book` (
   CONSTRAINT `BOOK_PRIMARY_KEY` PRIMARY KEY (`ID`)
 )
   ENGINE = InnoDB
-  AUTO_INCREMENT = 1
+  DEFAULT CHARSET = utf8
+  COLLATE = utf8_general_ci;
+
+CREATE INDEX `BOOK_NAME_INDEX` ON `bookmanager3`.`book` (`NAME`);
+
+CREATE INDEX `BOOK_AUTHOR_INDEX` ON `bookmanager3`.`book` (`AUTHOR`);
+
+CREATE INDEX `BOOK_PRINT_YEAR_INDEX` ON `bookmanager3`.`book` (`PRINT_YEAR`);
+
+CREATE INDEX `BOOK_IS_READ_PRINT_YEAR_INDEX` ON `bookmanager3`.`book` (`IS_READ`, `PRINT_YEAR`);
+
+CREATE TABLE `bookmanager3`.`book_import_chunk` (
+  `IMPORT_ID`         VARCHAR(255) NOT NULL,
+  `CHUNK_NUMBER`      BIGINT       NOT NULL,
+  `FIRST_LINE_NUMBER` BIGINT       NOT NULL,
+  `LINE_COUNT`        INT(10)      NOT NULL,
+  `IMPORTED_ROWS`     INT(10)      NOT NULL,
+  `REJECTED_ROWS`     INT(10)      NOT NULL,
+  CONSTRAINT `BOOK_IMPORT_CHUNK_PRIMARY_KEY` PRIMARY KEY (`IMPORT_ID`, `CHUNK_NUMBER`)
+)
+  ENGINE = InnoDB
   DEFAULT CHARSET = utf8
   COLLATE = utf8_general_ci;
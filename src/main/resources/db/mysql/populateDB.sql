@@ -1,3 +1,6 @@
-INSERT INTO BOOK (`NAME`, `AUTHOR`, `PRINT_YEAR`, `IS_READ`)
-VALUES ('Thinking In Java 4 Edition', 'Bruce Eckel', 2017, TRUE),
-       ('Pro Spring', 'Clarence Ho, Rob Harrop, Chris Schaefer', 2014, FALSE);
+INSERT INTO BOOK (`ID`, `NAME`, `AUTHOR`, `PRINT_YEAR`, `IS_READ`)
+VALUES (1, 'Thinking In Java 4 Edition', 'Bruce Eckel', 2017, TRUE),
+       (2, 'Pro Spring', 'Clarence Ho, Rob Harrop, Chris Schaefer', 2014, FALSE);
+
+UPDATE BOOK_ID_SEQUENCE
+SET `next_val` = 51;
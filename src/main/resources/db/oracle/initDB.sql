@@ -19,6 +19,14 @@ CREATE TABLE SYSTEM.BOOK (
   CONSTRAINT BOOK_PRIMARY_KEY PRIMARY KEY (ID)
 );
 
+CREATE INDEX BOOK_NAME_INDEX ON SYSTEM.BOOK (NAME);
+
+CREATE INDEX BOOK_AUTHOR_INDEX ON SYSTEM.BOOK (AUTHOR);
+
+CREATE INDEX BOOK_PRINT_YEAR_INDEX ON SYSTEM.BOOK (PRINT_YEAR);
+
+CREATE INDEX BOOK_IS_READ_PRINT_YEAR_INDEX ON SYSTEM.BOOK (IS_READ, PRINT_YEAR);
+
 BEGIN
   EXECUTE IMMEDIATE 'DROP SEQUENCE BOOK_ID_SEQUENCE';
   EXCEPTION
@@ -31,7 +39,7 @@ BEGIN
 END;
 /
 
-CREATE SEQUENCE BOOK_ID_SEQUENCE;
+CREATE SEQUENCE BOOK_ID_SEQUENCE START WITH 1 INCREMENT BY 50;
 
 CREATE OR REPLACE TRIGGER BOOK_ID_TRIGGER
   BEFORE INSERT
@@ -43,3 +51,25 @@ CREATE OR REPLACE TRIGGER BOOK_ID_TRIGGER
         INTO :NEW.ID FROM DUAL;
   END;
 /
+
+BEGIN
+  EXECUTE IMMEDIATE 'DROP TABLE SYSTEM.BOOK_IMPORT_CHUNK';
+  EXCEPTION
+  WHEN OTHERS
+  THEN
+    IF SQLCODE != -942
+    THEN
+      RAISE;
+    END IF;
+END;
+/
+
+CREATE TABLE SYSTEM.BOOK_IMPORT_CHUNK (
+  IMPORT_ID         VARCHAR(255) NOT NULL,
+  CHUNK_NUMBER      NUMBER(19)   NOT NULL,
+  FIRST_LINE_NUMBER NUMBER(19)   NOT NULL,
+  LINE_COUNT        NUMBER(10)   NOT NULL,
+  IMPORTED_ROWS     NUMBER(10)   NOT NULL,
+  REJECTED_ROWS     NUMBER(10)   NOT NULL,
+  CONSTRAINT BOOK_IMPORT_CHUNK_PRIMARY_KEY PRIMARY KEY (IMPORT_ID, CHUNK_NUMBER)
+);
@@ -0,0 +1,84 @@
+package com.qthegamep.bookmanager3.concurrent;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ThreadFactoriesTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    @Test
+    public void shouldCreateNamedDaemonPlatformThreads() {
+        val threadFactory = ThreadFactories.platform("test-");
+
+        val firstThread = threadFactory.newThread(() -> {
+        });
+        val secondThread = threadFactory.newThread(() -> {
+        });
+
+        assertThat(firstThread.getName()).isEqualTo("test-1");
+        assertThat(secondThread.getName()).isEqualTo("test-2");
+        assertThat(firstThread.isDaemon()).isTrue();
+    }
+
+    @Test
+    public void shouldCreateVirtualThreadsOnlyWhenJvmSupportsThem() {
+        val virtualThreadsSupported = isVirtualThreadsSupported();
+
+        val threadFactory = ThreadFactories.virtual("test-");
+
+        assertThat(threadFactory.isPresent()).isEqualTo(virtualThreadsSupported);
+
+        threadFactory.ifPresent(factory -> assertThat(factory.newThread(() -> {
+        }).getName()).isEqualTo("test-1"));
+    }
+
+    @Test
+    public void shouldCreatePlatformThreadsWhenVirtualThreadsAreDisabled() {
+        val thread = ThreadFactories.of("test-", false).newThread(() -> {
+        });
+
+        assertThat(thread.getName()).isEqualTo("test-1");
+        assertThat(thread.isDaemon()).isTrue();
+    }
+
+    @Test
+    public void shouldCreateThreadsWhenVirtualThreadsAreEnabled() {
+        val thread = ThreadFactories.of("test-", true).newThread(() -> {
+        });
+
+        assertThat(thread.getName()).isEqualTo("test-1");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateThreadFactoryWithNullPrefix() {
+        val exceptionMessage = "prefix is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> ThreadFactories.platform(null))
+                .withMessage(exceptionMessage);
+    }
+
+    private static boolean isVirtualThreadsSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
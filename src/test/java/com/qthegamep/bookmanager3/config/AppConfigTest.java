@@ -1,5 +1,6 @@
 package com.qthegamep.bookmanager3.config;
 
+import com.qthegamep.bookmanager3.entity.Book;
 import com.qthegamep.bookmanager3.testhelper.rule.Rules;
 
 import lombok.val;
@@ -8,19 +9,44 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.web.WebAppConfiguration;
 
+import com.qthegamep.bookmanager3.exporter.BookExporter;
+import com.qthegamep.bookmanager3.importer.BookImporter;
+import com.qthegamep.bookmanager3.search.BookSearchIndexBuilder;
+import com.qthegamep.bookmanager3.metrics.ServiceMetrics;
+import com.qthegamep.bookmanager3.metrics.ServiceMetricsAspect;
+import com.qthegamep.bookmanager3.metrics.StatementMetrics;
+import com.qthegamep.bookmanager3.service.AsyncBookService;
+import com.qthegamep.bookmanager3.service.BookService;
+import com.qthegamep.bookmanager3.pool.ConnectionLimitingDataSource;
+import com.qthegamep.bookmanager3.pool.ConnectionPoolMetrics;
+import com.qthegamep.bookmanager3.pool.ReadWriteRoutingDataSource;
+import com.qthegamep.bookmanager3.shard.ShardedBookRepository;
+import com.qthegamep.bookmanager3.shard.ShardedBookService;
+import com.zaxxer.hikari.HikariDataSource;
 import org.hibernate.jpa.HibernatePersistenceProvider;
 import org.junit.rules.ExternalResource;
 import org.junit.rules.Stopwatch;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.annotation.AnnotatedBeanDefinitionReader;
+import org.springframework.context.annotation.ConfigurationClassPostProcessor;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -36,9 +62,24 @@ public class AppConfigTest {
     @Rule
     public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     @Autowired
     private AppConfig appConfig;
 
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AsyncBookService asyncBookService;
+
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+
+    @Autowired
+    private ServiceMetricsAspect serviceMetricsAspect;
+
     @Test
     public void shouldAutowiredAppConfig() {
         assertThat(appConfig).isNotNull();
@@ -46,7 +87,7 @@ public class AppConfigTest {
 
     @Test
     public void shouldBeCorrectlySettingInDataSourceBeanDriverClassName() throws SQLException {
-        val dataSource = (DriverManagerDataSource) appConfig.dataSource();
+        val dataSource = (HikariDataSource) appConfig.dataSource();
 
         val driverClassName = DriverManager
                 .getDriver(dataSource
@@ -60,9 +101,9 @@ public class AppConfigTest {
 
     @Test
     public void shouldBeCorrectlySettingInDataSourceBeanUrl() {
-        val dataSource = (DriverManagerDataSource) appConfig.dataSource();
+        val dataSource = (HikariDataSource) appConfig.dataSource();
 
-        val url = dataSource.getUrl();
+        val url = dataSource.getJdbcUrl();
 
         assertThat(url)
                 .isNotNull()
@@ -72,7 +113,7 @@ public class AppConfigTest {
 
     @Test
     public void shouldBeCorrectlySettingInDataSourceBeanUsername() {
-        val dataSource = (DriverManagerDataSource) appConfig.dataSource();
+        val dataSource = (HikariDataSource) appConfig.dataSource();
 
         val username = dataSource.getUsername();
 
@@ -83,13 +124,257 @@ public class AppConfigTest {
 
     @Test
     public void shouldBeCorrectlySettingInDataSourceBeanPassword() {
-        val dataSource = (DriverManagerDataSource) appConfig.dataSource();
+        val dataSource = (HikariDataSource) appConfig.dataSource();
 
         val password = dataSource.getPassword();
 
         assertThat(password).isNotNull();
     }
 
+    @Test
+    public void shouldBeCorrectlySettingInDataSourceBeanPoolName() {
+        val dataSource = (HikariDataSource) appConfig.dataSource();
+
+        val poolName = dataSource.getPoolName();
+
+        assertThat(poolName)
+                .isNotNull()
+                .isNotEmpty();
+    }
+
+    @Test
+    public void shouldBeCorrectlySettingInDataSourceBeanPoolSize() {
+        val dataSource = (HikariDataSource) appConfig.dataSource();
+
+        val minimumIdle = dataSource.getMinimumIdle();
+        val maximumPoolSize = dataSource.getMaximumPoolSize();
+
+        assertThat(minimumIdle).isPositive();
+        assertThat(maximumPoolSize).isGreaterThanOrEqualTo(minimumIdle);
+    }
+
+    @Test
+    public void shouldBeCorrectlySettingInDataSourceBeanTimeouts() {
+        val dataSource = (HikariDataSource) appConfig.dataSource();
+
+        assertThat(dataSource.getConnectionTimeout()).isPositive();
+        assertThat(dataSource.getIdleTimeout()).isPositive();
+        assertThat(dataSource.getMaxLifetime()).isPositive();
+        assertThat(dataSource.getValidationTimeout()).isPositive();
+    }
+
+    @Test
+    public void shouldBeCorrectlySettingInDataSourceBeanMetricsTrackerFactory() {
+        val dataSource = (HikariDataSource) appConfig.dataSource();
+
+        val metricsTrackerFactory = dataSource.getMetricsTrackerFactory();
+
+        assertThat(metricsTrackerFactory)
+                .isNotNull()
+                .isEqualTo(appConfig.connectionPoolMetrics());
+    }
+
+    @Test
+    public void shouldWarmUpDataSourceBeanConnections() {
+        val dataSource = (HikariDataSource) appConfig.dataSource();
+
+        val connectionPoolMetrics = appConfig.connectionPoolMetrics();
+
+        assertThat(connectionPoolMetrics.getTotalConnections()).isGreaterThanOrEqualTo(dataSource.getMinimumIdle());
+        assertThat(connectionPoolMetrics.getAcquisitionCount()).isGreaterThanOrEqualTo(dataSource.getMinimumIdle());
+    }
+
+    @Test
+    public void shouldLimitConcurrencyOfDataSourceBeanWhenVirtualThreadsAreEnabled() throws Exception {
+        for (val virtualThreadsProperty : new String[]{"web.virtualThreads", "async.executor.virtualThreads"}) {
+            val environment = createEnvironment()
+                    .withProperty("db.pool.name", "AppConfigTestVirtualThreadsPool")
+                    .withProperty("db.replica.urls", "")
+                    .withProperty(virtualThreadsProperty, "true");
+            val virtualThreadsAppConfig = new AppConfig();
+
+            ReflectionTestUtils.setField(virtualThreadsAppConfig, "env", environment);
+
+            try (val dataSource = (ConnectionLimitingDataSource) virtualThreadsAppConfig.dataSource();
+                 val connection = dataSource.getConnection()) {
+                assertThat(dataSource.getMaxConnections()).isEqualTo(2);
+                assertThat(connection.isValid(1)).isTrue();
+            }
+        }
+    }
+
+    @Test
+    public void shouldCreateRoutingDataSourceBeanWhenReplicaUrlsAreGiven() throws Exception {
+        val environment = createEnvironment()
+                .withProperty("db.pool.limitConcurrency", "true")
+                .withProperty("db.replica.urls", "jdbc:h2:mem:appConfigReplica1, jdbc:h2:mem:appConfigReplica2")
+                .withProperty("db.replica.stickiness", "500");
+        val replicaAppConfig = new AppConfig();
+
+        ReflectionTestUtils.setField(replicaAppConfig, "env", environment);
+
+        try (val dataSource = (ReadWriteRoutingDataSource) replicaAppConfig.dataSource()) {
+            assertThat(dataSource.getReplicas()).isEqualTo(2);
+            assertThat(dataSource.getStickinessMillis()).isEqualTo(500L);
+            assertThat(dataSource.getConnection().isValid(1)).isTrue();
+        }
+    }
+
+    @Test
+    public void shouldNotCreateShardedBeansWhenShardUrlsAreNotGiven() {
+        assertThat(applicationContext.getBeanNamesForType(ShardedBookRepository.class)).isEmpty();
+        assertThat(applicationContext.getBeanNamesForType(BookService.class)).containsExactly("bookServiceImpl");
+    }
+
+    @Test
+    public void shouldRegisterOnlyBeansOfShardsWhenShardUrlsAreGiven() {
+        val beanFactory = new DefaultListableBeanFactory();
+        val environment = new StandardEnvironment();
+
+        environment.getPropertySources().addFirst(new MapPropertySource("shards",
+                Collections.singletonMap("shard.urls", "jdbc:h2:mem:appConfigDefinitionShard1")));
+
+        new AnnotatedBeanDefinitionReader(beanFactory, environment).register(AppConfig.class);
+
+        val configurationClassPostProcessor = new ConfigurationClassPostProcessor();
+
+        configurationClassPostProcessor.setEnvironment(environment);
+        configurationClassPostProcessor.setResourceLoader(new DefaultResourceLoader());
+        configurationClassPostProcessor.postProcessBeanDefinitionRegistry(beanFactory);
+
+        assertThat(beanFactory.getBeanDefinitionNames())
+                .contains("shardedBookRepository", "shardedBookService", "bookSearchIndex")
+                .doesNotContain("bookServiceImpl", "bookImporter", "bookExporter", "bookSearchIndexBuilder");
+    }
+
+    @Test
+    public void shouldCreateImporterExporterAndIndexBuilderWhenShardUrlsAreNotGiven() {
+        assertThat(applicationContext.getBeanNamesForType(BookImporter.class)).containsExactly("bookImporter");
+        assertThat(applicationContext.getBeanNamesForType(BookExporter.class)).containsExactly("bookExporter");
+        assertThat(applicationContext.getBeanNamesForType(BookSearchIndexBuilder.class))
+                .containsExactly("bookSearchIndexBuilder");
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenShardedBookRepositoryIsCreatedWithoutShardUrls() {
+        val shardAppConfig = new AppConfig();
+
+        ReflectionTestUtils.setField(shardAppConfig, "env", createEnvironment()
+                .withProperty("shard.urls", "")
+                .withProperty("shard.virtualNodes", "16"));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(shardAppConfig::shardedBookRepository)
+                .withMessage("Shards: 0 should be between 1 and 256");
+    }
+
+    @Test
+    public void shouldCreateShardedBookRepositoryBeanWhenShardUrlsAreGiven() throws Exception {
+        val environment = createEnvironment()
+                .withProperty("shard.urls", "jdbc:h2:mem:appConfigShard1;DB_CLOSE_DELAY=-1, " +
+                        "jdbc:h2:mem:appConfigShard2;DB_CLOSE_DELAY=-1")
+                .withProperty("shard.virtualNodes", "16");
+        val shardAppConfig = new AppConfig();
+
+        ReflectionTestUtils.setField(shardAppConfig, "env", environment);
+
+        try (val shardedBookRepository = shardAppConfig.shardedBookRepository()) {
+            val book = new Book();
+
+            book.setName("name");
+            book.setAuthor("author");
+            book.setPrintYear(2000);
+
+            val savedBook = shardedBookRepository.save(book);
+
+            assertThat(shardedBookRepository.getShards()).isEqualTo(2);
+            assertThat(shardedBookRepository.findBooksByAuthor("author")).containsExactly(savedBook);
+        } finally {
+            shardAppConfig.closeShards();
+        }
+    }
+
+    @Test
+    public void shouldCreateShardedBookServiceBeanWhenShardUrlsAreGiven() throws Exception {
+        val environment = createEnvironment()
+                .withProperty("shard.urls", "jdbc:h2:mem:appConfigServiceShard1;DB_CLOSE_DELAY=-1, " +
+                        "jdbc:h2:mem:appConfigServiceShard2;DB_CLOSE_DELAY=-1")
+                .withProperty("shard.virtualNodes", "16")
+                .withProperty("search.rebuildOnStartup", "true");
+        val shardAppConfig = new AppConfig();
+
+        ReflectionTestUtils.setField(shardAppConfig, "env", environment);
+
+        val shardedBookService = shardAppConfig.shardedBookService();
+
+        try {
+            val book = new Book();
+
+            book.setName("name");
+            book.setAuthor("author");
+            book.setPrintYear(2000);
+
+            val addedBook = shardedBookService.add(book);
+
+            assertThat(shardedBookService).isInstanceOf(ShardedBookService.class);
+            assertThat(shardedBookService.getById(addedBook.getId())).isEqualTo(addedBook);
+            assertThat(shardedBookService.search("author", 10)).containsExactly(addedBook);
+        } finally {
+            ((ShardedBookRepository) ReflectionTestUtils.getField(shardedBookService, "shardedBookRepository"))
+                    .close();
+            shardAppConfig.closeShards();
+        }
+    }
+
+    @Test
+    public void shouldBeCorrectlyCreatedConnectionPoolMetricsBean() {
+        val connectionPoolMetrics = appConfig.connectionPoolMetrics();
+
+        assertThat(connectionPoolMetrics)
+                .isNotNull()
+                .isInstanceOf(ConnectionPoolMetrics.class);
+    }
+
+    @Test
+    public void shouldBeCorrectlyCreatedStatementMetricsBean() {
+        val statementMetrics = appConfig.statementMetrics();
+
+        assertThat(statementMetrics)
+                .isNotNull()
+                .isSameAs(StatementMetrics.getInstance());
+    }
+
+    @Test
+    public void shouldRecordLatencyOfStatementsExecutedThroughDataSourceBean() throws SQLException {
+        val statementMetrics = appConfig.statementMetrics();
+        val sql = "SELECT COUNT(*) FROM BOOK WHERE ID > 0";
+        val shape = StatementMetrics.normalize(sql);
+        val count = statementMetrics.getStatementCount(StatementMetrics.STATEMENT, shape);
+
+        try (val connection = appConfig.dataSource().getConnection();
+             val statement = connection.createStatement()) {
+            statement.executeQuery(sql).close();
+        }
+
+        assertThat(statementMetrics.getStatementCount(StatementMetrics.STATEMENT, shape)).isEqualTo(count + 1);
+    }
+
+    @Test
+    public void shouldBeCorrectlyCreatedServiceMetricsBeans() {
+        assertThat(serviceMetrics).isNotNull();
+        assertThat(serviceMetricsAspect).isNotNull();
+    }
+
+    @Test
+    public void shouldRecordCallsOfBookServiceBeanIntoServiceMetricsBean() {
+        val method = "BookService.getByName(String)";
+        val count = serviceMetrics.getCallCount(method);
+
+        bookService.getByName("service metrics");
+
+        assertThat(serviceMetrics.getCallCount(method)).isEqualTo(count + 1);
+    }
+
     @Test
     public void shouldBeCorrectlySettingInEntityManagerFactoryBeanDataSource() {
         val entityManagerFactory = appConfig.entityManagerFactory();
@@ -139,6 +424,55 @@ public class AppConfigTest {
                 .isNotEmpty();
     }
 
+    @Test
+    public void shouldBeCorrectlySettingInEntityManagerFactoryBeanSecondLevelCacheProperties() {
+        val entityManagerFactory = appConfig.entityManagerFactory();
+
+        val jpaPropertyMap = entityManagerFactory.getJpaPropertyMap();
+
+        assertThat(jpaPropertyMap)
+                .containsEntry("hibernate.cache.use_second_level_cache", "true")
+                .containsEntry("hibernate.cache.region.factory_class",
+                        "org.hibernate.cache.jcache.JCacheRegionFactory")
+                .containsEntry("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
+                .hasEntrySatisfying("hibernate.javax.cache.uri",
+                        uri -> assertThat(uri.toString()).startsWith("file:").endsWith("/ehcache.xml"))
+                .containsEntry("hibernate.javax.cache.missing_cache_strategy", "fail");
+    }
+
+    @Test
+    public void shouldComputeDeltasOfHibernateStatisticsInHibernateStatisticsMetricsBean() {
+        val hibernateStatisticsMetrics = appConfig.hibernateStatisticsMetrics();
+
+        hibernateStatisticsMetrics.snapshot();
+
+        bookService.getByName("hibernate statistics");
+
+        hibernateStatisticsMetrics.snapshot();
+
+        assertThat(hibernateStatisticsMetrics.getCounterDelta("queryExecution")).isGreaterThanOrEqualTo(1L);
+        assertThat(hibernateStatisticsMetrics.getQueries().isEmpty()).isFalse();
+    }
+
+    @Test
+    public void shouldBeCorrectlySettingInAsyncBookServiceExecutorBean() {
+        val asyncBookServiceExecutor = appConfig.asyncBookServiceExecutor();
+
+        assertThat(asyncBookServiceExecutor.getCorePoolSize()).isEqualTo(16);
+        assertThat(asyncBookServiceExecutor.getMaximumPoolSize()).isEqualTo(16);
+        assertThat(asyncBookServiceExecutor.getQueue().remainingCapacity()).isEqualTo(1000);
+        assertThat(asyncBookServiceExecutor.allowsCoreThreadTimeOut()).isTrue();
+        assertThat(asyncBookServiceExecutor.getRejectedExecutionHandler())
+                .isInstanceOf(ThreadPoolExecutor.AbortPolicy.class);
+    }
+
+    @Test
+    public void shouldPerformOperationsOfBookServiceBeanThroughAsyncBookServiceBean() throws Exception {
+        val books = asyncBookService.getByName("async book service").get(10, TimeUnit.SECONDS);
+
+        assertThat(books).isEqualTo(bookService.getByName("async book service"));
+    }
+
     @Test
     public void shouldBeCorrectlySettingInTransactionManagerBeanEntityManagerFactory() {
         val transactionManager = appConfig.transactionManager();
@@ -151,4 +485,42 @@ public class AppConfigTest {
                 .isNotNull()
                 .isEqualTo(expectedEntityManagerFactory);
     }
+
+    private static MockEnvironment createEnvironment() {
+        return new MockEnvironment()
+                .withProperty("db.driverClassName", "org.h2.Driver")
+                .withProperty("db.url", "jdbc:h2:mem:appConfigPrimary")
+                .withProperty("db.username", "root")
+                .withProperty("db.password", "")
+                .withProperty("db.pool.name", "AppConfigTestPool")
+                .withProperty("db.pool.minimumIdle", "1")
+                .withProperty("db.pool.maximumPoolSize", "2")
+                .withProperty("db.pool.connectionTimeout", "30000")
+                .withProperty("db.pool.idleTimeout", "600000")
+                .withProperty("db.pool.maxLifetime", "1800000")
+                .withProperty("db.pool.validationTimeout", "5000")
+                .withProperty("db.pool.warmUp", "false")
+                .withProperty("db.pool.limitConcurrency", "false")
+                .withProperty("web.virtualThreads", "false")
+                .withProperty("async.executor.virtualThreads", "false")
+                .withProperty("emf.persistenceUnitName", "appConfigTestJpaData")
+                .withProperty("emf.packagesToScan", "com.qthegamep.bookmanager3.entity")
+                .withProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+                .withProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .withProperty("hibernate.show_sql", "false")
+                .withProperty("hibernate.format_sql", "false")
+                .withProperty("hibernate.use_sql_comments", "false")
+                .withProperty("hibernate.generate_statistics", "false")
+                .withProperty("hibernate.jdbc.batch_size", "50")
+                .withProperty("hibernate.jdbc.fetch_size", "50")
+                .withProperty("hibernate.order_inserts", "true")
+                .withProperty("hibernate.order_updates", "true")
+                .withProperty("hibernate.jdbc.batch_versioned_data", "true")
+                .withProperty("hibernate.cache.use_second_level_cache", "true")
+                .withProperty("hibernate.cache.region.factory_class",
+                        "org.hibernate.cache.jcache.JCacheRegionFactory")
+                .withProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
+                .withProperty("hibernate.javax.cache.uri", "classpath:ehcache.xml")
+                .withProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+    }
 }
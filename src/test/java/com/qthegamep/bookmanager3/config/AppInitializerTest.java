@@ -54,7 +54,7 @@ public class AppInitializerTest {
 
         assertThat(servletConfigClasses)
                 .isNotNull()
-                .isEmpty();
+                .containsOnly(WebConfig.class);
     }
 
     @Test
@@ -63,6 +63,6 @@ public class AppInitializerTest {
 
         assertThat(servletMappings)
                 .isNotNull()
-                .isEmpty();
+                .containsOnly("/");
     }
 }
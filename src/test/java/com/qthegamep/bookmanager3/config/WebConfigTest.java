@@ -0,0 +1,159 @@
+package com.qthegamep.bookmanager3.config;
+
+import com.qthegamep.bookmanager3.concurrent.ThreadFactories;
+import com.qthegamep.bookmanager3.controller.BookController;
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.ContextHierarchy;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebAppConfiguration
+@DirtiesContext
+@ContextHierarchy({
+        @ContextConfiguration(classes = AppConfig.class),
+        @ContextConfiguration(classes = WebConfig.class)
+})
+@RunWith(SpringJUnit4ClassRunner.class)
+public class WebConfigTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private WebConfig webConfig;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    public void shouldCreateBookControllerInWebContextOnly() {
+        assertThat(webApplicationContext.getBeanNamesForType(BookController.class)).hasSize(1);
+        assertThat(webApplicationContext.getParent()).isNotNull();
+        assertThat(webApplicationContext.getParent().getBeanNamesForType(BookController.class)).isEmpty();
+    }
+
+    @Test
+    public void shouldBeCorrectlyCreatedObjectMapperBean() {
+        assertThat(objectMapper.getFactory().isEnabled(JsonGenerator.Feature.AUTO_CLOSE_TARGET)).isFalse();
+    }
+
+    @Test
+    public void shouldBeCorrectlySettingInStreamingTaskExecutorBeanPoolSize() {
+        val streamingTaskExecutor = (ThreadPoolTaskExecutor) webConfig.streamingTaskExecutor();
+
+        assertThat(streamingTaskExecutor.getCorePoolSize()).isEqualTo(8);
+        assertThat(streamingTaskExecutor.getMaxPoolSize()).isEqualTo(8);
+    }
+
+    @Test
+    public void shouldCreateStreamingTaskExecutorBeanOfVirtualThreadsOnlyWhenJvmSupportsThem() throws Exception {
+        val environment = new MockEnvironment()
+                .withProperty("web.streaming.poolSize", "8")
+                .withProperty("web.virtualThreads", "true");
+        val virtualWebConfig = new WebConfig();
+
+        ReflectionTestUtils.setField(virtualWebConfig, "env", environment);
+
+        val streamingTaskExecutor = virtualWebConfig.streamingTaskExecutor();
+
+        if (ThreadFactories.virtual("test-").isPresent()) {
+            assertThat(streamingTaskExecutor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+        } else {
+            assertThat(streamingTaskExecutor).isInstanceOf(ThreadPoolTaskExecutor.class);
+
+            ((ThreadPoolTaskExecutor) streamingTaskExecutor).initialize();
+        }
+
+        assertThat(streamingTaskExecutor.submit(() -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS))
+                .startsWith("book-streaming-");
+
+        if (streamingTaskExecutor instanceof ThreadPoolTaskExecutor) {
+            ((ThreadPoolTaskExecutor) streamingTaskExecutor).shutdown();
+        }
+    }
+
+    @Test
+    public void shouldAddStreamAndRemoveBooksThroughDispatcherServletContext() throws Exception {
+        val book = new Book();
+
+        book.setName("web config book");
+        book.setAuthor("web config author " + System.nanoTime());
+        book.setPrintYear(2018);
+        book.setRead(false);
+
+        val addedContent = performAsync(post("/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        val addedBook = objectMapper.readValue(addedContent, Book.class);
+
+        val streamedContent = performAsync(get("/books").param("author", book.getAuthor()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(objectMapper.readValue(streamedContent, Book[].class)).containsExactly(addedBook);
+
+        performAsync(delete("/books/" + addedBook.getId()))
+                .andExpect(status().isNoContent());
+        performAsync(get("/books/" + addedBook.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        val result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
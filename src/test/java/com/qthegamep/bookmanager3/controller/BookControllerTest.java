@@ -0,0 +1,279 @@
+package com.qthegamep.bookmanager3.controller;
+
+import com.qthegamep.bookmanager3.config.WebConfig;
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException;
+import com.qthegamep.bookmanager3.pagination.BookPage;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.service.BookService;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+import com.qthegamep.bookmanager3.testhelper.util.TestDataUtil;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class BookControllerTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private BookService bookService;
+    private ObjectMapper objectMapper;
+    private MockMvc mockMvc;
+
+    @Before
+    public void setUp() {
+        bookService = mock(BookService.class);
+        objectMapper = new WebConfig().objectMapper();
+        mockMvc = MockMvcBuilders.standaloneSetup(new BookController(bookService, objectMapper)).build();
+    }
+
+    @Test
+    public void shouldAddBookAndReturnCreatedStatus() throws Exception {
+        val book = TestDataUtil.createFirstBook();
+
+        when(bookService.add(book)).thenReturn(book);
+
+        val resultActions = performAsync(post("/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isCreated());
+
+        val json = readJson(resultActions);
+
+        assertThat(json.get("id").asLong()).isEqualTo(1L);
+        assertThat(json.get("name").asText()).isEqualTo(book.getName());
+    }
+
+    @Test
+    public void shouldReturnConflictStatusWhenAddedBookAlreadyExists() throws Exception {
+        val book = TestDataUtil.createFirstBook();
+
+        when(bookService.add(book)).thenThrow(new EntityAlreadyExistsException("exists"));
+
+        val resultActions = performAsync(post("/books")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isConflict());
+
+        assertThat(readJson(resultActions).get("message").asText()).isEqualTo("exists");
+    }
+
+    @Test
+    public void shouldGetBookById() throws Exception {
+        val book = TestDataUtil.createFirstBook();
+
+        when(bookService.getById(1L)).thenReturn(book);
+
+        val resultActions = performAsync(get("/books/1"))
+                .andExpect(status().isOk());
+
+        assertThat(objectMapper.readValue(resultActions.andReturn().getResponse().getContentAsString(), Book.class))
+                .isEqualTo(book);
+    }
+
+    @Test
+    public void shouldReturnNotFoundStatusWhenBookDoesNotExist() throws Exception {
+        when(bookService.getById(1L)).thenThrow(new EntityNotFoundException("not found"));
+
+        val resultActions = performAsync(get("/books/1"))
+                .andExpect(status().isNotFound());
+
+        assertThat(readJson(resultActions).get("message").asText()).isEqualTo("not found");
+    }
+
+    @Test
+    public void shouldUpdateBookWithIdFromPath() throws Exception {
+        val book = TestDataUtil.createFirstBook();
+
+        book.setId(null);
+
+        when(bookService.getById(1L)).thenReturn(TestDataUtil.createFirstBook());
+        when(bookService.update(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        val resultActions = performAsync(put("/books/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(book)))
+                .andExpect(status().isOk());
+
+        assertThat(readJson(resultActions).get("id").asLong()).isEqualTo(1L);
+
+        verify(bookService).update(argThat(updatedBook -> Long.valueOf(1L).equals(updatedBook.getId())));
+    }
+
+    @Test
+    public void shouldNotUpdateBookThatDoesNotExist() throws Exception {
+        when(bookService.getById(1L)).thenThrow(new EntityNotFoundException("not found"));
+
+        performAsync(put("/books/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(TestDataUtil.createFirstBook())))
+                .andExpect(status().isNotFound());
+
+        verify(bookService, never()).update(any(Book.class));
+    }
+
+    @Test
+    public void shouldRemoveBookAndReturnNoContentStatus() throws Exception {
+        val book = TestDataUtil.createFirstBook();
+
+        when(bookService.getById(1L)).thenReturn(book);
+
+        performAsync(delete("/books/1"))
+                .andExpect(status().isNoContent());
+
+        verify(bookService).remove(book);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldStreamBooksByAuthorAsJsonArray() throws Exception {
+        val books = TestDataUtil.createBooks();
+
+        when(bookService.processByAuthor(eq("author"), any())).thenAnswer(invocation -> {
+            val action = (Consumer<Book>) invocation.getArgument(1);
+
+            books.forEach(action);
+
+            return (long) books.size();
+        });
+
+        val result = mockMvc.perform(get("/books").param("author", "author"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        val resultActions = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        val json = readJson(resultActions);
+
+        assertThat(json.isArray()).isTrue();
+        assertThat(json.size()).isEqualTo(books.size());
+        assertThat(json.get(0).get("name").asText()).isEqualTo(books.get(0).getName());
+    }
+
+    @Test
+    public void shouldStreamAllBooksWhenThereIsNoFinderParameter() throws Exception {
+        val result = mockMvc.perform(get("/books"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        val resultActions = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+
+        assertThat(resultActions.andReturn().getResponse().getContentAsString()).isEqualTo("[]");
+
+        verify(bookService).processAll(any());
+    }
+
+    @Test
+    public void shouldReturnPageOfBooksWhenSizeParameterIsGiven() throws Exception {
+        val page = new BookPage(Collections.singletonList(TestDataUtil.createFirstBook()), "next");
+
+        when(bookService.getByPrintYear(2000, BookSortColumn.NAME, "token", 1)).thenReturn(page);
+
+        val resultActions = performAsync(get("/books")
+                .param("printYear", "2000")
+                .param("sort", "NAME")
+                .param("token", "token")
+                .param("size", "1"))
+                .andExpect(status().isOk());
+
+        val json = readJson(resultActions);
+
+        assertThat(json.get("content").size()).isEqualTo(1);
+        assertThat(json.get("nextToken").asText()).isEqualTo("next");
+    }
+
+    @Test
+    public void shouldReturnBadRequestStatusWhenPageSizeIsIncorrect() throws Exception {
+        when(bookService.getAll(BookSortColumn.ID, null, 0)).thenThrow(new IllegalArgumentException("size"));
+
+        val resultActions = performAsync(get("/books").param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(readJson(resultActions).get("message").asText()).isEqualTo("size");
+    }
+
+    @Test
+    public void shouldSearchBooksWithDefaultLimit() throws Exception {
+        val book = TestDataUtil.createFirstBook();
+
+        when(bookService.search("first book", 20)).thenReturn(Collections.singletonList(book));
+
+        val resultActions = performAsync(get("/books/search").param("query", "first book"))
+                .andExpect(status().isOk());
+
+        val json = readJson(resultActions);
+
+        assertThat(json.size()).isEqualTo(1);
+        assertThat(json.get(0).get("name").asText()).isEqualTo(book.getName());
+    }
+
+    @Test
+    public void shouldReturnBadRequestStatusWhenSearchLimitIsIncorrect() throws Exception {
+        when(bookService.search("book", 0)).thenThrow(new IllegalArgumentException("limit"));
+
+        val resultActions = performAsync(get("/books/search").param("query", "book").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(readJson(resultActions).get("message").asText()).isEqualTo("limit");
+    }
+
+    @Test
+    public void shouldReturnBadRequestStatusWhenSeveralFinderParametersAreGiven() throws Exception {
+        mockMvc.perform(get("/books").param("name", "name").param("read", "true"))
+                .andExpect(status().isBadRequest());
+
+        verifyZeroInteractions(bookService);
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateControllerWithNullService() {
+        val exceptionMessage = "bookService is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new BookController(null, objectMapper))
+                .withMessage(exceptionMessage);
+    }
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        val result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private JsonNode readJson(ResultActions resultActions) throws IOException {
+        return objectMapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+    }
+}
@@ -10,6 +10,8 @@ import org.junit.Test;
 import org.junit.rules.ExternalResource;
 import org.junit.rules.Stopwatch;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.*;
 
 public class EntityAlreadyExistsExceptionTest {
@@ -29,6 +31,21 @@ public class EntityAlreadyExistsExceptionTest {
                         () -> {
                             throw new EntityAlreadyExistsException(exceptionMessage);
                         })
-                .withMessage(exceptionMessage);
+                .withMessage(exceptionMessage)
+                .satisfies(e -> assertThat(e.getIds()).isEmpty());
+    }
+
+    @Test
+    public void shouldThrowEntityAlreadyExistsExceptionWithIdsCorrectly() {
+        val exceptionMessage = "test exception message";
+        val ids = List.of(3L, 1L, 2L);
+
+        assertThatExceptionOfType(EntityAlreadyExistsException.class)
+                .isThrownBy(
+                        () -> {
+                            throw new EntityAlreadyExistsException(exceptionMessage, ids);
+                        })
+                .withMessage(exceptionMessage)
+                .satisfies(e -> assertThat(e.getIds()).containsExactly(1L, 2L, 3L));
     }
 }
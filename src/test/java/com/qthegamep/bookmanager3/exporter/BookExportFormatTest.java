@@ -0,0 +1,157 @@
+package com.qthegamep.bookmanager3.exporter;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.val;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BookExportFormatTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldPutCsvHeaderAndRows() throws IOException {
+        val text = write(BookExportFormat.CSV, 64, false, false, output -> {
+            BookExportFormat.CSV.putHeader(output);
+            BookExportFormat.CSV.putRow(output, 1L, "name", "author", 2018, true);
+            BookExportFormat.CSV.putRow(output, -2L, "other name", "other author", 0, false);
+        });
+
+        assertThat(text).isEqualTo("id,name,author,printYear,read\n" +
+                "1,name,author,2018,true\n" +
+                "-2,other name,other author,0,false\n");
+    }
+
+    @Test
+    public void shouldQuoteCsvFieldsWithDelimitersQuotesAndLineBreaks() throws IOException {
+        val text = write(BookExportFormat.CSV, 64, false, false, output ->
+                BookExportFormat.CSV.putRow(output, 1L, "name, with \"quotes\"", "author\nline", 2018, true));
+
+        assertThat(text).isEqualTo("1,\"name, with \"\"quotes\"\"\",\"author\nline\",2018,true\n");
+    }
+
+    @Test
+    public void shouldPutNdjsonRowsWithoutHeaderAndEscapeText() throws IOException {
+        val text = write(BookExportFormat.NDJSON, 64, false, false, output -> {
+            BookExportFormat.NDJSON.putHeader(output);
+            BookExportFormat.NDJSON.putRow(output, 1L, "name \"quoted\" \\ \t\u0001", "author", 2018, false);
+        });
+
+        assertThat(text).isEqualTo("{\"id\":1,\"name\":\"name \\\"quoted\\\" \\\\ \\t\\u0001\"," +
+                "\"author\":\"author\",\"printYear\":2018,\"read\":false}\n");
+
+        val json = new ObjectMapper().readTree(text);
+
+        assertThat(json.get("name").asText()).isEqualTo("name \"quoted\" \\ \t\u0001");
+        assertThat(json.get("read").asBoolean()).isFalse();
+    }
+
+    @Test
+    public void shouldEncodeUtf8TextAcrossFlushesOfSmallBuffer() throws IOException {
+        val name = "Кобзар € 📖 ".repeat(20);
+
+        val text = write(BookExportFormat.CSV, 20, false, false, output ->
+                BookExportFormat.CSV.putRow(output, Long.MAX_VALUE, name, "автор", 1840, true));
+
+        assertThat(text).isEqualTo(Long.MAX_VALUE + "," + name + ",автор,1840,true\n");
+    }
+
+    @Test
+    public void shouldReplaceUnpairedSurrogates() throws IOException {
+        val text = write(BookExportFormat.CSV, 64, false, false, output ->
+                BookExportFormat.CSV.putRow(output, 1L, "a\ud83db", "\udcd6", 2018, true));
+
+        assertThat(text).isEqualTo("1,a?b,?,2018,true\n");
+    }
+
+    @Test
+    public void shouldWriteGzipAndMemoryMappedFile() throws IOException {
+        val name = "name ".repeat(100);
+
+        for (val gzip : new boolean[]{false, true}) {
+            val text = write(BookExportFormat.NDJSON, 32, gzip, true, output -> {
+                for (int i = 0; i < 100; i++) {
+                    BookExportFormat.NDJSON.putRow(output, i, name, "author", 2018, true);
+                }
+            });
+
+            assertThat(text.split("\n")).hasSize(100);
+            assertThat(new ObjectMapper().readTree(text.substring(0, text.indexOf('\n'))).get("name").asText())
+                    .isEqualTo(name);
+        }
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCreateBufferWithTooSmallCapacity() throws IOException {
+        try (val channel = FileChannel.open(temporaryFolder.newFile().toPath(), StandardOpenOption.WRITE)) {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ExportBuffer(channel, ByteBuffer.allocate(19), false, false))
+                    .withMessage("Buffer capacity: 19 should be at least 20");
+        }
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenPutRowWithNullName() throws IOException {
+        val exceptionMessage = "name is marked @NonNull but is null";
+
+        try (val channel = FileChannel.open(temporaryFolder.newFile().toPath(), StandardOpenOption.WRITE)) {
+            val output = new ExportBuffer(channel, ByteBuffer.allocate(64), false, false);
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> BookExportFormat.CSV.putRow(output, 1L, null, "author", 2018, true))
+                    .withMessage(exceptionMessage);
+        }
+    }
+
+    private String write(BookExportFormat format, int capacity, boolean gzip, boolean memoryMapped,
+                         Writer writer) throws IOException {
+        val file = temporaryFolder.getRoot().toPath().resolve("books." + format.getExtension());
+
+        try (val channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            val output = new ExportBuffer(channel, ByteBuffer.allocateDirect(capacity), gzip, memoryMapped);
+
+            writer.write(output);
+
+            output.close();
+
+            assertThat(output.getPosition()).isEqualTo(channel.size());
+        }
+
+        if (!gzip) {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        }
+
+        try (val input = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private interface Writer {
+
+        void write(ExportBuffer output) throws IOException;
+    }
+}
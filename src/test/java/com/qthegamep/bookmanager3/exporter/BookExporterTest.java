@@ -0,0 +1,221 @@
+package com.qthegamep.bookmanager3.exporter;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.repository.BookRepository;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@WebAppConfiguration
+@ContextConfiguration("classpath:testApplicationContext.xml")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RunWith(SpringJUnit4ClassRunner.class)
+public class BookExporterTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BookExporter bookExporter;
+
+    @Before
+    public void setUp() {
+        bookExporter = new BookExporter(dataSource, transactionManager, 64, 10, 4, false, false);
+    }
+
+    @Test
+    public void shouldExportAllRowsToCsvFile() throws IOException {
+        val books = saveBooks(25);
+        val file = temporaryFolder.getRoot().toPath().resolve("books.csv");
+
+        val report = bookExporter.export(file, BookExportFormat.CSV);
+
+        val lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+        assertThat(report.getFiles()).containsExactly(file);
+        assertThat(report.getExportedRows()).isEqualTo(25L);
+        assertThat(report.getWrittenBytes()).isEqualTo(Files.size(file));
+        assertThat(lines).hasSize(26);
+        assertThat(lines.get(0)).isEqualTo("id,name,author,printYear,read");
+        assertThat(lines.get(1)).isEqualTo(books.get(0).getId() + ",\"book, 0\",author,1900,true");
+    }
+
+    @Test
+    public void shouldExportIdRangesToFilesInParallel() throws IOException {
+        val books = saveBooks(25);
+        val file = temporaryFolder.getRoot().toPath().resolve("books.ndjson");
+        val objectMapper = new ObjectMapper();
+
+        val report = bookExporter.export(file, BookExportFormat.NDJSON, 3);
+
+        assertThat(report.getFiles()).extracting(part -> part.getFileName().toString())
+                .containsExactly("books-1.ndjson", "books-2.ndjson", "books-3.ndjson");
+        assertThat(report.getExportedRows()).isEqualTo(25L);
+
+        val exportedIds = new ArrayList<Long>();
+
+        for (val part : report.getFiles()) {
+            for (val line : Files.readAllLines(part, StandardCharsets.UTF_8)) {
+                exportedIds.add(objectMapper.readTree(line).get("id").asLong());
+            }
+        }
+
+        assertThat(exportedIds).isSorted()
+                .containsExactlyElementsOf(books.stream().map(Book::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldExportGzipMemoryMappedFiles() throws IOException {
+        saveBooks(10);
+
+        val file = temporaryFolder.getRoot().toPath().resolve("books.csv");
+        val gzipBookExporter = new BookExporter(dataSource, transactionManager, 64, 10, 4, true, true);
+
+        val report = gzipBookExporter.export(file, BookExportFormat.CSV, 2);
+
+        assertThat(report.getFiles()).extracting(part -> part.getFileName().toString())
+                .containsExactly("books-1.csv.gz", "books-2.csv.gz");
+
+        var rows = 0L;
+
+        for (val part : report.getFiles()) {
+            try (val input = new GZIPInputStream(Files.newInputStream(part))) {
+                val lines = new String(input.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+
+                assertThat(lines[0]).isEqualTo("id,name,author,printYear,read");
+
+                rows += lines.length - 1;
+            }
+        }
+
+        assertThat(rows).isEqualTo(10L);
+        assertThat(report.getWrittenBytes())
+                .isEqualTo(Files.size(report.getFiles().get(0)) + Files.size(report.getFiles().get(1)));
+    }
+
+    @Test
+    public void shouldDeletePartFileWhenMemoryMappedExportFails() {
+        saveBooks(10);
+
+        val failingTransactionManager = mock(PlatformTransactionManager.class, delegatesTo(transactionManager));
+
+        doAnswer(invocation -> {
+            transactionManager.rollback(invocation.getArgument(0));
+
+            throw new TransactionSystemException("commit failed");
+        }).when(failingTransactionManager).commit(any());
+
+        val file = temporaryFolder.getRoot().toPath().resolve("books.csv");
+        val mappedBookExporter = new BookExporter(dataSource, failingTransactionManager, 64, 10, 4, false, true);
+
+        assertThatThrownBy(() -> mappedBookExporter.export(file, BookExportFormat.CSV))
+                .isInstanceOf(TransactionSystemException.class)
+                .hasMessage("commit failed");
+
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    public void shouldExportOnlyHeaderWhenTableIsEmpty() throws IOException {
+        val file = temporaryFolder.getRoot().toPath().resolve("books");
+
+        val report = bookExporter.export(file, BookExportFormat.CSV, 2);
+
+        assertThat(report.getExportedRows()).isZero();
+
+        for (val part : report.getFiles()) {
+            assertThat(Files.readAllLines(part, StandardCharsets.UTF_8)).containsExactly(
+                    "id,name,author,printYear,read");
+        }
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenExportToTooManyParts() {
+        val file = temporaryFolder.getRoot().toPath().resolve("books.csv");
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookExporter.export(file, BookExportFormat.CSV, 5))
+                .withMessage("Parts: 5 should be between 1 and 4");
+    }
+
+    @Test
+    public void shouldThrowIOExceptionWhenDirectoryDoesNotExist() {
+        saveBooks(1);
+
+        val file = temporaryFolder.getRoot().toPath().resolve("missing").resolve("books.csv");
+
+        assertThatIOException()
+                .isThrownBy(() -> bookExporter.export(file, BookExportFormat.CSV));
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateExporterWithNullDataSource() {
+        val exceptionMessage = "dataSource is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new BookExporter(null, transactionManager, 64, 10, 4, false, false))
+                .withMessage(exceptionMessage);
+    }
+
+    private List<Book> saveBooks(int count) {
+        val books = new ArrayList<Book>(count);
+
+        for (int i = 0; i < count; i++) {
+            val book = new Book();
+
+            book.setName("book, " + i);
+            book.setAuthor("author");
+            book.setPrintYear(1900 + i);
+            book.setRead(i % 2 == 0);
+
+            books.add(book);
+        }
+
+        return bookRepository.saveAll(books);
+    }
+}
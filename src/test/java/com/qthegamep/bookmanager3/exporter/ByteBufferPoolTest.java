@@ -0,0 +1,89 @@
+package com.qthegamep.bookmanager3.exporter;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ByteBufferPoolTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    @Test
+    public void shouldAllocateDirectBufferWhenPoolIsEmpty() {
+        val pool = new ByteBufferPool(64, 2);
+
+        val buffer = pool.acquire();
+
+        assertThat(buffer.isDirect()).isTrue();
+        assertThat(buffer.capacity()).isEqualTo(64);
+        assertThat(pool.getBufferCapacity()).isEqualTo(64);
+    }
+
+    @Test
+    public void shouldReuseClearedBufferThatWasReleased() {
+        val pool = new ByteBufferPool(64, 2);
+        val buffer = pool.acquire();
+
+        buffer.put((byte) 1);
+
+        pool.release(buffer);
+
+        val reusedBuffer = pool.acquire();
+
+        assertThat(reusedBuffer).isSameAs(buffer);
+        assertThat(reusedBuffer.position()).isZero();
+        assertThat(reusedBuffer.limit()).isEqualTo(64);
+        assertThat(pool.size()).isZero();
+    }
+
+    @Test
+    public void shouldKeepMaxPooledNumberOfBuffers() {
+        val pool = new ByteBufferPool(64, 2);
+        val buffers = new ByteBuffer[]{pool.acquire(), pool.acquire(), pool.acquire()};
+
+        for (val buffer : buffers) {
+            pool.release(buffer);
+        }
+
+        assertThat(pool.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenReleaseBufferWithOtherCapacity() {
+        val pool = new ByteBufferPool(64, 2);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> pool.release(ByteBuffer.allocateDirect(32)))
+                .withMessage("Buffer capacity: 32 is not equal to 64");
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCreatePoolWithIncorrectCapacity() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ByteBufferPool(0, 1))
+                .withMessage("Buffer capacity: 0 and max pooled: 1 should be positive");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenReleaseNullBuffer() {
+        val exceptionMessage = "buffer is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new ByteBufferPool(64, 1).release(null))
+                .withMessage(exceptionMessage);
+    }
+}
@@ -12,6 +12,8 @@ import com.p6spy.engine.spy.appender.MessageFormattingStrategy;
 import org.junit.rules.ExternalResource;
 import org.junit.rules.Stopwatch;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.*;
 
 public class SQLSimpleFormatterTest {
@@ -96,6 +98,107 @@ public class SQLSimpleFormatterTest {
         assertThat(actualFormattedQuery).isEqualTo(expectedFormattedQuery);
     }
 
+    @Test
+    public void shouldFormatPreparedSqlQueryTheSameAsSqlQueryWithValues() {
+        val preparedQueries = List.of(
+                "/* insert com.qthegamep.bookmanager3.entity.Book */ " +
+                        "insert into BOOK (AUTHOR, IS_READ, NAME, PRINT_YEAR, ID) values (?, ?, ?, ?, ?)",
+                "select book0_.ID as ID1_0_, book0_.AUTHOR as AUTHOR2_0_ from BOOK book0_ " +
+                        "where book0_.AUTHOR=? and book0_.PRINT_YEAR>? order by book0_.ID limit ?",
+                "update BOOK set IS_READ=? where ID in (? , ?)",
+                "delete from BOOK where NAME='?' and ID=?"
+        );
+        val queriesWithValues = List.of(
+                "/* insert com.qthegamep.bookmanager3.entity.Book */ " +
+                        "insert into BOOK (AUTHOR, IS_READ, NAME, PRINT_YEAR, ID) " +
+                        "values ('it''s, (me)', true, 'where ? and', 1010, 1)",
+                "select book0_.ID as ID1_0_, book0_.AUTHOR as AUTHOR2_0_ from BOOK book0_ " +
+                        "where book0_.AUTHOR='test author' and book0_.PRINT_YEAR>-5 order by book0_.ID limit 11",
+                "update BOOK set IS_READ=NULL where ID in (1 , 2)",
+                "delete from BOOK where NAME='?' and ID=3"
+        );
+
+        for (int i = 0; i < preparedQueries.size(); i++) {
+            val actualFormattedQuery = sqlSimpleFormatter.formatMessage(
+                    0,
+                    "",
+                    1,
+                    "statement",
+                    preparedQueries.get(i),
+                    queriesWithValues.get(i),
+                    ""
+            );
+            val expectedFormattedQuery = new SQLSimpleFormatter().formatMessage(
+                    0,
+                    "",
+                    1,
+                    "statement",
+                    "",
+                    queriesWithValues.get(i),
+                    ""
+            );
+
+            assertThat(actualFormattedQuery).isEqualTo(expectedFormattedQuery);
+        }
+
+        assertThat(sqlSimpleFormatter.getCacheSize()).isEqualTo(preparedQueries.size());
+    }
+
+    @Test
+    public void shouldReuseCachedPreparedSqlQueryForDifferentValues() {
+        val preparedQuery = "select book0_.ID as ID1_0_ from BOOK book0_ where book0_.NAME=?";
+
+        val firstFormattedQuery = sqlSimpleFormatter.formatMessage(0, "", 1, "statement", preparedQuery,
+                "select book0_.ID as ID1_0_ from BOOK book0_ where book0_.NAME='first'", "");
+        val secondFormattedQuery = sqlSimpleFormatter.formatMessage(0, "", 2, "statement", preparedQuery,
+                "select book0_.ID as ID1_0_ from BOOK book0_ where book0_.NAME='second'", "");
+
+        assertThat(firstFormattedQuery).contains("book0_.NAME='first' {elapsed: 1ms}");
+        assertThat(secondFormattedQuery).contains("book0_.NAME='second' {elapsed: 2ms}");
+        assertThat(sqlSimpleFormatter.getCacheSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldFormatSqlQueryWithoutCacheWhenItDoesNotMatchPreparedSqlQuery() {
+        val sqlQuery = "select * from BOOK where ID=1";
+
+        val actualFormattedQuery = sqlSimpleFormatter.formatMessage(0, "", 1, "statement",
+                "select * from AUTHOR where ID=?", sqlQuery, "");
+        val expectedFormattedQuery = sqlSimpleFormatter.formatMessage(0, "", 1, "statement",
+                "", sqlQuery, "");
+
+        assertThat(actualFormattedQuery).isEqualTo(expectedFormattedQuery);
+        assertThat(sqlSimpleFormatter.getCacheSize()).isZero();
+    }
+
+    @Test
+    public void shouldNotCacheMorePreparedSqlQueriesThanMaxCacheSize() {
+        for (int i = 0; i <= SQLSimpleFormatter.MAX_CACHE_SIZE; i++) {
+            val formattedQuery = formatWithPrintYear(i);
+
+            assertThat(formattedQuery).contains("ID=" + i);
+        }
+
+        assertThat(sqlSimpleFormatter.getCacheSize()).isEqualTo(SQLSimpleFormatter.MAX_CACHE_SIZE);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedPreparedSqlQueryWhenCacheIsFull() {
+        for (int i = 0; i < SQLSimpleFormatter.MAX_CACHE_SIZE; i++) {
+            formatWithPrintYear(i);
+        }
+
+        formatWithPrintYear(0);
+
+        val formattedQuery = formatWithPrintYear(SQLSimpleFormatter.MAX_CACHE_SIZE);
+
+        assertThat(formattedQuery).contains("ID=" + SQLSimpleFormatter.MAX_CACHE_SIZE);
+        assertThat(sqlSimpleFormatter.getCacheSize()).isEqualTo(SQLSimpleFormatter.MAX_CACHE_SIZE);
+        assertThat(sqlSimpleFormatter.isCached(preparedWithPrintYear(0))).isTrue();
+        assertThat(sqlSimpleFormatter.isCached(preparedWithPrintYear(1))).isFalse();
+        assertThat(sqlSimpleFormatter.isCached(preparedWithPrintYear(SQLSimpleFormatter.MAX_CACHE_SIZE))).isTrue();
+    }
+
     @Test
     public void shouldReturnEmptyStringWhenSqlQueryIsEmpty() {
         val actualFormattedQuery = sqlSimpleFormatter.formatMessage(
@@ -110,4 +213,13 @@ public class SQLSimpleFormatterTest {
 
         assertThat(actualFormattedQuery).isEmpty();
     }
+
+    private String formatWithPrintYear(int printYear) {
+        return sqlSimpleFormatter.formatMessage(0, "", 1, "statement", preparedWithPrintYear(printYear),
+                "select * from BOOK where ID=" + printYear + " and PRINT_YEAR=" + printYear, "");
+    }
+
+    private static String preparedWithPrintYear(int printYear) {
+        return "select * from BOOK where ID=? and PRINT_YEAR=" + printYear;
+    }
 }
@@ -0,0 +1,114 @@
+package com.qthegamep.bookmanager3.importer;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BookImportFormatTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    @Test
+    public void shouldParseCsvRow() {
+        val book = BookImportFormat.CSV.parse(" name , author ,2018,TRUE");
+
+        assertThat(book.getId()).isNull();
+        assertThat(book.getName()).isEqualTo("name");
+        assertThat(book.getAuthor()).isEqualTo("author");
+        assertThat(book.getPrintYear()).isEqualTo(2018);
+        assertThat(book.isRead()).isTrue();
+    }
+
+    @Test
+    public void shouldParseQuotedFieldsOfCsvRow() {
+        val book = BookImportFormat.CSV.parse("\"name, with \"\"quotes\"\"\",\"author\",2018,false");
+
+        assertThat(book.getName()).isEqualTo("name, with \"quotes\"");
+        assertThat(book.getAuthor()).isEqualTo("author");
+        assertThat(book.isRead()).isFalse();
+    }
+
+    @Test
+    public void shouldParseTsvRowWithoutQuoting() {
+        val book = BookImportFormat.TSV.parse("\"name, with comma\"\tauthor\t2018\tfalse");
+
+        assertThat(book.getName()).isEqualTo("\"name, with comma\"");
+        assertThat(book.getAuthor()).isEqualTo("author");
+    }
+
+    @Test
+    public void shouldDetectHeaderRow() {
+        assertThat(BookImportFormat.CSV.isHeader("Name,Author,PrintYear,Read")).isTrue();
+        assertThat(BookImportFormat.TSV.isHeader("name\tauthor\tprintYear\tread")).isTrue();
+        assertThat(BookImportFormat.CSV.isHeader("name 1,author,2018,true")).isFalse();
+    }
+
+    @Test
+    public void shouldRejectRowWithWrongNumberOfFields() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookImportFormat.CSV.parse("name,author,2018"))
+                .withMessage("Expected 4 fields but was 3");
+    }
+
+    @Test
+    public void shouldRejectRowWithNotClosedQuotedField() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookImportFormat.CSV.parse("\"name,author,2018,true"))
+                .withMessage("Quoted field is not closed");
+    }
+
+    @Test
+    public void shouldRejectRowWithEmptyName() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookImportFormat.CSV.parse(" ,author,2018,true"))
+                .withMessage("Field: name is empty");
+    }
+
+    @Test
+    public void shouldRejectRowWithTooLongAuthor() {
+        val author = "a".repeat(256);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookImportFormat.CSV.parse("name," + author + ",2018,true"))
+                .withMessage("Field: author is longer than 255 characters");
+    }
+
+    @Test
+    public void shouldRejectRowWithIncorrectPrintYear() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookImportFormat.CSV.parse("name,author,year,true"))
+                .withMessage("Field: printYear is not a number: year");
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookImportFormat.CSV.parse("name,author,10000,true"))
+                .withMessage("Field: printYear should be between 0 and 9999: 10000");
+    }
+
+    @Test
+    public void shouldRejectRowWithIncorrectRead() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookImportFormat.CSV.parse("name,author,2018,yes"))
+                .withMessage("Field: read should be true or false: yes");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenParseNullRow() {
+        val exceptionMessage = "line is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> BookImportFormat.CSV.parse(null))
+                .withMessage(exceptionMessage);
+    }
+}
@@ -0,0 +1,285 @@
+package com.qthegamep.bookmanager3.importer;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.entity.BookImportChunk;
+import com.qthegamep.bookmanager3.repository.BookImportChunkRepository;
+import com.qthegamep.bookmanager3.repository.BookRepository;
+import com.qthegamep.bookmanager3.search.BookSearchHit;
+import com.qthegamep.bookmanager3.search.BookSearchIndex;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@WebAppConfiguration
+@ContextConfiguration("classpath:testApplicationContext.xml")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RunWith(SpringJUnit4ClassRunner.class)
+public class BookImporterTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final String IMPORT_ID = "import";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookImportChunkRepository bookImportChunkRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BookImporter bookImporter;
+
+    @Before
+    public void setUp() {
+        bookImporter = new BookImporter(bookRepository, bookImportChunkRepository, transactionManager, 10, 4);
+    }
+
+    @Test
+    public void shouldImportAllRowsOfCsvFileWithHeader() throws IOException {
+        val file = createFile("books.csv", "name,author,printYear,read",
+                "\"first, book\",first author,2018,true",
+                "second book,second author,2017,false");
+
+        val report = bookImporter.importFile(file, BookImportFormat.CSV, IMPORT_ID);
+
+        assertThat(report.getImportedRows()).isEqualTo(2L);
+        assertThat(report.getRejectedRows()).isZero();
+        assertThat(report.getCommittedChunks()).isEqualTo(1L);
+        assertThat(report.isCompleted()).isTrue();
+        assertThat(bookRepository.findBooksByName("first, book")).hasSize(1);
+        assertThat(bookRepository.findBooksByAuthor("second author")).hasSize(1);
+    }
+
+    @Test
+    public void shouldImportChunksConcurrentlyAndSaveCommittedChunks() throws IOException {
+        val lines = new ArrayList<String>();
+
+        for (int i = 0; i < 95; i++) {
+            lines.add("book " + i + "\tauthor\t" + (1900 + i) + "\tfalse");
+        }
+
+        val file = createFile("books.tsv", lines.toArray(new String[0]));
+
+        val report = bookImporter.importFile(file, BookImportFormat.TSV, IMPORT_ID);
+
+        assertThat(report.getImportedRows()).isEqualTo(95L);
+        assertThat(report.getCommittedChunks()).isEqualTo(10L);
+        assertThat(report.getRowsPerSecond()).isPositive();
+        assertThat(bookRepository.count()).isEqualTo(95L);
+        assertThat(bookImportChunkRepository.findChunkNumbersByImportId(IMPORT_ID))
+                .containsExactlyInAnyOrder(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+    }
+
+    @Test
+    public void shouldRejectIncorrectRowsAndImportTheRest() throws IOException {
+        val file = createFile("books.csv", "name,author,printYear,read",
+                "first book,author,2018,true",
+                "second book,author,year,true",
+                "",
+                "third book,author,2018",
+                "fourth book,author,2018,false");
+
+        val report = bookImporter.importFile(file, BookImportFormat.CSV, IMPORT_ID);
+
+        assertThat(report.getImportedRows()).isEqualTo(2L);
+        assertThat(report.getRejectedRows()).isEqualTo(2L);
+        assertThat(report.getRejections()).containsExactly(
+                "Line 3: Field: printYear is not a number: year",
+                "Line 5: Expected 4 fields but was 3");
+        assertThat(bookRepository.findBooksByAuthor("author")).hasSize(2);
+    }
+
+    @Test
+    public void shouldSkipCommittedChunksWhenImportIsStartedAgain() throws IOException {
+        val lines = new ArrayList<String>();
+
+        for (int i = 0; i < 15; i++) {
+            lines.add("book " + i + ",author,2018,false");
+        }
+
+        val file = createFile("books.csv", lines.toArray(new String[0]));
+
+        bookImportChunkRepository.save(new BookImportChunk(IMPORT_ID, 0L, 1L, 10, 10, 0));
+
+        val report = bookImporter.importFile(file, BookImportFormat.CSV, IMPORT_ID);
+
+        assertThat(report.getImportedRows()).isEqualTo(5L);
+        assertThat(report.getSkippedRows()).isEqualTo(10L);
+        assertThat(report.getSkippedChunks()).isEqualTo(1L);
+        assertThat(bookRepository.findBooksByName("book 0")).isEmpty();
+        assertThat(bookRepository.findBooksByName("book 14")).hasSize(1);
+
+        val secondReport = bookImporter.importFile(file, BookImportFormat.CSV, IMPORT_ID);
+
+        assertThat(secondReport.getImportedRows()).isZero();
+        assertThat(secondReport.getSkippedChunks()).isEqualTo(2L);
+        assertThat(bookRepository.count()).isEqualTo(5L);
+    }
+
+    @Test
+    public void shouldRejectImportThatIsStartedAgainWithOtherChunkSize() throws IOException {
+        val lines = new ArrayList<String>();
+
+        for (int i = 0; i < 15; i++) {
+            lines.add("book " + i + ",author,2018,false");
+        }
+
+        val file = createFile("books.csv", lines.toArray(new String[0]));
+
+        bookImportChunkRepository.save(new BookImportChunk(IMPORT_ID, 1L, 6L, 5, 5, 0));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookImporter.importFile(file, BookImportFormat.CSV, IMPORT_ID))
+                .withMessage("Import: import was started with other chunking, committed chunk: 1 starts at line: 6 " +
+                        "and has lines: 5, but with chunk size: 10 it should start at line: 11");
+        assertThat(bookRepository.count()).isZero();
+    }
+
+    @Test
+    public void shouldRejectImportThatIsStartedAgainWithoutHeader() throws IOException {
+        val file = createFile("books.csv", "book,author,2018,false");
+
+        bookImportChunkRepository.save(new BookImportChunk(IMPORT_ID, 0L, 2L, 1, 1, 0));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookImporter.importFile(file, BookImportFormat.CSV, IMPORT_ID))
+                .withMessageStartingWith("Import: import was started with other chunking");
+        assertThat(bookRepository.count()).isZero();
+    }
+
+    @Test
+    public void shouldUseNameSizeAndModifiedTimeOfFileAsImportId() throws IOException {
+        val file = createFile("books.csv", "book,author,2018,false");
+
+        val report = bookImporter.importFile(file, BookImportFormat.CSV);
+
+        assertThat(report.getImportId())
+                .isEqualTo("books.csv:" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldReportFailedChunksAndContinueImport() throws IOException {
+        val bookRepositoryMock = mock(BookRepository.class);
+        val bookImportChunkRepositoryMock = mock(BookImportChunkRepository.class);
+        val transactionManagerMock = mock(PlatformTransactionManager.class);
+
+        when(transactionManagerMock.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(bookImportChunkRepositoryMock.findByImportId(IMPORT_ID)).thenReturn(Collections.emptyList());
+        when(bookRepositoryMock.saveAll(any())).thenAnswer(invocation -> {
+            val books = (List<Book>) invocation.getArgument(0);
+
+            if (books.get(0).getName().equals("failed")) {
+                throw new DataAccessResourceFailureException("failed");
+            }
+
+            books.forEach(book -> book.setId((long) book.getName().hashCode()));
+
+            return books;
+        });
+
+        val file = createFile("books.csv", "failed,author,2018,false", "book,author,2018,false");
+        val failingBookImporter = new BookImporter(bookRepositoryMock, bookImportChunkRepositoryMock,
+                transactionManagerMock, 1, 1);
+
+        val report = failingBookImporter.importFile(file, BookImportFormat.CSV, IMPORT_ID);
+
+        assertThat(report.getImportedRows()).isEqualTo(1L);
+        assertThat(report.getCommittedChunks()).isEqualTo(1L);
+        assertThat(report.getFailedChunks()).isEqualTo(1L);
+        assertThat(report.isCompleted()).isFalse();
+
+        verify(bookImportChunkRepositoryMock).save(new BookImportChunk(IMPORT_ID, 1L, 2L, 1, 1, 0));
+        verify(bookImportChunkRepositoryMock, never()).save(new BookImportChunk(IMPORT_ID, 0L, 1L, 1, 1, 0));
+    }
+
+    @Test
+    public void shouldAddBooksOfCommittedChunksToSearchIndex() throws IOException {
+        val searchIndex = new BookSearchIndex();
+        val bookImportChunkRepositoryMock = mock(BookImportChunkRepository.class);
+
+        when(bookImportChunkRepositoryMock.findByImportId(IMPORT_ID)).thenReturn(Collections.emptyList());
+        when(bookImportChunkRepositoryMock.save(any())).thenAnswer(invocation -> {
+            val chunk = (BookImportChunk) invocation.getArgument(0);
+
+            if (chunk.getChunkNumber() == 0L) {
+                throw new DataAccessResourceFailureException("failed");
+            }
+
+            return chunk;
+        });
+
+        val file = createFile("books.csv", "rolled back,first author,2018,false", "committed,second author,2018,false");
+        val indexingBookImporter = new BookImporter(bookRepository, bookImportChunkRepositoryMock, transactionManager,
+                searchIndex, 1, 1);
+
+        val report = indexingBookImporter.importFile(file, BookImportFormat.CSV, IMPORT_ID);
+
+        assertThat(report.getCommittedChunks()).isEqualTo(1L);
+        assertThat(report.getFailedChunks()).isEqualTo(1L);
+        assertThat(searchIndex.size()).isEqualTo(1);
+        assertThat(searchIndex.search("committed", 10)).extracting(BookSearchHit::getId)
+                .containsExactly(bookRepository.findBooksByName("committed").get(0).getId());
+        assertThat(searchIndex.search("rolled back", 10)).isEmpty();
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCreateImporterWithIncorrectChunkSize() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BookImporter(bookRepository, bookImportChunkRepository, transactionManager,
+                        0, 1))
+                .withMessage("Chunk size: 0 and workers: 1 should be positive");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateImporterWithNullRepository() {
+        val exceptionMessage = "bookRepository is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new BookImporter(null, bookImportChunkRepository, transactionManager, 1, 1))
+                .withMessage(exceptionMessage);
+    }
+
+    private Path createFile(String name, String... lines) throws IOException {
+        val file = temporaryFolder.getRoot().toPath().resolve(name);
+
+        return Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,111 @@
+package com.qthegamep.bookmanager3.logging;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+import com.qthegamep.bookmanager3.testhelper.util.TestDataUtil;
+
+import lombok.val;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LogSummaryTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    @Test
+    public void shouldSummarizeBooksCorrectly() {
+        val books = TestDataUtil.createBooks();
+
+        assertThat(LogSummary.ofBooks(books)).hasToString("count: 2, first id: 1, last id: 2");
+    }
+
+    @Test
+    public void shouldSummarizeIdsCorrectly() {
+        val ids = Arrays.asList(7L, 3L, 42L, 5L);
+
+        assertThat(LogSummary.ofIds(ids)).hasToString("count: 4, first id: 7, last id: 5");
+    }
+
+    @Test
+    public void shouldSummarizeOnlyCountOfCollectionWithoutRandomAccess() {
+        val ids = new LinkedList<>(Arrays.asList(7L, 3L, 42L));
+
+        assertThat(LogSummary.ofIds(ids)).hasToString("count: 3");
+        assertThat(LogSummary.ofIds(new TreeSet<>(ids))).hasToString("count: 3");
+    }
+
+    @Test
+    public void shouldReadOnlyFirstAndLastElementsOfList() {
+        val books = spy(TestDataUtil.createBooks());
+
+        books.add(1, new Book());
+
+        assertThat(LogSummary.ofBooks(books)).hasToString("count: 3, first id: 1, last id: 2");
+
+        verify(books).get(0);
+        verify(books).get(2);
+        verify(books, never()).get(1);
+        verify(books, never()).iterator();
+    }
+
+    @Test
+    public void shouldSummarizeEmptyCollectionCorrectly() {
+        assertThat(LogSummary.ofBooks(List.of())).hasToString("count: 0");
+    }
+
+    @Test
+    public void shouldCountElementsWithoutIdButNotPrintTheirIds() {
+        val books = TestDataUtil.createBooks();
+        val newBook = new Book();
+
+        books.add(newBook);
+        books.add(null);
+
+        assertThat(LogSummary.ofBooks(books)).hasToString("count: 4, first id: 1");
+        assertThat(LogSummary.ofBooks(List.of(newBook))).hasToString("count: 1");
+    }
+
+    @Test
+    public void shouldReflectChangesOfCollectionBecauseSummaryIsBuiltLazily() {
+        val books = TestDataUtil.createBooks();
+        val summary = LogSummary.ofBooks(books);
+
+        books.remove(0);
+
+        assertThat(summary).hasToString("count: 1, first id: 2, last id: 2");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenSummarizeNullBooks() {
+        val exceptionMessage = "books is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> LogSummary.ofBooks(null))
+                .withMessage(exceptionMessage);
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenSummarizeNullIds() {
+        val exceptionMessage = "ids is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> LogSummary.ofIds(null))
+                .withMessage(exceptionMessage);
+    }
+}
@@ -0,0 +1,163 @@
+package com.qthegamep.bookmanager3.metrics;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import javax.management.openmbean.CompositeData;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class HibernateStatisticsMetricsTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private static final String QUERY = "select b from Book b where b.name = :name";
+
+    private Statistics statistics;
+    private QueryStatistics queryStatistics;
+    private HibernateStatisticsMetrics hibernateStatisticsMetrics;
+
+    @Before
+    public void setUp() {
+        statistics = mock(Statistics.class);
+        queryStatistics = mock(QueryStatistics.class);
+
+        when(statistics.getQueries()).thenReturn(new String[]{QUERY});
+        when(statistics.getQueryStatistics(QUERY)).thenReturn(queryStatistics);
+
+        hibernateStatisticsMetrics = new HibernateStatisticsMetrics(statistics, 0L, true);
+    }
+
+    @After
+    public void tearDown() {
+        hibernateStatisticsMetrics.close();
+    }
+
+    @Test
+    public void shouldReturnZeroValuesBeforeFirstSnapshot() {
+        assertThat(hibernateStatisticsMetrics.getLastIntervalMillis()).isZero();
+        assertThat(hibernateStatisticsMetrics.getCounterDelta("entityLoad")).isZero();
+        assertThat(hibernateStatisticsMetrics.getSecondLevelCacheHitRatio()).isZero();
+        assertThat(hibernateStatisticsMetrics.getQueryCacheHitRatio()).isZero();
+        assertThat(hibernateStatisticsMetrics.getCounters().size()).isEqualTo(20);
+        assertThat(hibernateStatisticsMetrics.getQueries().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldComputeDeltasOfCountersBetweenSnapshots() {
+        when(statistics.getEntityLoadCount()).thenReturn(10L);
+        when(statistics.getFlushCount()).thenReturn(3L);
+
+        hibernateStatisticsMetrics.snapshot();
+
+        when(statistics.getEntityLoadCount()).thenReturn(25L);
+        when(statistics.getFlushCount()).thenReturn(4L);
+
+        hibernateStatisticsMetrics.snapshot();
+
+        assertThat(hibernateStatisticsMetrics.getCounterDelta("entityLoad")).isEqualTo(15L);
+        assertThat(hibernateStatisticsMetrics.getCounterDelta("flush")).isEqualTo(1L);
+
+        val row = (CompositeData) hibernateStatisticsMetrics.getCounters().get(new Object[]{"entityLoad"});
+
+        assertThat(row.get("total")).isEqualTo(25L);
+        assertThat(row.get("delta")).isEqualTo(15L);
+    }
+
+    @Test
+    public void shouldComputeCacheHitRatiosOfInterval() {
+        when(statistics.getSecondLevelCacheHitCount()).thenReturn(100L);
+        when(statistics.getSecondLevelCacheMissCount()).thenReturn(100L);
+
+        hibernateStatisticsMetrics.snapshot();
+
+        when(statistics.getSecondLevelCacheHitCount()).thenReturn(103L);
+        when(statistics.getSecondLevelCacheMissCount()).thenReturn(101L);
+        when(statistics.getQueryCacheMissCount()).thenReturn(2L);
+
+        hibernateStatisticsMetrics.snapshot();
+
+        assertThat(hibernateStatisticsMetrics.getSecondLevelCacheHitRatio()).isEqualTo(0.75);
+        assertThat(hibernateStatisticsMetrics.getQueryCacheHitRatio()).isZero();
+    }
+
+    @Test
+    public void shouldComputeQueryStatisticsOfInterval() {
+        when(queryStatistics.getExecutionCount()).thenReturn(2L);
+        when(queryStatistics.getExecutionRowCount()).thenReturn(20L);
+        when(queryStatistics.getExecutionTotalTime()).thenReturn(10L);
+
+        hibernateStatisticsMetrics.snapshot();
+
+        when(queryStatistics.getExecutionCount()).thenReturn(6L);
+        when(queryStatistics.getExecutionRowCount()).thenReturn(28L);
+        when(queryStatistics.getExecutionTotalTime()).thenReturn(20L);
+        when(queryStatistics.getExecutionMaxTime()).thenReturn(7L);
+
+        hibernateStatisticsMetrics.snapshot();
+
+        val row = (CompositeData) hibernateStatisticsMetrics.getQueries().get(new Object[]{QUERY});
+
+        assertThat(row.get("count")).isEqualTo(4L);
+        assertThat(row.get("rows")).isEqualTo(8L);
+        assertThat(row.get("avgTime")).isEqualTo(2.5);
+        assertThat(row.get("maxTime")).isEqualTo(7L);
+    }
+
+    @Test
+    public void shouldNotReturnQueriesThatWereNotExecutedInInterval() {
+        when(queryStatistics.getExecutionCount()).thenReturn(2L);
+
+        hibernateStatisticsMetrics.snapshot();
+        hibernateStatisticsMetrics.snapshot();
+
+        assertThat(hibernateStatisticsMetrics.getQueries().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldReturnZeroDeltaOfUnknownCounter() {
+        hibernateStatisticsMetrics.snapshot();
+
+        assertThat(hibernateStatisticsMetrics.getCounterDelta("unknown")).isZero();
+    }
+
+    @Test
+    public void shouldTakeSnapshotsWithIntervalAfterStart() {
+        val scheduledMetrics = new HibernateStatisticsMetrics(statistics, 10L, false);
+
+        try {
+            scheduledMetrics.start();
+
+            verify(statistics, timeout(5000L).atLeast(3)).getEntityLoadCount();
+        } finally {
+            scheduledMetrics.close();
+        }
+
+        assertThat(scheduledMetrics.getLastIntervalMillis()).isGreaterThan(0L);
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateMetricsWithNullStatistics() {
+        val exceptionMessage = "statistics is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new HibernateStatisticsMetrics(null, 0L, false))
+                .withMessage(exceptionMessage);
+    }
+}
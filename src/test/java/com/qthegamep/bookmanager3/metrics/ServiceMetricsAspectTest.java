@@ -0,0 +1,111 @@
+package com.qthegamep.bookmanager3.metrics;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.service.BookService;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ServiceMetricsAspectTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private BookService target;
+    private ServiceMetricsRegistry firstRegistry;
+    private ServiceMetricsRegistry secondRegistry;
+    private BookService bookService;
+
+    @Before
+    public void setUp() {
+        target = mock(BookService.class);
+        firstRegistry = mock(ServiceMetricsRegistry.class);
+        secondRegistry = mock(ServiceMetricsRegistry.class);
+
+        val proxyFactory = new AspectJProxyFactory(target);
+
+        proxyFactory.addInterface(BookService.class);
+        proxyFactory.addAspect(new ServiceMetricsAspect(Arrays.asList(firstRegistry, secondRegistry)));
+
+        bookService = proxyFactory.getProxy();
+    }
+
+    @Test
+    public void shouldRecordSuccessfulCallOfNotBulkMethodIntoAllRegistries() {
+        val book = new Book();
+
+        when(target.getById(1L)).thenReturn(book);
+
+        assertThat(bookService.getById(1L)).isSameAs(book);
+
+        verify(firstRegistry).recordSuccess(eq("BookService.getById(Long)"), anyLong(), eq(-1));
+        verify(secondRegistry).recordSuccess(eq("BookService.getById(Long)"), anyLong(), eq(-1));
+        verifyNoMoreInteractions(firstRegistry, secondRegistry);
+    }
+
+    @Test
+    public void shouldRecordSizeOfCollectionParameterOfBulkMethod() {
+        val books = Arrays.asList(new Book(), new Book(), new Book());
+
+        when(target.addAll(books)).thenReturn(books);
+
+        bookService.addAll(books);
+        bookService.setReadByIds(Collections.singletonList(1L), true);
+
+        verify(firstRegistry).recordSuccess(eq("BookService.addAll(List)"), anyLong(), eq(3));
+        verify(firstRegistry).recordSuccess(eq("BookService.setReadByIds(List, boolean)"), anyLong(), eq(1));
+    }
+
+    @Test
+    public void shouldRecordSizeOfCollectionResultOfBulkMethod() {
+        List<Book> books = Arrays.asList(new Book(), new Book());
+
+        when(target.getByAuthor("author")).thenReturn(books);
+
+        bookService.getByAuthor("author");
+
+        verify(firstRegistry).recordSuccess(eq("BookService.getByAuthor(String)"), anyLong(), eq(2));
+    }
+
+    @Test
+    public void shouldRecordFailedCallAndRethrowException() {
+        val exception = new EntityNotFoundException();
+
+        when(target.getById(1L)).thenThrow(exception);
+
+        assertThatThrownBy(() -> bookService.getById(1L)).isSameAs(exception);
+
+        verify(firstRegistry).recordFailure(eq("BookService.getById(Long)"), anyLong(), same(exception));
+        verify(secondRegistry).recordFailure(eq("BookService.getById(Long)"), anyLong(), same(exception));
+        verifyNoMoreInteractions(firstRegistry, secondRegistry);
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateAspectWithNullRegistries() {
+        val exceptionMessage = "registries is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new ServiceMetricsAspect(null))
+                .withMessage(exceptionMessage);
+    }
+}
@@ -0,0 +1,134 @@
+package com.qthegamep.bookmanager3.metrics;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import javax.management.openmbean.CompositeData;
+import javax.persistence.EntityNotFoundException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ServiceMetricsTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private static final String ADD_ALL = "BookService.addAll(List)";
+    private static final String GET_BY_ID = "BookService.getById(Long)";
+
+    private ServiceMetrics serviceMetrics;
+
+    @Before
+    public void setUp() {
+        serviceMetrics = new ServiceMetrics();
+    }
+
+    @Test
+    public void shouldReturnZeroCountersWhenNothingIsRecorded() {
+        assertThat(serviceMetrics.getCount()).isZero();
+        assertThat(serviceMetrics.getErrorCount()).isZero();
+        assertThat(serviceMetrics.getMethods().isEmpty()).isTrue();
+        assertThat(serviceMetrics.getErrors().isEmpty()).isTrue();
+        assertThat(serviceMetrics.getCallCount(GET_BY_ID)).isZero();
+        assertThat(serviceMetrics.getExceptionCount(GET_BY_ID, EntityNotFoundException.class.getName())).isZero();
+        assertThat(serviceMetrics.getLatencyPercentile(GET_BY_ID, 99.0)).isZero();
+        assertThat(serviceMetrics.getItemsMean(ADD_ALL)).isZero();
+    }
+
+    @Test
+    public void shouldRecordSuccessfulCallsCorrectly() {
+        serviceMetrics.recordSuccess(GET_BY_ID, TimeUnit.MICROSECONDS.toNanos(100L), -1);
+        serviceMetrics.recordSuccess(GET_BY_ID, TimeUnit.MICROSECONDS.toNanos(300L), -1);
+
+        assertThat(serviceMetrics.getCount()).isEqualTo(2L);
+        assertThat(serviceMetrics.getErrorCount()).isZero();
+        assertThat(serviceMetrics.getCallCount(GET_BY_ID)).isEqualTo(2L);
+        assertThat(serviceMetrics.getLatencyPercentile(GET_BY_ID, 100.0)).isBetween(299L, 301L);
+        assertThat(serviceMetrics.getItemsMean(GET_BY_ID)).isZero();
+    }
+
+    @Test
+    public void shouldRecordNumberOfItemsOfBulkMethodsCorrectly() {
+        serviceMetrics.recordSuccess(ADD_ALL, 1L, 10);
+        serviceMetrics.recordSuccess(ADD_ALL, 1L, 30);
+
+        assertThat(serviceMetrics.getItemsMean(ADD_ALL)).isEqualTo(20.0);
+
+        val row = (CompositeData) serviceMetrics.getMethods().get(new Object[]{ADD_ALL});
+
+        assertThat(row.get("count")).isEqualTo(2L);
+        assertThat(row.get("itemsMean")).isEqualTo(20.0);
+        assertThat(row.get("itemsMax")).isEqualTo(30L);
+    }
+
+    @Test
+    public void shouldRecordFailedCallsByExceptionClass() {
+        serviceMetrics.recordSuccess(GET_BY_ID, 1L, -1);
+        serviceMetrics.recordFailure(GET_BY_ID, 1L, new EntityNotFoundException());
+        serviceMetrics.recordFailure(GET_BY_ID, 1L, new EntityNotFoundException());
+        serviceMetrics.recordFailure(GET_BY_ID, 1L, new IllegalArgumentException());
+
+        assertThat(serviceMetrics.getCount()).isEqualTo(4L);
+        assertThat(serviceMetrics.getErrorCount()).isEqualTo(3L);
+        assertThat(serviceMetrics.getExceptionCount(GET_BY_ID, EntityNotFoundException.class.getName()))
+                .isEqualTo(2L);
+        assertThat(serviceMetrics.getExceptionCount(GET_BY_ID, IllegalArgumentException.class.getName()))
+                .isEqualTo(1L);
+
+        val methodRow = (CompositeData) serviceMetrics.getMethods().get(new Object[]{GET_BY_ID});
+        val errorRow = (CompositeData) serviceMetrics.getErrors()
+                .get(new Object[]{GET_BY_ID, EntityNotFoundException.class.getName()});
+
+        assertThat(methodRow.get("errors")).isEqualTo(3L);
+        assertThat(errorRow.get("count")).isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldRecordNegativeLatencyAsZero() {
+        serviceMetrics.recordSuccess(GET_BY_ID, -1L, -1);
+
+        assertThat(serviceMetrics.getLatencyPercentile(GET_BY_ID, 100.0)).isZero();
+    }
+
+    @Test
+    public void shouldResetAllMetrics() {
+        serviceMetrics.recordSuccess(ADD_ALL, 1L, 10);
+        serviceMetrics.recordFailure(GET_BY_ID, 1L, new EntityNotFoundException());
+
+        serviceMetrics.reset();
+
+        assertThat(serviceMetrics.getCount()).isZero();
+        assertThat(serviceMetrics.getErrorCount()).isZero();
+        assertThat(serviceMetrics.getMethods().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenRecordSuccessWithNullMethod() {
+        val exceptionMessage = "method is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> serviceMetrics.recordSuccess(null, 1L, -1))
+                .withMessage(exceptionMessage);
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenRecordFailureWithNullError() {
+        val exceptionMessage = "error is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> serviceMetrics.recordFailure(GET_BY_ID, 1L, null))
+                .withMessage(exceptionMessage);
+    }
+}
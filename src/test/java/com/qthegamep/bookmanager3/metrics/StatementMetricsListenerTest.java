@@ -0,0 +1,105 @@
+package com.qthegamep.bookmanager3.metrics;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import java.util.ServiceLoader;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class StatementMetricsListenerTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private StatementMetrics statementMetrics;
+    private StatementMetricsListener statementMetricsListener;
+
+    @Before
+    public void setUp() {
+        statementMetrics = mock(StatementMetrics.class);
+        statementMetricsListener = new StatementMetricsListener(statementMetrics);
+    }
+
+    @Test
+    public void shouldBeRegisteredInServiceLoader() {
+        val listeners = ServiceLoader.load(JdbcEventListener.class);
+
+        assertThat(listeners).hasAtLeastOneElementOfType(StatementMetricsListener.class);
+    }
+
+    @Test
+    public void shouldRecordPreparedStatementsAsStatementCategory() {
+        val statementInformation = mock(PreparedStatementInformation.class);
+
+        when(statementInformation.getSql()).thenReturn("select * from BOOK where ID=?");
+
+        statementMetricsListener.onAfterExecute(statementInformation, 1L, null);
+        statementMetricsListener.onAfterExecuteUpdate(statementInformation, 2L, 1, null);
+        statementMetricsListener.onAfterExecuteQuery(statementInformation, 3L, null);
+
+        verify(statementMetrics).record(StatementMetrics.STATEMENT, "select * from BOOK where ID=?", 1L);
+        verify(statementMetrics).record(StatementMetrics.STATEMENT, "select * from BOOK where ID=?", 2L);
+        verify(statementMetrics).record(StatementMetrics.STATEMENT, "select * from BOOK where ID=?", 3L);
+    }
+
+    @Test
+    public void shouldRecordStatementsAsStatementCategory() {
+        val statementInformation = mock(StatementInformation.class);
+
+        statementMetricsListener.onAfterExecute(statementInformation, 1L, "select 1", null);
+        statementMetricsListener.onAfterExecuteUpdate(statementInformation, 2L, "delete from BOOK", 1, null);
+        statementMetricsListener.onAfterExecuteQuery(statementInformation, 3L, "select 2", null);
+
+        verify(statementMetrics).record(StatementMetrics.STATEMENT, "select 1", 1L);
+        verify(statementMetrics).record(StatementMetrics.STATEMENT, "delete from BOOK", 2L);
+        verify(statementMetrics).record(StatementMetrics.STATEMENT, "select 2", 3L);
+    }
+
+    @Test
+    public void shouldRecordBatchesAsBatchCategory() {
+        val statementInformation = mock(StatementInformation.class);
+
+        when(statementInformation.getSql()).thenReturn("insert into BOOK values (?)");
+
+        statementMetricsListener.onAfterExecuteBatch(statementInformation, 4L, new int[]{1, 1}, null);
+
+        verify(statementMetrics).record(StatementMetrics.BATCH, "insert into BOOK values (?)", 4L);
+    }
+
+    @Test
+    public void shouldRecordCommitsAndRollbacks() {
+        val connectionInformation = mock(ConnectionInformation.class);
+
+        statementMetricsListener.onAfterCommit(connectionInformation, 5L, null);
+        statementMetricsListener.onAfterRollback(connectionInformation, 6L, null);
+
+        verify(statementMetrics).record(StatementMetrics.COMMIT, null, 5L);
+        verify(statementMetrics).record(StatementMetrics.ROLLBACK, null, 6L);
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateListenerWithNullMetrics() {
+        val exceptionMessage = "statementMetrics is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new StatementMetricsListener(null))
+                .withMessage(exceptionMessage);
+    }
+}
@@ -0,0 +1,140 @@
+package com.qthegamep.bookmanager3.metrics;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import javax.management.openmbean.CompositeData;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class StatementMetricsTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private StatementMetrics statementMetrics;
+
+    @Before
+    public void setUp() {
+        statementMetrics = new StatementMetrics();
+    }
+
+    @Test
+    public void shouldReturnSharedInstance() {
+        assertThat(StatementMetrics.getInstance())
+                .isNotNull()
+                .isSameAs(StatementMetrics.getInstance());
+    }
+
+    @Test
+    public void shouldReturnZeroCountersWhenNothingIsRecorded() {
+        assertThat(statementMetrics.getCount()).isZero();
+        assertThat(statementMetrics.getNumberOfShapes()).isZero();
+        assertThat(statementMetrics.getLatencies().isEmpty()).isTrue();
+        assertThat(statementMetrics.getStatementCount(StatementMetrics.COMMIT, StatementMetrics.COMMIT)).isZero();
+        assertThat(statementMetrics.getLatencyPercentile(StatementMetrics.COMMIT, StatementMetrics.COMMIT, 99.0))
+                .isZero();
+    }
+
+    @Test
+    public void shouldNormalizeSqlQueryCorrectly() {
+        val sql = "/* select com.qthegamep.bookmanager3.entity.Book */ select book0_.ID as ID1_0_\n" +
+                "  from BOOK book0_ where book0_.NAME='it''s' and book0_.PRINT_YEAR>=2000 " +
+                "and book0_.ID in (1 , 2, 3) limit ?";
+
+        assertThat(StatementMetrics.normalize(sql)).isEqualTo("select book0_.ID as ID1_0_ from BOOK book0_ " +
+                "where book0_.NAME=? and book0_.PRINT_YEAR>=? and book0_.ID in (?) limit ?");
+    }
+
+    @Test
+    public void shouldNormalizeQueriesWithDifferentValuesToTheSameShape() {
+        val firstShape = StatementMetrics.normalize("update BOOK set IS_READ=true where ID in (?, ?)");
+        val secondShape = StatementMetrics.normalize("update BOOK set IS_READ=true where ID in (?, ?, ?, ?)");
+
+        assertThat(firstShape).isEqualTo(secondShape);
+    }
+
+    @Test
+    public void shouldRecordLatenciesByCategoryAndShape() {
+        val sql = "select * from BOOK where ID=?";
+        val shape = StatementMetrics.normalize(sql);
+
+        for (int i = 1; i <= 1000; i++) {
+            statementMetrics.record(StatementMetrics.STATEMENT, sql, TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        statementMetrics.record(StatementMetrics.BATCH, sql, TimeUnit.MICROSECONDS.toNanos(5));
+        statementMetrics.record(StatementMetrics.COMMIT, null, TimeUnit.MICROSECONDS.toNanos(7));
+
+        assertThat(statementMetrics.getCount()).isEqualTo(1002);
+        assertThat(statementMetrics.getNumberOfShapes()).isEqualTo(3);
+        assertThat(statementMetrics.getStatementCount(StatementMetrics.STATEMENT, shape)).isEqualTo(1000);
+        assertThat(statementMetrics.getStatementCount(StatementMetrics.BATCH, shape)).isEqualTo(1);
+        assertThat(statementMetrics.getStatementCount(StatementMetrics.COMMIT, StatementMetrics.COMMIT))
+                .isEqualTo(1);
+        assertThat(statementMetrics.getLatencyPercentile(StatementMetrics.STATEMENT, shape, 50.0))
+                .isBetween(499L, 501L);
+        assertThat(statementMetrics.getLatencyPercentile(StatementMetrics.STATEMENT, shape, 99.0))
+                .isBetween(989L, 991L);
+    }
+
+    @Test
+    public void shouldReturnLatenciesTableCorrectly() {
+        val sql = "select * from BOOK where ID=?";
+
+        statementMetrics.record(StatementMetrics.STATEMENT, sql, TimeUnit.MICROSECONDS.toNanos(100));
+        statementMetrics.record(StatementMetrics.STATEMENT, sql, TimeUnit.MICROSECONDS.toNanos(300));
+
+        val latencies = statementMetrics.getLatencies();
+        val row = (CompositeData) latencies.get(new Object[]{StatementMetrics.STATEMENT, sql});
+
+        assertThat(latencies.size()).isEqualTo(1);
+        assertThat(row.get("count")).isEqualTo(2L);
+        assertThat((Long) row.get("p50")).isBetween(99L, 101L);
+        assertThat((Long) row.get("p99")).isBetween(299L, 301L);
+        assertThat((Long) row.get("p999")).isBetween(299L, 301L);
+        assertThat((Long) row.get("max")).isBetween(299L, 301L);
+    }
+
+    @Test
+    public void shouldRecordNewShapesAsOtherShapeWhenMaxNumberOfShapesIsReached() {
+        for (int i = 0; i <= StatementMetrics.MAX_NUMBER_OF_SHAPES; i++) {
+            statementMetrics.record(StatementMetrics.STATEMENT, "select * from BOOK_" + i, 1L);
+        }
+
+        assertThat(statementMetrics.getNumberOfShapes()).isEqualTo(StatementMetrics.MAX_NUMBER_OF_SHAPES + 1);
+        assertThat(statementMetrics.getStatementCount(StatementMetrics.STATEMENT, StatementMetrics.OTHER_SHAPE))
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void shouldResetAllHistograms() {
+        statementMetrics.record(StatementMetrics.ROLLBACK, null, 1L);
+
+        statementMetrics.reset();
+
+        assertThat(statementMetrics.getCount()).isZero();
+        assertThat(statementMetrics.getNumberOfShapes()).isZero();
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenRecordWithNullCategory() {
+        val exceptionMessage = "category is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> statementMetrics.record(null, "", 1L))
+                .withMessage(exceptionMessage);
+    }
+}
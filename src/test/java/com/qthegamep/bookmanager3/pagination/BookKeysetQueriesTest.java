@@ -0,0 +1,102 @@
+package com.qthegamep.bookmanager3.pagination;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class BookKeysetQueriesTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private EntityManager entityManager;
+    private TypedQuery<Book> query;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        entityManager = mock(EntityManager.class);
+        query = mock(TypedQuery.class);
+
+        when(entityManager.createQuery(anyString(), eq(Book.class))).thenReturn(query);
+        when(query.setMaxResults(anyInt())).thenReturn(query);
+    }
+
+    @Test
+    public void shouldCreateQueryStringOfTheFirstPageOfAllEntitiesCorrectly() {
+        assertThat(BookKeysetQueries.toQueryString(null, BookSortColumn.ID, false))
+                .isEqualTo("SELECT b FROM Book b ORDER BY b.id");
+    }
+
+    @Test
+    public void shouldCreateQueryStringOfTheNextPageSortedByIdCorrectly() {
+        assertThat(BookKeysetQueries.toQueryString("author", BookSortColumn.ID, true))
+                .isEqualTo("SELECT b FROM Book b WHERE b.author = :author AND b.id > :lastId ORDER BY b.id");
+    }
+
+    @Test
+    public void shouldCreateQueryStringOfTheNextPageSortedByOtherColumnCorrectly() {
+        assertThat(BookKeysetQueries.toQueryString(null, BookSortColumn.PRINT_YEAR, true))
+                .isEqualTo("SELECT b FROM Book b WHERE (b.printYear > :lastValue OR (b.printYear = :lastValue " +
+                        "AND b.id > :lastId)) ORDER BY b.printYear, b.id");
+    }
+
+    @Test
+    public void shouldSetParametersOfTheKeysetAndLimitCorrectly() {
+        val after = new BookKeyset(BookSortColumn.NAME, "test", 5L);
+
+        assertThat(BookKeysetQueries.create(entityManager, "read", true, BookSortColumn.NAME, after, 11))
+                .isSameAs(query);
+
+        verify(entityManager).createQuery(BookKeysetQueries.toQueryString("read", BookSortColumn.NAME, true),
+                Book.class);
+        verify(query).setMaxResults(11);
+        verify(query).setParameter("read", true);
+        verify(query).setParameter("lastValue", "test");
+        verify(query).setParameter("lastId", 5L);
+    }
+
+    @Test
+    public void shouldNotSetParametersOfTheFirstPage() {
+        BookKeysetQueries.create(entityManager, null, null, BookSortColumn.ID, null, 10);
+
+        verify(query).setMaxResults(10);
+        verify(query, never()).setParameter(anyString(), any());
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenKeysetWasCreatedForOtherSortColumn() {
+        val after = new BookKeyset(BookSortColumn.NAME, "test", 5L);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookKeysetQueries.create(entityManager, null, null, BookSortColumn.AUTHOR, after,
+                        10))
+                .withMessageContaining("was created for other sort column than: AUTHOR");
+
+        verifyZeroInteractions(entityManager);
+    }
+
+    @Test
+    public void shouldNotThrowExceptionWhenKeysetIsNotGiven() {
+        assertThatCode(() -> BookKeysetQueries.checkSortColumn(null, BookSortColumn.NAME))
+                .doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,100 @@
+package com.qthegamep.bookmanager3.pagination;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+import com.qthegamep.bookmanager3.testhelper.util.TestDataUtil;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BookKeysetTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private Book firstBook;
+
+    @Before
+    public void setUp() {
+        firstBook = TestDataUtil.createFirstBook();
+    }
+
+    @Test
+    public void shouldCreateKeysetOfTheEntityCorrectly() {
+        val keyset = BookKeyset.of(BookSortColumn.PRINT_YEAR, firstBook);
+
+        assertThat(keyset.getSortColumn()).isEqualTo(BookSortColumn.PRINT_YEAR);
+        assertThat(keyset.getValue()).isEqualTo(2000);
+        assertThat(keyset.getId()).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldConvertKeysetToTokenAndBackCorrectly() {
+        for (val sortColumn : BookSortColumn.values()) {
+            val keyset = BookKeyset.of(sortColumn, firstBook);
+
+            assertThat(BookKeyset.fromToken(keyset.toToken(), sortColumn)).isEqualTo(keyset);
+        }
+    }
+
+    @Test
+    public void shouldConvertKeysetWithSeparatorInValueCorrectly() {
+        firstBook.setName("test:first:Book");
+
+        val keyset = BookKeyset.of(BookSortColumn.NAME, firstBook);
+
+        assertThat(BookKeyset.fromToken(keyset.toToken(), BookSortColumn.NAME).getValue())
+                .isEqualTo("test:first:Book");
+    }
+
+    @Test
+    public void shouldReturnNullWhenTokenIsNull() {
+        assertThat(BookKeyset.fromToken(null, BookSortColumn.ID)).isNull();
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenTokenIsNotBase64() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookKeyset.fromToken("not a token!", BookSortColumn.ID))
+                .withMessageStartingWith("Incorrect continuation token: not a token!");
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenTokenWasCreatedForOtherSortColumn() {
+        val token = BookKeyset.of(BookSortColumn.NAME, firstBook).toToken();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookKeyset.fromToken(token, BookSortColumn.AUTHOR));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenTokenHasIncorrectValue() {
+        val token = Base64.getUrlEncoder().encodeToString("PRINT_YEAR:1:test".getBytes(StandardCharsets.UTF_8));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BookKeyset.fromToken(token, BookSortColumn.PRINT_YEAR));
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateKeysetWithNullValue() {
+        val exceptionMessage = "value is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new BookKeyset(BookSortColumn.NAME, null, 1L))
+                .withMessage(exceptionMessage);
+    }
+}
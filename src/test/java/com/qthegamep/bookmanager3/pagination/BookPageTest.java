@@ -0,0 +1,62 @@
+package com.qthegamep.bookmanager3.pagination;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+import com.qthegamep.bookmanager3.testhelper.util.TestDataUtil;
+
+import lombok.val;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BookPageTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    @Test
+    public void shouldCreatePageWithNextTokenCorrectly() {
+        val books = TestDataUtil.createBooks();
+
+        val page = new BookPage(books, "token");
+
+        assertThat(page.getContent()).isEqualTo(books);
+        assertThat(page.getNextToken()).isEqualTo("token");
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    public void shouldCreateLastPageCorrectly() {
+        val page = new BookPage(List.of(), null);
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getNextToken()).isNull();
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    public void shouldReturnUnmodifiableContent() {
+        val page = new BookPage(TestDataUtil.createBooks(), null);
+
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> page.getContent().clear());
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreatePageWithNullContent() {
+        val exceptionMessage = "content is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new BookPage(null, null))
+                .withMessage(exceptionMessage);
+    }
+}
@@ -0,0 +1,63 @@
+package com.qthegamep.bookmanager3.pagination;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+import com.qthegamep.bookmanager3.testhelper.util.TestDataUtil;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BookSortColumnTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private Book firstBook;
+
+    @Before
+    public void setUp() {
+        firstBook = TestDataUtil.createFirstBook();
+    }
+
+    @Test
+    public void shouldReturnPropertiesCorrectly() {
+        assertThat(BookSortColumn.ID.getProperty()).isEqualTo("id");
+        assertThat(BookSortColumn.NAME.getProperty()).isEqualTo("name");
+        assertThat(BookSortColumn.AUTHOR.getProperty()).isEqualTo("author");
+        assertThat(BookSortColumn.PRINT_YEAR.getProperty()).isEqualTo("printYear");
+    }
+
+    @Test
+    public void shouldReturnValuesOfTheEntityCorrectly() {
+        assertThat(BookSortColumn.ID.getValue(firstBook)).isEqualTo(1L);
+        assertThat(BookSortColumn.NAME.getValue(firstBook)).isEqualTo("test firstBook");
+        assertThat(BookSortColumn.AUTHOR.getValue(firstBook)).isEqualTo("test firstAuthor");
+        assertThat(BookSortColumn.PRINT_YEAR.getValue(firstBook)).isEqualTo(2000);
+    }
+
+    @Test
+    public void shouldParseValuesCorrectly() {
+        for (val sortColumn : BookSortColumn.values()) {
+            val value = sortColumn.getValue(firstBook);
+
+            assertThat(sortColumn.parseValue(String.valueOf(value))).isEqualTo(value);
+        }
+    }
+
+    @Test
+    public void shouldThrowNumberFormatExceptionWhenParseIncorrectNumber() {
+        assertThatExceptionOfType(NumberFormatException.class)
+                .isThrownBy(() -> BookSortColumn.PRINT_YEAR.parseValue("test"));
+    }
+}
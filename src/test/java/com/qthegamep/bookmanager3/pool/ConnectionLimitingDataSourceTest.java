@@ -0,0 +1,177 @@
+package com.qthegamep.bookmanager3.pool;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConnectionLimitingDataSourceTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private static final long ACQUIRE_TIMEOUT = 100L;
+
+    private DataSource targetDataSource;
+    private ConnectionLimitingDataSource connectionLimitingDataSource;
+
+    @Before
+    public void setUp() throws SQLException {
+        targetDataSource = mock(DataSource.class);
+
+        when(targetDataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+
+        connectionLimitingDataSource = new ConnectionLimitingDataSource(targetDataSource, 2, ACQUIRE_TIMEOUT);
+    }
+
+    @Test
+    public void shouldTakePermitWhenConnectionIsOpenedAndReturnItWhenConnectionIsClosed() throws SQLException {
+        val connection = connectionLimitingDataSource.getConnection();
+
+        assertThat(connectionLimitingDataSource.getAvailablePermits()).isEqualTo(1);
+
+        connection.close();
+
+        assertThat(connectionLimitingDataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldReturnPermitOnlyOnceWhenConnectionIsClosedSeveralTimes() throws SQLException {
+        val connection = connectionLimitingDataSource.getConnection();
+
+        connection.close();
+        connection.close();
+
+        assertThat(connectionLimitingDataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldDelegateCallsOfConnectionToTargetConnection() throws SQLException {
+        val targetConnection = mock(Connection.class);
+
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+        when(targetConnection.getAutoCommit()).thenReturn(true);
+
+        try (val connection = connectionLimitingDataSource.getConnection()) {
+            assertThat(connection.getAutoCommit()).isTrue();
+            assertThat(connection).isEqualTo(connection);
+        }
+
+        verify(targetConnection).close();
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenPermitIsNotAcquiredInTimeout() throws SQLException {
+        connectionLimitingDataSource.getConnection();
+        connectionLimitingDataSource.getConnection();
+
+        assertThatThrownBy(() -> connectionLimitingDataSource.getConnection())
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessage("Unable to acquire connection permit in 100 ms");
+
+        assertThat(connectionLimitingDataSource.getPermitTimeouts()).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldWaitForPermitUntilConnectionIsClosed() throws Exception {
+        val limitingDataSource = new ConnectionLimitingDataSource(targetDataSource, 1, 10_000L);
+        val connection = limitingDataSource.getConnection();
+
+        val waitingConnection = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limitingDataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        while (limitingDataSource.getWaitingThreads() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThat(waitingConnection.isDone()).isFalse();
+
+        connection.close();
+
+        waitingConnection.get(10, TimeUnit.SECONDS).close();
+
+        assertThat(limitingDataSource.getAvailablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldWaitForConnectionOfPoolOnlyUntilDeadlineOfPermit() throws Exception {
+        val hikariDataSource = new HikariDataSource();
+
+        hikariDataSource.setJdbcUrl("jdbc:h2:mem:connectionLimitingDataSourceTest");
+        hikariDataSource.setMaximumPoolSize(1);
+        hikariDataSource.setConnectionTimeout(30_000L);
+
+        try (val limitingDataSource = new ConnectionLimitingDataSource(hikariDataSource, 2, 300L);
+             val connection = limitingDataSource.getConnection()) {
+            val start = System.nanoTime();
+
+            assertThatThrownBy(limitingDataSource::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class);
+
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(10_000L);
+            assertThat(connection.isValid(1)).isTrue();
+            assertThat(limitingDataSource.getAvailablePermits()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void shouldReturnPermitWhenTargetDataSourceThrowsException() throws SQLException {
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("connection"));
+
+        assertThatThrownBy(() -> connectionLimitingDataSource.getConnection())
+                .isInstanceOf(SQLException.class)
+                .hasMessage("connection");
+
+        assertThat(connectionLimitingDataSource.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldCloseTargetDataSourceWhenItIsCloseable() throws Exception {
+        val hikariDataSource = mock(HikariDataSource.class);
+
+        new ConnectionLimitingDataSource(hikariDataSource, 1, ACQUIRE_TIMEOUT).close();
+
+        verify(hikariDataSource).close();
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenMaxConnectionsIsNotPositive() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ConnectionLimitingDataSource(targetDataSource, 0, ACQUIRE_TIMEOUT))
+                .withMessage("Max connections should be positive: 0");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateDataSourceWithNullTargetDataSource() {
+        val exceptionMessage = "targetDataSource is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new ConnectionLimitingDataSource(null, 1, ACQUIRE_TIMEOUT))
+                .withMessage(exceptionMessage);
+    }
+}
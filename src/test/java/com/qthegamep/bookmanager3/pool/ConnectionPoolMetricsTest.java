@@ -0,0 +1,116 @@
+package com.qthegamep.bookmanager3.pool;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ConnectionPoolMetricsTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    private PoolStats poolStats;
+
+    @Before
+    public void setUp() {
+        connectionPoolMetrics = new ConnectionPoolMetrics();
+
+        poolStats = new PoolStats(0) {
+
+            @Override
+            protected void update() {
+                totalConnections = 10;
+                idleConnections = 7;
+                activeConnections = 3;
+                pendingThreads = 1;
+            }
+        };
+    }
+
+    @Test
+    public void shouldCreateConnectionPoolMetricsWithNoArgsConstructor() {
+        assertThat(connectionPoolMetrics).isNotNull();
+    }
+
+    @Test
+    public void shouldImplementsMetricsTrackerFactoryInterface() {
+        assertThat(connectionPoolMetrics).isInstanceOf(MetricsTrackerFactory.class);
+    }
+
+    @Test
+    public void shouldReturnZeroCountersWhenPoolIsNotStarted() {
+        assertThat(connectionPoolMetrics.getActiveConnections()).isZero();
+        assertThat(connectionPoolMetrics.getIdleConnections()).isZero();
+        assertThat(connectionPoolMetrics.getWaitingThreads()).isZero();
+        assertThat(connectionPoolMetrics.getTotalConnections()).isZero();
+        assertThat(connectionPoolMetrics.getAcquisitionCount()).isZero();
+        assertThat(connectionPoolMetrics.getConnectionTimeouts()).isZero();
+    }
+
+    @Test
+    public void shouldReturnPoolCountersCorrectly() {
+        connectionPoolMetrics.create("testPool", poolStats);
+
+        assertThat(connectionPoolMetrics.getActiveConnections()).isEqualTo(3);
+        assertThat(connectionPoolMetrics.getIdleConnections()).isEqualTo(7);
+        assertThat(connectionPoolMetrics.getWaitingThreads()).isEqualTo(1);
+        assertThat(connectionPoolMetrics.getTotalConnections()).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldRecordAcquisitionTimeCorrectly() {
+        val metricsTracker = connectionPoolMetrics.create("testPool", poolStats);
+
+        metricsTracker.recordConnectionAcquiredNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        metricsTracker.recordConnectionAcquiredNanos(TimeUnit.MICROSECONDS.toNanos(200));
+        metricsTracker.recordConnectionAcquiredNanos(TimeUnit.MICROSECONDS.toNanos(300));
+
+        assertThat(connectionPoolMetrics.getAcquisitionCount()).isEqualTo(3);
+        assertThat(connectionPoolMetrics.getAcquisitionTimeMean()).isCloseTo(200.0, within(1.0));
+        assertThat(connectionPoolMetrics.getAcquisitionTimeP50()).isEqualTo(200);
+        assertThat(connectionPoolMetrics.getAcquisitionTimeP95()).isEqualTo(300);
+        assertThat(connectionPoolMetrics.getAcquisitionTimeP99()).isEqualTo(300);
+        assertThat(connectionPoolMetrics.getAcquisitionTimeMax()).isEqualTo(300);
+    }
+
+    @Test
+    public void shouldRecordConnectionTimeoutsCorrectly() {
+        val metricsTracker = connectionPoolMetrics.create("testPool", poolStats);
+
+        metricsTracker.recordConnectionTimeout();
+        metricsTracker.recordConnectionTimeout();
+
+        assertThat(connectionPoolMetrics.getConnectionTimeouts()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldResetMetricsCorrectly() {
+        val metricsTracker = connectionPoolMetrics.create("testPool", poolStats);
+
+        metricsTracker.recordConnectionAcquiredNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        metricsTracker.recordConnectionTimeout();
+
+        connectionPoolMetrics.reset();
+
+        assertThat(connectionPoolMetrics.getAcquisitionCount()).isZero();
+        assertThat(connectionPoolMetrics.getConnectionTimeouts()).isZero();
+    }
+}
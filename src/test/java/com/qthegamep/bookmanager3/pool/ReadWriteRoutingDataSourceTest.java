@@ -0,0 +1,288 @@
+package com.qthegamep.bookmanager3.pool;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.repository.BookRepository;
+import com.qthegamep.bookmanager3.service.BookService;
+import com.qthegamep.bookmanager3.service.BookServiceImpl;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private static final String SELECT_NODE = "SELECT NAME FROM NODE";
+    private static final long STICKINESS = 60000L;
+
+    private HikariDataSource primaryDataSource;
+    private HikariDataSource firstReplicaDataSource;
+    private HikariDataSource secondReplicaDataSource;
+
+    @Before
+    public void setUp() {
+        primaryDataSource = createDataSource("primary");
+        firstReplicaDataSource = createDataSource("firstReplica");
+        secondReplicaDataSource = createDataSource("secondReplica");
+    }
+
+    @After
+    public void tearDown() {
+        primaryDataSource.close();
+        firstReplicaDataSource.close();
+        secondReplicaDataSource.close();
+    }
+
+    @Test
+    public void shouldSendReadOnlyTransactionsToReplicaAndOtherConnectionsToPrimary() {
+        val routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, List.of(firstReplicaDataSource), 0);
+        val jdbcTemplate = new JdbcTemplate(routingDataSource);
+
+        assertThat(selectNode(readOnly(routingDataSource), jdbcTemplate)).isEqualTo("firstReplica");
+        assertThat(selectNode(readWrite(routingDataSource), jdbcTemplate)).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject(SELECT_NODE, String.class)).isEqualTo("primary");
+        assertThat(routingDataSource.getReplicaConnections()).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldBalanceReadOnlyTransactionsBetweenReplicas() {
+        val routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource,
+                List.of(firstReplicaDataSource, secondReplicaDataSource), 0);
+        val jdbcTemplate = new JdbcTemplate(routingDataSource);
+        val transactionTemplate = readOnly(routingDataSource);
+
+        val nodes = List.of(
+                selectNode(transactionTemplate, jdbcTemplate),
+                selectNode(transactionTemplate, jdbcTemplate),
+                selectNode(transactionTemplate, jdbcTemplate),
+                selectNode(transactionTemplate, jdbcTemplate));
+
+        assertThat(nodes).containsExactly("firstReplica", "secondReplica", "firstReplica", "secondReplica");
+        assertThat(routingDataSource.getReplicas()).isEqualTo(2);
+        assertThat(routingDataSource.getReplicaConnections()).isEqualTo(4L);
+    }
+
+    @Test
+    public void shouldReadFromPrimaryInTheSameThreadAfterCommittedWriteWhenStickinessIsEnabled() throws Exception {
+        val routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, List.of(firstReplicaDataSource),
+                STICKINESS);
+        val jdbcTemplate = new JdbcTemplate(routingDataSource);
+
+        readWrite(routingDataSource).execute(status -> jdbcTemplate.update("UPDATE NODE SET NAME = 'written'"));
+
+        val sameThreadNode = selectNode(readOnly(routingDataSource), jdbcTemplate);
+        val otherThreadNode = CompletableFuture.supplyAsync(() -> selectNode(readOnly(routingDataSource), jdbcTemplate))
+                .get();
+
+        assertThat(sameThreadNode).isEqualTo("written");
+        assertThat(otherThreadNode).isEqualTo("firstReplica");
+        assertThat(routingDataSource.getStickyReads()).isEqualTo(1L);
+        assertThat(routingDataSource.getStickinessMillis()).isEqualTo(STICKINESS);
+    }
+
+    @Test
+    public void shouldNotStickToPrimaryAfterRolledBackWrite() {
+        val routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, List.of(firstReplicaDataSource),
+                STICKINESS);
+        val jdbcTemplate = new JdbcTemplate(routingDataSource);
+
+        readWrite(routingDataSource).execute(status -> {
+            jdbcTemplate.update("UPDATE NODE SET NAME = 'written'");
+
+            status.setRollbackOnly();
+
+            return null;
+        });
+
+        assertThat(selectNode(readOnly(routingDataSource), jdbcTemplate)).isEqualTo("firstReplica");
+        assertThat(routingDataSource.getStickyReads()).isZero();
+    }
+
+    @Test
+    public void shouldTryNextReplicaAndThenPrimaryWhenReplicaDoesNotGiveConnection() throws SQLException {
+        val failedReplicaDataSource = mock(DataSource.class);
+
+        when(failedReplicaDataSource.getConnection()).thenThrow(new SQLException("Replica is down"));
+
+        val routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource,
+                List.of(failedReplicaDataSource, firstReplicaDataSource), 0);
+        val jdbcTemplate = new JdbcTemplate(routingDataSource);
+
+        assertThat(selectNode(readOnly(routingDataSource), jdbcTemplate)).isEqualTo("firstReplica");
+
+        val onlyFailedReplicaRoutingDataSource = new ReadWriteRoutingDataSource(primaryDataSource,
+                List.of(failedReplicaDataSource), 0);
+
+        assertThat(selectNode(readOnly(onlyFailedReplicaRoutingDataSource),
+                new JdbcTemplate(onlyFailedReplicaRoutingDataSource)))
+                .isEqualTo("primary");
+        assertThat(routingDataSource.getReplicaFailures() + onlyFailedReplicaRoutingDataSource.getReplicaFailures())
+                .isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldSendAllConnectionsToPrimaryWhenThereAreNoReplicas() {
+        val routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, List.of(), STICKINESS);
+        val jdbcTemplate = new JdbcTemplate(routingDataSource);
+
+        assertThat(selectNode(readOnly(routingDataSource), jdbcTemplate)).isEqualTo("primary");
+        assertThat(routingDataSource.getReplicaConnections()).isZero();
+    }
+
+    @Test
+    public void shouldSendFinderQueriesOfBookServiceToReplica() {
+        val primaryBookDataSource = createDataSource("bookPrimary");
+        val replicaBookDataSource = createDataSource("bookReplica");
+        val routingDataSource = new ReadWriteRoutingDataSource(primaryBookDataSource,
+                List.of(replicaBookDataSource), 0);
+
+        new JdbcTemplate(replicaBookDataSource).execute("CREATE TABLE BOOK (ID BIGINT PRIMARY KEY, " +
+                "NAME VARCHAR(255) NOT NULL, AUTHOR VARCHAR(255) NOT NULL, PRINT_YEAR INT NOT NULL, " +
+                "IS_READ BOOLEAN NOT NULL)");
+        new JdbcTemplate(replicaBookDataSource).update("INSERT INTO BOOK VALUES (1, 'name', 'replica author', " +
+                "2000, FALSE)");
+
+        try (val context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(DataSource.class, () -> routingDataSource);
+            context.register(BookServiceConfig.class);
+            context.refresh();
+
+            val bookService = context.getBean(BookService.class);
+
+            assertThat(bookService.getByName("name")).extracting(Book::getAuthor).containsExactly("replica author");
+            assertThat(bookService.getByAuthor("replica author")).hasSize(1);
+            assertThat(bookService.getByPrintYear(2000)).hasSize(1);
+            assertThat(bookService.getByRead(false)).hasSize(1);
+            assertThat(routingDataSource.getReplicaConnections()).isEqualTo(4L);
+        } finally {
+            primaryBookDataSource.close();
+            replicaBookDataSource.close();
+        }
+    }
+
+    @Test
+    public void shouldCloseTargetDataSources() throws Exception {
+        val routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource,
+                List.of(firstReplicaDataSource, secondReplicaDataSource), 0);
+
+        routingDataSource.close();
+
+        assertThat(primaryDataSource.isClosed()).isTrue();
+        assertThat(firstReplicaDataSource.isClosed()).isTrue();
+        assertThat(secondReplicaDataSource.isClosed()).isTrue();
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCreateRoutingDataSourceWithNegativeStickiness() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ReadWriteRoutingDataSource(primaryDataSource, List.of(), -1))
+                .withMessage("Stickiness should not be negative: -1");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateRoutingDataSourceWithNullPrimary() {
+        val exceptionMessage = "primaryDataSource is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new ReadWriteRoutingDataSource(null, List.of(), 0))
+                .withMessage(exceptionMessage);
+    }
+
+    private static HikariDataSource createDataSource(String node) {
+        val dataSource = new HikariDataSource();
+
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + node + ";DB_CLOSE_DELAY=-1");
+        dataSource.setPoolName(node);
+        dataSource.setMaximumPoolSize(2);
+
+        val jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS NODE");
+        jdbcTemplate.execute("CREATE TABLE NODE (NAME VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO NODE VALUES (?)", node);
+
+        return dataSource;
+    }
+
+    private static String selectNode(TransactionTemplate transactionTemplate, JdbcTemplate jdbcTemplate) {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+    }
+
+    private static TransactionTemplate readOnly(DataSource dataSource) {
+        val transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transactionTemplate.setReadOnly(true);
+
+        return transactionTemplate;
+    }
+
+    private static TransactionTemplate readWrite(DataSource dataSource) {
+        return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = BookRepository.class)
+    static class BookServiceConfig {
+
+        @Bean
+        public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            val entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+            val jpaProperties = new Properties();
+
+            jpaProperties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            jpaProperties.put("hibernate.hbm2ddl.auto", "create-drop");
+            jpaProperties.put("hibernate.cache.use_second_level_cache", "false");
+
+            entityManagerFactory.setDataSource(dataSource);
+            entityManagerFactory.setPersistenceUnitName("routing");
+            entityManagerFactory.setPersistenceProviderClass(HibernatePersistenceProvider.class);
+            entityManagerFactory.setPackagesToScan("com.qthegamep.bookmanager3.entity");
+            entityManagerFactory.setJpaProperties(jpaProperties);
+
+            return entityManagerFactory;
+        }
+
+        @Bean
+        public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean
+        public BookService bookService(BookRepository bookRepository) {
+            return new BookServiceImpl(bookRepository);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.qthegamep.bookmanager3.repository;
 
 import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.pagination.BookKeyset;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
 import com.qthegamep.bookmanager3.testhelper.rule.Rules;
 import com.qthegamep.bookmanager3.testhelper.util.TestDataUtil;
 
@@ -14,21 +16,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.PersistenceContext;
 
 import org.junit.rules.ExternalResource;
 import org.junit.rules.Stopwatch;
 import org.hibernate.PropertyValueException;
+import org.hibernate.SessionFactory;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.IllegalTransactionStateException;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -48,6 +58,9 @@ public class BookRepositoryTest {
     @Autowired
     private BookRepository bookRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private Book firstBook;
     private Book secondBook;
 
@@ -223,6 +236,33 @@ public class BookRepositoryTest {
                 .withCauseExactlyInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldGetEntityByIdFromTheSecondLevelCache() {
+        val statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        val savedBook = bookRepository.save(TestDataUtil.createPagedBooks().get(0));
+
+        statistics.clear();
+
+        val firstBookFromTheCache = bookRepository.findById(savedBook.getId());
+        val secondBookFromTheCache = bookRepository.findById(savedBook.getId());
+
+        assertThat(firstBookFromTheCache).contains(savedBook);
+        assertThat(secondBookFromTheCache).contains(savedBook);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+        assertThat(statistics.getSecondLevelCacheMissCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    public void shouldUseIndexesForFinderQueries() {
+        assertThat(explain("SELECT * FROM BOOK WHERE NAME = 'test'")).contains("BOOK_NAME_INDEX");
+        assertThat(explain("SELECT * FROM BOOK WHERE AUTHOR = 'test'")).contains("BOOK_AUTHOR_INDEX");
+        assertThat(explain("SELECT * FROM BOOK WHERE PRINT_YEAR = 2000")).contains("BOOK_PRINT_YEAR_INDEX");
+        assertThat(explain("SELECT * FROM BOOK WHERE IS_READ = TRUE")).contains("BOOK_IS_READ_PRINT_YEAR_INDEX");
+    }
+
     @Test
     public void shouldFindBooksByNameFromTheDatabaseCorrectly() {
         bookRepository.saveAll(books);
@@ -307,6 +347,207 @@ public class BookRepositoryTest {
                 .isEmpty();
     }
 
+    @Test
+    public void shouldFindExistingIdsFromTheDatabaseCorrectly() {
+        bookRepository.saveAll(books);
+
+        val existingIds = bookRepository.findExistingIds(List.of(1L, 2L, 3L));
+
+        assertThat(existingIds)
+                .isNotNull()
+                .hasSize(2)
+                .containsOnly(1L, 2L);
+    }
+
+    @Test
+    public void shouldFindExistingIdsReturnEmptySetCorrectly() {
+        val existingIds = bookRepository.findExistingIds(List.of(1L, 2L));
+
+        assertThat(existingIds)
+                .isNotNull()
+                .isEmpty();
+    }
+
+    @Test
+    public void shouldStreamBooksByNameFromTheDatabaseCorrectly() {
+        bookRepository.saveAll(books);
+
+        try (val booksFromTheDatabase = bookRepository.streamBooksByName("test firstBook")) {
+            assertThat(booksFromTheDatabase.collect(Collectors.toList()))
+                    .isNotNull()
+                    .hasSize(1)
+                    .contains(firstBook);
+        }
+    }
+
+    @Test
+    public void shouldStreamBooksByAuthorFromTheDatabaseCorrectly() {
+        bookRepository.saveAll(books);
+
+        try (val booksFromTheDatabase = bookRepository.streamBooksByAuthor("test firstAuthor")) {
+            assertThat(booksFromTheDatabase.collect(Collectors.toList()))
+                    .isNotNull()
+                    .hasSize(1)
+                    .contains(firstBook);
+        }
+    }
+
+    @Test
+    public void shouldStreamBooksByPrintYearFromTheDatabaseCorrectly() {
+        bookRepository.saveAll(books);
+
+        try (val booksFromTheDatabase = bookRepository.streamBooksByPrintYear(2000)) {
+            assertThat(booksFromTheDatabase.collect(Collectors.toList()))
+                    .isNotNull()
+                    .hasSize(1)
+                    .contains(firstBook);
+        }
+    }
+
+    @Test
+    public void shouldStreamBooksByReadFromTheDatabaseCorrectly() {
+        bookRepository.saveAll(books);
+
+        try (val booksFromTheDatabase = bookRepository.streamBooksByRead(false)) {
+            assertThat(booksFromTheDatabase.collect(Collectors.toList()))
+                    .isNotNull()
+                    .hasSize(1)
+                    .contains(firstBook);
+        }
+    }
+
+    @Test
+    public void shouldStreamAllEntitiesFromTheDatabaseCorrectly() {
+        bookRepository.saveAll(books);
+
+        try (val allBooksFromTheDatabase = bookRepository.streamAll()) {
+            assertThat(allBooksFromTheDatabase.collect(Collectors.toList()))
+                    .isNotNull()
+                    .hasSize(2)
+                    .contains(firstBook, secondBook);
+        }
+    }
+
+    @Test
+    public void shouldStreamAllReturnEmptyStreamCorrectly() {
+        try (val allBooksFromTheDatabase = bookRepository.streamAll()) {
+            assertThat(allBooksFromTheDatabase.count()).isZero();
+        }
+    }
+
+    @Test
+    public void shouldDetachStreamedEntitiesFromThePersistenceContext() {
+        bookRepository.saveAll(books);
+
+        try (val allBooksFromTheDatabase = bookRepository.streamAll()) {
+            allBooksFromTheDatabase.forEach(book -> assertThat(entityManager.contains(book)).isFalse());
+        }
+    }
+
+    @Test(expected = IllegalTransactionStateException.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldThrowIllegalTransactionStateExceptionWhenStreamWithoutTransaction() {
+        bookRepository.streamAll();
+    }
+
+    @Test
+    public void shouldFindAllAfterPageByPageCorrectly() {
+        bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        val firstPage = bookRepository.findAllAfter(BookSortColumn.NAME, null, 2);
+        val secondPage = bookRepository.findAllAfter(BookSortColumn.NAME,
+                BookKeyset.of(BookSortColumn.NAME, firstPage.get(1)), 2);
+        val thirdPage = bookRepository.findAllAfter(BookSortColumn.NAME,
+                BookKeyset.of(BookSortColumn.NAME, secondPage.get(1)), 2);
+
+        assertThat(firstPage)
+                .extracting(Book::getName)
+                .containsExactly("test book 1", "test book 2");
+        assertThat(secondPage)
+                .extracting(Book::getName)
+                .containsExactly("test book 3", "test book 4");
+        assertThat(thirdPage)
+                .extracting(Book::getName)
+                .containsExactly("test book 5");
+    }
+
+    @Test
+    public void shouldFindAllAfterSortedByIdCorrectly() {
+        bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        val firstPage = bookRepository.findAllAfter(BookSortColumn.ID, null, 3);
+        val secondPage = bookRepository.findAllAfter(BookSortColumn.ID,
+                BookKeyset.of(BookSortColumn.ID, firstPage.get(2)), 3);
+
+        assertThat(firstPage).hasSize(3);
+        assertThat(secondPage).hasSize(2);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(2).getId());
+    }
+
+    @Test
+    public void shouldFindBooksByAuthorAfterWithEqualSortValuesCorrectly() {
+        bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        val firstPage = bookRepository.findBooksByAuthorAfter("test author", BookSortColumn.PRINT_YEAR, null, 2);
+        val secondPage = bookRepository.findBooksByAuthorAfter("test author", BookSortColumn.PRINT_YEAR,
+                BookKeyset.of(BookSortColumn.PRINT_YEAR, firstPage.get(1)), 2);
+
+        assertThat(firstPage)
+                .extracting(Book::getPrintYear)
+                .containsExactly(2000, 2000);
+        assertThat(secondPage)
+                .extracting(Book::getPrintYear)
+                .containsExactly(2000, 2010);
+        assertThat(secondPage.get(0).getId()).isGreaterThan(firstPage.get(1).getId());
+    }
+
+    @Test
+    public void shouldFindBooksByNameAfterCorrectly() {
+        bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        val page = bookRepository.findBooksByNameAfter("test book 1", BookSortColumn.AUTHOR, null, 10);
+
+        assertThat(page)
+                .extracting(Book::getName)
+                .containsExactly("test book 1");
+    }
+
+    @Test
+    public void shouldFindBooksByPrintYearAfterCorrectly() {
+        bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        val page = bookRepository.findBooksByPrintYearAfter(2000, BookSortColumn.NAME, null, 10);
+
+        assertThat(page)
+                .extracting(Book::getName)
+                .containsExactly("test book 1", "test book 3", "test book 5");
+    }
+
+    @Test
+    public void shouldFindBooksByReadAfterCorrectly() {
+        bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        val page = bookRepository.findBooksByReadAfter(true, BookSortColumn.NAME, null, 10);
+
+        assertThat(page)
+                .extracting(Book::getName)
+                .containsExactly("test book 2", "test book 4");
+    }
+
+    @Test
+    public void shouldFindAllAfterReturnEmptyListCorrectly() {
+        val page = bookRepository.findAllAfter(BookSortColumn.NAME, null, 10);
+
+        assertThat(page)
+                .isNotNull()
+                .isEmpty();
+    }
+
+    @Test(expected = InvalidDataAccessApiUsageException.class)
+    public void shouldThrowInvalidDataAccessApiUsageExceptionWhenFindAllAfterKeysetOfOtherSortColumn() {
+        bookRepository.findAllAfter(BookSortColumn.NAME, BookKeyset.of(BookSortColumn.AUTHOR, firstBook), 10);
+    }
+
     @Test
     public void shouldFindAllEntitiesFromTheDatabaseCorrectly() {
         bookRepository.saveAll(books);
@@ -372,6 +613,61 @@ public class BookRepositoryTest {
                 .contains(books.get(0), books.get(1));
     }
 
+    @Test
+    public void shouldUpdateReadByAuthorCorrectly() {
+        bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        val updated = bookRepository.updateReadByAuthor("test author", true);
+
+        assertThat(updated).isEqualTo(4);
+        assertThat(bookRepository.findBooksByRead(false)).isEmpty();
+    }
+
+    @Test
+    public void shouldUpdateReadByIdsCorrectly() {
+        val savedBooks = bookRepository.saveAll(books);
+
+        val updated = bookRepository.updateReadByIds(List.of(savedBooks.get(1).getId()), false);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(bookRepository.findBooksByRead(true)).isEmpty();
+    }
+
+    @Test
+    public void shouldUpdatePrintYearByIdsCorrectly() {
+        val savedBooks = bookRepository.saveAll(books);
+
+        val updated = bookRepository.updatePrintYearByIds(List.of(savedBooks.get(0).getId()), 1999);
+
+        val bookFromTheDatabase = bookRepository.findById(savedBooks.get(0).getId());
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(bookFromTheDatabase)
+                .isPresent()
+                .hasValueSatisfying(book -> assertThat(book.getPrintYear()).isEqualTo(1999));
+    }
+
+    @Test
+    public void shouldNotUpdateAnythingWhenIdsDoNotExist() {
+        val updated = bookRepository.updatePrintYearByIds(List.of(1L, 2L), 1999);
+
+        assertThat(updated).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void shouldEvictSecondLevelCacheWhenUpdateInBulk() {
+        val savedBook = bookRepository.save(TestDataUtil.createPagedBooks().get(0));
+
+        assertThat(bookRepository.findById(savedBook.getId()))
+                .hasValueSatisfying(book -> assertThat(book.getPrintYear()).isEqualTo(2000));
+
+        bookRepository.updatePrintYearByIds(List.of(savedBook.getId()), 1999);
+
+        assertThat(bookRepository.findById(savedBook.getId()))
+                .hasValueSatisfying(book -> assertThat(book.getPrintYear()).isEqualTo(1999));
+    }
+
     @Test
     public void shouldDeleteBookFromTheDatabaseCorrectly() {
         bookRepository.saveAll(books);
@@ -524,6 +820,157 @@ public class BookRepositoryTest {
                 .withCauseExactlyInstanceOf(PropertyValueException.class);
     }
 
+    @Test
+    public void shouldDeleteBooksInBatchCorrectly() {
+        bookRepository.saveAll(books);
+
+        val deleted = bookRepository.deleteBooksInBatch(books);
+
+        val allBooksFromTheDatabase = bookRepository.findAll();
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(allBooksFromTheDatabase)
+                .isNotNull()
+                .isEmpty();
+    }
+
+    @Test
+    public void shouldDeleteBooksInBatchByChunksOfIds() {
+        val statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        val manyBooks = new ArrayList<Book>();
+
+        for (int i = 0; i < 1200; i++) {
+            manyBooks.add(TestDataUtil.createPagedBooks().get(0));
+        }
+
+        val savedBooks = bookRepository.saveAll(manyBooks);
+
+        entityManager.flush();
+        statistics.clear();
+
+        val deleted = bookRepository.deleteBooksInBatch(savedBooks.subList(0, 1100));
+
+        assertThat(deleted).isEqualTo(1100);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(bookRepository.count()).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldDetachEntitiesThatWereDeletedInBatch() {
+        val savedBooks = bookRepository.saveAll(books);
+
+        bookRepository.deleteBooksInBatch(savedBooks);
+
+        assertThat(savedBooks).allSatisfy(book -> assertThat(entityManager.contains(book)).isFalse());
+        assertThat(bookRepository.findById(savedBooks.get(0).getId())).isEmpty();
+    }
+
+    @Test
+    public void shouldNotDeleteBooksInBatchWhenDatabaseIsEmpty() {
+        val deleted = bookRepository.deleteBooksInBatch(books);
+
+        assertThat(deleted).isZero();
+    }
+
+    @Test
+    public void shouldThrowInvalidDataAccessApiUsageExceptionWhenDeleteInBatchListWithNullEntity() {
+        val exceptionMessage = "The entity must not be null!; nested exception is " +
+                "java.lang.IllegalArgumentException: The entity must not be null!";
+
+        books.add(null);
+
+        assertThatExceptionOfType(InvalidDataAccessApiUsageException.class)
+                .isThrownBy(() -> bookRepository.deleteBooksInBatch(books))
+                .withMessage(exceptionMessage)
+                .withCauseExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldThrowDataIntegrityViolationExceptionWhenDeleteInBatchListWithIncorrectEntity() {
+        val exceptionMessage = "not-null property references a null or transient value : " +
+                "com.qthegamep.bookmanager3.entity.Book.name; nested exception is " +
+                "org.hibernate.PropertyValueException: not-null property references a null or transient " +
+                "value : com.qthegamep.bookmanager3.entity.Book.name";
+
+        books.get(0).setName(null);
+
+        assertThatExceptionOfType(DataIntegrityViolationException.class)
+                .isThrownBy(() -> bookRepository.deleteBooksInBatch(books))
+                .withMessage(exceptionMessage)
+                .withCauseExactlyInstanceOf(PropertyValueException.class);
+    }
+
+    @Test
+    public void shouldInsertAllBooksWithMultiRowValuesAndReturnGeneratedIds() {
+        val manyBooks = new ArrayList<Book>();
+
+        for (int i = 0; i < 240; i++) {
+            manyBooks.addAll(TestDataUtil.createPagedBooks());
+        }
+
+        val insertedBooks = bookRepository.insertAll(manyBooks, BookInsertMode.MULTI_ROW_VALUES, 500);
+
+        assertThat(insertedBooks).hasSize(1200).containsExactlyElementsOf(manyBooks);
+        assertThat(insertedBooks.stream().map(Book::getId).distinct().count()).isEqualTo(1200L);
+        assertThat(insertedBooks).allSatisfy(book -> assertThat(entityManager.contains(book)).isFalse());
+        assertThat(bookRepository.count()).isEqualTo(1200L);
+        assertThat(bookRepository.findById(insertedBooks.get(1199).getId())).contains(manyBooks.get(1199));
+    }
+
+    @Test
+    public void shouldInsertAllBooksWithJdbcBatchAsNewEntitiesWithGeneratedIds() {
+        val insertedBooks = bookRepository.insertAll(books, BookInsertMode.JDBC_BATCH, 1);
+
+        assertThat(insertedBooks).containsExactlyElementsOf(books);
+        assertThat(insertedBooks).extracting(Book::getId).doesNotContainNull();
+        assertThat(insertedBooks.get(0)).isNotSameAs(books.get(0));
+        assertThat(insertedBooks.get(1)).isNotSameAs(books.get(1));
+        assertThat(bookRepository.findAll()).containsExactlyInAnyOrderElementsOf(books);
+    }
+
+    @Test
+    public void shouldGenerateIdsOfInsertedBooksThatDoNotConflictWithSavedBooks() {
+        val savedBooks = bookRepository.saveAll(TestDataUtil.createPagedBooks());
+        val insertedBooks = bookRepository.insertAll(TestDataUtil.createPagedBooks(),
+                BookInsertMode.MULTI_ROW_VALUES, 2);
+        val otherSavedBooks = bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        entityManager.flush();
+
+        val ids = new ArrayList<Long>();
+
+        savedBooks.forEach(book -> ids.add(book.getId()));
+        insertedBooks.forEach(book -> ids.add(book.getId()));
+        otherSavedBooks.forEach(book -> ids.add(book.getId()));
+
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(bookRepository.count()).isEqualTo(15L);
+    }
+
+    @Test
+    public void shouldThrowDataAccessExceptionWhenInsertAllWithCopyIntoNotPostgreSqlDatabase() {
+        assertThatExceptionOfType(DataAccessException.class)
+                .isThrownBy(() -> bookRepository.insertAll(books, BookInsertMode.COPY, 100))
+                .withRootCauseInstanceOf(ClassNotFoundException.class);
+    }
+
+    @Test
+    public void shouldThrowInvalidDataAccessApiUsageExceptionWhenInsertAllWithJpaMode() {
+        assertThatExceptionOfType(InvalidDataAccessApiUsageException.class)
+                .isThrownBy(() -> bookRepository.insertAll(books, BookInsertMode.JPA, 100))
+                .withCauseExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldThrowDataIntegrityViolationExceptionWhenInsertAllListWithIncorrectEntity() {
+        books.get(1).setName(null);
+
+        assertThatExceptionOfType(DataIntegrityViolationException.class)
+                .isThrownBy(() -> bookRepository.insertAll(books, BookInsertMode.MULTI_ROW_VALUES, 100))
+                .withCauseExactlyInstanceOf(PropertyValueException.class);
+    }
+
     @Test
     public void shouldHashSetContainsTheSameEntityAfterGettingId() {
         val firstBookCopy = TestDataUtil.createFirstBook();
@@ -547,4 +994,90 @@ public class BookRepositoryTest {
                 .hasSize(1)
                 .contains(firstBookCopy);
     }
+
+    @Test
+    public void shouldCountBooksGroupedByAuthorWithoutLoadingEntities() {
+        val statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        val authorCounts = bookRepository.countBooksGroupedByAuthor();
+
+        assertThat(authorCounts.size()).isEqualTo(2);
+        assertThat(authorCounts.getAuthor(0)).isEqualTo("test author");
+        assertThat(authorCounts.getCount(0)).isEqualTo(4L);
+        assertThat(authorCounts.getAuthor(1)).isEqualTo("test other author");
+        assertThat(authorCounts.getCount(1)).isEqualTo(1L);
+        assertThat(authorCounts.getTotal()).isEqualTo(5L);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCountBooksGroupedByPrintYear() {
+        bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        val histogram = bookRepository.countBooksGroupedByPrintYear(1);
+
+        assertThat(histogram.getBucketSize()).isEqualTo(1);
+        assertThat(histogram.size()).isEqualTo(2);
+        assertThat(histogram.getBucketStart(0)).isEqualTo(2000);
+        assertThat(histogram.getCount(0)).isEqualTo(3L);
+        assertThat(histogram.getBucketStart(1)).isEqualTo(2010);
+        assertThat(histogram.getCount(1)).isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldCountBooksGroupedByBucketsOfPrintYears() {
+        val pagedBooks = TestDataUtil.createPagedBooks();
+
+        pagedBooks.get(0).setPrintYear(-5);
+
+        bookRepository.saveAll(pagedBooks);
+
+        val histogram = bookRepository.countBooksGroupedByPrintYear(10);
+
+        assertThat(histogram.size()).isEqualTo(3);
+        assertThat(histogram.getBucketStart(0)).isEqualTo(-10);
+        assertThat(histogram.getBucketEnd(0)).isEqualTo(0);
+        assertThat(histogram.getCount(0)).isEqualTo(1L);
+        assertThat(histogram.getBucketStart(1)).isEqualTo(2000);
+        assertThat(histogram.getCount(1)).isEqualTo(2L);
+        assertThat(histogram.getBucketStart(2)).isEqualTo(2010);
+        assertThat(histogram.getCount(2)).isEqualTo(2L);
+        assertThat(bookRepository.countBooksGroupedByPrintYear(20).getCount(1)).isEqualTo(4L);
+    }
+
+    @Test
+    public void shouldCountBooksGroupedByRead() {
+        bookRepository.saveAll(TestDataUtil.createPagedBooks());
+
+        val readCounts = bookRepository.countBooksGroupedByRead();
+
+        assertThat(readCounts.getRead()).isEqualTo(2L);
+        assertThat(readCounts.getUnread()).isEqualTo(3L);
+        assertThat(readCounts.getReadRatio()).isEqualTo(0.4);
+    }
+
+    @Test
+    public void shouldReturnEmptyCountsWhenDatabaseIsEmpty() {
+        assertThat(bookRepository.countBooksGroupedByAuthor().size()).isZero();
+        assertThat(bookRepository.countBooksGroupedByPrintYear(10).size()).isZero();
+        assertThat(bookRepository.countBooksGroupedByRead().getTotal()).isZero();
+    }
+
+    @Test
+    public void shouldThrowInvalidDataAccessApiUsageExceptionWhenCountBooksWithIncorrectBucketSize() {
+        assertThatExceptionOfType(InvalidDataAccessApiUsageException.class)
+                .isThrownBy(() -> bookRepository.countBooksGroupedByPrintYear(0))
+                .withCauseExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String explain(String query) {
+        return String.valueOf(entityManager.createNativeQuery("EXPLAIN " + query).getSingleResult());
+    }
 }
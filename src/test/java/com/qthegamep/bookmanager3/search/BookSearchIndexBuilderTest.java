@@ -0,0 +1,133 @@
+package com.qthegamep.bookmanager3.search;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.repository.BookRepository;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@WebAppConfiguration
+@ContextConfiguration("classpath:testApplicationContext.xml")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@RunWith(SpringJUnit4ClassRunner.class)
+public class BookSearchIndexBuilderTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private BookSearchIndexBuilder bookSearchIndexBuilder;
+
+    @Before
+    public void setUp() {
+        bookSearchIndexBuilder = new BookSearchIndexBuilder(dataSource, transactionManager, 10, 4);
+    }
+
+    @Test
+    public void shouldRebuildIndexFromAllRowsInParallel() {
+        val books = saveBooks(25);
+        val bookSearchIndex = new BookSearchIndex();
+
+        bookSearchIndex.index(createBook(-1L, "stale", "author"));
+
+        val indexedRows = bookSearchIndexBuilder.rebuild(bookSearchIndex);
+
+        assertThat(indexedRows).isEqualTo(25);
+        assertThat(bookSearchIndex.size()).isEqualTo(25);
+        assertThat(bookSearchIndex.search("stale", 10)).isEmpty();
+        assertThat(bookSearchIndex.search("author", 100)).hasSize(25);
+        assertThat(bookSearchIndex.search("book 7", 10))
+                .extracting(BookSearchHit::getId)
+                .containsExactly(books.get(7).getId());
+    }
+
+    @Test
+    public void shouldClearIndexWhenTableIsEmpty() {
+        val bookSearchIndex = new BookSearchIndex();
+
+        bookSearchIndex.index(createBook(1L, "stale", "author"));
+
+        assertThat(bookSearchIndexBuilder.rebuild(bookSearchIndex)).isZero();
+        assertThat(bookSearchIndex.size()).isZero();
+    }
+
+    @Test
+    public void shouldAllowNextRebuildAfterRebuild() {
+        saveBooks(5);
+
+        val bookSearchIndex = new BookSearchIndex();
+
+        bookSearchIndexBuilder.rebuild(bookSearchIndex);
+
+        assertThat(bookSearchIndexBuilder.rebuild(bookSearchIndex)).isEqualTo(5);
+        assertThat(bookSearchIndex.size()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCreateBuilderWithIncorrectSettings() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BookSearchIndexBuilder(dataSource, transactionManager, 10, 0))
+                .withMessage("Fetch size: 10 and workers: 0 should be positive");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateBuilderWithNullDataSource() {
+        val exceptionMessage = "dataSource is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new BookSearchIndexBuilder(null, transactionManager, 10, 4))
+                .withMessage(exceptionMessage);
+    }
+
+    private List<Book> saveBooks(int count) {
+        val books = new ArrayList<Book>(count);
+
+        for (int i = 0; i < count; i++) {
+            books.add(createBook(null, "book " + i, "author"));
+        }
+
+        return bookRepository.saveAll(books);
+    }
+
+    private static Book createBook(Long id, String name, String author) {
+        val book = new Book();
+
+        book.setId(id);
+        book.setName(name);
+        book.setAuthor(author);
+        book.setPrintYear(2000);
+
+        return book;
+    }
+}
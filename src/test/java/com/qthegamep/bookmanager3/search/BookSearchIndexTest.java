@@ -0,0 +1,217 @@
+package com.qthegamep.bookmanager3.search;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BookSearchIndexTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private BookSearchIndex bookSearchIndex;
+
+    @Before
+    public void setUp() {
+        bookSearchIndex = new BookSearchIndex();
+    }
+
+    @Test
+    public void shouldSplitTextIntoLowerCasedTerms() {
+        assertThat(BookSearchIndex.tokenize("The Lord-of the RINGS, vol.2")).containsExactly("the", "lord", "of",
+                "the", "rings", "vol", "2");
+        assertThat(BookSearchIndex.tokenize(" ,. ")).isEmpty();
+        assertThat(BookSearchIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    public void shouldFindBooksByNameAndAuthorCaseInsensitively() {
+        bookSearchIndex.indexAll(List.of(
+                createBook(1L, "War and Peace", "Leo Tolstoy"),
+                createBook(2L, "Anna Karenina", "Leo Tolstoy"),
+                createBook(3L, "Crime and Punishment", "Fyodor Dostoevsky")));
+
+        assertThat(hitIds("TOLSTOY")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(hitIds("war peace")).containsExactly(1L);
+        assertThat(hitIds("tolstoy crime")).isEmpty();
+        assertThat(hitIds("unknown")).isEmpty();
+        assertThat(hitIds(" - ")).isEmpty();
+    }
+
+    @Test
+    public void shouldRankBooksWithTermInNameHigherThanInAuthor() {
+        bookSearchIndex.indexAll(List.of(
+                createBook(1L, "Biography", "Pushkin"),
+                createBook(2L, "Pushkin", "Tynyanov"),
+                createBook(3L, "Poems", "Lermontov")));
+
+        val hits = bookSearchIndex.search("pushkin", 10);
+
+        assertThat(hits).extracting(BookSearchHit::getId).containsExactly(2L, 1L);
+        assertThat(hits.get(0).getScore()).isGreaterThan(hits.get(1).getScore());
+    }
+
+    @Test
+    public void shouldRankRareTermsHigherThanFrequentTerms() {
+        bookSearchIndex.indexAll(List.of(
+                createBook(1L, "Java book", "author"),
+                createBook(2L, "Java book", "author"),
+                createBook(3L, "Kotlin book", "author")));
+
+        assertThat(hitIds("book")).containsExactly(1L, 2L, 3L);
+        assertThat(bookSearchIndex.search("kotlin", 1).get(0).getScore())
+                .isGreaterThan(bookSearchIndex.search("java", 1).get(0).getScore());
+    }
+
+    @Test
+    public void shouldFindBooksByPrefixOfTermWithLowerScore() {
+        bookSearchIndex.indexAll(List.of(
+                createBook(1L, "Programming", "author"),
+                createBook(2L, "Program", "author")));
+
+        val hits = bookSearchIndex.search("program", 10);
+
+        assertThat(hits).extracting(BookSearchHit::getId).containsExactly(2L, 1L);
+        assertThat(hitIds("progr")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    public void shouldReturnLimitedNumberOfBestHits() {
+        for (long i = 1; i <= 50; i++) {
+            bookSearchIndex.index(createBook(i, i % 10 == 0 ? "book book" : "book", "author"));
+        }
+
+        assertThat(hitIds("book", 5)).containsExactly(10L, 20L, 30L, 40L, 50L);
+        assertThat(hitIds("book", 7)).containsExactly(10L, 20L, 30L, 40L, 50L, 1L, 2L);
+    }
+
+    @Test
+    public void shouldReplaceTermsWhenBookIsIndexedAgain() {
+        bookSearchIndex.index(createBook(1L, "old name", "author"));
+        bookSearchIndex.index(createBook(1L, "new name", "author"));
+
+        assertThat(hitIds("old")).isEmpty();
+        assertThat(hitIds("new")).containsExactly(1L);
+        assertThat(bookSearchIndex.size()).isEqualTo(1);
+        assertThat(bookSearchIndex.getTerms()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldRemoveBooksFromIndex() {
+        bookSearchIndex.indexAll(List.of(
+                createBook(1L, "first", "author"),
+                createBook(2L, "second", "author"),
+                createBook(3L, "third", "author")));
+
+        bookSearchIndex.remove(1L);
+
+        assertThat(hitIds("author")).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(hitIds("first")).isEmpty();
+
+        bookSearchIndex.removeAll(List.of(2L, 4L));
+
+        assertThat(hitIds("author")).containsExactly(3L);
+
+        bookSearchIndex.clear();
+
+        assertThat(bookSearchIndex.size()).isZero();
+        assertThat(bookSearchIndex.getTerms()).isZero();
+    }
+
+    @Test
+    public void shouldReplaceContentByPartsAndKeepChangesMadeDuringRebuild() {
+        bookSearchIndex.index(createBook(1L, "stale", "author"));
+        bookSearchIndex.beginRebuild();
+
+        val firstPart = new BookSearchIndex();
+        val secondPart = new BookSearchIndex();
+
+        firstPart.index(createBook(2L, "first part", "author"));
+        secondPart.index(createBook(3L, "second part", "author"));
+
+        bookSearchIndex.index(createBook(4L, "added during rebuild", "author"));
+        bookSearchIndex.remove(3L);
+
+        assertThat(hitIds("stale")).containsExactly(1L);
+
+        bookSearchIndex.completeRebuild(List.of(firstPart, secondPart));
+
+        assertThat(hitIds("stale")).isEmpty();
+        assertThat(hitIds("author")).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(hitIds("part")).containsExactly(2L);
+    }
+
+    @Test
+    public void shouldThrowIllegalStateExceptionWhenRebuildIsNotStartedOrAlreadyStarted() {
+        assertThatIllegalStateException()
+                .isThrownBy(() -> bookSearchIndex.completeRebuild(List.of()))
+                .withMessage("Index is not being rebuilt");
+
+        bookSearchIndex.beginRebuild();
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> bookSearchIndex.beginRebuild())
+                .withMessage("Index is already being rebuilt");
+
+        bookSearchIndex.abortRebuild();
+        bookSearchIndex.beginRebuild();
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenIndexBookWithoutIdOrSearchWithIncorrectLimit() {
+        val book = createBook(null, "name", "author");
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookSearchIndex.index(book))
+                .withMessage("Entity: " + book + " should have id to be indexed");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookSearchIndex.search("name", 0))
+                .withMessage("Limit: 0 should be positive");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenSearchWithNullQuery() {
+        val exceptionMessage = "query is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> bookSearchIndex.search(null, 10))
+                .withMessage(exceptionMessage);
+    }
+
+    private List<Long> hitIds(String query) {
+        return hitIds(query, 100);
+    }
+
+    private List<Long> hitIds(String query, int limit) {
+        return bookSearchIndex.search(query, limit).stream()
+                .map(BookSearchHit::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static Book createBook(Long id, String name, String author) {
+        val book = new Book();
+
+        book.setId(id);
+        book.setName(name);
+        book.setAuthor(author);
+        book.setPrintYear(2000);
+
+        return book;
+    }
+}
@@ -0,0 +1,293 @@
+package com.qthegamep.bookmanager3.service;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+import com.qthegamep.bookmanager3.testhelper.util.TestDataUtil;
+
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.slf4j.MDC;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AsyncBookServiceImplTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private static final long TIMEOUT = 10_000L;
+    private static final long SHORT_TIMEOUT = 100L;
+
+    private BookService bookService;
+    private ThreadPoolExecutor executor;
+    private AsyncBookServiceImpl asyncBookService;
+
+    @Before
+    public void setUp() {
+        bookService = mock(BookService.class);
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        asyncBookService = new AsyncBookServiceImpl(bookService, executor,
+                operation -> "getByName".equals(operation) ? SHORT_TIMEOUT : TIMEOUT);
+    }
+
+    @After
+    public void tearDown() {
+        asyncBookService.close();
+        executor.shutdownNow();
+        MDC.clear();
+    }
+
+    @Test
+    public void shouldCompleteFutureWithResultOfBookService() throws Exception {
+        val book = TestDataUtil.createFirstBook();
+
+        when(bookService.getById(1L)).thenReturn(book);
+
+        assertThat(asyncBookService.getById(1L).get(TIMEOUT, TimeUnit.MILLISECONDS)).isEqualTo(book);
+    }
+
+    @Test
+    public void shouldCompleteFutureOfVoidOperationWhenBookServiceReturns() throws Exception {
+        asyncBookService.removeAll().get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+        verify(bookService).removeAll();
+    }
+
+    @Test
+    public void shouldCompleteFutureExceptionallyWithExceptionOfBookService() {
+        val exception = new EntityNotFoundException("not found");
+
+        when(bookService.getById(1L)).thenThrow(exception);
+
+        assertThatThrownBy(() -> asyncBookService.getById(1L).get(TIMEOUT, TimeUnit.MILLISECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(exception);
+    }
+
+    @Test
+    public void shouldPerformOperationInExecutorThreadWithMdcContextOfCaller() throws Exception {
+        val thread = new AtomicReference<Thread>();
+        val requestId = new AtomicReference<String>();
+
+        when(bookService.markReadByAuthor("author")).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread());
+            requestId.set(MDC.get("requestId"));
+
+            return 1;
+        });
+
+        MDC.put("requestId", "42");
+
+        assertThat(asyncBookService.markReadByAuthor("author").get(TIMEOUT, TimeUnit.MILLISECONDS)).isEqualTo(1);
+        assertThat(thread.get()).isNotEqualTo(Thread.currentThread());
+        assertThat(requestId.get()).isEqualTo("42");
+    }
+
+    @Test
+    public void shouldRestoreMdcContextOfExecutorThreadAfterOperation() throws Exception {
+        MDC.put("requestId", "42");
+
+        asyncBookService.removeAll().get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+        MDC.clear();
+
+        val requestId = new AtomicReference<String>("not called");
+
+        doAnswer(invocation -> {
+            requestId.set(MDC.get("requestId"));
+
+            return null;
+        }).when(bookService).removeAll();
+
+        asyncBookService.removeAll().get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+        assertThat(requestId.get()).isNull();
+    }
+
+    @Test
+    public void shouldCompleteFutureWithTimeoutExceptionAndInterruptOperationWhenItTimesOut() throws Exception {
+        val interrupted = new CountDownLatch(1);
+
+        when(bookService.getByName("name")).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(TIMEOUT);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+
+            return null;
+        });
+
+        assertThatThrownBy(() -> asyncBookService.getByName("name").get(TIMEOUT, TimeUnit.MILLISECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class)
+                .hasMessageContaining("Operation: getByName timed out after 100 ms");
+
+        assertThat(interrupted.await(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldInterruptOperationWhenFutureIsCancelled() throws Exception {
+        val started = new CountDownLatch(1);
+        val interrupted = new CountDownLatch(1);
+
+        when(bookService.getAll()).thenAnswer(invocation -> {
+            started.countDown();
+
+            try {
+                Thread.sleep(TIMEOUT);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+
+            return null;
+        });
+
+        val future = asyncBookService.getAll();
+
+        assertThat(started.await(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+
+        future.cancel(true);
+
+        assertThat(interrupted.await(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldNotTimeOutWriteOperation() throws Exception {
+        val book = TestDataUtil.createFirstBook();
+        val interrupted = new AtomicBoolean();
+
+        when(bookService.add(book)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(3 * SHORT_TIMEOUT);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+
+            return book;
+        });
+
+        try (val shortTimeoutAsyncBookService = new AsyncBookServiceImpl(bookService, executor,
+                operation -> SHORT_TIMEOUT)) {
+            assertThat(shortTimeoutAsyncBookService.add(book).get(TIMEOUT, TimeUnit.MILLISECONDS)).isEqualTo(book);
+        }
+
+        assertThat(interrupted.get()).isFalse();
+    }
+
+    @Test
+    public void shouldFinishWriteOperationWithoutInterruptionWhenFutureIsCancelled() throws Exception {
+        val started = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+        val finished = new CountDownLatch(1);
+        val interrupted = new AtomicBoolean();
+
+        doAnswer(invocation -> {
+            started.countDown();
+
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+
+            finished.countDown();
+
+            return null;
+        }).when(bookService).removeAll();
+
+        val future = asyncBookService.removeAll();
+
+        assertThat(started.await(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+
+        future.cancel(true);
+        release.countDown();
+
+        assertThat(finished.await(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(interrupted.get()).isFalse();
+    }
+
+    @Test
+    public void shouldNotPerformWriteOperationWhenFutureIsCancelledBeforeItIsStarted() throws Exception {
+        val started = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+
+        when(bookService.getAll()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+
+            return null;
+        });
+
+        val runningFuture = asyncBookService.getAll();
+
+        assertThat(started.await(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+
+        asyncBookService.removeAll().cancel(true);
+
+        release.countDown();
+
+        runningFuture.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        asyncBookService.getById(1L).get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+        verify(bookService, never()).removeAll();
+    }
+
+    @Test
+    public void shouldCompleteFutureWithRejectedExecutionExceptionWhenExecutorIsFull() throws Exception {
+        val started = new CountDownLatch(1);
+        val release = new CountDownLatch(1);
+
+        when(bookService.getAll()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+
+            return null;
+        });
+
+        val runningFuture = asyncBookService.getAll();
+
+        assertThat(started.await(TIMEOUT, TimeUnit.MILLISECONDS)).isTrue();
+
+        val queuedFuture = asyncBookService.getAll();
+        val rejectedFuture = asyncBookService.getAll();
+
+        assertThat(rejectedFuture.isCompletedExceptionally()).isTrue();
+        assertThatThrownBy(rejectedFuture::join).hasCauseInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+
+        runningFuture.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        queuedFuture.get(TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateAsyncServiceWithNullService() {
+        val exceptionMessage = "bookService is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new AsyncBookServiceImpl(null, executor, operation -> TIMEOUT))
+                .withMessage(exceptionMessage);
+    }
+}
@@ -2,7 +2,14 @@ package com.qthegamep.bookmanager3.service;
 
 import com.qthegamep.bookmanager3.entity.Book;
 import com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException;
+import com.qthegamep.bookmanager3.pagination.BookKeyset;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.repository.BookInsertMode;
 import com.qthegamep.bookmanager3.repository.BookRepository;
+import com.qthegamep.bookmanager3.search.BookSearchIndex;
+import com.qthegamep.bookmanager3.statistics.BookAuthorCounts;
+import com.qthegamep.bookmanager3.statistics.BookReadCounts;
+import com.qthegamep.bookmanager3.statistics.BookYearHistogram;
 import com.qthegamep.bookmanager3.testhelper.rule.Rules;
 import com.qthegamep.bookmanager3.testhelper.util.TestDataUtil;
 
@@ -28,8 +35,12 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.dao.DataIntegrityViolationException;
 
 import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -51,6 +62,8 @@ public class BookServiceImplTest {
 
     @Autowired
     private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
     private BookService bookServiceMock;
 
     @Mock
@@ -119,7 +132,7 @@ public class BookServiceImplTest {
     public void shouldCallAddMethodCorrectly() {
         bookServiceMock.add(firstBook);
 
-        verify(bookRepositoryMock, times(1)).existsById(firstBook.getId());
+        verify(bookRepositoryMock, times(1)).findById(firstBook.getId());
         verify(bookRepositoryMock, times(1)).save(firstBook);
 
         verifyNoMoreInteractions(bookRepositoryMock);
@@ -187,13 +200,79 @@ public class BookServiceImplTest {
     public void shouldCallAddAllMethodCorrectly() {
         bookServiceMock.addAll(books);
 
-        verify(bookRepositoryMock, times(1)).existsById(firstBook.getId());
-        verify(bookRepositoryMock, times(1)).existsById(secondBook.getId());
+        verify(bookRepositoryMock, times(1)).findExistingIds(List.of(firstBook.getId(), secondBook.getId()));
+        verify(bookRepositoryMock, times(1)).saveAll(books);
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldCallAddAllMethodWithChunkedIdsCorrectly() {
+        val manyBooks = new ArrayList<Book>();
+
+        for (long id = 1; id <= 1001; id++) {
+            val book = TestDataUtil.createFirstBook();
+
+            book.setId(id);
+
+            manyBooks.add(book);
+        }
+
+        bookServiceMock.addAll(manyBooks);
+
+        verify(bookRepositoryMock, times(3)).findExistingIds(anyCollection());
+        verify(bookRepositoryMock, times(1)).saveAll(manyBooks);
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldNotCallFindExistingIdsWhenAddAllBooksWithNullId() {
+        books.get(0).setId(null);
+        books.get(1).setId(null);
+
+        bookServiceMock.addAll(books);
+
         verify(bookRepositoryMock, times(1)).saveAll(books);
 
         verifyNoMoreInteractions(bookRepositoryMock);
     }
 
+    @Test
+    public void shouldCallInsertAllWhenAddAllBooksInNativeInsertMode() {
+        val nativeBookService = new BookServiceImpl(bookRepositoryMock, BookInsertMode.JDBC_BATCH, 100,
+                new BookSearchIndex());
+
+        nativeBookService.addAll(books);
+
+        verify(bookRepositoryMock, times(1)).findExistingIds(List.of(firstBook.getId(), secondBook.getId()));
+        verify(bookRepositoryMock, times(1)).insertAll(books, BookInsertMode.JDBC_BATCH, 100);
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldAddAllBooksInNativeInsertModeCorrectly() {
+        val nativeBookService = new BookServiceImpl(bookRepository, BookInsertMode.MULTI_ROW_VALUES, 2,
+                new BookSearchIndex());
+        val pagedBooks = TestDataUtil.createPagedBooks();
+
+        val addedBooks = nativeBookService.addAll(pagedBooks);
+
+        assertThat(addedBooks)
+                .containsExactlyElementsOf(pagedBooks)
+                .allSatisfy(book -> assertThat(book.getId()).isNotNull());
+        assertThat(bookService.getAll()).containsExactlyInAnyOrderElementsOf(pagedBooks);
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCreateBookServiceWithIncorrectInsertBatchSize() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BookServiceImpl(bookRepositoryMock, BookInsertMode.MULTI_ROW_VALUES, 0,
+                        new BookSearchIndex()))
+                .withMessage("Insert batch size: 0 should be positive");
+    }
+
     @Test
     public void shouldAddAllBooksWithNullIdCorrectly() {
         books.get(0).setId(null);
@@ -229,14 +308,30 @@ public class BookServiceImplTest {
 
     @Test
     public void shouldThrowEntityAlreadyExistsExceptionWhenAddAllListOfAlreadyExistedBooks() {
-        val exceptionMessage = "Entity: Book(id=1, name=test firstBook, author=test firstAuthor, printYear=2000, " +
-                "read=false) already exists. You should update this entity or add new one";
+        val exceptionMessage = "Entities with ids: [1, 2] already exist. " +
+                "You should update these entities or add new ones";
 
         bookService.addAll(books);
 
         assertThatExceptionOfType(EntityAlreadyExistsException.class)
                 .isThrownBy(() -> bookService.addAll(books))
-                .withMessage(exceptionMessage);
+                .withMessage(exceptionMessage)
+                .satisfies(e -> assertThat(e.getIds()).containsExactly(1L, 2L));
+    }
+
+    @Test
+    public void shouldThrowEntityAlreadyExistsExceptionWithOnlyExistedIdsWhenAddAllList() {
+        val exceptionMessage = "Entities with ids: [1] already exist. " +
+                "You should update these entities or add new ones";
+
+        bookService.add(firstBook);
+
+        secondBook.setId(100L);
+
+        assertThatExceptionOfType(EntityAlreadyExistsException.class)
+                .isThrownBy(() -> bookService.addAll(List.of(firstBook, secondBook)))
+                .withMessage(exceptionMessage)
+                .satisfies(e -> assertThat(e.getIds()).containsExactly(1L));
     }
 
     @Test
@@ -420,6 +515,425 @@ public class BookServiceImplTest {
         verifyNoMoreInteractions(bookRepositoryMock);
     }
 
+    @Test
+    public void shouldGetAllPageByPageCorrectly() {
+        bookService.addAll(TestDataUtil.createPagedBooks());
+
+        val names = new ArrayList<String>();
+
+        var pages = 0;
+        String token = null;
+
+        do {
+            val page = bookService.getAll(BookSortColumn.NAME, token, 2);
+
+            page.getContent().forEach(book -> names.add(book.getName()));
+
+            token = page.getNextToken();
+            pages++;
+        } while (Objects.nonNull(token));
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(names).containsExactly("test book 1", "test book 2", "test book 3", "test book 4", "test book 5");
+    }
+
+    @Test
+    public void shouldGetByAuthorPageCorrectly() {
+        bookService.addAll(TestDataUtil.createPagedBooks());
+
+        val firstPage = bookService.getByAuthor("test author", BookSortColumn.NAME, null, 3);
+        val secondPage = bookService.getByAuthor("test author", BookSortColumn.NAME, firstPage.getNextToken(), 3);
+
+        assertThat(firstPage.getContent())
+                .extracting(Book::getName)
+                .containsExactly("test book 1", "test book 2", "test book 3");
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(secondPage.getContent())
+                .extracting(Book::getName)
+                .containsExactly("test book 5");
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
+    @Test
+    public void shouldGetByNamePageCorrectly() {
+        bookService.addAll(TestDataUtil.createPagedBooks());
+
+        val page = bookService.getByName("test book 1", BookSortColumn.ID, null, 10);
+
+        assertThat(page.getContent())
+                .extracting(Book::getName)
+                .containsExactly("test book 1");
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    public void shouldGetByPrintYearPageCorrectly() {
+        bookService.addAll(TestDataUtil.createPagedBooks());
+
+        val page = bookService.getByPrintYear(2010, BookSortColumn.AUTHOR, null, 10);
+
+        assertThat(page.getContent())
+                .extracting(Book::getName)
+                .containsExactly("test book 2", "test book 4");
+    }
+
+    @Test
+    public void shouldGetByReadPageCorrectly() {
+        bookService.addAll(TestDataUtil.createPagedBooks());
+
+        val page = bookService.getByRead(false, BookSortColumn.PRINT_YEAR, null, 10);
+
+        assertThat(page.getContent())
+                .extracting(Book::getPrintYear)
+                .containsExactly(2000, 2000, 2000);
+    }
+
+    @Test
+    public void shouldCallGetAllPageMethodCorrectly() {
+        when(bookRepositoryMock.findAllAfter(BookSortColumn.NAME, null, 2))
+                .thenReturn(List.of(firstBook, secondBook));
+
+        val page = bookServiceMock.getAll(BookSortColumn.NAME, null, 1);
+
+        assertThat(page.getContent()).containsExactly(firstBook);
+        assertThat(page.getNextToken()).isEqualTo(BookKeyset.of(BookSortColumn.NAME, firstBook).toToken());
+
+        verify(bookRepositoryMock, times(1)).findAllAfter(BookSortColumn.NAME, null, 2);
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldCallGetPageMethodsWithKeysetFromTokenCorrectly() {
+        val keyset = BookKeyset.of(BookSortColumn.AUTHOR, firstBook);
+        val token = keyset.toToken();
+
+        bookServiceMock.getByName("test firstBook", BookSortColumn.AUTHOR, token, 10);
+        bookServiceMock.getByAuthor("test firstAuthor", BookSortColumn.AUTHOR, token, 10);
+        bookServiceMock.getByPrintYear(2000, BookSortColumn.AUTHOR, token, 10);
+        bookServiceMock.getByRead(false, BookSortColumn.AUTHOR, token, 10);
+
+        verify(bookRepositoryMock, times(1)).findBooksByNameAfter("test firstBook", BookSortColumn.AUTHOR, keyset, 11);
+        verify(bookRepositoryMock, times(1))
+                .findBooksByAuthorAfter("test firstAuthor", BookSortColumn.AUTHOR, keyset, 11);
+        verify(bookRepositoryMock, times(1)).findBooksByPrintYearAfter(2000, BookSortColumn.AUTHOR, keyset, 11);
+        verify(bookRepositoryMock, times(1)).findBooksByReadAfter(false, BookSortColumn.AUTHOR, keyset, 11);
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldSearchBooksInOrderOfRelevance() {
+        val searchIndex = new BookSearchIndex();
+        val searchBookService = new BookServiceImpl(bookRepositoryMock, BookInsertMode.JPA, 1, searchIndex);
+
+        secondBook.setAuthor("test firstBook");
+        searchIndex.indexAll(List.of(firstBook, secondBook));
+
+        when(bookRepositoryMock.findAllById(List.of(firstBook.getId(), secondBook.getId())))
+                .thenReturn(List.of(secondBook, firstBook));
+
+        val foundBooks = searchBookService.search("FIRSTBOOK", 10);
+
+        assertThat(foundBooks).containsExactly(firstBook, secondBook);
+
+        verify(bookRepositoryMock, times(1)).findAllById(List.of(firstBook.getId(), secondBook.getId()));
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldNotChangeSearchIndexBeforeCommit() {
+        val searchIndex = new BookSearchIndex();
+        val searchBookService = new BookServiceImpl(bookRepository, BookInsertMode.JPA, 1, searchIndex);
+
+        searchBookService.addAll(books);
+
+        assertThat(searchIndex.size()).isZero();
+        assertThat(searchBookService.search("test", 10)).isEmpty();
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenSearchWithIncorrectLimit() {
+        val exceptionMessage = "Search limit: 0 is incorrect. It should be between 1 and 1000";
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookServiceMock.search("test", 0))
+                .withMessage(exceptionMessage);
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookServiceMock.search("test", 1001));
+
+        verifyZeroInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldCountByAuthorPrintYearAndReadCorrectly() {
+        bookService.addAll(TestDataUtil.createPagedBooks());
+
+        val authorCounts = bookService.countByAuthor();
+        val yearCounts = bookService.countByPrintYear();
+        val decadeCounts = bookService.countByPrintYear(10);
+        val readCounts = bookService.countByRead();
+
+        assertThat(authorCounts).isEqualTo(new BookAuthorCounts(new String[]{"test author", "test other author"},
+                new long[]{4L, 1L}));
+        assertThat(yearCounts).isEqualTo(new BookYearHistogram(1, new int[]{2000, 2010}, new long[]{3L, 2L}));
+        assertThat(decadeCounts).isEqualTo(new BookYearHistogram(10, new int[]{2000, 2010}, new long[]{3L, 2L}));
+        assertThat(readCounts).isEqualTo(new BookReadCounts(2L, 3L));
+    }
+
+    @Test
+    public void shouldCallCountMethodsCorrectly() {
+        when(bookRepositoryMock.countBooksGroupedByAuthor()).thenReturn(new BookAuthorCounts(new String[0],
+                new long[0]));
+        when(bookRepositoryMock.countBooksGroupedByPrintYear(anyInt())).thenReturn(new BookYearHistogram(1,
+                new int[0], new long[0]));
+        when(bookRepositoryMock.countBooksGroupedByRead()).thenReturn(new BookReadCounts(0L, 0L));
+
+        bookServiceMock.countByAuthor();
+        bookServiceMock.countByPrintYear();
+        bookServiceMock.countByPrintYear(5);
+        bookServiceMock.countByRead();
+
+        verify(bookRepositoryMock, times(1)).countBooksGroupedByAuthor();
+        verify(bookRepositoryMock, times(1)).countBooksGroupedByPrintYear(1);
+        verify(bookRepositoryMock, times(1)).countBooksGroupedByPrintYear(5);
+        verify(bookRepositoryMock, times(1)).countBooksGroupedByRead();
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCountByPrintYearWithIncorrectBucketSize() {
+        val exceptionMessage = "Bucket size: 0 is incorrect. It should be positive";
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookServiceMock.countByPrintYear(0))
+                .withMessage(exceptionMessage);
+
+        verifyZeroInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenGetPageWithIncorrectSize() {
+        val exceptionMessage = "Page size: 0 is incorrect. It should be between 1 and 1000";
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookServiceMock.getAll(BookSortColumn.ID, null, 0))
+                .withMessage(exceptionMessage);
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookServiceMock.getAll(BookSortColumn.ID, null, 1001));
+
+        verifyZeroInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenGetPageWithIncorrectToken() {
+        val token = BookKeyset.of(BookSortColumn.NAME, firstBook).toToken();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> bookServiceMock.getByAuthor("test firstAuthor", BookSortColumn.PRINT_YEAR,
+                        token, 10));
+
+        verifyZeroInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenGetPageWithNullSortColumn() {
+        val exceptionMessage = "sortColumn is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> bookService.getAll(null, null, 10))
+                .withMessage(exceptionMessage);
+    }
+
+    @Test
+    public void shouldProcessByNameBooksCorrectly() {
+        bookService.addAll(books);
+
+        val processedBooks = new ArrayList<Book>();
+
+        val processed = bookService.processByName("test firstBook", processedBooks::add);
+
+        assertThat(processed).isEqualTo(1);
+        assertThat(processedBooks)
+                .hasSize(1)
+                .contains(firstBook);
+    }
+
+    @Test
+    public void shouldCallProcessByNameMethodCorrectly() {
+        val closed = new AtomicBoolean();
+
+        when(bookRepositoryMock.streamBooksByName("test firstBook"))
+                .thenReturn(Stream.of(firstBook).onClose(() -> closed.set(true)));
+
+        bookServiceMock.processByName("test firstBook", book -> {
+        });
+
+        assertThat(closed).isTrue();
+
+        verify(bookRepositoryMock, times(1)).streamBooksByName("test firstBook");
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldProcessByAuthorBooksCorrectly() {
+        bookService.addAll(books);
+
+        val processedBooks = new ArrayList<Book>();
+
+        val processed = bookService.processByAuthor("test firstAuthor", processedBooks::add);
+
+        assertThat(processed).isEqualTo(1);
+        assertThat(processedBooks)
+                .hasSize(1)
+                .contains(firstBook);
+    }
+
+    @Test
+    public void shouldCallProcessByAuthorMethodCorrectly() {
+        val closed = new AtomicBoolean();
+
+        when(bookRepositoryMock.streamBooksByAuthor("test firstAuthor"))
+                .thenReturn(Stream.of(firstBook).onClose(() -> closed.set(true)));
+
+        bookServiceMock.processByAuthor("test firstAuthor", book -> {
+        });
+
+        assertThat(closed).isTrue();
+
+        verify(bookRepositoryMock, times(1)).streamBooksByAuthor("test firstAuthor");
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldProcessByPrintYearBooksCorrectly() {
+        bookService.addAll(books);
+
+        val processedBooks = new ArrayList<Book>();
+
+        val processed = bookService.processByPrintYear(2000, processedBooks::add);
+
+        assertThat(processed).isEqualTo(1);
+        assertThat(processedBooks)
+                .hasSize(1)
+                .contains(firstBook);
+    }
+
+    @Test
+    public void shouldCallProcessByPrintYearMethodCorrectly() {
+        val closed = new AtomicBoolean();
+
+        when(bookRepositoryMock.streamBooksByPrintYear(2000))
+                .thenReturn(Stream.of(firstBook).onClose(() -> closed.set(true)));
+
+        bookServiceMock.processByPrintYear(2000, book -> {
+        });
+
+        assertThat(closed).isTrue();
+
+        verify(bookRepositoryMock, times(1)).streamBooksByPrintYear(2000);
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldProcessByReadBooksCorrectly() {
+        bookService.addAll(books);
+
+        val processedBooks = new ArrayList<Book>();
+
+        val processed = bookService.processByRead(false, processedBooks::add);
+
+        assertThat(processed).isEqualTo(1);
+        assertThat(processedBooks)
+                .hasSize(1)
+                .contains(firstBook);
+    }
+
+    @Test
+    public void shouldCallProcessByReadMethodCorrectly() {
+        val closed = new AtomicBoolean();
+
+        when(bookRepositoryMock.streamBooksByRead(false))
+                .thenReturn(Stream.of(firstBook).onClose(() -> closed.set(true)));
+
+        bookServiceMock.processByRead(false, book -> {
+        });
+
+        assertThat(closed).isTrue();
+
+        verify(bookRepositoryMock, times(1)).streamBooksByRead(false);
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldProcessAllBooksCorrectly() {
+        bookService.addAll(books);
+
+        val processedBooks = new ArrayList<Book>();
+
+        val processed = bookService.processAll(processedBooks::add);
+
+        assertThat(processed).isEqualTo(2);
+        assertThat(processedBooks)
+                .hasSize(2)
+                .contains(firstBook, secondBook);
+    }
+
+    @Test
+    public void shouldProcessAllReturnZeroWhenDatabaseIsEmpty() {
+        val processed = bookService.processAll(book -> fail("Database should be empty"));
+
+        assertThat(processed).isZero();
+    }
+
+    @Test
+    public void shouldCallProcessAllMethodCorrectly() {
+        val closed = new AtomicBoolean();
+
+        when(bookRepositoryMock.streamAll())
+                .thenReturn(Stream.of(firstBook, secondBook).onClose(() -> closed.set(true)));
+
+        val processed = bookServiceMock.processAll(book -> {
+        });
+
+        assertThat(processed).isEqualTo(2);
+        assertThat(closed).isTrue();
+
+        verify(bookRepositoryMock, times(1)).streamAll();
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldCloseStreamWhenProcessAllActionThrowsException() {
+        val closed = new AtomicBoolean();
+
+        when(bookRepositoryMock.streamAll())
+                .thenReturn(Stream.of(firstBook).onClose(() -> closed.set(true)));
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> bookServiceMock.processAll(book -> {
+                    throw new IllegalStateException();
+                }));
+
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenProcessAllWithNullAction() {
+        val exceptionMessage = "action is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> bookService.processAll(null))
+                .withMessage(exceptionMessage);
+    }
+
     @Test
     public void shouldUpdateBookCorrectly() {
         bookService.add(firstBook);
@@ -514,6 +1028,85 @@ public class BookServiceImplTest {
                 .withCauseExactlyInstanceOf(PropertyValueException.class);
     }
 
+    @Test
+    public void shouldMarkReadByAuthorCorrectly() {
+        bookService.addAll(books);
+
+        val updated = bookService.markReadByAuthor("test firstAuthor");
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(bookService.getByRead(false)).isEmpty();
+    }
+
+    @Test
+    public void shouldCallMarkReadByAuthorMethodCorrectly() {
+        bookServiceMock.markReadByAuthor("test firstAuthor");
+
+        verify(bookRepositoryMock, times(1)).updateReadByAuthor("test firstAuthor", true);
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldSetReadByIdsCorrectly() {
+        val savedBooks = bookService.addAll(books);
+
+        val updated = bookService.setReadByIds(List.of(savedBooks.get(0).getId(), savedBooks.get(1).getId()), true);
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(bookService.getByRead(true)).hasSize(2);
+    }
+
+    @Test
+    public void shouldCallSetReadByIdsMethodByChunksOfIds() {
+        val ids = new ArrayList<Long>();
+
+        for (long id = 1; id <= 1001; id++) {
+            ids.add(id);
+        }
+
+        when(bookRepositoryMock.updateReadByIds(anyCollection(), eq(true))).thenReturn(500, 500, 1);
+
+        val updated = bookServiceMock.setReadByIds(ids, true);
+
+        assertThat(updated).isEqualTo(1001);
+
+        verify(bookRepositoryMock, times(3)).updateReadByIds(anyCollection(), eq(true));
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldUpdatePrintYearByIdsCorrectly() {
+        val savedBooks = bookService.addAll(books);
+
+        val updated = bookService.updatePrintYearByIds(List.of(savedBooks.get(1).getId()), 2000);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(bookService.getByPrintYear(2000)).hasSize(2);
+    }
+
+    @Test
+    public void shouldCallUpdatePrintYearByIdsMethodCorrectly() {
+        bookServiceMock.updatePrintYearByIds(List.of(1L, 2L), 2000);
+
+        verify(bookRepositoryMock, times(1)).updatePrintYearByIds(List.of(1L, 2L), 2000);
+
+        verifyNoMoreInteractions(bookRepositoryMock);
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenUpdateByNullIds() {
+        val exceptionMessage = "ids is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> bookService.setReadByIds(null, true))
+                .withMessage(exceptionMessage);
+        assertThatNullPointerException()
+                .isThrownBy(() -> bookService.updatePrintYearByIds(null, 2000))
+                .withMessage(exceptionMessage);
+    }
+
     @Test
     public void shouldRemoveBookCorrectly() {
         bookService.add(firstBook);
@@ -573,11 +1166,27 @@ public class BookServiceImplTest {
                 .isEmpty();
     }
 
+    @Test
+    public void shouldRemoveAllListOfBooksAndKeepOtherBooksCorrectly() {
+        bookService.addAll(books);
+
+        val pagedBooks = bookService.addAll(TestDataUtil.createPagedBooks());
+
+        bookService.removeAll(pagedBooks);
+
+        val allBooksFromTheDatabase = bookService.getAll();
+
+        assertThat(allBooksFromTheDatabase)
+                .isNotNull()
+                .hasSize(2)
+                .contains(firstBook, secondBook);
+    }
+
     @Test
     public void shouldCallRemoveAllListOfBooksMethodCorrectly() {
         bookServiceMock.removeAll(books);
 
-        verify(bookRepositoryMock, times(1)).deleteAll(books);
+        verify(bookRepositoryMock, times(1)).deleteBooksInBatch(books);
 
         verifyNoMoreInteractions(bookRepositoryMock);
     }
@@ -623,7 +1232,7 @@ public class BookServiceImplTest {
     public void shouldCallRemoveAllMethodCorrectly() {
         bookServiceMock.removeAll();
 
-        verify(bookRepositoryMock, times(1)).deleteAll();
+        verify(bookRepositoryMock, times(1)).deleteAllInBatch();
 
         verifyNoMoreInteractions(bookRepositoryMock);
     }
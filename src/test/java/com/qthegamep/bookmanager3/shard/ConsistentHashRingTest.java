@@ -0,0 +1,100 @@
+package com.qthegamep.bookmanager3.shard;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ConsistentHashRingTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private static final int KEYS = 10000;
+
+    @Test
+    public void shouldReturnSameNodeForSameKey() {
+        val ring = new ConsistentHashRing<>(List.of("first", "second", "third"), 160);
+        val otherRing = new ConsistentHashRing<>(List.of("first", "second", "third"), 160);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(ring.get("author" + i)).isEqualTo(ring.get("author" + i)).isEqualTo(otherRing.get("author" + i));
+        }
+
+        assertThat(ring.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldDistributeKeysBetweenNodes() {
+        val ring = new ConsistentHashRing<>(List.of(0, 1, 2, 3), 160);
+        val keysByNode = new HashMap<Integer, Integer>();
+
+        for (int i = 0; i < KEYS; i++) {
+            keysByNode.merge(ring.get("author" + i), 1, Integer::sum);
+        }
+
+        assertThat(keysByNode).hasSize(4);
+        assertThat(keysByNode.values()).allSatisfy(keys -> assertThat(keys).isBetween(KEYS / 8, KEYS * 3 / 8));
+    }
+
+    @Test
+    public void shouldMoveKeysOnlyToNewNodeWhenNodeIsAdded() {
+        val ring = new ConsistentHashRing<>(List.of(0, 1, 2), 160);
+        val biggerRing = new ConsistentHashRing<>(List.of(0, 1, 2, 3), 160);
+        var movedKeys = 0;
+
+        for (int i = 0; i < KEYS; i++) {
+            val node = ring.get("author" + i);
+            val newNode = biggerRing.get("author" + i);
+
+            if (!node.equals(newNode)) {
+                assertThat(newNode).isEqualTo(3);
+
+                movedKeys++;
+            }
+        }
+
+        assertThat(movedKeys).isBetween(KEYS / 8, KEYS * 3 / 8);
+    }
+
+    @Test
+    public void shouldReturnOnlyNodeWhenRingHasOneNode() {
+        val ring = new ConsistentHashRing<>(List.of("only"), 1);
+
+        assertThat(ring.get("")).isEqualTo("only");
+        assertThat(ring.get("author")).isEqualTo("only");
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCreateRingWithoutNodes() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ConsistentHashRing<>(List.of(), 160))
+                .withMessage("Nodes: 0 and virtual nodes: 160 should be positive");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ConsistentHashRing<>(List.of("only"), 0))
+                .withMessage("Nodes: 1 and virtual nodes: 0 should be positive");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenGetNodeOfNullKey() {
+        val ring = new ConsistentHashRing<>(List.of("only"), 1);
+        val exceptionMessage = "key is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> ring.get(null))
+                .withMessage(exceptionMessage);
+    }
+}
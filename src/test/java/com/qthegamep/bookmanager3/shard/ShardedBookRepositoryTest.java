@@ -0,0 +1,417 @@
+package com.qthegamep.bookmanager3.shard;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.pagination.BookKeyset;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ShardedBookRepositoryTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private static final int SHARDS = 3;
+
+    private List<LocalContainerEntityManagerFactoryBean> entityManagerFactories;
+    private ShardedBookRepository shardedBookRepository;
+
+    @Before
+    public void setUp() {
+        entityManagerFactories = new ArrayList<>(SHARDS);
+
+        for (int i = 0; i < SHARDS; i++) {
+            entityManagerFactories.add(createEntityManagerFactory("shard" + i));
+        }
+
+        shardedBookRepository = new ShardedBookRepository(entityManagerFactories.stream()
+                .map(LocalContainerEntityManagerFactoryBean::getObject)
+                .collect(Collectors.toList()), 160);
+    }
+
+    @After
+    public void tearDown() {
+        shardedBookRepository.close();
+
+        for (val entityManagerFactory : entityManagerFactories) {
+            entityManagerFactory.destroy();
+        }
+    }
+
+    @Test
+    public void shouldSaveBookInShardOfAuthorAndEncodeShardInId() {
+        val book = createBook("name", "author", 2000);
+
+        val savedBook = shardedBookRepository.save(book);
+
+        val shard = shardedBookRepository.getShard("author");
+
+        assertThat(book.getId()).isNull();
+        assertThat(savedBook.getId()).isNotNull();
+        assertThat(ShardedBookRepository.getShard(savedBook.getId())).isEqualTo(shard);
+        assertThat(countInShard(shard)).isEqualTo(1L);
+        assertThat(shardedBookRepository.findById(savedBook.getId())).contains(savedBook);
+    }
+
+    @Test
+    public void shouldSaveNewBooksOfAuthorInOneShardAndFindThemByAuthor() {
+        val books = shardedBookRepository.saveAll(List.of(
+                createBook("first", "author", 2000),
+                createBook("second", "author", 2001),
+                createBook("third", "other author", 2002)));
+
+        val foundBooks = shardedBookRepository.findBooksByAuthor("author");
+
+        assertThat(foundBooks).containsExactlyInAnyOrder(books.get(0), books.get(1));
+        assertThat(foundBooks).extracting(book -> ShardedBookRepository.getShard(book.getId()))
+                .containsOnly(shardedBookRepository.getShard("author"));
+    }
+
+    @Test
+    public void shouldGatherBooksByPrintYearNameAndReadFromAllShards() {
+        val books = new ArrayList<Book>();
+
+        for (int i = 0; i < 30; i++) {
+            books.add(createBook("name", "author" + i, 2000 + i % 2));
+        }
+
+        shardedBookRepository.saveAll(books);
+
+        val usedShards = books.stream()
+                .map(book -> shardedBookRepository.getShard(book.getAuthor()))
+                .distinct()
+                .count();
+
+        assertThat(usedShards).isEqualTo(SHARDS);
+        assertThat(shardedBookRepository.findBooksByPrintYear(2000)).hasSize(15)
+                .allSatisfy(book -> assertThat(book.getPrintYear()).isEqualTo(2000));
+        assertThat(shardedBookRepository.findBooksByName("name")).hasSize(30);
+        assertThat(shardedBookRepository.findBooksByRead(true)).isEmpty();
+        assertThat(shardedBookRepository.count()).isEqualTo(30L);
+    }
+
+    @Test
+    public void shouldSaveAllBooksAndReturnThemInOrderOfGivenList() {
+        val books = new ArrayList<Book>();
+
+        for (int i = 0; i < 20; i++) {
+            books.add(createBook("name" + i, "author" + i, 2000));
+        }
+
+        val savedBooks = shardedBookRepository.saveAll(books);
+
+        assertThat(savedBooks).extracting(Book::getName)
+                .containsExactlyElementsOf(books.stream().map(Book::getName).collect(Collectors.toList()));
+        assertThat(savedBooks).extracting(Book::getId).doesNotContainNull().doesNotHaveDuplicates();
+
+        for (int i = 0; i < savedBooks.size(); i++) {
+            assertThat(ShardedBookRepository.getShard(savedBooks.get(i).getId()))
+                    .isEqualTo(shardedBookRepository.getShard(books.get(i).getAuthor()));
+        }
+    }
+
+    @Test
+    public void shouldUpdateBookInShardOfIdWhenAuthorIsChanged() {
+        val savedBook = shardedBookRepository.save(createBook("name", "author", 2000));
+        val shard = ShardedBookRepository.getShard(savedBook.getId());
+
+        savedBook.setAuthor("author of other shard " + findAuthorOfOtherShard(shard));
+        savedBook.setRead(true);
+
+        val updatedBook = shardedBookRepository.save(savedBook);
+
+        assertThat(updatedBook.getId()).isEqualTo(savedBook.getId());
+        assertThat(shardedBookRepository.findById(savedBook.getId())).contains(savedBook);
+        assertThat(shardedBookRepository.count()).isEqualTo(1L);
+        assertThat(countInShard(shard)).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldFindAndUpdateBookByNewAuthorWhenAuthorIsChangedToAuthorOfOtherShard() {
+        val savedBook = shardedBookRepository.save(createBook("name", "author", 2000));
+        val newAuthor = "author of other shard " + findAuthorOfOtherShard(ShardedBookRepository.getShard(
+                savedBook.getId()));
+
+        savedBook.setAuthor(newAuthor);
+
+        val updatedBook = shardedBookRepository.save(savedBook);
+
+        assertThat(shardedBookRepository.findBooksByAuthor(newAuthor)).containsExactly(updatedBook);
+        assertThat(shardedBookRepository.findBooksByAuthor("author")).isEmpty();
+        assertThat(shardedBookRepository.findBooksByAuthorAfter(newAuthor, BookSortColumn.NAME, null, 10))
+                .containsExactly(updatedBook);
+        assertThat(shardedBookRepository.processBooksByAuthor(newAuthor, book -> {
+        })).isEqualTo(1L);
+        assertThat(shardedBookRepository.updateReadByAuthor(newAuthor, true)).isEqualTo(1);
+        assertThat(shardedBookRepository.findById(updatedBook.getId()))
+                .hasValueSatisfying(book -> assertThat(book.isRead()).isTrue());
+    }
+
+    @Test
+    public void shouldDeleteBookById() {
+        val savedBook = shardedBookRepository.save(createBook("name", "author", 2000));
+
+        assertThat(shardedBookRepository.deleteById(savedBook.getId())).isTrue();
+        assertThat(shardedBookRepository.deleteById(savedBook.getId())).isFalse();
+        assertThat(shardedBookRepository.findById(savedBook.getId())).isEmpty();
+    }
+
+    @Test
+    public void shouldReturnEmptyOptionalWhenIdBelongsToUnknownShard() {
+        assertThat(shardedBookRepository.findById(ShardedBookRepository.encodeId(1L, SHARDS))).isEmpty();
+        assertThat(shardedBookRepository.deleteById(ShardedBookRepository.encodeId(1L, SHARDS))).isFalse();
+    }
+
+    @Test
+    public void shouldEncodeAndDecodeShardOfId() {
+        val id = ShardedBookRepository.encodeId(12345L, 7);
+
+        assertThat(ShardedBookRepository.getShard(id)).isEqualTo(7);
+        assertThat(ShardedBookRepository.getLocalId(id)).isEqualTo(12345L);
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ShardedBookRepository.encodeId(1L, ShardedBookRepository.MAX_SHARDS))
+                .withMessage("Shard: 256 should be between 0 and 255");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ShardedBookRepository.encodeId(Long.MAX_VALUE, 0))
+                .withMessage("Id: " + Long.MAX_VALUE + " can not be encoded with the shard");
+    }
+
+    @Test
+    public void shouldFindBooksAndExistingIdsByIdsInShardsOfIds() {
+        val books = shardedBookRepository.saveAll(createBooks(30));
+        val ids = List.of(books.get(0).getId(), books.get(7).getId(), books.get(29).getId(),
+                ShardedBookRepository.encodeId(1000L, 0), ShardedBookRepository.encodeId(1L, SHARDS));
+
+        assertThat(shardedBookRepository.findAllById(ids))
+                .containsExactlyInAnyOrder(books.get(0), books.get(7), books.get(29));
+        assertThat(shardedBookRepository.findExistingIds(ids))
+                .containsExactlyInAnyOrder(books.get(0).getId(), books.get(7).getId(), books.get(29).getId());
+        assertThat(shardedBookRepository.findAllById(List.of())).isEmpty();
+    }
+
+    @Test
+    public void shouldReadAllPagesOfAllShardsInOrderOfSortColumnAndId() {
+        val books = shardedBookRepository.saveAll(createBooks(30));
+
+        for (val sortColumn : BookSortColumn.values()) {
+            val comparator = Comparator.comparing((Book book) -> book.getPrintYear())
+                    .thenComparing(Book::getId);
+            val pages = new ArrayList<Book>();
+
+            BookKeyset after = null;
+            List<Book> page;
+
+            do {
+                page = shardedBookRepository.findAllAfter(sortColumn, after, 7);
+                pages.addAll(page);
+                after = page.isEmpty() ? null : BookKeyset.of(sortColumn, page.get(page.size() - 1));
+            } while (page.size() == 7);
+
+            assertThat(pages).containsExactlyInAnyOrderElementsOf(books);
+
+            if (sortColumn == BookSortColumn.PRINT_YEAR) {
+                assertThat(pages).isSortedAccordingTo(comparator);
+            }
+
+            if (sortColumn == BookSortColumn.ID) {
+                assertThat(pages).extracting(Book::getId).isSorted();
+            }
+        }
+    }
+
+    @Test
+    public void shouldReadPagesByAuthorAndByReadFromAllShards() {
+        val books = shardedBookRepository.saveAll(createBooks(30));
+
+        val firstPage = shardedBookRepository.findBooksByAuthorAfter("author1", BookSortColumn.ID, null, 10);
+        val readPage = shardedBookRepository.findBooksByReadAfter(false, BookSortColumn.NAME, null, 10);
+        val nextReadPage = shardedBookRepository.findBooksByReadAfter(false, BookSortColumn.NAME,
+                BookKeyset.of(BookSortColumn.NAME, readPage.get(9)), 30);
+
+        assertThat(firstPage).containsExactly(books.get(1));
+        assertThat(readPage).hasSize(10);
+        assertThat(readPage).extracting(Book::getName).isSorted();
+        assertThat(nextReadPage).hasSize(20).doesNotContainAnyElementsOf(readPage);
+        assertThat(shardedBookRepository.findBooksByPrintYearAfter(2001, BookSortColumn.ID, null, 30))
+                .hasSize(15);
+        assertThat(shardedBookRepository.findBooksByNameAfter("name3", BookSortColumn.ID, null, 30))
+                .containsExactly(books.get(3));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenKeysetWasCreatedForOtherSortColumn() {
+        val keyset = new BookKeyset(BookSortColumn.NAME, "name", 1L);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> shardedBookRepository.findAllAfter(BookSortColumn.ID, keyset, 10))
+                .withMessageStartingWith("Keyset: ")
+                .withMessageEndingWith("was created for other sort column than: ID");
+    }
+
+    @Test
+    public void shouldProcessBooksOfAllShardsOneByOne() {
+        val books = shardedBookRepository.saveAll(createBooks(30));
+        val processedBooks = new ArrayList<Book>();
+
+        assertThat(shardedBookRepository.processAll(processedBooks::add)).isEqualTo(30L);
+        assertThat(processedBooks).containsExactlyInAnyOrderElementsOf(books);
+        assertThat(shardedBookRepository.processBooksByPrintYear(2000, book -> {
+        })).isEqualTo(15L);
+        assertThat(shardedBookRepository.processBooksByName("name5", book -> {
+        })).isEqualTo(1L);
+        assertThat(shardedBookRepository.processBooksByRead(true, book -> {
+        })).isEqualTo(0L);
+        assertThat(shardedBookRepository.processBooksByAuthor("author5", book -> {
+        })).isEqualTo(1L);
+    }
+
+    @Test
+    public void shouldUpdateAndDeleteBooksByIdsInShardsOfIds() {
+        val books = shardedBookRepository.saveAll(createBooks(30));
+        val ids = books.stream().limit(20).map(Book::getId).collect(Collectors.toList());
+
+        assertThat(shardedBookRepository.updateReadByIds(ids, true)).isEqualTo(20);
+        assertThat(shardedBookRepository.updatePrintYearByIds(ids.subList(0, 5), 1999)).isEqualTo(5);
+        assertThat(shardedBookRepository.updateReadByAuthor("author25", true)).isEqualTo(1);
+        assertThat(shardedBookRepository.findBooksByRead(true)).hasSize(21);
+        assertThat(shardedBookRepository.findBooksByPrintYear(1999)).hasSize(5);
+        assertThat(shardedBookRepository.deleteAllById(ids)).isEqualTo(20);
+        assertThat(shardedBookRepository.count()).isEqualTo(10L);
+        assertThat(shardedBookRepository.deleteAll()).isEqualTo(10);
+        assertThat(shardedBookRepository.count()).isZero();
+    }
+
+    @Test
+    public void shouldMergeGroupCountsOfAllShards() {
+        val books = createBooks(30);
+
+        books.forEach(book -> book.setAuthor("author" + book.getPrintYear()));
+        books.get(0).setRead(true);
+
+        shardedBookRepository.saveAll(books);
+
+        val authorCounts = shardedBookRepository.countBooksGroupedByAuthor();
+        val histogram = shardedBookRepository.countBooksGroupedByPrintYear(10);
+        val readCounts = shardedBookRepository.countBooksGroupedByRead();
+
+        assertThat(authorCounts.size()).isEqualTo(2);
+        assertThat(authorCounts.getAuthor(0)).isEqualTo("author2000");
+        assertThat(authorCounts.getCount(0)).isEqualTo(15L);
+        assertThat(authorCounts.getCount(1)).isEqualTo(15L);
+        assertThat(histogram.size()).isEqualTo(1);
+        assertThat(histogram.getBucketStart(0)).isEqualTo(2000);
+        assertThat(histogram.getCount(0)).isEqualTo(30L);
+        assertThat(shardedBookRepository.countBooksGroupedByPrintYear(1).size()).isEqualTo(2);
+        assertThat(readCounts.getRead()).isEqualTo(1L);
+        assertThat(readCounts.getUnread()).isEqualTo(29L);
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenSaveNewBookWithoutAuthor() {
+        val book = createBook("name", null, 2000);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> shardedBookRepository.save(book))
+                .withMessage("Author is the shard key of the new book and should not be null");
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCreateRepositoryWithoutShards() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new ShardedBookRepository(List.of(), 160))
+                .withMessage("Shards: 0 should be between 1 and 256");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateRepositoryWithNullEntityManagerFactories() {
+        val exceptionMessage = "entityManagerFactories is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new ShardedBookRepository(null, 160))
+                .withMessage(exceptionMessage);
+    }
+
+    private long countInShard(int shard) {
+        final EntityManagerFactory entityManagerFactory = entityManagerFactories.get(shard).getObject();
+        val entityManager = entityManagerFactory.createEntityManager();
+
+        try {
+            return entityManager.createQuery("SELECT COUNT(b) FROM Book b", Long.class).getSingleResult();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private int findAuthorOfOtherShard(int shard) {
+        var i = 0;
+
+        while (shardedBookRepository.getShard("author of other shard " + i) == shard) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static List<Book> createBooks(int size) {
+        val books = new ArrayList<Book>(size);
+
+        for (int i = 0; i < size; i++) {
+            books.add(createBook("name" + i, "author" + i, 2000 + i % 2));
+        }
+
+        return books;
+    }
+
+    private static Book createBook(String name, String author, int printYear) {
+        val book = new Book();
+
+        book.setName(name);
+        book.setAuthor(author);
+        book.setPrintYear(printYear);
+
+        return book;
+    }
+
+    private static LocalContainerEntityManagerFactoryBean createEntityManagerFactory(String shard) {
+        val entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        val jpaProperties = new Properties();
+
+        jpaProperties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        jpaProperties.put("hibernate.hbm2ddl.auto", "create-drop");
+        jpaProperties.put("hibernate.cache.use_second_level_cache", "false");
+
+        entityManagerFactory.setDataSource(new DriverManagerDataSource("jdbc:h2:mem:" + shard + ";DB_CLOSE_DELAY=-1",
+                "root", ""));
+        entityManagerFactory.setPersistenceUnitName(shard);
+        entityManagerFactory.setPersistenceProviderClass(HibernatePersistenceProvider.class);
+        entityManagerFactory.setPackagesToScan("com.qthegamep.bookmanager3.entity");
+        entityManagerFactory.setJpaProperties(jpaProperties);
+        entityManagerFactory.afterPropertiesSet();
+
+        return entityManagerFactory;
+    }
+}
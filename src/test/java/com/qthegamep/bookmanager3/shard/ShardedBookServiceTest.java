@@ -0,0 +1,217 @@
+package com.qthegamep.bookmanager3.shard;
+
+import com.qthegamep.bookmanager3.entity.Book;
+import com.qthegamep.bookmanager3.exception.EntityAlreadyExistsException;
+import com.qthegamep.bookmanager3.pagination.BookSortColumn;
+import com.qthegamep.bookmanager3.search.BookSearchIndex;
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ShardedBookServiceTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    private static final int SHARDS = 3;
+
+    private List<LocalContainerEntityManagerFactoryBean> entityManagerFactories;
+    private ShardedBookRepository shardedBookRepository;
+    private BookSearchIndex searchIndex;
+    private ShardedBookService shardedBookService;
+
+    @Before
+    public void setUp() {
+        entityManagerFactories = new ArrayList<>(SHARDS);
+
+        for (int i = 0; i < SHARDS; i++) {
+            entityManagerFactories.add(createEntityManagerFactory("serviceShard" + i));
+        }
+
+        shardedBookRepository = new ShardedBookRepository(entityManagerFactories.stream()
+                .map(LocalContainerEntityManagerFactoryBean::getObject)
+                .collect(Collectors.toList()), 160);
+        searchIndex = new BookSearchIndex();
+        shardedBookService = new ShardedBookService(shardedBookRepository, searchIndex);
+    }
+
+    @After
+    public void tearDown() {
+        shardedBookRepository.close();
+
+        for (val entityManagerFactory : entityManagerFactories) {
+            entityManagerFactory.destroy();
+        }
+    }
+
+    @Test
+    public void shouldAddBookToShardOfAuthorAndGetItById() {
+        val addedBook = shardedBookService.add(createBook("name", "author", 2000));
+
+        assertThat(ShardedBookRepository.getShard(addedBook.getId()))
+                .isEqualTo(shardedBookRepository.getShard("author"));
+        assertThat(shardedBookService.getById(addedBook.getId())).isEqualTo(addedBook);
+        assertThat(shardedBookService.getByAuthor("author")).containsExactly(addedBook);
+        assertThat(shardedBookService.search("name", 10)).containsExactly(addedBook);
+    }
+
+    @Test
+    public void shouldGetAndMarkReadUpdatedBookByNewAuthor() {
+        val addedBook = shardedBookService.add(createBook("name", "author", 2000));
+        val shard = ShardedBookRepository.getShard(addedBook.getId());
+
+        var newAuthor = "new author";
+
+        for (int i = 0; shardedBookRepository.getShard(newAuthor) == shard; i++) {
+            newAuthor = "new author " + i;
+        }
+
+        addedBook.setAuthor(newAuthor);
+
+        val updatedBook = shardedBookService.update(addedBook);
+
+        assertThat(shardedBookService.getByAuthor(newAuthor)).containsExactly(updatedBook);
+        assertThat(shardedBookService.getByAuthor(newAuthor, BookSortColumn.ID, null, 10).getContent())
+                .containsExactly(updatedBook);
+        assertThat(shardedBookService.markReadByAuthor(newAuthor)).isEqualTo(1);
+        assertThat(shardedBookService.search(newAuthor, 10)).extracting(Book::getId)
+                .containsExactly(updatedBook.getId());
+    }
+
+    @Test
+    public void shouldThrowEntityAlreadyExistsExceptionWhenAddExistingBooks() {
+        val addedBook = shardedBookService.add(createBook("name", "author", 2000));
+
+        assertThatExceptionOfType(EntityAlreadyExistsException.class)
+                .isThrownBy(() -> shardedBookService.add(addedBook));
+        assertThatExceptionOfType(EntityAlreadyExistsException.class)
+                .isThrownBy(() -> shardedBookService.addAll(List.of(createBook("other", "other", 2001), addedBook)))
+                .satisfies(e -> assertThat(e.getIds()).containsExactly(addedBook.getId()));
+        assertThat(shardedBookService.getAll()).containsExactly(addedBook);
+    }
+
+    @Test
+    public void shouldThrowEntityNotFoundExceptionWhenGetByIdOfMissingBook() {
+        val id = ShardedBookRepository.encodeId(1L, 0);
+
+        assertThatExceptionOfType(EntityNotFoundException.class)
+                .isThrownBy(() -> shardedBookService.getById(id))
+                .withMessage("Unable to find com.qthegamep.bookmanager3.entity.Book with id " + id);
+    }
+
+    @Test
+    public void shouldReturnPagesOfAllShardsByContinuationTokens() {
+        val books = shardedBookService.addAll(createBooks(25));
+        val pages = new ArrayList<Book>();
+
+        var page = shardedBookService.getAll(BookSortColumn.NAME, null, 10);
+
+        pages.addAll(page.getContent());
+
+        while (page.hasNext()) {
+            page = shardedBookService.getAll(BookSortColumn.NAME, page.getNextToken(), 10);
+            pages.addAll(page.getContent());
+        }
+
+        assertThat(pages).containsExactlyInAnyOrderElementsOf(books);
+        assertThat(pages).extracting(Book::getName).isSorted();
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> shardedBookService.getAll(BookSortColumn.NAME, null, 0))
+                .withMessage("Page size: 0 is incorrect. It should be between 1 and 1000");
+    }
+
+    @Test
+    public void shouldUpdateCountProcessAndRemoveBooksOfAllShards() {
+        val books = shardedBookService.addAll(createBooks(20));
+        val ids = books.stream().map(Book::getId).collect(Collectors.toList());
+
+        assertThat(shardedBookService.setReadByIds(ids.subList(0, 5), true)).isEqualTo(5);
+        assertThat(shardedBookService.updatePrintYearByIds(ids.subList(0, 2), 1990)).isEqualTo(2);
+        assertThat(shardedBookService.countByRead().getRead()).isEqualTo(5L);
+        assertThat(shardedBookService.countByAuthor().getTotal()).isEqualTo(20L);
+        assertThat(shardedBookService.countByPrintYear(100).getTotal()).isEqualTo(20L);
+        assertThat(shardedBookService.processByRead(true, book -> {
+        })).isEqualTo(5L);
+
+        shardedBookService.removeAll(books.subList(0, 10));
+
+        assertThat(shardedBookService.getAll()).containsExactlyInAnyOrderElementsOf(books.subList(10, 20));
+        assertThat(shardedBookService.search("name3", 10)).isEmpty();
+
+        shardedBookService.removeAll();
+
+        assertThat(shardedBookService.getAll()).isEmpty();
+        assertThat(searchIndex.size()).isZero();
+    }
+
+    @Test
+    public void shouldRebuildSearchIndexFromAllShards() {
+        val books = shardedBookRepository.saveAll(createBooks(20));
+
+        assertThat(shardedBookService.search("name3", 10)).isEmpty();
+        assertThat(shardedBookService.rebuildSearchIndex()).isEqualTo(20L);
+        assertThat(searchIndex.size()).isEqualTo(20);
+        assertThat(shardedBookService.search("name3", 10)).containsExactly(books.get(3));
+    }
+
+    private static List<Book> createBooks(int size) {
+        val books = new ArrayList<Book>(size);
+
+        for (int i = 0; i < size; i++) {
+            books.add(createBook("name" + i, "author" + i, 2000 + i % 2));
+        }
+
+        return books;
+    }
+
+    private static Book createBook(String name, String author, int printYear) {
+        val book = new Book();
+
+        book.setName(name);
+        book.setAuthor(author);
+        book.setPrintYear(printYear);
+
+        return book;
+    }
+
+    private static LocalContainerEntityManagerFactoryBean createEntityManagerFactory(String shard) {
+        val entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        val jpaProperties = new Properties();
+
+        jpaProperties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        jpaProperties.put("hibernate.hbm2ddl.auto", "create-drop");
+        jpaProperties.put("hibernate.cache.use_second_level_cache", "false");
+
+        entityManagerFactory.setDataSource(new DriverManagerDataSource("jdbc:h2:mem:" + shard + ";DB_CLOSE_DELAY=-1",
+                "root", ""));
+        entityManagerFactory.setPersistenceUnitName(shard);
+        entityManagerFactory.setPersistenceProviderClass(HibernatePersistenceProvider.class);
+        entityManagerFactory.setPackagesToScan("com.qthegamep.bookmanager3.entity");
+        entityManagerFactory.setJpaProperties(jpaProperties);
+        entityManagerFactory.afterPropertiesSet();
+
+        return entityManagerFactory;
+    }
+}
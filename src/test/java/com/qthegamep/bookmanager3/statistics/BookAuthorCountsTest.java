@@ -0,0 +1,50 @@
+package com.qthegamep.bookmanager3.statistics;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BookAuthorCountsTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    @Test
+    public void shouldCreateCountsCorrectly() {
+        val authorCounts = new BookAuthorCounts(new String[]{"first", "second"}, new long[]{3L, 4L});
+
+        assertThat(authorCounts.size()).isEqualTo(2);
+        assertThat(authorCounts.getAuthor(1)).isEqualTo("second");
+        assertThat(authorCounts.getCount(1)).isEqualTo(4L);
+        assertThat(authorCounts.getTotal()).isEqualTo(7L);
+        assertThat(authorCounts).isEqualTo(new BookAuthorCounts(new String[]{"first", "second"},
+                new long[]{3L, 4L}));
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCreateCountsWithArraysOfDifferentLength() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BookAuthorCounts(new String[]{"first"}, new long[0]))
+                .withMessage("Authors: 1 and counts: 0 should have the same length");
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateCountsWithNullAuthors() {
+        val exceptionMessage = "authors is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new BookAuthorCounts(null, new long[0]))
+                .withMessage(exceptionMessage);
+    }
+}
@@ -0,0 +1,37 @@
+package com.qthegamep.bookmanager3.statistics;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BookReadCountsTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    @Test
+    public void shouldCreateCountsCorrectly() {
+        val readCounts = new BookReadCounts(1L, 3L);
+
+        assertThat(readCounts.getRead()).isEqualTo(1L);
+        assertThat(readCounts.getUnread()).isEqualTo(3L);
+        assertThat(readCounts.getTotal()).isEqualTo(4L);
+        assertThat(readCounts.getReadRatio()).isEqualTo(0.25);
+    }
+
+    @Test
+    public void shouldReturnZeroRatioWhenThereAreNoBooks() {
+        assertThat(new BookReadCounts(0L, 0L).getReadRatio()).isZero();
+    }
+}
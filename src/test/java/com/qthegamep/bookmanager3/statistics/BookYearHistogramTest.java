@@ -0,0 +1,53 @@
+package com.qthegamep.bookmanager3.statistics;
+
+import com.qthegamep.bookmanager3.testhelper.rule.Rules;
+
+import lombok.val;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.junit.rules.ExternalResource;
+import org.junit.rules.Stopwatch;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BookYearHistogramTest {
+
+    @ClassRule
+    public static ExternalResource summaryRule = Rules.SUMMARY_RULE;
+
+    @Rule
+    public Stopwatch stopwatchRule = Rules.STOPWATCH_RULE;
+
+    @Test
+    public void shouldCreateHistogramCorrectly() {
+        val histogram = new BookYearHistogram(10, new int[]{1990, 2010}, new long[]{1L, 5L});
+
+        assertThat(histogram.getBucketSize()).isEqualTo(10);
+        assertThat(histogram.size()).isEqualTo(2);
+        assertThat(histogram.getBucketStart(1)).isEqualTo(2010);
+        assertThat(histogram.getBucketEnd(1)).isEqualTo(2020);
+        assertThat(histogram.getCount(1)).isEqualTo(5L);
+        assertThat(histogram.getTotal()).isEqualTo(6L);
+    }
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenCreateHistogramWithIncorrectBuckets() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BookYearHistogram(0, new int[0], new long[0]))
+                .withMessage("Bucket size: 0 should be positive and buckets: 0 and counts: 0 should have the same " +
+                        "length");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BookYearHistogram(1, new int[]{2000}, new long[0]));
+    }
+
+    @Test
+    public void shouldThrowNullPointerExceptionWhenCreateHistogramWithNullCounts() {
+        val exceptionMessage = "counts is marked @NonNull but is null";
+
+        assertThatNullPointerException()
+                .isThrownBy(() -> new BookYearHistogram(1, new int[0], null))
+                .withMessage(exceptionMessage);
+    }
+}
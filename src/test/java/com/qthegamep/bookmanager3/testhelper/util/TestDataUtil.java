@@ -61,4 +61,30 @@ public class TestDataUtil {
     public List<Book> createBooks() {
         return new ArrayList<>(Arrays.asList(createFirstBook(), createSecondBook()));
     }
+
+    /**
+     * This method create new list of five {@link com.qthegamep.bookmanager3.entity.Book} entities without ids.
+     * Entities are named from "test book 5" to "test book 1" and all of them except one have the same author,
+     * so they can be used to check sorting and pagination.
+     *
+     * @return new list of five entities.
+     */
+    @NotNull
+    @Contract(" -> new")
+    public List<Book> createPagedBooks() {
+        val books = new ArrayList<Book>();
+
+        for (int i = 5; i > 0; i--) {
+            val book = new Book();
+
+            book.setName("test book " + i);
+            book.setAuthor(i == 4 ? "test other author" : "test author");
+            book.setPrintYear(i % 2 == 1 ? 2000 : 2010);
+            book.setRead(i % 2 == 0);
+
+            books.add(book);
+        }
+
+        return books;
+    }
 }
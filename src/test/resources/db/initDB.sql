@@ -1,10 +1,34 @@
+DROP TABLE IF EXISTS PUBLIC.BOOK_IMPORT_CHUNK;
+
 DROP TABLE IF EXISTS PUBLIC.BOOK;
 
+DROP SEQUENCE IF EXISTS PUBLIC.BOOK_ID_SEQUENCE;
+
+CREATE SEQUENCE PUBLIC.BOOK_ID_SEQUENCE START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE PUBLIC.BOOK (
-  ID         INTEGER      NOT NULL AUTO_INCREMENT,
+  ID         INTEGER      NOT NULL DEFAULT NEXT VALUE FOR PUBLIC.BOOK_ID_SEQUENCE,
   NAME       VARCHAR(255) NOT NULL,
   AUTHOR     VARCHAR(255) NOT NULL,
   PRINT_YEAR INTEGER(4)   NOT NULL,
   IS_READ    BOOLEAN      NOT NULL DEFAULT FALSE,
   CONSTRAINT BOOK_PRIMARY_KEY PRIMARY KEY (ID)
+);
+
+CREATE INDEX BOOK_NAME_INDEX ON PUBLIC.BOOK (NAME);
+
+CREATE INDEX BOOK_AUTHOR_INDEX ON PUBLIC.BOOK (AUTHOR);
+
+CREATE INDEX BOOK_PRINT_YEAR_INDEX ON PUBLIC.BOOK (PRINT_YEAR);
+
+CREATE INDEX BOOK_IS_READ_PRINT_YEAR_INDEX ON PUBLIC.BOOK (IS_READ, PRINT_YEAR);
+
+CREATE TABLE PUBLIC.BOOK_IMPORT_CHUNK (
+  IMPORT_ID         VARCHAR(255) NOT NULL,
+  CHUNK_NUMBER      BIGINT       NOT NULL,
+  FIRST_LINE_NUMBER BIGINT       NOT NULL,
+  LINE_COUNT        INTEGER      NOT NULL,
+  IMPORTED_ROWS     INTEGER      NOT NULL,
+  REJECTED_ROWS     INTEGER      NOT NULL,
+  CONSTRAINT BOOK_IMPORT_CHUNK_PRIMARY_KEY PRIMARY KEY (IMPORT_ID, CHUNK_NUMBER)
 )